@@ -0,0 +1,84 @@
+package com.revticket.gateway.filter;
+
+import com.revticket.gateway.util.TokenSigner;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Rejects forged, expired or borrowed waiting-room admission tokens at the
+ * edge, so a flood of bad tokens never reaches booking-service. Requests
+ * without a token pass through; booking-service decides whether the showtime
+ * needs one. Must run after {@link JwtAuthenticationFilter}, which sets the
+ * X-User-Id the token is checked against.
+ *
+ * <p>Tokens are issued by booking-service's {@code AdmissionControlService}:
+ * {@code AD1.} signed by {@link TokenSigner} over showtime id, user id and
+ * expiry in epoch seconds, with the shared {@code admission.secret}. A change
+ * to that format has to be made on both sides.
+ */
+@Component
+public class AdmissionTokenFilter extends AbstractGatewayFilterFactory<AdmissionTokenFilter.Config> {
+
+    static final String TOKEN_HEADER = "X-Admission-Token";
+    private static final String PREFIX = "AD1.";
+
+    private final TokenSigner signer;
+
+    public AdmissionTokenFilter(@Value("${admission.secret}") String admissionSecret) {
+        super(Config.class);
+        this.signer = new TokenSigner(admissionSecret);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            String token = exchange.getRequest().getHeaders().getFirst(TOKEN_HEADER);
+            if (token == null) {
+                return chain.filter(exchange);
+            }
+            String userId = exchange.getRequest().getHeaders().getFirst("X-User-Id");
+            if (!isValid(token, userId)) {
+                return rejectWithQueue(exchange.getResponse());
+            }
+            return chain.filter(exchange);
+        };
+    }
+
+    boolean isValid(String token, String userId) {
+        if (userId == null) {
+            return false;
+        }
+        // showtimeId|userId|expiresAtEpochSeconds
+        String[] fields = signer.verify(PREFIX, token, 3);
+        try {
+            return fields != null && fields[1].equals(userId)
+                    && Long.parseLong(fields[2]) > System.currentTimeMillis() / 1000;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    static Mono<Void> rejectWithQueue(ServerHttpResponse response) {
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+        byte[] body = ("{\"status\":\"QUEUE_REQUIRED\","
+                + "\"message\":\"Admission expired or invalid. Please join the queue again.\"}")
+                .getBytes(StandardCharsets.UTF_8);
+        DataBuffer buffer = response.bufferFactory().wrap(body);
+        return response.writeWith(Mono.just(buffer));
+    }
+
+    public static class Config {
+    }
+}
@@ -0,0 +1,110 @@
+package com.revticket.gateway.filter;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-caller token bucket for the waiting-room endpoints. During a spike
+ * thousands of queued clients poll their status; this keeps any one of them
+ * from polling faster than the configured rate, so booking-service only sees
+ * the polls it asked for with retryAfterSeconds. Callers are keyed by the
+ * X-User-Id set by {@link JwtAuthenticationFilter}, or by remote address.
+ */
+@Component
+public class WaitingRoomRateLimitFilter extends AbstractGatewayFilterFactory<WaitingRoomRateLimitFilter.Config> {
+
+    private static final int MAX_TRACKED_CALLERS = 100_000;
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    public WaitingRoomRateLimitFilter() {
+        super(Config.class);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            long now = System.currentTimeMillis();
+            if (buckets.size() > MAX_TRACKED_CALLERS) {
+                // Buckets idle long enough to be full again carry no state worth keeping
+                buckets.values().removeIf(bucket -> bucket.isFull(config, now));
+            }
+            Bucket bucket = buckets.computeIfAbsent(callerKey(exchange.getRequest()), key -> new Bucket(config, now));
+            if (!bucket.tryTake(config, now)) {
+                exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+                exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER,
+                        Long.toString(Math.max(1, (long) Math.ceil(1 / config.getRate()))));
+                return exchange.getResponse().setComplete();
+            }
+            return chain.filter(exchange);
+        };
+    }
+
+    private static String callerKey(ServerHttpRequest request) {
+        String userId = request.getHeaders().getFirst("X-User-Id");
+        if (userId != null) {
+            return userId;
+        }
+        InetSocketAddress address = request.getRemoteAddress();
+        return address != null ? address.getAddress().getHostAddress() : "unknown";
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long refilledAt;
+
+        Bucket(Config config, long now) {
+            this.tokens = config.getBurst();
+            this.refilledAt = now;
+        }
+
+        synchronized boolean tryTake(Config config, long now) {
+            refill(config, now);
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+
+        synchronized boolean isFull(Config config, long now) {
+            refill(config, now);
+            return tokens >= config.getBurst();
+        }
+
+        private void refill(Config config, long now) {
+            tokens = Math.min(config.getBurst(), tokens + config.getRate() * (now - refilledAt) / 1000.0);
+            refilledAt = now;
+        }
+    }
+
+    public static class Config {
+        // Requests per second per caller, and how many may arrive at once
+        private double rate = 1;
+        private int burst = 5;
+
+        public double getRate() {
+            return rate;
+        }
+
+        public void setRate(double rate) {
+            this.rate = rate;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.revticket.gateway.filter;
+
+import com.revticket.gateway.util.TokenSigner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AdmissionTokenFilterTest {
+
+    private static final String SECRET = "test-admission-secret";
+
+    private AdmissionTokenFilter admissionTokenFilter;
+
+    @Mock
+    private GatewayFilterChain filterChain;
+
+    @BeforeEach
+    void setUp() {
+        admissionTokenFilter = new AdmissionTokenFilter(SECRET);
+    }
+
+    private static String token(String showtimeId, String userId, long expiresAt) {
+        return new TokenSigner(SECRET).sign("AD1.", showtimeId, userId, Long.toString(expiresAt));
+    }
+
+    private MockServerWebExchange exchange(String token, String userId) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.post("/api/seats/hold")
+                .header("X-User-Id", userId);
+        if (token != null) {
+            request.header(AdmissionTokenFilter.TOKEN_HEADER, token);
+        }
+        return MockServerWebExchange.from(request);
+    }
+
+    @Test
+    void testValidTokenAndTokenlessRequestsPassThrough() {
+        when(filterChain.filter(any(ServerWebExchange.class))).thenReturn(Mono.empty());
+        GatewayFilter filter = admissionTokenFilter.apply(new AdmissionTokenFilter.Config());
+        long expiresAt = System.currentTimeMillis() / 1000 + 60;
+
+        StepVerifier.create(filter.filter(exchange(token("show1", "user1", expiresAt), "user1"), filterChain))
+                .verifyComplete();
+        StepVerifier.create(filter.filter(exchange(null, "user1"), filterChain))
+                .verifyComplete();
+
+        verify(filterChain, times(2)).filter(any(ServerWebExchange.class));
+    }
+
+    @Test
+    void testForgedExpiredOrBorrowedTokensAreRejected() {
+        GatewayFilter filter = admissionTokenFilter.apply(new AdmissionTokenFilter.Config());
+        long now = System.currentTimeMillis() / 1000;
+        String valid = token("show1", "user1", now + 60);
+
+        for (MockServerWebExchange exchange : new MockServerWebExchange[] {
+                exchange(valid.substring(0, valid.length() - 3) + "abc", "user1"),
+                exchange(token("show1", "user1", now - 1), "user1"),
+                exchange(valid, "user2") }) {
+            StepVerifier.create(filter.filter(exchange, filterChain)).verifyComplete();
+            assertEquals(HttpStatus.TOO_MANY_REQUESTS, exchange.getResponse().getStatusCode());
+        }
+        verify(filterChain, never()).filter(any(ServerWebExchange.class));
+    }
+}
@@ -0,0 +1,30 @@
+package com.revticket.gateway.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class TokenSignerCopyTest {
+
+    private static final Path GATEWAY_COPY = Path.of("src/main/java/com/revticket/gateway/util/TokenSigner.java");
+    private static final Path BOOKING_COPY =
+            Path.of("../booking-service/src/main/java/com/revticket/booking/util/TokenSigner.java");
+
+    @Test
+    void testMatchesBookingServiceCopy() throws IOException {
+        // Only the full checkout has both modules
+        assumeTrue(Files.exists(BOOKING_COPY));
+
+        assertEquals(withoutPackage(BOOKING_COPY), withoutPackage(GATEWAY_COPY),
+                "TokenSigner differs from booking-service's copy; change both together");
+    }
+
+    private static String withoutPackage(Path source) throws IOException {
+        return Files.readString(source).replaceFirst("package [\\w.]+;", "");
+    }
+}
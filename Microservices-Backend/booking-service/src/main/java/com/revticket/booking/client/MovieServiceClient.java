@@ -4,9 +4,16 @@ import com.revticket.booking.dto.MovieDTO;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+import java.util.List;
 
 @FeignClient(name = "movie-service", url = "http://localhost:8082", fallback = MovieServiceClientFallback.class)
 public interface MovieServiceClient {
     @GetMapping("/api/movies/{id}")
     MovieDTO getMovieById(@PathVariable("id") String id);
+
+    @PostMapping("/api/movies/batch")
+    List<MovieDTO> getMoviesByIds(@RequestBody List<String> ids);
 }
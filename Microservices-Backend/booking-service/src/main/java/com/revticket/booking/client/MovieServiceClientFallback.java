@@ -3,6 +3,8 @@ package com.revticket.booking.client;
 import com.revticket.booking.dto.MovieDTO;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Component
 public class MovieServiceClientFallback implements MovieServiceClient {
     @Override
@@ -13,4 +15,9 @@ public class MovieServiceClientFallback implements MovieServiceClient {
         fallback.setPosterUrl("");
         return fallback;
     }
+
+    @Override
+    public List<MovieDTO> getMoviesByIds(List<String> ids) {
+        return List.of();
+    }
 }
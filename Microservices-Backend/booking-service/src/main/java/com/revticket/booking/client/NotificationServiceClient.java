@@ -20,4 +20,7 @@ public interface NotificationServiceClient {
     
     @PostMapping("/api/notifications/admin/new-booking")
     void sendAdminNewBooking(@RequestBody Map<String, Object> request);
+
+    @PostMapping("/api/notifications/email/send")
+    void sendEmail(@RequestBody Map<String, Object> request);
 }
\ No newline at end of file
@@ -4,26 +4,35 @@ import org.springframework.stereotype.Component;
 
 import java.util.Map;
 
+/**
+ * Notifications are delivered through the booking outbox, which retries on
+ * failure, so the fallback reports the failure instead of swallowing it.
+ */
 @Component
 public class NotificationServiceClientFallback implements NotificationServiceClient {
     
     @Override
     public void sendBookingConfirmation(Map<String, Object> request) {
-        System.out.println("Notification service unavailable - booking confirmation not sent");
+        throw new RuntimeException("Notification service unavailable - booking confirmation not sent");
     }
     
     @Override
     public void sendCancellationRequest(Map<String, Object> request) {
-        System.out.println("Notification service unavailable - cancellation request notification not sent");
+        throw new RuntimeException("Notification service unavailable - cancellation request notification not sent");
     }
     
     @Override
     public void sendBookingCancelled(Map<String, Object> request) {
-        System.out.println("Notification service unavailable - booking cancellation notification not sent");
+        throw new RuntimeException("Notification service unavailable - booking cancellation notification not sent");
     }
     
     @Override
     public void sendAdminNewBooking(Map<String, Object> request) {
-        System.out.println("Notification service unavailable - admin new booking notification not sent");
+        throw new RuntimeException("Notification service unavailable - admin new booking notification not sent");
+    }
+
+    @Override
+    public void sendEmail(Map<String, Object> request) {
+        throw new RuntimeException("Notification service unavailable - email not sent");
     }
 }
\ No newline at end of file
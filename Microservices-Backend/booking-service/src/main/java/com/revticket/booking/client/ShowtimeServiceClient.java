@@ -4,9 +4,23 @@ import com.revticket.booking.dto.ShowtimeDTO;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+
+import java.util.List;
+import java.util.Map;
 
 @FeignClient(name = "showtime-service", url = "http://localhost:8084", fallback = ShowtimeServiceClientFallback.class)
 public interface ShowtimeServiceClient {
     @GetMapping("/api/showtimes/{id}")
     ShowtimeDTO getShowtimeById(@PathVariable("id") String id);
+
+    // Bookings carry their own movie and theater lookups, so skip the summaries
+    @PostMapping("/api/showtimes/batch?enrich=false")
+    List<ShowtimeDTO> getShowtimesByIds(@RequestBody List<String> ids);
+
+    @PostMapping("/api/internal/showtimes/availability")
+    void updateAvailability(@RequestBody List<Map<String, Object>> updates,
+            @RequestHeader("Authorization") String token);
 }
@@ -4,6 +4,8 @@ import com.revticket.booking.dto.ShowtimeDTO;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 
 @Component
 public class ShowtimeServiceClientFallback implements ShowtimeServiceClient {
@@ -18,4 +20,15 @@ public class ShowtimeServiceClientFallback implements ShowtimeServiceClient {
         fallback.setTicketPrice(0.0);
         return fallback;
     }
+
+    @Override
+    public List<ShowtimeDTO> getShowtimesByIds(List<String> ids) {
+        return List.of();
+    }
+
+    @Override
+    public void updateAvailability(List<Map<String, Object>> updates, String token) {
+        // Fail so the caller keeps the updates for its next attempt
+        throw new RuntimeException("Showtime service unavailable - availability not updated");
+    }
 }
@@ -1,20 +1,36 @@
 package com.revticket.booking.client;
 
+import com.revticket.booking.dto.ScreenLayout;
 import com.revticket.booking.dto.TheaterDTO;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 
+import java.util.List;
 import java.util.Map;
 
 @FeignClient(name = "theater-service", url = "http://localhost:8083", fallback = TheaterServiceClientFallback.class)
 public interface TheaterServiceClient {
     @GetMapping("/api/screens/{id}/config")
     Map<String, Object> getScreenConfig(@PathVariable String id);
+
+    @GetMapping("/api/screens/{id}/config")
+    ScreenLayout getScreenLayout(@PathVariable("id") String id);
+
+    @GetMapping("/api/screens/{id}/layout-version")
+    Map<String, Object> getLayoutVersion(@PathVariable("id") String id);
     
     @GetMapping("/api/screens/{id}")
     Map<String, Object> getScreenById(@PathVariable String id);
     
     @GetMapping("/api/theaters/{id}")
     TheaterDTO getTheaterById(@PathVariable("id") String id);
+
+    @PostMapping("/api/theaters/batch")
+    List<TheaterDTO> getTheatersByIds(@RequestBody List<String> ids);
+
+    @PostMapping("/api/screens/batch")
+    List<Map<String, Object>> getScreensByIds(@RequestBody List<String> ids);
 }
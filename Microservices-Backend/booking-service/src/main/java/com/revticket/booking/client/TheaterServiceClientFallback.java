@@ -1,9 +1,11 @@
 package com.revticket.booking.client;
 
+import com.revticket.booking.dto.ScreenLayout;
 import com.revticket.booking.dto.TheaterDTO;
 import org.springframework.stereotype.Component;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Component
@@ -12,6 +14,16 @@ public class TheaterServiceClientFallback implements TheaterServiceClient {
     public Map<String, Object> getScreenConfig(String id) {
         return new HashMap<>();
     }
+
+    @Override
+    public ScreenLayout getScreenLayout(String id) {
+        return null;
+    }
+
+    @Override
+    public Map<String, Object> getLayoutVersion(String id) {
+        return new HashMap<>();
+    }
     
     @Override
     public Map<String, Object> getScreenById(String id) {
@@ -30,4 +42,14 @@ public class TheaterServiceClientFallback implements TheaterServiceClient {
         fallback.setCity("");
         return fallback;
     }
+
+    @Override
+    public List<TheaterDTO> getTheatersByIds(List<String> ids) {
+        return List.of();
+    }
+
+    @Override
+    public List<Map<String, Object>> getScreensByIds(List<String> ids) {
+        return List.of();
+    }
 }
@@ -0,0 +1,52 @@
+package com.revticket.booking.controller;
+
+import com.revticket.booking.service.AdmissionControlService;
+import com.revticket.booking.service.ShardForwarder;
+import com.revticket.booking.util.SecurityUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Waiting room for hot showtimes. Callers turned away with 429 join here, poll
+ * the status with their ticket, and once admitted send the returned token as
+ * {@code X-Admission-Token} on seat holds and bookings.
+ */
+@RestController
+@RequestMapping("/api/admission")
+public class AdmissionController {
+
+    @Autowired
+    private AdmissionControlService admissionControlService;
+
+    @Autowired
+    private ShardForwarder shardForwarder;
+
+    @Autowired
+    private SecurityUtil securityUtil;
+
+    @PostMapping("/showtime/{showtimeId}/join")
+    public ResponseEntity<?> join(
+            @PathVariable("showtimeId") String showtimeId,
+            @RequestHeader(value = AdmissionControlService.USER_HEADER, required = false) String userId) {
+        return shardForwarder.route(showtimeId, null,
+                () -> ResponseEntity.ok(admissionControlService.join(showtimeId, caller(userId))));
+    }
+
+    @GetMapping("/showtime/{showtimeId}/status")
+    public ResponseEntity<?> status(
+            @PathVariable("showtimeId") String showtimeId,
+            @RequestParam("ticket") String ticket,
+            @RequestHeader(value = AdmissionControlService.USER_HEADER, required = false) String userId) {
+        return shardForwarder.route(showtimeId, null,
+                () -> ResponseEntity.ok(admissionControlService.status(showtimeId, caller(userId), ticket)));
+    }
+
+    private String caller(String userId) {
+        if (userId != null && !userId.isEmpty()) {
+            return userId;
+        }
+        String tokenUserId = securityUtil.getCurrentUserId();
+        return tokenUserId != null ? tokenUserId : "anonymous";
+    }
+}
@@ -1,16 +1,32 @@
 package com.revticket.booking.controller;
 
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
 import com.revticket.booking.dto.BookingRequest;
 import com.revticket.booking.dto.BookingResponse;
 import com.revticket.booking.dto.BookingStatsResponse;
+import com.revticket.booking.dto.BookingView;
 import com.revticket.booking.dto.CancellationRequest;
+import com.revticket.booking.dto.ScanResult;
+import com.revticket.booking.service.AdmissionControlService;
+import com.revticket.booking.service.BookingEnricher;
 import com.revticket.booking.service.BookingService;
+import com.revticket.booking.service.BookingSnapshotBackfillJob;
+import com.revticket.booking.service.BookingStatsService;
+import com.revticket.booking.service.BulkCancellationService;
+import com.revticket.booking.service.OutboxDispatcher;
+import com.revticket.booking.service.ShardForwarder;
+import com.revticket.booking.service.ShowtimeWriteExecutor;
+import com.revticket.booking.service.TicketScanService;
 import com.revticket.booking.util.SecurityUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -28,11 +44,41 @@ public class BookingController {
     @Autowired
     private BookingService bookingService;
 
+    @Autowired
+    private BookingEnricher bookingEnricher;
+
     @Autowired
     private SecurityUtil securityUtil;
 
+    @Autowired
+    private BookingSnapshotBackfillJob bookingSnapshotBackfillJob;
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private BookingStatsService bookingStatsService;
+
+    @Autowired
+    private TicketScanService ticketScanService;
+
+    @Autowired
+    private ShowtimeWriteExecutor showtimeWriteExecutor;
+
+    @Autowired
+    private ShardForwarder shardForwarder;
+
+    @Autowired
+    private AdmissionControlService admissionControlService;
+
+    @Autowired
+    private BulkCancellationService bulkCancellationService;
+
     @PostMapping
-    public ResponseEntity<BookingResponse> createBooking(@RequestBody BookingRequest request) {
+    public ResponseEntity<?> createBooking(
+            @RequestBody BookingRequest request,
+            @RequestHeader(value = AdmissionControlService.USER_HEADER, required = false) String gatewayUserId,
+            @RequestHeader(value = AdmissionControlService.TOKEN_HEADER, required = false) String admissionToken) {
         // Try to get userId from JWT token (for API Gateway calls)
         String userId = securityUtil.getCurrentUserId();
 
@@ -46,27 +92,69 @@ public class BookingController {
             userId = "default-user";
         }
 
-        return ResponseEntity.ok(bookingService.createBooking(userId, request));
+        String bookingUserId = userId;
+        return shardForwarder.route(request.getShowtimeId(), request,
+                () -> admissionControlService.run(request.getShowtimeId(), gatewayUserId, admissionToken, () -> {
+                    // Resolved on this thread; the showtime's writer only touches seats and the database
+                    BookingEnricher.Enrichment snapshot = bookingEnricher.forShowtime(request.getShowtimeId());
+                    return ResponseEntity.ok(showtimeWriteExecutor.execute(request.getShowtimeId(),
+                            () -> bookingService.createBooking(bookingUserId, request, snapshot)));
+                }));
     }
 
     @GetMapping("/my-bookings")
-    public ResponseEntity<List<BookingResponse>> getMyBookings() {
-        String userId = securityUtil.getCurrentUserId();
-        return ResponseEntity.ok(bookingService.getUserBookings(userId));
+    public ResponseEntity<?> getMyBookings(
+            @RequestParam(value = "enrich", defaultValue = "false") boolean enrich,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "view", required = false) String view,
+            @RequestParam(value = "fields", required = false) String fields) {
+        return userBookings(securityUtil.getCurrentUserId(), enrich, cursor, limit, BookingView.parse(view, fields));
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<BookingResponse>> getUserBookings(@PathVariable String userId) {
-        return ResponseEntity.ok(bookingService.getUserBookings(userId));
+    public ResponseEntity<?> getUserBookings(@PathVariable String userId,
+            @RequestParam(value = "enrich", defaultValue = "false") boolean enrich,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "view", required = false) String view,
+            @RequestParam(value = "fields", required = false) String fields) {
+        return userBookings(userId, enrich, cursor, limit, BookingView.parse(view, fields));
+    }
+
+    private ResponseEntity<?> userBookings(String userId, boolean enrich, String cursor, Integer limit,
+            BookingView view) {
+        if (cursor != null || limit != null) {
+            return selected(bookingService.getUserBookingsPage(userId, cursor, limit, enrich, view), view);
+        }
+        return selected(bookingService.getUserBookings(userId, enrich, view), view);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<BookingResponse> getBookingById(@PathVariable("id") String id) {
-        return bookingService.getBookingById(id)
-                .map(ResponseEntity::ok)
+    public ResponseEntity<?> getBookingById(@PathVariable("id") String id,
+            @RequestParam(value = "enrich", defaultValue = "false") boolean enrich,
+            @RequestParam(value = "view", required = false) String view,
+            @RequestParam(value = "fields", required = false) String fields) {
+        BookingView bookingView = BookingView.parse(view, fields);
+        return bookingService.getBookingById(id, enrich, bookingView)
+                .<ResponseEntity<?>>map(booking -> selected(booking, bookingView))
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Writes only the selected BookingResponse fields of {@code body}; the full
+     * view is written as is.
+     */
+    private static ResponseEntity<?> selected(Object body, BookingView view) {
+        if (view.isFull()) {
+            return ResponseEntity.ok(body);
+        }
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        value.setFilters(new SimpleFilterProvider().addFilter(BookingResponse.FIELD_FILTER,
+                SimpleBeanPropertyFilter.filterOutAllExcept(view.getFields())));
+        return ResponseEntity.ok(value);
+    }
+
     @PostMapping("/{id}/request-cancellation")
     public ResponseEntity<BookingResponse> requestCancellation(
             @PathVariable("id") String id,
@@ -76,26 +164,48 @@ public class BookingController {
     }
 
     @PostMapping("/{id}/cancel")
-    public ResponseEntity<BookingResponse> cancelBooking(
+    public ResponseEntity<?> cancelBooking(
             @PathVariable("id") String id,
             @RequestBody(required = false) String reason) {
-        return ResponseEntity.ok(bookingService.cancelBooking(id, reason));
+        return shardForwarder.route(() -> bookingService.getShowtimeId(id), reason,
+                () -> ResponseEntity.ok(showtimeWriteExecutor.execute(() -> bookingService.getShowtimeId(id),
+                        () -> bookingService.cancelBooking(id, reason))));
     }
 
     @GetMapping("/cancellation-requests")
-    public ResponseEntity<List<BookingResponse>> getCancellationRequests() {
-        return ResponseEntity.ok(bookingService.getCancellationRequests());
+    public ResponseEntity<?> getCancellationRequests(
+            @RequestParam(value = "enrich", defaultValue = "false") boolean enrich,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        if (cursor != null || limit != null) {
+            return ResponseEntity.ok(bookingService.getCancellationRequestsPage(cursor, limit, enrich));
+        }
+        return ResponseEntity.ok(bookingService.getCancellationRequests(enrich));
     }
 
     @GetMapping("/all")
-    public ResponseEntity<List<BookingResponse>> getAllBookings() {
-        return ResponseEntity.ok(bookingService.getAllBookings());
+    public ResponseEntity<?> getAllBookings(
+            @RequestParam(value = "enrich", defaultValue = "false") boolean enrich,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "view", required = false) String view,
+            @RequestParam(value = "fields", required = false) String fields) {
+        BookingView bookingView = BookingView.parse(view, fields);
+        if (cursor != null || limit != null) {
+            return selected(bookingService.getAllBookingsPage(cursor, limit, enrich, bookingView), bookingView);
+        }
+        return selected(bookingService.getAllBookings(enrich, bookingView), bookingView);
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteBooking(@PathVariable("id") String id) {
-        bookingService.deleteBooking(id);
-        return ResponseEntity.noContent().build();
+    public ResponseEntity<?> deleteBooking(@PathVariable("id") String id) {
+        return shardForwarder.route(() -> bookingService.getShowtimeId(id), null, () -> {
+            showtimeWriteExecutor.execute(() -> bookingService.getShowtimeId(id), () -> {
+                bookingService.deleteBooking(id);
+                return null;
+            });
+            return ResponseEntity.noContent().build();
+        });
     }
 
     @PostMapping("/{id}/scan")
@@ -103,16 +213,49 @@ public class BookingController {
         return ResponseEntity.ok(bookingService.scanBooking(id));
     }
 
+    /**
+     * Gate scan of a ticket's QR payload: {"code": "...", "gateId": "...", "deviceId": "..."}.
+     */
+    @PostMapping("/scan")
+    public ResponseEntity<ScanResult> scanTicket(@RequestBody Map<String, String> request) {
+        return ResponseEntity.ok(ticketScanService.scan(request.get("code"), request.get("gateId"),
+                request.get("deviceId")));
+    }
+
+    /**
+     * Bulk upload of scans a gate device made offline:
+     * {"deviceId": "...", "scans": [{"code": "...", "gateId": "...", "scannedAt": "2024-01-01T18:30:00"}]}.
+     */
+    @PostMapping("/scan-sync")
+    @SuppressWarnings("unchecked")
+    public ResponseEntity<?> syncScans(@RequestBody Map<String, Object> request) {
+        List<Map<String, Object>> items = (List<Map<String, Object>>) request.getOrDefault("scans", List.of());
+        List<TicketScanService.OfflineScan> scans = new ArrayList<>(items.size());
+        try {
+            for (Map<String, Object> item : items) {
+                Object scannedAt = item.get("scannedAt");
+                scans.add(new TicketScanService.OfflineScan((String) item.get("code"), (String) item.get("gateId"),
+                        scannedAt != null ? LocalDateTime.parse(scannedAt.toString()) : null));
+            }
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid scan entry: " + e.getMessage()));
+        }
+        List<ScanResult> results = ticketScanService.sync((String) request.get("deviceId"), scans);
+        return ResponseEntity.ok(Map.of("results", results));
+    }
+
     @PostMapping("/{id}/resign")
-    public ResponseEntity<BookingResponse> resignBooking(
+    public ResponseEntity<?> resignBooking(
             @PathVariable("id") String id,
             @RequestBody List<String> newSeats) {
-        return ResponseEntity.ok(bookingService.resignBooking(id, newSeats));
+        return shardForwarder.route(() -> bookingService.getShowtimeId(id), newSeats,
+                () -> ResponseEntity.ok(showtimeWriteExecutor.execute(() -> bookingService.getShowtimeId(id),
+                        () -> bookingService.resignBooking(id, newSeats))));
     }
 
     @GetMapping("/verify/{id}")
     public ResponseEntity<?> verifyTicket(@PathVariable("id") String id) {
-        return bookingService.getBookingById(id)
+        return bookingService.getBookingById(id, false)
                 .map(booking -> {
                     if (booking.getStatus().toString().equals("CANCELLED")) {
                         return ResponseEntity.badRequest().body("Ticket has been cancelled");
@@ -129,17 +272,81 @@ public class BookingController {
         return ResponseEntity.ok(bookingService.confirmPayment(id, transactionId));
     }
 
+    @PostMapping("/admin/backfill-snapshots")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> startSnapshotBackfill(
+            @RequestParam(value = "chunkSize", defaultValue = "200") int chunkSize,
+            @RequestParam(value = "reset", defaultValue = "false") boolean reset) {
+        boolean started = bookingSnapshotBackfillJob.start(Math.max(1, Math.min(chunkSize, 1000)), reset);
+        Map<String, Object> response = new HashMap<>(bookingSnapshotBackfillJob.status());
+        response.put("started", started);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/admin/backfill-snapshots")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getSnapshotBackfillStatus() {
+        return ResponseEntity.ok(bookingSnapshotBackfillJob.status());
+    }
+
+    /**
+     * Starts a bulk cancellation of either a showtime's bookings
+     * ({@code showtimeId}) or a batch of bookings ({@code bookingIds}).
+     * showtime-service calls this with its service token when a show is
+     * cancelled.
+     */
+    @PostMapping("/admin/bulk-cancel")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SERVICE')")
+    public ResponseEntity<Map<String, Object>> startBulkCancellation(@RequestBody Map<String, Object> request) {
+        String reason = (String) request.get("reason");
+        if (request.get("showtimeId") != null) {
+            return ResponseEntity.ok(bulkCancellationService.cancelShowtime((String) request.get("showtimeId"),
+                    reason));
+        }
+        @SuppressWarnings("unchecked")
+        List<String> bookingIds = (List<String>) request.get("bookingIds");
+        return ResponseEntity.ok(bulkCancellationService.cancelBookings(bookingIds, reason));
+    }
+
+    @GetMapping("/admin/bulk-cancel/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getBulkCancellationStatus(@PathVariable("jobId") String jobId) {
+        return ResponseEntity.ok(bulkCancellationService.status(jobId));
+    }
+
+    @PostMapping("/admin/bulk-cancel/{jobId}/resume")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> resumeBulkCancellation(@PathVariable("jobId") String jobId) {
+        return ResponseEntity.ok(bulkCancellationService.resume(jobId));
+    }
+
+    @PostMapping("/admin/outbox/{eventId}/requeue")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> requeueOutboxEvent(@PathVariable("eventId") String eventId) {
+        return ResponseEntity.ok(Map.of("requeued", outboxDispatcher.requeue(eventId)));
+    }
+
     @GetMapping("/admin/bookings/stats")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Map<String, Object>> getBookingStats() {
         BookingStatsResponse stats = bookingService.getBookingStats();
         Map<String, Object> response = new HashMap<>();
         response.put("totalBookings", stats.getTotalBookings());
-        response.put("confirmedBookings", stats.getTotalBookings() - stats.getCancelledBookings());
+        response.put("confirmedBookings", stats.getConfirmedBookings());
         response.put("cancelledBookings", stats.getCancelledBookings());
-        response.put("pendingBookings", 0L);
-        response.put("averageBookingValue", 0.0);
+        response.put("pendingBookings", stats.getPendingBookings() + stats.getCancellationPendingBookings());
+        response.put("averageBookingValue", stats.getAverageBookingValue());
         response.put("totalSeatsBooked", stats.getTotalSeatsBooked());
+        response.put("totalRevenue", stats.getTotalRevenue());
+        response.put("totalRefunds", stats.getTotalRefunds());
+        response.put("bookingsLast7Days", stats.getBookingsLast7Days());
+        response.put("bookingsLast30Days", stats.getBookingsLast30Days());
         return ResponseEntity.ok(response);
     }
+
+    @PostMapping("/admin/bookings/stats/reconcile")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> reconcileBookingStats() {
+        return ResponseEntity.ok(bookingStatsService.reconcile());
+    }
 }
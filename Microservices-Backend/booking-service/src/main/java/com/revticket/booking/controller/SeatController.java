@@ -1,13 +1,30 @@
 package com.revticket.booking.controller;
 
+import com.revticket.booking.dto.SeatAvailability;
 import com.revticket.booking.entity.Seat;
+import com.revticket.booking.service.AdmissionControlService;
+import com.revticket.booking.service.SeatAllocationService;
+import com.revticket.booking.service.SeatAvailabilityService;
+import com.revticket.booking.service.SeatMapService;
 import com.revticket.booking.service.SeatService;
+import com.revticket.booking.service.SeatStorageMigrationJob;
+import com.revticket.booking.service.SeatStreamService;
+import com.revticket.booking.service.ShardForwarder;
+import com.revticket.booking.service.ShowtimeWriteExecutor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/seats")
@@ -16,14 +33,102 @@ public class SeatController {
     @Autowired
     private SeatService seatService;
 
+    @Autowired
+    private SeatMapService seatMapService;
+
+    @Autowired
+    private SeatStreamService seatStreamService;
+
+    @Autowired
+    private SeatAllocationService seatAllocationService;
+
+    @Autowired
+    private SeatStorageMigrationJob seatStorageMigrationJob;
+
+    @Autowired
+    private ShowtimeWriteExecutor showtimeWriteExecutor;
+
+    @Autowired
+    private ShardForwarder shardForwarder;
+
+    @Autowired
+    private AdmissionControlService admissionControlService;
+
+    @Autowired
+    private SeatAvailabilityService seatAvailabilityService;
+
     @GetMapping("/showtime/{showtimeId}")
-    public ResponseEntity<List<Seat>> getSeatsByShowtime(@PathVariable("showtimeId") String showtimeId) {
-        return ResponseEntity.ok(seatService.getSeatsByShowtime(showtimeId));
+    public ResponseEntity<?> getSeatsByShowtime(@PathVariable("showtimeId") String showtimeId) {
+        return shardForwarder.route(showtimeId, null,
+                () -> ResponseEntity.ok(seatService.getSeatsByShowtime(showtimeId)));
+    }
+
+    @GetMapping("/showtime/{showtimeId}/map")
+    public ResponseEntity<?> getSeatMap(
+            @PathVariable("showtimeId") String showtimeId,
+            @RequestParam(value = "sinceVersion", required = false) Long sinceVersion,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return shardForwarder.route(showtimeId, null, () -> seatMap(showtimeId, sinceVersion, ifNoneMatch));
+    }
+
+    private ResponseEntity<byte[]> seatMap(String showtimeId, Long sinceVersion, String ifNoneMatch) {
+        if (seatMapService.isCurrent(showtimeId, ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ifNoneMatch).build();
+        }
+        SeatMapService.SerializedMap seatMap = seatMapService.getSeatMap(showtimeId, sinceVersion);
+        return ResponseEntity.ok()
+                .eTag(seatMap.getETag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(seatMap.getBody());
+    }
+
+    @GetMapping(value = "/showtime/{showtimeId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSeats(@PathVariable("showtimeId") String showtimeId) {
+        SseEmitter relayed = shardForwarder.relayStream(showtimeId);
+        return relayed != null ? relayed : seatStreamService.subscribe(showtimeId);
     }
 
     @GetMapping("/showtime/{showtimeId}/booked")
-    public ResponseEntity<List<String>> getBookedSeats(@PathVariable("showtimeId") String showtimeId) {
-        return ResponseEntity.ok(seatService.getBookedSeatIds(showtimeId));
+    public ResponseEntity<?> getBookedSeats(@PathVariable("showtimeId") String showtimeId) {
+        return shardForwarder.route(showtimeId, null,
+                () -> ResponseEntity.ok(seatService.getBookedSeatIds(showtimeId)));
+    }
+
+    @PostMapping("/showtime/{showtimeId}/best-available")
+    public ResponseEntity<?> holdBestAvailable(
+            @PathVariable("showtimeId") String showtimeId,
+            @RequestParam("count") int count,
+            @RequestParam(value = "category", required = false) String category,
+            @RequestBody(required = false) Map<String, Object> request,
+            @RequestHeader(value = AdmissionControlService.USER_HEADER, required = false) String userId,
+            @RequestHeader(value = AdmissionControlService.TOKEN_HEADER, required = false) String admissionToken) {
+        String sessionId = request != null ? (String) request.get("sessionId") : null;
+        if (sessionId == null || sessionId.isEmpty()) {
+            sessionId = UUID.randomUUID().toString();
+        }
+
+        String holdSessionId = sessionId;
+        // Forward with the session id fixed so the caller learns which session holds the seats
+        return shardForwarder.route(showtimeId, Map.of("sessionId", holdSessionId),
+                () -> admissionControlService.run(showtimeId, userId, admissionToken, () -> {
+                    List<Seat> seats = showtimeWriteExecutor.execute(showtimeId,
+                            () -> seatAllocationService.holdBestAvailable(showtimeId, count, category, holdSessionId));
+                    return ResponseEntity.ok(Map.of("sessionId", holdSessionId, "seats", seats));
+                }));
+    }
+
+    /**
+     * Available, held and booked counts for many showtimes in one call,
+     * keyed by showtime id: {@code {"showtimeIds": [...]}}.
+     */
+    @PostMapping("/availability")
+    public ResponseEntity<Map<String, SeatAvailability>> getAvailability(@RequestBody Map<String, Object> request) {
+        @SuppressWarnings("unchecked")
+        List<String> showtimeIds = (List<String>) request.get("showtimeIds");
+        if (showtimeIds == null) {
+            throw new RuntimeException("showtimeIds is required");
+        }
+        return ResponseEntity.ok(seatAvailabilityService.availability(showtimeIds));
     }
 
     @PostMapping("/initialize")
@@ -35,24 +140,74 @@ public class SeatController {
         return ResponseEntity.ok(Map.of("message", "Seats initialized successfully"));
     }
 
+    @PostMapping("/initialize-batch")
+    public ResponseEntity<Map<String, Object>> initializeSeatsBatch(@RequestBody Map<String, Object> request) {
+        @SuppressWarnings("unchecked")
+        List<Map<String, String>> showtimes = (List<Map<String, String>>) request.get("showtimes");
+        if (showtimes == null || showtimes.isEmpty()) {
+            throw new RuntimeException("showtimes is required");
+        }
+        Map<String, String> screenByShowtime = new LinkedHashMap<>();
+        for (Map<String, String> showtime : showtimes) {
+            screenByShowtime.put(showtime.get("showtimeId"), showtime.get("screenId"));
+        }
+
+        List<String> initialized = seatService.initializeSeatsBatch(screenByShowtime);
+        return ResponseEntity.ok(Map.of(
+                "message", "Seats initialized successfully",
+                "initialized", initialized,
+                "skipped", screenByShowtime.size() - initialized.size()));
+    }
+
     @PostMapping("/hold")
-    public ResponseEntity<Map<String, String>> holdSeats(@RequestBody Map<String, Object> request) {
+    public ResponseEntity<?> holdSeats(
+            @RequestBody Map<String, Object> request,
+            @RequestHeader(value = AdmissionControlService.USER_HEADER, required = false) String userId,
+            @RequestHeader(value = AdmissionControlService.TOKEN_HEADER, required = false) String admissionToken) {
         String showtimeId = (String) request.get("showtimeId");
         @SuppressWarnings("unchecked")
         List<String> seatIds = (List<String>) request.get("seatIds");
         String sessionId = (String) request.get("sessionId");
         
-        seatService.holdSeats(showtimeId, seatIds, sessionId);
-        return ResponseEntity.ok(Map.of("message", "Seats held successfully"));
+        return shardForwarder.route(showtimeId, request,
+                () -> admissionControlService.run(showtimeId, userId, admissionToken, () -> {
+                    showtimeWriteExecutor.execute(showtimeId, () -> {
+                        seatService.holdSeats(showtimeId, seatIds, sessionId);
+                        return null;
+                    });
+                    return ResponseEntity.ok(Map.of("message", "Seats held successfully"));
+                }));
     }
 
     @PostMapping("/release")
-    public ResponseEntity<Map<String, String>> releaseSeats(@RequestBody Map<String, Object> request) {
+    public ResponseEntity<?> releaseSeats(@RequestBody Map<String, Object> request) {
         String showtimeId = (String) request.get("showtimeId");
         @SuppressWarnings("unchecked")
         List<String> seatIds = (List<String>) request.get("seatIds");
         
-        seatService.releaseSeats(showtimeId, seatIds);
-        return ResponseEntity.ok(Map.of("message", "Seats released successfully"));
+        return shardForwarder.route(showtimeId, request, () -> {
+            showtimeWriteExecutor.execute(showtimeId, () -> {
+                seatService.releaseSeats(showtimeId, seatIds);
+                return null;
+            });
+            return ResponseEntity.ok(Map.of("message", "Seats released successfully"));
+        });
+    }
+
+    @PostMapping("/admin/migrate-storage")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> startStorageMigration(
+            @RequestParam(value = "chunkSize", defaultValue = "100") int chunkSize,
+            @RequestParam(value = "reset", defaultValue = "false") boolean reset) {
+        boolean started = seatStorageMigrationJob.start(Math.max(1, Math.min(chunkSize, 1000)), reset);
+        Map<String, Object> response = new HashMap<>(seatStorageMigrationJob.status());
+        response.put("started", started);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/admin/migrate-storage")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getStorageMigrationStatus() {
+        return ResponseEntity.ok(seatStorageMigrationJob.status());
     }
 }
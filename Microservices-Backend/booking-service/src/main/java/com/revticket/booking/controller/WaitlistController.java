@@ -0,0 +1,75 @@
+package com.revticket.booking.controller;
+
+import com.revticket.booking.service.AdmissionControlService;
+import com.revticket.booking.service.ShardForwarder;
+import com.revticket.booking.service.ShowtimeWriteExecutor;
+import com.revticket.booking.service.WaitlistService;
+import com.revticket.booking.util.SecurityUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Waitlist for sold-out showtimes. When seats are offered, the entry carries
+ * the held seats, the {@code sessionId} to book them with and an admission
+ * token for the booking request.
+ */
+@RestController
+@RequestMapping("/api/waitlist")
+@CrossOrigin(origins = "*")
+public class WaitlistController {
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Autowired
+    private ShowtimeWriteExecutor showtimeWriteExecutor;
+
+    @Autowired
+    private ShardForwarder shardForwarder;
+
+    @Autowired
+    private SecurityUtil securityUtil;
+
+    @PostMapping("/showtime/{showtimeId}")
+    public ResponseEntity<?> join(
+            @PathVariable("showtimeId") String showtimeId,
+            @RequestBody Map<String, Object> request,
+            @RequestHeader(value = AdmissionControlService.USER_HEADER, required = false) String userId) {
+        return shardForwarder.route(showtimeId, request,
+                () -> ResponseEntity.ok(waitlistService.join(showtimeId, caller(userId), request)));
+    }
+
+    @GetMapping("/my")
+    public ResponseEntity<?> getMyEntries(
+            @RequestHeader(value = AdmissionControlService.USER_HEADER, required = false) String userId) {
+        return ResponseEntity.ok(waitlistService.getUserEntries(caller(userId)));
+    }
+
+    @DeleteMapping("/{entryId}")
+    public ResponseEntity<?> withdraw(
+            @PathVariable("entryId") String entryId,
+            @RequestHeader(value = AdmissionControlService.USER_HEADER, required = false) String userId) {
+        String caller = caller(userId);
+        return shardForwarder.route(() -> waitlistService.getShowtimeId(entryId), null, () -> {
+            showtimeWriteExecutor.execute(() -> waitlistService.getShowtimeId(entryId), () -> {
+                waitlistService.withdraw(entryId, caller);
+                return null;
+            });
+            return ResponseEntity.noContent().build();
+        });
+    }
+
+    private String caller(String userId) {
+        String tokenUserId = securityUtil.getCurrentUserId();
+        if (tokenUserId != null && !tokenUserId.isEmpty()) {
+            return tokenUserId;
+        }
+        if (userId != null && !userId.isEmpty()) {
+            return userId;
+        }
+        throw new RuntimeException("User not authenticated");
+    }
+}
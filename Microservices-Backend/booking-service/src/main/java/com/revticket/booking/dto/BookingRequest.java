@@ -18,4 +18,5 @@ public class BookingRequest {
     private String customerName;
     private String customerEmail;
     private String customerPhone;
+    private String sessionId;
 }
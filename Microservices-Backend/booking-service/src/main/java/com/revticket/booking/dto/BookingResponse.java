@@ -1,5 +1,6 @@
 package com.revticket.booking.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import com.revticket.booking.entity.Booking;
 import lombok.Builder;
 import lombok.Value;
@@ -7,9 +8,17 @@ import lombok.Value;
 import java.time.LocalDateTime;
 import java.util.List;
 
+/**
+ * Serialized in full unless a read request selects fields, in which case the
+ * controller applies {@link #FIELD_FILTER} with the selection.
+ */
 @Value
 @Builder
+@JsonFilter(BookingResponse.FIELD_FILTER)
 public class BookingResponse {
+    public static final String FIELD_FILTER = "bookingFields";
+
+
     String id;
     String userId;
     String movieId;
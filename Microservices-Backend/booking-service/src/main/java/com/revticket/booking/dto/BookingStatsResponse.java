@@ -13,4 +13,10 @@ public class BookingStatsResponse {
     private Long bookingsLast7Days;
     private Long bookingsLast30Days;
     private Long totalSeatsBooked;
+    private Long confirmedBookings;
+    private Long pendingBookings;
+    private Long cancellationPendingBookings;
+    private Double totalRevenue;
+    private Double totalRefunds;
+    private Double averageBookingValue;
 }
@@ -0,0 +1,43 @@
+package com.revticket.booking.dto;
+
+import com.revticket.booking.entity.Booking;
+
+import java.time.LocalDateTime;
+
+/**
+ * Scalar booking columns read by the sparse views, without the seat and
+ * label collections or the customer and payment details.
+ */
+public interface BookingSummary {
+    String getId();
+
+    String getUserId();
+
+    String getShowtimeId();
+
+    String getMovieId();
+
+    String getMovieTitle();
+
+    String getTheaterId();
+
+    String getTheaterName();
+
+    LocalDateTime getShowDateTime();
+
+    String getScreenName();
+
+    Double getTicketPriceSnapshot();
+
+    Double getTotalAmount();
+
+    LocalDateTime getBookingDate();
+
+    Booking.BookingStatus getStatus();
+
+    String getTicketNumber();
+
+    Double getRefundAmount();
+
+    LocalDateTime getSnapshotAt();
+}
@@ -0,0 +1,109 @@
+package com.revticket.booking.dto;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The {@link BookingResponse} fields a read request asked for, from
+ * {@code view=summary|full} or a comma separated {@code fields=} list. The
+ * full view selects everything. Views that stay within the projected columns
+ * are read without loading the booking entity, and remote lookups run only
+ * for the fields that need them.
+ */
+public final class BookingView {
+
+    public static final BookingView FULL = new BookingView(null);
+
+    private static final Set<String> ALL_FIELDS = Set.of(
+            "id", "userId", "movieId", "movieTitle", "moviePosterUrl", "theaterId", "theaterName",
+            "theaterLocation", "showtimeId", "showtime", "screen", "ticketPrice", "seats", "seatLabels",
+            "totalAmount", "bookingDate", "status", "customerName", "customerEmail", "customerPhone",
+            "paymentId", "qrCode", "ticketNumber", "refundAmount", "refundDate", "cancellationReason");
+
+    private static final Set<String> SUMMARY_FIELDS = Set.of(
+            "id", "userId", "showtimeId", "movieId", "showtime", "status", "totalAmount", "bookingDate",
+            "ticketNumber");
+
+    // Fields carried by BookingSummary; seats and labels are loaded separately on request
+    private static final Set<String> PROJECTED_FIELDS = Set.of(
+            "id", "userId", "showtimeId", "movieId", "movieTitle", "theaterId", "theaterName", "showtime",
+            "screen", "ticketPrice", "totalAmount", "bookingDate", "status", "ticketNumber", "refundAmount",
+            "seats", "seatLabels");
+
+    // Fields a booking without a snapshot can only fill from showtime-service
+    private static final Set<String> SHOWTIME_FIELDS = Set.of(
+            "movieId", "movieTitle", "moviePosterUrl", "theaterId", "theaterName", "theaterLocation",
+            "showtime", "screen", "ticketPrice");
+
+    private final Set<String> fields;
+
+    private BookingView(Set<String> fields) {
+        this.fields = fields;
+    }
+
+    public static BookingView parse(String view, String fields) {
+        if (fields != null && !fields.isBlank()) {
+            Set<String> selected = new LinkedHashSet<>();
+            for (String field : fields.split(",")) {
+                String name = field.trim();
+                if (name.isEmpty()) {
+                    continue;
+                }
+                if (!ALL_FIELDS.contains(name)) {
+                    throw new RuntimeException("Unknown booking field: " + name);
+                }
+                selected.add(name);
+            }
+            selected.add("id");
+            return new BookingView(Collections.unmodifiableSet(selected));
+        }
+        if (view == null || view.isBlank() || "full".equalsIgnoreCase(view)) {
+            return FULL;
+        }
+        if ("summary".equalsIgnoreCase(view)) {
+            return new BookingView(SUMMARY_FIELDS);
+        }
+        throw new RuntimeException("Unknown booking view: " + view);
+    }
+
+    public boolean isFull() {
+        return fields == null;
+    }
+
+    /**
+     * Selected field names, or null for the full view.
+     */
+    public Set<String> getFields() {
+        return fields;
+    }
+
+    public boolean includes(String field) {
+        return fields == null || fields.contains(field);
+    }
+
+    public boolean isProjected() {
+        return fields != null && PROJECTED_FIELDS.containsAll(fields);
+    }
+
+    public boolean needsShowtime() {
+        return fields == null || fields.stream().anyMatch(SHOWTIME_FIELDS::contains);
+    }
+
+    public boolean needsMovies() {
+        return includesAny("movieTitle", "moviePosterUrl");
+    }
+
+    public boolean needsTheaters() {
+        return includesAny("theaterName", "theaterLocation");
+    }
+
+    public boolean needsScreens() {
+        return includes("screen");
+    }
+
+    private boolean includesAny(String... names) {
+        return Arrays.stream(names).anyMatch(this::includes);
+    }
+}
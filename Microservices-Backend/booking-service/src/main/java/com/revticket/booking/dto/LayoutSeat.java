@@ -0,0 +1,19 @@
+package com.revticket.booking.dto;
+
+import com.revticket.booking.entity.Seat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One seat of a stored {@code SeatLayout}, addressed by its position in the layout.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LayoutSeat {
+    private String row;
+    private Integer number;
+    private Double price;
+    private Seat.SeatType type;
+}
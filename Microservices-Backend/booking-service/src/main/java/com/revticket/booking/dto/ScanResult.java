@@ -0,0 +1,31 @@
+package com.revticket.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Outcome of one gate scan. {@code firstScannedAt} is set for duplicates and
+ * tells staff when and where the ticket was first used.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScanResult {
+    private Status status;
+    private String bookingId;
+    private String showtimeId;
+    private List<String> seats;
+    private LocalDateTime firstScannedAt;
+    private String firstGateId;
+    private String message;
+
+    public enum Status {
+        ADMITTED, ALREADY_SCANNED, REVOKED, INVALID
+    }
+}
@@ -0,0 +1,44 @@
+package com.revticket.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Typed view of theater-service's screen configuration.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScreenLayout {
+    private String id;
+    private String name;
+    private Integer rows;
+    private Integer seatsPerRow;
+    private Long layoutVersion;
+    private List<Category> categories;
+    private List<Cell> seatMap;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Category {
+        private String id;
+        private String name;
+        private Double price;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Cell {
+        private String seatId;
+        private String label;
+        private Integer row;
+        private Integer col;
+        private String categoryId;
+        private String status;
+    }
+}
@@ -0,0 +1,38 @@
+package com.revticket.booking.dto;
+
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+/**
+ * Seat counts of one showtime; disabled seats are left out of every count.
+ * {@code version} is the seat inventory version the counts were taken at.
+ * Read back when one shard asks another for its showtimes' counts.
+ */
+@Value
+@Builder
+@Jacksonized
+public class SeatAvailability {
+    String showtimeId;
+    int available;
+    int held;
+    int booked;
+    int total;
+    long version;
+
+    /**
+     * Counts from {@code seats} seats in all, of which the disabled ones are
+     * left out and the rest are booked, held or available.
+     */
+    public static SeatAvailability of(String showtimeId, int seats, int disabled, int booked, int held,
+            long version) {
+        return SeatAvailability.builder()
+                .showtimeId(showtimeId)
+                .available(seats - disabled - booked - held)
+                .held(held)
+                .booked(booked)
+                .total(seats - disabled)
+                .version(version)
+                .build();
+    }
+}
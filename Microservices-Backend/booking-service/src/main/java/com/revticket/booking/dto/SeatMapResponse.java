@@ -0,0 +1,28 @@
+package com.revticket.booking.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Compact seat map for one showtime. A full map carries the layout (seat ids,
+ * labels and prices in layout order) plus {@code status}: base64 of two bits
+ * per seat, four seats per byte, low bits first (0 available, 1 held,
+ * 2 booked, 3 disabled). A delta map carries only {@code changes} as
+ * [ordinal, status] pairs since the requested version.
+ */
+@Value
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SeatMapResponse {
+    String showtimeId;
+    long version;
+    boolean delta;
+    List<String> seatIds;
+    List<String> labels;
+    List<Double> prices;
+    String status;
+    int[][] changes;
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
@@ -11,7 +12,13 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+        @Index(name = "idx_bookings_user_date", columnList = "user_id, booking_date"),
+        @Index(name = "idx_bookings_status_date", columnList = "status, booking_date"),
+        @Index(name = "idx_bookings_showtime", columnList = "showtime_id"),
+        @Index(name = "idx_bookings_qr_code", columnList = "qr_code"),
+        @Index(name = "idx_bookings_status_refund", columnList = "status, refund_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -27,11 +34,13 @@ public class Booking {
     private String showtimeId;
 
     @ElementCollection
+    @BatchSize(size = 100)
     @CollectionTable(name = "booking_seats", joinColumns = @JoinColumn(name = "booking_id"))
     @Column(name = "seat_id")
     private List<String> seats = new ArrayList<>();
 
     @ElementCollection
+    @BatchSize(size = 100)
     @CollectionTable(name = "booking_seat_labels", joinColumns = @JoinColumn(name = "booking_id"))
     @Column(name = "seat_label")
     private List<String> seatLabels = new ArrayList<>();
@@ -45,6 +54,30 @@ public class Booking {
     @Column(name = "screen_name")
     private String screenName;
 
+    @Column(name = "movie_id")
+    private String movieId;
+
+    @Column(name = "movie_title")
+    private String movieTitle;
+
+    @Column(name = "movie_poster_url", length = 1000)
+    private String moviePosterUrl;
+
+    @Column(name = "theater_id")
+    private String theaterId;
+
+    @Column(name = "theater_name")
+    private String theaterName;
+
+    @Column(name = "theater_location")
+    private String theaterLocation;
+
+    @Column(name = "show_date_time")
+    private LocalDateTime showDateTime;
+
+    @Column(name = "snapshot_at")
+    private LocalDateTime snapshotAt;
+
     @Column(name = "payment_method")
     private String paymentMethod;
 
@@ -68,9 +101,13 @@ public class Booking {
     @Column(name = "payment_id")
     private String paymentId;
 
-    @Column(name = "qr_code")
+    @Column(name = "qr_code", length = 512)
     private String qrCode;
 
+    // Issue time of the current ticket when it replaced an earlier one; older tickets stop admitting
+    @Column(name = "ticket_reissued_at")
+    private LocalDateTime ticketReissuedAt;
+
     @Column(name = "ticket_number")
     private String ticketNumber;
 
@@ -0,0 +1,52 @@
+package com.revticket.booking.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Booking counters for all bookings made on one day. Amounts are kept in
+ * cents so deltas add up exactly.
+ */
+@Entity
+@Table(name = "booking_stats_daily")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingStatsDay {
+    @Id
+    private LocalDate day;
+
+    @Column(nullable = false)
+    private Long bookings = 0L;
+
+    @Column(nullable = false)
+    private Long seats = 0L;
+
+    @Column(name = "pending_count", nullable = false)
+    private Long pendingCount = 0L;
+
+    @Column(name = "confirmed_count", nullable = false)
+    private Long confirmedCount = 0L;
+
+    @Column(name = "cancelled_count", nullable = false)
+    private Long cancelledCount = 0L;
+
+    @Column(name = "cancellation_pending_count", nullable = false)
+    private Long cancellationPendingCount = 0L;
+
+    @Column(name = "revenue_cents", nullable = false)
+    private Long revenueCents = 0L;
+
+    @Column(name = "refund_cents", nullable = false)
+    private Long refundCents = 0L;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
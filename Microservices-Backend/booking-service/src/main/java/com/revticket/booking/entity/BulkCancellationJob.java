@@ -0,0 +1,99 @@
+package com.revticket.booking.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A bulk cancellation run, either every live booking of one showtime or an
+ * explicit list of bookings. Booking lists are stored sorted by showtime so
+ * each chunk touches a single showtime. {@code cursor} is the last booking id
+ * handled for showtime runs; for list runs {@code processed} is the position
+ * in the list. Both are written in the same transaction as the chunk they
+ * describe, so a restarted run picks up exactly where the last commit left it.
+ */
+@Entity
+@Table(name = "bulk_cancellation_jobs", indexes = {
+        @Index(name = "idx_bulk_cancellation_status", columnList = "status"),
+        @Index(name = "idx_bulk_cancellation_showtime", columnList = "showtime_id")
+})
+@Data
+@NoArgsConstructor
+public class BulkCancellationJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Type type;
+
+    @Column(name = "showtime_id")
+    private String showtimeId;
+
+    @ElementCollection
+    @CollectionTable(name = "bulk_cancellation_job_bookings", joinColumns = @JoinColumn(name = "job_id"))
+    @OrderColumn(name = "position")
+    @Column(name = "booking_id")
+    private List<String> bookingIds = new ArrayList<>();
+
+    @Column(columnDefinition = "TEXT")
+    private String reason;
+
+    // Share of the booking total refunded for paid bookings
+    @Column(name = "refund_rate", nullable = false)
+    private Double refundRate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status = Status.PENDING;
+
+    @Column(name = "cursor_value")
+    private String cursor;
+
+    @Column(nullable = false)
+    private Long total = 0L;
+
+    @Column(nullable = false)
+    private Long processed = 0L;
+
+    @Column(nullable = false)
+    private Long cancelled = 0L;
+
+    @Column(nullable = false)
+    private Long skipped = 0L;
+
+    @Column(name = "refund_total", nullable = false)
+    private Double refundTotal = 0.0;
+
+    @Column(columnDefinition = "TEXT")
+    private String error;
+
+    @Version
+    private Long version;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    public enum Type {
+        SHOWTIME, BOOKINGS
+    }
+
+    public enum Status {
+        PENDING, RUNNING, COMPLETED, FAILED
+    }
+}
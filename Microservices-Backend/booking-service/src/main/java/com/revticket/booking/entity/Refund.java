@@ -0,0 +1,34 @@
+package com.revticket.booking.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Refund owed for a cancelled booking. One row per booking; {@code jobId} is
+ * set when the cancellation came from a bulk run.
+ */
+@Entity
+@Table(name = "refunds", indexes = {
+        @Index(name = "idx_refunds_job", columnList = "job_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Refund {
+    @Id
+    @Column(name = "booking_id")
+    private String bookingId;
+
+    @Column(name = "job_id")
+    private String jobId;
+
+    @Column(nullable = false)
+    private Double amount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
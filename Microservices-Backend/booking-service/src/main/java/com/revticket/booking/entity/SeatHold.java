@@ -0,0 +1,42 @@
+package com.revticket.booking.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Holder and expiry of a held seat in bitmap mode; the held bit itself lives
+ * in {@link ShowtimeSeatState}.
+ */
+@Entity
+@Table(name = "seat_holds")
+@IdClass(SeatHold.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatHold {
+    @Id
+    @Column(name = "showtime_id")
+    private String showtimeId;
+
+    @Id
+    private Integer ordinal;
+
+    @Column(name = "session_id")
+    private String sessionId;
+
+    @Column(name = "hold_expiry")
+    private LocalDateTime holdExpiry;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String showtimeId;
+        private Integer ordinal;
+    }
+}
@@ -0,0 +1,39 @@
+package com.revticket.booking.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * An immutable seat layout shared by every showtime stored in bitmap mode
+ * with the same seats. The id is a hash of the content, so it doubles as the
+ * layout version: a changed screen produces a new layout row.
+ */
+@Entity
+@Table(name = "seat_layouts")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatLayout {
+    @Id
+    @Column(length = 64)
+    private String id;
+
+    @Column(name = "screen_id")
+    private String screenId;
+
+    @Column(name = "seat_count", nullable = false)
+    private Integer seatCount;
+
+    // JSON array of {row, number, price, type} in layout order
+    @Column(nullable = false, columnDefinition = "MEDIUMTEXT")
+    private String seats;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
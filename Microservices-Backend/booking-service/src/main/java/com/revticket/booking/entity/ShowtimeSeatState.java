@@ -0,0 +1,50 @@
+package com.revticket.booking.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Seat state of one showtime in bitmap mode. Bit i of each bitmap belongs to
+ * seat ordinal i of the referenced layout; bitmaps are {@code BitSet}
+ * little-endian byte arrays.
+ */
+@Entity
+@Table(name = "showtime_seat_state")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShowtimeSeatState {
+    @Id
+    @Column(name = "showtime_id")
+    private String showtimeId;
+
+    @Column(name = "screen_id")
+    private String screenId;
+
+    @Column(name = "layout_id", nullable = false, length = 64)
+    private String layoutId;
+
+    @Column(name = "seat_count", nullable = false)
+    private Integer seatCount;
+
+    @Column(nullable = false, length = 2048)
+    private byte[] booked = new byte[0];
+
+    @Column(nullable = false, length = 2048)
+    private byte[] held = new byte[0];
+
+    @Column(nullable = false, length = 2048)
+    private byte[] disabled = new byte[0];
+
+    @Version
+    private Long version;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
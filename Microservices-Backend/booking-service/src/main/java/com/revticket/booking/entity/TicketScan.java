@@ -0,0 +1,50 @@
+package com.revticket.booking.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * First admission of a booking at a gate. One row per booking: later scans of
+ * the same ticket are duplicates. {@code recordedAt} is when the server learned
+ * of the scan, which for offline gate devices can be well after
+ * {@code scannedAt}.
+ */
+@Entity
+@Table(name = "ticket_scans", indexes = {
+        @Index(name = "idx_ticket_scans_recorded", columnList = "recorded_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TicketScan {
+    @Id
+    @Column(name = "booking_id")
+    private String bookingId;
+
+    @Column(name = "showtime_id", nullable = false)
+    private String showtimeId;
+
+    @Column(name = "gate_id")
+    private String gateId;
+
+    @Column(name = "device_id")
+    private String deviceId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Source source;
+
+    @Column(name = "scanned_at", nullable = false)
+    private LocalDateTime scannedAt;
+
+    @Column(name = "recorded_at", nullable = false)
+    private LocalDateTime recordedAt;
+
+    public enum Source {
+        ONLINE, OFFLINE
+    }
+}
@@ -0,0 +1,76 @@
+package com.revticket.booking.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A request for seats on a sold-out showtime. While WAITING it sits in the
+ * showtime's waitlist; when seats free up it is OFFERED a hold on them under
+ * {@code holdSessionId}, which the customer books with before
+ * {@code offerExpiresAt}. An offer not booked in time LAPSES.
+ */
+@Entity
+@Table(name = "waitlist_entries", indexes = {
+        @Index(name = "idx_waitlist_showtime_status", columnList = "showtime_id, status"),
+        @Index(name = "idx_waitlist_user", columnList = "user_id"),
+        @Index(name = "idx_waitlist_hold_session", columnList = "hold_session_id")
+})
+@Data
+@NoArgsConstructor
+public class WaitlistEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(name = "showtime_id", nullable = false)
+    private String showtimeId;
+
+    @Column(name = "user_id", nullable = false)
+    private String userId;
+
+    @Column(name = "party_size", nullable = false)
+    private Integer partySize;
+
+    // Seat category id or name; null for any
+    private String category;
+
+    @Column(name = "customer_name")
+    private String customerName;
+
+    @Column(name = "customer_email")
+    private String customerEmail;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status = Status.WAITING;
+
+    @Column(name = "hold_session_id")
+    private String holdSessionId;
+
+    @ElementCollection
+    @BatchSize(size = 100)
+    @CollectionTable(name = "waitlist_offer_seats", joinColumns = @JoinColumn(name = "entry_id"))
+    @Column(name = "seat_id")
+    private List<String> offeredSeats = new ArrayList<>();
+
+    @Column(name = "offered_at")
+    private LocalDateTime offeredAt;
+
+    @Column(name = "offer_expires_at")
+    private LocalDateTime offerExpiresAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    public enum Status {
+        WAITING, OFFERED, CLAIMED, LAPSED, WITHDRAWN
+    }
+}
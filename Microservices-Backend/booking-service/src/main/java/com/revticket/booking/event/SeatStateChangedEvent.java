@@ -0,0 +1,24 @@
+package com.revticket.booking.event;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Published by the seat inventory engine after a seat transition has been
+ * written. Ordinals index into the showtime's {@code SeatInventory}.
+ */
+@Value
+public class SeatStateChangedEvent {
+    String showtimeId;
+    Transition transition;
+    List<String> seatIds;
+    int[] ordinals;
+    String sessionId;
+    LocalDateTime holdExpiry;
+
+    public enum Transition {
+        HELD, RELEASED, EXPIRED, BOOKED, UNBOOKED
+    }
+}
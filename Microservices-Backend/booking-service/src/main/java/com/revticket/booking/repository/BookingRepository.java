@@ -1,19 +1,87 @@
 package com.revticket.booking.repository;
 
+import com.revticket.booking.dto.BookingSummary;
 import com.revticket.booking.entity.Booking;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, String> {
-    
+
+    String SUMMARY_SELECT = "SELECT b.id AS id, b.userId AS userId, b.showtimeId AS showtimeId, " +
+            "b.movieId AS movieId, b.movieTitle AS movieTitle, b.theaterId AS theaterId, " +
+            "b.theaterName AS theaterName, b.showDateTime AS showDateTime, b.screenName AS screenName, " +
+            "b.ticketPriceSnapshot AS ticketPriceSnapshot, b.totalAmount AS totalAmount, " +
+            "b.bookingDate AS bookingDate, b.status AS status, b.ticketNumber AS ticketNumber, " +
+            "b.refundAmount AS refundAmount, b.snapshotAt AS snapshotAt FROM Booking b ";
+
     List<Booking> findByUserId(String userId);
+
+    List<Booking> findByUserIdOrderByBookingDateDescIdDesc(String userId);
+
+    List<Booking> findByStatusOrderByBookingDateDescIdDesc(Booking.BookingStatus status);
+
+    // Keyset pages: newest first, (bookingDate, id) as the cursor
+    List<Booking> findByUserIdOrderByBookingDateDescIdDesc(String userId, Pageable pageable);
+
+    @Query("SELECT b FROM Booking b WHERE b.userId = :userId " +
+           "AND (b.bookingDate < :date OR (b.bookingDate = :date AND b.id < :id)) " +
+           "ORDER BY b.bookingDate DESC, b.id DESC")
+    List<Booking> findUserPageAfter(@Param("userId") String userId, @Param("date") LocalDateTime date,
+                                    @Param("id") String id, Pageable pageable);
+
+    List<Booking> findByStatusOrderByBookingDateDescIdDesc(Booking.BookingStatus status, Pageable pageable);
+
+    @Query("SELECT b FROM Booking b WHERE b.status = :status " +
+           "AND (b.bookingDate < :date OR (b.bookingDate = :date AND b.id < :id)) " +
+           "ORDER BY b.bookingDate DESC, b.id DESC")
+    List<Booking> findStatusPageAfter(@Param("status") Booking.BookingStatus status,
+                                      @Param("date") LocalDateTime date,
+                                      @Param("id") String id, Pageable pageable);
+
+    List<Booking> findAllByOrderByBookingDateDescIdDesc(Pageable pageable);
+
+    @Query("SELECT b FROM Booking b WHERE b.bookingDate < :date OR (b.bookingDate = :date AND b.id < :id) " +
+           "ORDER BY b.bookingDate DESC, b.id DESC")
+    List<Booking> findPageAfter(@Param("date") LocalDateTime date, @Param("id") String id, Pageable pageable);
     
+    // Sparse views: scalar columns only, same newest-first keyset order
+    @Query(SUMMARY_SELECT + "WHERE b.id = :id")
+    Optional<BookingSummary> findSummaryById(@Param("id") String id);
+
+    @Query(SUMMARY_SELECT + "WHERE b.userId = :userId ORDER BY b.bookingDate DESC, b.id DESC")
+    List<BookingSummary> findUserSummaries(@Param("userId") String userId, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE b.userId = :userId " +
+           "AND (b.bookingDate < :date OR (b.bookingDate = :date AND b.id < :id)) " +
+           "ORDER BY b.bookingDate DESC, b.id DESC")
+    List<BookingSummary> findUserSummariesAfter(@Param("userId") String userId, @Param("date") LocalDateTime date,
+                                                @Param("id") String id, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "ORDER BY b.bookingDate DESC, b.id DESC")
+    List<BookingSummary> findSummaries(Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE b.bookingDate < :date OR (b.bookingDate = :date AND b.id < :id) " +
+           "ORDER BY b.bookingDate DESC, b.id DESC")
+    List<BookingSummary> findSummariesAfter(@Param("date") LocalDateTime date, @Param("id") String id,
+                                            Pageable pageable);
+
+    // [bookingId, seatId] pairs
+    @Query("SELECT b.id, s FROM Booking b JOIN b.seats s WHERE b.id IN :ids")
+    List<Object[]> findSeatsByIdIn(@Param("ids") Collection<String> ids);
+
+    // [bookingId, seatLabel] pairs
+    @Query("SELECT b.id, l FROM Booking b JOIN b.seatLabels l WHERE b.id IN :ids")
+    List<Object[]> findSeatLabelsByIdIn(@Param("ids") Collection<String> ids);
+
     List<Booking> findByShowtimeId(String showtimeId);
 
     @Query("SELECT COUNT(b) FROM Booking b WHERE b.bookingDate BETWEEN :start AND :end")
@@ -29,4 +97,41 @@ public interface BookingRepository extends JpaRepository<Booking, String> {
     Double sumRefundsByDateRange(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
     
     Long countByStatus(Booking.BookingStatus status);
+
+    Optional<Booking> findByQrCode(String qrCode);
+
+    @Query("SELECT b.showtimeId FROM Booking b WHERE b.id = :id")
+    Optional<String> findShowtimeIdById(@Param("id") String id);
+
+    // Bookings without a show time snapshot are included, since their show may still be ahead
+    @Query("SELECT b.id FROM Booking b WHERE b.status = 'CANCELLED' " +
+           "AND (b.showDateTime IS NULL OR b.showDateTime > :showsAfter)")
+    List<String> findCancelledIdsForShowsAfter(@Param("showsAfter") LocalDateTime showsAfter);
+
+    // Cancellation stamps the refund date, so it doubles as the cancelled-at time
+    @Query("SELECT b.id FROM Booking b WHERE b.status = 'CANCELLED' AND b.refundDate > :since")
+    List<String> findCancelledIdsSince(@Param("since") LocalDateTime since);
+
+    // [bookingId, ticketReissuedAt] of bookings whose ticket was replaced, for the same shows as above
+    @Query("SELECT b.id, b.ticketReissuedAt FROM Booking b WHERE b.ticketReissuedAt IS NOT NULL " +
+           "AND (b.showDateTime IS NULL OR b.showDateTime > :showsAfter)")
+    List<Object[]> findReissuedForShowsAfter(@Param("showsAfter") LocalDateTime showsAfter);
+
+    @Query("SELECT b.id, b.ticketReissuedAt FROM Booking b WHERE b.ticketReissuedAt > :since")
+    List<Object[]> findReissuedSince(@Param("since") LocalDateTime since);
+
+    @Query("SELECT b FROM Booking b WHERE b.showtimeId = :showtimeId AND b.id > :afterId " +
+           "AND b.status <> 'CANCELLED' ORDER BY b.id")
+    List<Booking> findLiveByShowtimeAfter(@Param("showtimeId") String showtimeId, @Param("afterId") String afterId,
+                                          Pageable pageable);
+
+    @Query("SELECT COUNT(b) FROM Booking b WHERE b.showtimeId = :showtimeId AND b.status <> 'CANCELLED'")
+    long countLiveByShowtime(@Param("showtimeId") String showtimeId);
+
+    // [id, showtimeId] pairs
+    @Query("SELECT b.id, b.showtimeId FROM Booking b WHERE b.id IN :ids")
+    List<Object[]> findShowtimeIdsByIdIn(@Param("ids") Collection<String> ids);
+
+    @Query("SELECT b FROM Booking b WHERE b.snapshotAt IS NULL AND b.id > :afterId ORDER BY b.id")
+    List<Booking> findSnapshotPending(@Param("afterId") String afterId, Pageable pageable);
 }
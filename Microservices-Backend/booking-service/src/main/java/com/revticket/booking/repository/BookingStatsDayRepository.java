@@ -0,0 +1,45 @@
+package com.revticket.booking.repository;
+
+import com.revticket.booking.entity.BookingStatsDay;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface BookingStatsDayRepository extends JpaRepository<BookingStatsDay, LocalDate> {
+
+    @Modifying
+    @Query(value = "INSERT INTO booking_stats_daily (day, bookings, seats, pending_count, confirmed_count, " +
+                   "cancelled_count, cancellation_pending_count, revenue_cents, refund_cents, updated_at) " +
+                   "VALUES (:day, :bookings, :seats, :pending, :confirmed, :cancelled, :cancellationPending, " +
+                   ":revenueCents, :refundCents, NOW()) " +
+                   "ON DUPLICATE KEY UPDATE bookings = bookings + VALUES(bookings), seats = seats + VALUES(seats), " +
+                   "pending_count = pending_count + VALUES(pending_count), " +
+                   "confirmed_count = confirmed_count + VALUES(confirmed_count), " +
+                   "cancelled_count = cancelled_count + VALUES(cancelled_count), " +
+                   "cancellation_pending_count = cancellation_pending_count + VALUES(cancellation_pending_count), " +
+                   "revenue_cents = revenue_cents + VALUES(revenue_cents), " +
+                   "refund_cents = refund_cents + VALUES(refund_cents), updated_at = NOW()",
+           nativeQuery = true)
+    int addDelta(@Param("day") LocalDate day, @Param("bookings") long bookings, @Param("seats") long seats,
+                 @Param("pending") long pending, @Param("confirmed") long confirmed,
+                 @Param("cancelled") long cancelled, @Param("cancellationPending") long cancellationPending,
+                 @Param("revenueCents") long revenueCents, @Param("refundCents") long refundCents);
+
+    // Rows of {day, status, count, sum(total_amount), sum(refund_amount)}
+    @Query(value = "SELECT DATE(b.booking_date), b.status, COUNT(*), COALESCE(SUM(b.total_amount), 0), " +
+                   "COALESCE(SUM(b.refund_amount), 0) FROM bookings b GROUP BY DATE(b.booking_date), b.status",
+           nativeQuery = true)
+    List<Object[]> aggregateBookingsByDayAndStatus();
+
+    // Rows of {day, seat count}
+    @Query(value = "SELECT DATE(b.booking_date), COUNT(s.seat_id) FROM bookings b " +
+                   "JOIN booking_seats s ON s.booking_id = b.id GROUP BY DATE(b.booking_date)",
+           nativeQuery = true)
+    List<Object[]> aggregateSeatsByDay();
+}
@@ -0,0 +1,18 @@
+package com.revticket.booking.repository;
+
+import com.revticket.booking.entity.BulkCancellationJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BulkCancellationJobRepository extends JpaRepository<BulkCancellationJob, String> {
+
+    List<BulkCancellationJob> findByStatusIn(Collection<BulkCancellationJob.Status> statuses);
+
+    Optional<BulkCancellationJob> findFirstByShowtimeIdAndStatusIn(String showtimeId,
+            Collection<BulkCancellationJob.Status> statuses);
+}
@@ -0,0 +1,9 @@
+package com.revticket.booking.repository;
+
+import com.revticket.booking.entity.Refund;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RefundRepository extends JpaRepository<Refund, String> {
+}
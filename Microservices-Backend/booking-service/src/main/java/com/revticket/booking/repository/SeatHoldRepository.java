@@ -0,0 +1,18 @@
+package com.revticket.booking.repository;
+
+import com.revticket.booking.entity.SeatHold;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SeatHoldRepository extends JpaRepository<SeatHold, SeatHold.Key> {
+    List<SeatHold> findByShowtimeId(String showtimeId);
+    List<SeatHold> findByShowtimeIdAndOrdinalIn(String showtimeId, Collection<Integer> ordinals);
+
+    @Query("SELECT h.showtimeId, h.ordinal, h.holdExpiry FROM SeatHold h WHERE h.holdExpiry IS NOT NULL")
+    List<Object[]> findActiveHolds();
+}
@@ -1,9 +1,17 @@
 package com.revticket.booking.repository;
 
 import com.revticket.booking.entity.Seat;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -11,4 +19,72 @@ public interface SeatRepository extends JpaRepository<Seat, String> {
     List<Seat> findByShowtimeId(String showtimeId);
     List<Seat> findByShowtimeIdAndIsBookedFalse(String showtimeId);
     void deleteByShowtimeId(String showtimeId);
+    boolean existsByShowtimeId(String showtimeId);
+
+    @Query("SELECT DISTINCT s.showtimeId FROM Seat s WHERE s.showtimeId IN :showtimeIds")
+    List<String> findInitializedShowtimeIds(@Param("showtimeIds") Collection<String> showtimeIds);
+
+    // Rows of {showtimeId, seats, disabled, booked, held}, each seat counted once in that order of precedence
+    @Query("SELECT s.showtimeId, COUNT(s), " +
+            "SUM(CASE WHEN s.isDisabled = true THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN s.isDisabled = false AND s.isBooked = true THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN s.isDisabled = false AND s.isBooked = false AND s.isHeld = true THEN 1 ELSE 0 END) " +
+            "FROM Seat s WHERE s.showtimeId IN :showtimeIds GROUP BY s.showtimeId")
+    List<Object[]> countByShowtimeIds(@Param("showtimeIds") Collection<String> showtimeIds);
+
+    // Locking read: waits for conditional updates in flight and blocks new ones
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Seat s WHERE s.showtimeId = :showtimeId")
+    List<Seat> findByShowtimeIdForUpdate(@Param("showtimeId") String showtimeId);
+
+    @Query("SELECT DISTINCT s.showtimeId FROM Seat s WHERE s.showtimeId > :after ORDER BY s.showtimeId")
+    List<String> findShowtimeIdsAfter(@Param("after") String after, Pageable pageable);
+
+    /**
+     * Books all seats in one statement. A seat only qualifies while it is free
+     * or held by the same session (or its hold has lapsed), so the returned
+     * count is lower than {@code seatIds.size()} when any seat was taken.
+     */
+    @Modifying
+    @Query("UPDATE Seat s SET s.isBooked = true, s.isHeld = false, s.holdExpiry = null, s.sessionId = null " +
+           "WHERE s.showtimeId = :showtimeId AND s.id IN :seatIds " +
+           "AND s.isBooked = false AND s.isDisabled = false " +
+           "AND (s.isHeld = false OR s.holdExpiry IS NULL OR s.holdExpiry < :now OR s.sessionId = :sessionId)")
+    int bookSeats(@Param("showtimeId") String showtimeId,
+                  @Param("seatIds") Collection<String> seatIds,
+                  @Param("sessionId") String sessionId,
+                  @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Seat s SET s.isHeld = true, s.holdExpiry = :expiry, s.sessionId = :sessionId " +
+           "WHERE s.showtimeId = :showtimeId AND s.id IN :seatIds " +
+           "AND s.isBooked = false AND s.isDisabled = false " +
+           "AND (s.isHeld = false OR s.holdExpiry IS NULL OR s.holdExpiry < :now OR s.sessionId = :sessionId)")
+    int holdSeats(@Param("showtimeId") String showtimeId,
+                  @Param("seatIds") Collection<String> seatIds,
+                  @Param("sessionId") String sessionId,
+                  @Param("expiry") LocalDateTime expiry,
+                  @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Seat s SET s.isHeld = false, s.holdExpiry = null, s.sessionId = null " +
+           "WHERE s.showtimeId = :showtimeId AND s.id IN :seatIds AND s.isBooked = false AND s.isHeld = true")
+    int releaseHolds(@Param("showtimeId") String showtimeId, @Param("seatIds") Collection<String> seatIds);
+
+    @Modifying
+    @Query("UPDATE Seat s SET s.isHeld = false, s.holdExpiry = null, s.sessionId = null " +
+           "WHERE s.showtimeId = :showtimeId AND s.id IN :seatIds AND s.isBooked = false " +
+           "AND s.isHeld = true AND s.holdExpiry <= :now")
+    int expireHolds(@Param("showtimeId") String showtimeId,
+                    @Param("seatIds") Collection<String> seatIds,
+                    @Param("now") LocalDateTime now);
+
+    @Query("SELECT s.showtimeId, s.id, s.holdExpiry FROM Seat s " +
+           "WHERE s.isHeld = true AND s.isBooked = false AND s.holdExpiry IS NOT NULL")
+    List<Object[]> findActiveHolds();
+
+    @Modifying
+    @Query("UPDATE Seat s SET s.isBooked = false, s.isHeld = false, s.holdExpiry = null, s.sessionId = null " +
+           "WHERE s.showtimeId = :showtimeId AND s.id IN :seatIds AND (s.isBooked = true OR s.isHeld = true)")
+    int unbookSeats(@Param("showtimeId") String showtimeId, @Param("seatIds") Collection<String> seatIds);
 }
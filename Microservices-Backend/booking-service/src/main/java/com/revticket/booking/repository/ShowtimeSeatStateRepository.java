@@ -0,0 +1,20 @@
+package com.revticket.booking.repository;
+
+import com.revticket.booking.entity.ShowtimeSeatState;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ShowtimeSeatStateRepository extends JpaRepository<ShowtimeSeatState, String> {
+
+    // Locking read: returns the latest committed state and queues concurrent writers
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ShowtimeSeatState s WHERE s.showtimeId = :showtimeId")
+    Optional<ShowtimeSeatState> findForUpdate(@Param("showtimeId") String showtimeId);
+}
@@ -0,0 +1,21 @@
+package com.revticket.booking.repository;
+
+import com.revticket.booking.entity.TicketScan;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TicketScanRepository extends JpaRepository<TicketScan, String> {
+
+    List<TicketScan> findByRecordedAtAfter(LocalDateTime since);
+
+    // Locking read: sees rows other transactions committed after this one started
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    List<TicketScan> findByBookingIdIn(Collection<String> bookingIds);
+}
@@ -0,0 +1,20 @@
+package com.revticket.booking.repository;
+
+import com.revticket.booking.entity.WaitlistEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, String> {
+
+    List<WaitlistEntry> findByStatusInOrderByCreatedAtAscIdAsc(Collection<WaitlistEntry.Status> statuses);
+
+    List<WaitlistEntry> findByUserIdOrderByCreatedAtDesc(String userId);
+
+    Optional<WaitlistEntry> findFirstByShowtimeIdAndUserIdAndStatusIn(String showtimeId, String userId,
+            Collection<WaitlistEntry.Status> statuses);
+}
@@ -0,0 +1,316 @@
+package com.revticket.booking.service;
+
+import com.revticket.booking.util.TokenSigner;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Waiting room for hot showtimes. Each showtime has its own token bucket, so a
+ * spike on one show cannot starve the others of connections. While a
+ * showtime's bucket has tokens and nobody is queued, requests go straight
+ * through. Once it runs dry, callers without an admission token are turned away
+ * with 429 and join a FIFO queue instead; queued tickets are admitted in order
+ * as the bucket refills, and each admitted caller gets a signed admission token
+ * that lets them through for a few minutes. The refill rate adapts to how long
+ * the admitted operations take: it backs off multiplicatively while latency is
+ * above target and grows by one per second while there is demand. Calls that
+ * did not come through the gateway (no {@code X-User-Id}), such as the payment
+ * service confirming a booking, are never held back.
+ *
+ * <p>api-gateway's {@code AdmissionTokenFilter} verifies admission tokens at
+ * the edge with its copy of {@link TokenSigner}, so the {@code AD1.} fields
+ * and {@code admission.secret} are shared with it; change both sides together.
+ */
+@Service
+public class AdmissionControlService {
+
+    public static final String TOKEN_HEADER = "X-Admission-Token";
+    public static final String USER_HEADER = "X-User-Id";
+
+    static final String ADMISSION_PREFIX = "AD1.";
+    static final String QUEUE_PREFIX = "WQ1.";
+
+    // Queue tickets not polled for this long are given up and skipped
+    private static final long TICKET_IDLE_MILLIS = 30_000;
+    private static final long ROOM_IDLE_MILLIS = 600_000;
+    private static final long ADJUST_INTERVAL_MILLIS = 1000;
+    private static final double LATENCY_SMOOTHING = 0.2;
+    private static final double BACKOFF_FACTOR = 0.8;
+
+    private final boolean enabled;
+    private final double initialRate;
+    private final double burst;
+    private final double minRate;
+    private final double maxRate;
+    private final double targetLatencyMillis;
+    private final long admissionTtlSeconds;
+    private final TokenSigner signer;
+    private final Counter rejected;
+
+    private final Map<String, Room> rooms = new ConcurrentHashMap<>();
+
+    public AdmissionControlService(MeterRegistry meterRegistry,
+            @Value("${booking.admission.enabled:true}") boolean enabled,
+            @Value("${booking.admission.initial-rate:20}") double initialRate,
+            @Value("${booking.admission.burst:40}") double burst,
+            @Value("${booking.admission.min-rate:2}") double minRate,
+            @Value("${booking.admission.max-rate:200}") double maxRate,
+            @Value("${booking.admission.target-latency-ms:300}") double targetLatencyMillis,
+            @Value("${booking.admission.token-ttl-seconds:300}") long admissionTtlSeconds,
+            @Value("${booking.admission.secret}") String secret) {
+        this.enabled = enabled;
+        this.initialRate = initialRate;
+        this.burst = burst;
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.targetLatencyMillis = targetLatencyMillis;
+        this.admissionTtlSeconds = admissionTtlSeconds;
+        this.signer = new TokenSigner(secret);
+        this.rejected = Counter.builder("booking.admission.rejected")
+                .description("Requests sent to the waiting room")
+                .register(meterRegistry);
+        Gauge.builder("booking.admission.waiting", rooms, AdmissionControlService::waiting)
+                .description("Callers queued across all showtime waiting rooms")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code operation} if the caller holds an admission token for the
+     * showtime or the showtime's bucket has room, and answers 429 with queue
+     * details otherwise. The operation's duration feeds the adaptive rate.
+     */
+    public ResponseEntity<?> run(String showtimeId, String userId, String admissionToken,
+            Supplier<? extends ResponseEntity<?>> operation) {
+        if (!enabled || userId == null || userId.isEmpty()) {
+            return operation.get();
+        }
+        long now = System.currentTimeMillis();
+        Room room = room(showtimeId, now);
+        if (!isAdmitted(showtimeId, userId, admissionToken, now) && !room.tryEnter(now)) {
+            rejected.increment();
+            Map<String, Object> body = new HashMap<>();
+            body.put("status", "QUEUE_REQUIRED");
+            body.put("message", "This show is in high demand. Please join the queue.");
+            body.put("join", "/api/admission/showtime/" + showtimeId + "/join");
+            body.put("waiting", room.waiting());
+            body.put("etaSeconds", room.etaSeconds(room.waiting()));
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(body);
+        }
+        long start = System.nanoTime();
+        try {
+            return operation.get();
+        } finally {
+            room.observe((System.nanoTime() - start) / 1_000_000.0, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Puts the caller in the showtime's queue. Admits them straight away when
+     * nobody is ahead and the bucket has room.
+     */
+    public Map<String, Object> join(String showtimeId, String userId) {
+        long now = System.currentTimeMillis();
+        Room room = room(showtimeId, now);
+        long seq = room.join(now);
+        return status(showtimeId, userId, room, seq, now);
+    }
+
+    public Map<String, Object> status(String showtimeId, String userId, String ticket) {
+        String[] fields = signer.verify(QUEUE_PREFIX, ticket, 3);
+        if (fields == null || !fields[0].equals(showtimeId) || !fields[1].equals(userId)) {
+            throw new RuntimeException("Invalid queue ticket");
+        }
+        long now = System.currentTimeMillis();
+        return status(showtimeId, userId, room(showtimeId, now), Long.parseLong(fields[2]), now);
+    }
+
+    /**
+     * Admission token for a caller let in by other means, such as a waitlist
+     * offer, so their booking is not sent back to the queue.
+     */
+    public String admit(String showtimeId, String userId) {
+        long expiresAt = System.currentTimeMillis() / 1000 + admissionTtlSeconds;
+        return signer.sign(ADMISSION_PREFIX, showtimeId, userId, Long.toString(expiresAt));
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdleRooms() {
+        long now = System.currentTimeMillis();
+        rooms.values().removeIf(room -> room.isIdle(now));
+    }
+
+    private Map<String, Object> status(String showtimeId, String userId, Room room, long seq, long now) {
+        Map<String, Object> response = new HashMap<>();
+        Room.Position position = room.poll(seq, now);
+        if (position == Room.Position.ADMITTED) {
+            long expiresAt = now / 1000 + admissionTtlSeconds;
+            response.put("status", "ADMITTED");
+            response.put("admissionToken", signer.sign(ADMISSION_PREFIX, showtimeId, userId,
+                    Long.toString(expiresAt)));
+            response.put("expiresInSeconds", admissionTtlSeconds);
+        } else if (position == Room.Position.EXPIRED) {
+            response.put("status", "EXPIRED");
+            response.put("message", "Your place in the queue has lapsed. Please join again.");
+        } else {
+            long ahead = room.ahead(seq);
+            long eta = room.etaSeconds(ahead);
+            response.put("status", "WAITING");
+            response.put("ticket", signer.sign(QUEUE_PREFIX, showtimeId, userId, Long.toString(seq)));
+            response.put("position", ahead + 1);
+            response.put("etaSeconds", eta);
+            response.put("retryAfterSeconds", Math.max(1, Math.min(5, eta / 2)));
+        }
+        return response;
+    }
+
+    private boolean isAdmitted(String showtimeId, String userId, String token, long now) {
+        String[] fields = signer.verify(ADMISSION_PREFIX, token, 3);
+        return fields != null && fields[0].equals(showtimeId) && fields[1].equals(userId)
+                && Long.parseLong(fields[2]) > now / 1000;
+    }
+
+    private Room room(String showtimeId, long now) {
+        return rooms.computeIfAbsent(showtimeId, id -> new Room(now));
+    }
+
+    private static double waiting(Map<String, Room> rooms) {
+        long total = 0;
+        for (Room room : rooms.values()) {
+            total += room.waiting();
+        }
+        return total;
+    }
+
+    /**
+     * One showtime's bucket and queue. Sequence numbers are handed out in join
+     * order; {@code waiting} holds the ones not yet admitted with when they
+     * were last polled, and {@code ready} the admitted ones not yet collected.
+     */
+    final class Room {
+
+        enum Position {
+            WAITING, ADMITTED, EXPIRED
+        }
+
+        private double rate = initialRate;
+        private double tokens = burst;
+        private long refilledAt;
+        private long nextSeq;
+        private long servedSeq;
+        private final TreeMap<Long, Long> waiting = new TreeMap<>();
+        private final Map<Long, Long> ready = new HashMap<>();
+        private double latencyMillis = -1;
+        private long adjustedAt;
+        private boolean demand;
+        private long usedAt;
+
+        Room(long now) {
+            this.refilledAt = now;
+            this.adjustedAt = now;
+            this.usedAt = now;
+        }
+
+        synchronized boolean tryEnter(long now) {
+            refill(now);
+            usedAt = now;
+            if (waiting.isEmpty() && tokens >= 1) {
+                tokens -= 1;
+                return true;
+            }
+            demand = true;
+            return false;
+        }
+
+        synchronized long join(long now) {
+            long seq = nextSeq++;
+            waiting.put(seq, now);
+            demand = true;
+            refill(now);
+            return seq;
+        }
+
+        synchronized Position poll(long seq, long now) {
+            refill(now);
+            usedAt = now;
+            if (waiting.containsKey(seq)) {
+                waiting.put(seq, now);
+                return Position.WAITING;
+            }
+            return ready.remove(seq) != null ? Position.ADMITTED : Position.EXPIRED;
+        }
+
+        synchronized long ahead(long seq) {
+            // Approximate: counts callers ahead who may since have given up
+            return Math.max(0, seq - servedSeq);
+        }
+
+        synchronized long waiting() {
+            return waiting.size();
+        }
+
+        synchronized long etaSeconds(long ahead) {
+            return (long) Math.ceil(ahead / rate);
+        }
+
+        synchronized void observe(double millis, long now) {
+            latencyMillis = latencyMillis < 0 ? millis
+                    : LATENCY_SMOOTHING * millis + (1 - LATENCY_SMOOTHING) * latencyMillis;
+            if (now - adjustedAt < ADJUST_INTERVAL_MILLIS) {
+                return;
+            }
+            adjustedAt = now;
+            if (latencyMillis > targetLatencyMillis) {
+                rate = Math.max(minRate, rate * BACKOFF_FACTOR);
+            } else if (demand) {
+                rate = Math.min(maxRate, rate + 1);
+            }
+            demand = false;
+        }
+
+        synchronized boolean isIdle(long now) {
+            return waiting.isEmpty() && ready.isEmpty() && now - usedAt > ROOM_IDLE_MILLIS;
+        }
+
+        /**
+         * Adds the tokens earned since the last refill and spends them on the
+         * queue in order, skipping tickets nobody is polling any more.
+         */
+        private void refill(long now) {
+            tokens = Math.min(burst, tokens + rate * (now - refilledAt) / 1000.0);
+            refilledAt = now;
+            ready.values().removeIf(admittedAt -> now - admittedAt > TICKET_IDLE_MILLIS);
+            Iterator<Map.Entry<Long, Long>> queue = waiting.entrySet().iterator();
+            while (queue.hasNext()) {
+                Map.Entry<Long, Long> next = queue.next();
+                if (now - next.getValue() > TICKET_IDLE_MILLIS) {
+                    queue.remove();
+                    servedSeq = next.getKey() + 1;
+                    continue;
+                }
+                if (tokens < 1) {
+                    break;
+                }
+                tokens -= 1;
+                queue.remove();
+                ready.put(next.getKey(), now);
+                servedSeq = next.getKey() + 1;
+            }
+        }
+    }
+}
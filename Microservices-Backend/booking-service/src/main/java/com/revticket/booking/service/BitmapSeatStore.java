@@ -0,0 +1,429 @@
+package com.revticket.booking.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.revticket.booking.dto.LayoutSeat;
+import com.revticket.booking.dto.SeatAvailability;
+import com.revticket.booking.entity.Seat;
+import com.revticket.booking.entity.SeatHold;
+import com.revticket.booking.entity.SeatLayout;
+import com.revticket.booking.entity.ShowtimeSeatState;
+import com.revticket.booking.repository.SeatHoldRepository;
+import com.revticket.booking.repository.SeatLayoutRepository;
+import com.revticket.booking.repository.SeatRepository;
+import com.revticket.booking.repository.ShowtimeSeatStateRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Stores each showtime's seat state as one {@link ShowtimeSeatState} row:
+ * booked, held and disabled bitmaps over the ordinals of a shared,
+ * content-addressed {@link SeatLayout}, plus a {@link SeatHold} row per held
+ * seat for its session and expiry. A seat's id is
+ * {@code <showtimeId>:<ordinal>}.
+ *
+ * <p>Writes read the state row with a locking read, check each seat the same
+ * way the row-mode bulk updates do, and save the new bitmaps under the
+ * entity's optimistic version, so a writer that bypassed the lock fails the
+ * transaction instead of overwriting. Showtimes still stored as seat rows are
+ * read and written through the row-mode queries until
+ * {@link SeatStorageMigrationJob} converts them; nothing else converts, so
+ * reads never write.
+ */
+@Component
+@ConditionalOnProperty(name = "booking.seats.storage", havingValue = "bitmap")
+public class BitmapSeatStore implements SeatStore {
+
+    private static final char ID_SEPARATOR = ':';
+
+    @Autowired
+    private ShowtimeSeatStateRepository stateRepository;
+
+    @Autowired
+    private SeatLayoutRepository layoutRepository;
+
+    @Autowired
+    private SeatHoldRepository holdRepository;
+
+    @Autowired
+    private SeatRepository seatRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Layouts never change once written, so they can be kept for the life of the process
+    private final Map<String, List<LayoutSeat>> layouts = new ConcurrentHashMap<>();
+
+    public static String seatId(String showtimeId, int ordinal) {
+        return showtimeId + ID_SEPARATOR + ordinal;
+    }
+
+    @Override
+    public List<Seat> findByShowtimeId(String showtimeId) {
+        ShowtimeSeatState state = stateRepository.findById(showtimeId).orElse(null);
+        if (state == null) {
+            // Not converted yet
+            return seatRepository.findByShowtimeId(showtimeId);
+        }
+
+        List<LayoutSeat> layout = layout(state.getLayoutId());
+        BitSet booked = BitSet.valueOf(state.getBooked());
+        BitSet held = BitSet.valueOf(state.getHeld());
+        BitSet disabled = BitSet.valueOf(state.getDisabled());
+        Map<Integer, SeatHold> holds = holdRepository.findByShowtimeId(showtimeId).stream()
+                .collect(Collectors.toMap(SeatHold::getOrdinal, Function.identity()));
+
+        List<Seat> seats = new ArrayList<>(layout.size());
+        for (int ordinal = 0; ordinal < layout.size(); ordinal++) {
+            LayoutSeat layoutSeat = layout.get(ordinal);
+            Seat seat = new Seat();
+            seat.setId(seatId(showtimeId, ordinal));
+            seat.setShowtimeId(showtimeId);
+            seat.setRow(layoutSeat.getRow());
+            seat.setNumber(layoutSeat.getNumber());
+            seat.setPrice(layoutSeat.getPrice());
+            seat.setType(layoutSeat.getType());
+            seat.setIsBooked(booked.get(ordinal));
+            seat.setIsDisabled(disabled.get(ordinal));
+            seat.setIsHeld(held.get(ordinal));
+            SeatHold hold = holds.get(ordinal);
+            if (held.get(ordinal) && hold != null) {
+                seat.setHoldExpiry(hold.getHoldExpiry());
+                seat.setSessionId(hold.getSessionId());
+            }
+            seats.add(seat);
+        }
+        return seats;
+    }
+
+    @Override
+    public Set<String> findInitialized(Collection<String> showtimeIds) {
+        Set<String> initialized = new HashSet<>(seatRepository.findInitializedShowtimeIds(showtimeIds));
+        stateRepository.findAllById(showtimeIds).forEach(state -> initialized.add(state.getShowtimeId()));
+        return initialized;
+    }
+
+    @Override
+    public Map<String, SeatAvailability> countSeats(Collection<String> showtimeIds) {
+        Map<String, SeatAvailability> counts = new HashMap<>();
+        Set<String> unconverted = new HashSet<>(showtimeIds);
+        for (ShowtimeSeatState state : stateRepository.findAllById(showtimeIds)) {
+            unconverted.remove(state.getShowtimeId());
+            BitSet disabled = BitSet.valueOf(state.getDisabled());
+            BitSet booked = BitSet.valueOf(state.getBooked());
+            booked.andNot(disabled);
+            BitSet held = BitSet.valueOf(state.getHeld());
+            held.andNot(disabled);
+            held.andNot(booked);
+            counts.put(state.getShowtimeId(), SeatAvailability.of(state.getShowtimeId(), state.getSeatCount(),
+                    disabled.cardinality(), booked.cardinality(), held.cardinality(), 0));
+        }
+        if (!unconverted.isEmpty()) {
+            counts.putAll(RowSeatStore.counts(seatRepository.countByShowtimeIds(unconverted)));
+        }
+        return counts;
+    }
+
+    @Override
+    public void initialize(SeatLayoutTemplate template, Collection<String> showtimeIds) {
+        SeatLayout layout = saveLayout(template.getScreenId(), template.getSeats());
+        List<Object[]> rows = new ArrayList<>(showtimeIds.size());
+        for (String showtimeId : showtimeIds) {
+            rows.add(new Object[] { showtimeId, template.getScreenId(), layout.getId(), layout.getSeatCount() });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO showtime_seat_state (showtime_id, screen_id, layout_id, seat_count, "
+                + "booked, held, disabled, version, updated_at) VALUES (?, ?, ?, ?, '', '', '', 0, NOW())", rows);
+    }
+
+    @Override
+    public int bookSeats(String showtimeId, Collection<String> seatIds, String sessionId, LocalDateTime now) {
+        return write(showtimeId, seatIds, (state, ordinal, hold) -> {
+            if (!state.takeable(ordinal, hold, sessionId, now)) {
+                return false;
+            }
+            state.booked.set(ordinal);
+            state.clearHold(ordinal, hold);
+            return true;
+        }, true, () -> seatRepository.bookSeats(showtimeId, seatIds, sessionId, now));
+    }
+
+    @Override
+    public int holdSeats(String showtimeId, Collection<String> seatIds, String sessionId, LocalDateTime expiry,
+            LocalDateTime now) {
+        return write(showtimeId, seatIds, (state, ordinal, hold) -> {
+            if (!state.takeable(ordinal, hold, sessionId, now)) {
+                return false;
+            }
+            state.held.set(ordinal);
+            SeatHold row = hold != null ? hold : new SeatHold(showtimeId, ordinal, null, null);
+            row.setSessionId(sessionId);
+            row.setHoldExpiry(expiry);
+            state.savedHolds.add(row);
+            return true;
+        }, true, () -> seatRepository.holdSeats(showtimeId, seatIds, sessionId, expiry, now));
+    }
+
+    @Override
+    public int releaseHolds(String showtimeId, Collection<String> seatIds) {
+        return write(showtimeId, seatIds, (state, ordinal, hold) -> {
+            if (state.booked.get(ordinal) || !state.held.get(ordinal)) {
+                return false;
+            }
+            state.clearHold(ordinal, hold);
+            return true;
+        }, false, () -> seatRepository.releaseHolds(showtimeId, seatIds));
+    }
+
+    @Override
+    public int expireHolds(String showtimeId, Collection<String> seatIds, LocalDateTime now) {
+        return write(showtimeId, seatIds, (state, ordinal, hold) -> {
+            if (state.booked.get(ordinal) || !state.held.get(ordinal)
+                    || hold == null || hold.getHoldExpiry() == null || hold.getHoldExpiry().isAfter(now)) {
+                return false;
+            }
+            state.clearHold(ordinal, hold);
+            return true;
+        }, false, () -> seatRepository.expireHolds(showtimeId, seatIds, now));
+    }
+
+    @Override
+    public int unbookSeats(String showtimeId, Collection<String> seatIds) {
+        return write(showtimeId, seatIds, (state, ordinal, hold) -> {
+            if (!state.booked.get(ordinal) && !state.held.get(ordinal)) {
+                return false;
+            }
+            state.booked.clear(ordinal);
+            state.clearHold(ordinal, hold);
+            return true;
+        }, false, () -> seatRepository.unbookSeats(showtimeId, seatIds));
+    }
+
+    @Override
+    public List<Object[]> findActiveHolds() {
+        // Showtimes not converted yet keep their holds on the seat rows
+        List<Object[]> holds = new ArrayList<>(seatRepository.findActiveHolds());
+        for (Object[] row : holdRepository.findActiveHolds()) {
+            holds.add(new Object[] { row[0], seatId((String) row[0], (Integer) row[1]), row[2] });
+        }
+        return holds;
+    }
+
+    /**
+     * Converts one showtime from seat rows to bitmap state: builds (or reuses)
+     * its layout, sets the bitmaps and hold rows from the seat flags, points
+     * bookings at the new seat ids and deletes the seat rows. Returns the new
+     * seat id of each old one, empty if the showtime has no seat rows.
+     *
+     * <p>Must run in a transaction. The seat rows are read with a locking read
+     * first, so row-mode writes in flight finish before the bitmaps are built
+     * and later ones wait, then match nothing once the rows are gone. A second
+     * conversion of the same showtime waits on the same lock and finds the
+     * rows already deleted.
+     */
+    public Map<String, String> convert(String showtimeId) {
+        List<Seat> seats = new ArrayList<>(seatRepository.findByShowtimeIdForUpdate(showtimeId));
+        if (seats.isEmpty()) {
+            return Map.of();
+        }
+        seats.sort(SeatInventory.LAYOUT_ORDER);
+
+        BitSet booked = new BitSet(seats.size());
+        BitSet held = new BitSet(seats.size());
+        BitSet disabled = new BitSet(seats.size());
+        List<SeatHold> holds = new ArrayList<>();
+        List<Object[]> renames = new ArrayList<>(seats.size());
+        Map<String, String> renamed = new HashMap<>(seats.size() * 2);
+        for (int ordinal = 0; ordinal < seats.size(); ordinal++) {
+            Seat seat = seats.get(ordinal);
+            booked.set(ordinal, Boolean.TRUE.equals(seat.getIsBooked()));
+            disabled.set(ordinal, Boolean.TRUE.equals(seat.getIsDisabled()));
+            if (Boolean.TRUE.equals(seat.getIsHeld()) && !Boolean.TRUE.equals(seat.getIsBooked())) {
+                held.set(ordinal);
+                holds.add(new SeatHold(showtimeId, ordinal, seat.getSessionId(), seat.getHoldExpiry()));
+            }
+            renames.add(new Object[] { seatId(showtimeId, ordinal), seat.getId() });
+            renamed.put(seat.getId(), seatId(showtimeId, ordinal));
+        }
+
+        List<LayoutSeat> layoutSeats = new ArrayList<>(seats.size());
+        for (Seat seat : seats) {
+            layoutSeats.add(new LayoutSeat(seat.getRow(), seat.getNumber(), seat.getPrice(), seat.getType()));
+        }
+        ShowtimeSeatState state = newState(showtimeId, null, saveLayout(null, layoutSeats));
+        state.setBooked(booked.toByteArray());
+        state.setHeld(held.toByteArray());
+        state.setDisabled(disabled.toByteArray());
+        stateRepository.save(state);
+        holdRepository.saveAll(holds);
+
+        jdbcTemplate.batchUpdate("UPDATE booking_seats SET seat_id = ? WHERE seat_id = ?", renames);
+        seatRepository.deleteAllInBatch(seats);
+        return renamed;
+    }
+
+    private int write(String showtimeId, Collection<String> seatIds, Transition transition, boolean allOrNothing,
+            IntSupplier rowWrite) {
+        if (seatIds.isEmpty()) {
+            return 0;
+        }
+        ShowtimeSeatState row = stateRepository.findForUpdate(showtimeId).orElse(null);
+        if (row == null) {
+            // Not converted yet: the same conditional update row mode uses
+            return rowWrite.getAsInt();
+        }
+        List<Integer> ordinals = ordinals(showtimeId, seatIds, row.getSeatCount());
+        Map<Integer, SeatHold> holds = ordinals.isEmpty() ? Map.of()
+                : holdRepository.findByShowtimeIdAndOrdinalIn(showtimeId, ordinals).stream()
+                        .collect(Collectors.toMap(SeatHold::getOrdinal, Function.identity()));
+
+        BitmapState state = new BitmapState(row);
+        int changed = 0;
+        for (int ordinal : ordinals) {
+            if (transition.apply(state, ordinal, holds.get(ordinal))) {
+                changed++;
+            }
+        }
+        if (changed == 0 || (allOrNothing && changed != seatIds.size())) {
+            // Like a conditional update that matched fewer rows: report it and write nothing
+            return allOrNothing ? changed : 0;
+        }
+
+        row.setBooked(state.booked.toByteArray());
+        row.setHeld(state.held.toByteArray());
+        stateRepository.save(row);
+        if (!state.deletedHolds.isEmpty()) {
+            holdRepository.deleteAll(state.deletedHolds);
+        }
+        if (!state.savedHolds.isEmpty()) {
+            holdRepository.saveAll(state.savedHolds);
+        }
+        return changed;
+    }
+
+    private List<Integer> ordinals(String showtimeId, Collection<String> seatIds, int seatCount) {
+        String prefix = showtimeId + ID_SEPARATOR;
+        List<Integer> ordinals = new ArrayList<>(seatIds.size());
+        for (String seatId : seatIds) {
+            if (seatId == null || !seatId.startsWith(prefix)) {
+                continue;
+            }
+            try {
+                int ordinal = Integer.parseInt(seatId.substring(prefix.length()));
+                if (ordinal >= 0 && ordinal < seatCount) {
+                    ordinals.add(ordinal);
+                }
+            } catch (NumberFormatException e) {
+                // Not one of ours; skipped like an unknown id in row mode
+            }
+        }
+        return ordinals;
+    }
+
+    private ShowtimeSeatState newState(String showtimeId, String screenId, SeatLayout layout) {
+        ShowtimeSeatState state = new ShowtimeSeatState();
+        state.setShowtimeId(showtimeId);
+        state.setScreenId(screenId);
+        state.setLayoutId(layout.getId());
+        state.setSeatCount(layout.getSeatCount());
+        return state;
+    }
+
+    private SeatLayout saveLayout(String screenId, List<LayoutSeat> layoutSeats) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(layoutSeats);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize seat layout: " + e.getMessage());
+        }
+        String id = contentHash(json);
+        layouts.putIfAbsent(id, layoutSeats);
+        return layoutRepository.findById(id).orElseGet(() ->
+                layoutRepository.save(new SeatLayout(id, screenId, layoutSeats.size(), json, null)));
+    }
+
+    private List<LayoutSeat> layout(String layoutId) {
+        return layouts.computeIfAbsent(layoutId, id -> {
+            SeatLayout layout = layoutRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Seat layout not found: " + id));
+            try {
+                return objectMapper.readValue(layout.getSeats(), new TypeReference<List<LayoutSeat>>() {});
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException("Corrupt seat layout " + id + ": " + e.getMessage());
+            }
+        });
+    }
+
+    private static String contentHash(String content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private interface Transition {
+        boolean apply(BitmapState state, int ordinal, SeatHold hold);
+    }
+
+    /**
+     * Working copy of a state row's bitmaps plus the hold rows to save or delete.
+     */
+    private static final class BitmapState {
+        private final BitSet booked;
+        private final BitSet held;
+        private final BitSet disabled;
+        private final List<SeatHold> savedHolds = new ArrayList<>();
+        private final List<SeatHold> deletedHolds = new ArrayList<>();
+
+        BitmapState(ShowtimeSeatState row) {
+            this.booked = BitSet.valueOf(row.getBooked());
+            this.held = BitSet.valueOf(row.getHeld());
+            this.disabled = BitSet.valueOf(row.getDisabled());
+        }
+
+        /**
+         * Same test as the row-mode updates: free, or held by this session, or
+         * held with a lapsed or missing expiry.
+         */
+        boolean takeable(int ordinal, SeatHold hold, String sessionId, LocalDateTime now) {
+            if (booked.get(ordinal) || disabled.get(ordinal)) {
+                return false;
+            }
+            return !held.get(ordinal) || hold == null || hold.getHoldExpiry() == null
+                    || hold.getHoldExpiry().isBefore(now)
+                    || (sessionId != null && sessionId.equals(hold.getSessionId()));
+        }
+
+        void clearHold(int ordinal, SeatHold hold) {
+            held.clear(ordinal);
+            if (hold != null) {
+                deletedHolds.add(hold);
+            }
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.revticket.booking.service;
+
+import com.revticket.booking.client.MovieServiceClient;
+import com.revticket.booking.client.ShowtimeServiceClient;
+import com.revticket.booking.client.TheaterServiceClient;
+import com.revticket.booking.dto.MovieDTO;
+import com.revticket.booking.dto.ShowtimeDTO;
+import com.revticket.booking.dto.TheaterDTO;
+import com.revticket.booking.entity.Booking;
+import com.revticket.booking.util.BatchLoader;
+import com.revticket.booking.util.TtlCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Resolves the showtime, movie, theater and screen details that booking
+ * responses display. A whole result list is enriched at once: distinct ids
+ * are collected per kind and resolved through bounded TTL caches, so each
+ * showtime, movie, theater or screen is fetched at most once per list and
+ * repeats across requests are served locally. Cache misses go to the batch
+ * endpoints, and misses from concurrent requests share one batch call.
+ */
+@Component
+public class BookingEnricher {
+
+    private static final int BATCH_SIZE = 200;
+    private static final long BATCH_WINDOW_MILLIS = 5L;
+
+    @Autowired
+    private ShowtimeServiceClient showtimeServiceClient;
+
+    @Autowired
+    private MovieServiceClient movieServiceClient;
+
+    @Autowired
+    private TheaterServiceClient theaterServiceClient;
+
+    private final TtlCache<String, ShowtimeDTO> showtimes = new TtlCache<>(5000, 60_000L);
+    private final TtlCache<String, MovieDTO> movies = new TtlCache<>(1000, 10 * 60_000L);
+    private final TtlCache<String, TheaterDTO> theaters = new TtlCache<>(1000, 10 * 60_000L);
+    private final TtlCache<String, String> screenNames = new TtlCache<>(2000, 10 * 60_000L);
+
+    private final BatchLoader<String, ShowtimeDTO> showtimeBatches = new BatchLoader<>(
+            ids -> index(showtimeServiceClient.getShowtimesByIds(new ArrayList<>(ids)), ShowtimeDTO::getId),
+            BATCH_SIZE, BATCH_WINDOW_MILLIS);
+    private final BatchLoader<String, MovieDTO> movieBatches = new BatchLoader<>(
+            ids -> index(movieServiceClient.getMoviesByIds(new ArrayList<>(ids)), MovieDTO::getId),
+            BATCH_SIZE, BATCH_WINDOW_MILLIS);
+    private final BatchLoader<String, TheaterDTO> theaterBatches = new BatchLoader<>(
+            ids -> index(theaterServiceClient.getTheatersByIds(new ArrayList<>(ids)), TheaterDTO::getId),
+            BATCH_SIZE, BATCH_WINDOW_MILLIS);
+    private final BatchLoader<String, String> screenNameBatches = new BatchLoader<>(
+            ids -> screenNamesById(theaterServiceClient.getScreensByIds(new ArrayList<>(ids))),
+            BATCH_SIZE, BATCH_WINDOW_MILLIS);
+
+    public Enrichment enrich(Collection<Booking> bookings) {
+        return enrich(bookings, true, true, true);
+    }
+
+    /**
+     * Resolves showtimes, and only the movie, theater or screen lookups that
+     * are asked for; lookups left out are not fetched at all.
+     */
+    public Enrichment enrich(Collection<Booking> bookings, boolean withMovies, boolean withTheaters,
+            boolean withScreens) {
+        Set<String> showtimeIds = new HashSet<>();
+        for (Booking booking : bookings) {
+            showtimeIds.add(booking.getShowtimeId());
+        }
+        Map<String, ShowtimeDTO> showtimeById = showtimes.getAll(showtimeIds, showtimeBatches::getAll);
+
+        Set<String> movieIds = new HashSet<>();
+        Set<String> theaterIds = new HashSet<>();
+        Set<String> screenIds = new HashSet<>();
+        for (Booking booking : bookings) {
+            ShowtimeDTO showtime = showtimeById.get(booking.getShowtimeId());
+            if (showtime == null) {
+                continue;
+            }
+            if (withMovies) {
+                addIfPresent(movieIds, showtime.getMovieId());
+            }
+            if (withTheaters) {
+                addIfPresent(theaterIds, showtime.getTheaterId());
+            }
+            if (withScreens && (booking.getScreenName() == null || booking.getScreenName().isEmpty())) {
+                addIfPresent(screenIds, showtime.getScreen());
+            }
+        }
+
+        return new Enrichment(
+                showtimeById,
+                movies.getAll(movieIds, movieBatches::getAll),
+                theaters.getAll(theaterIds, theaterBatches::getAll),
+                screenNames.getAll(screenIds, screenNameBatches::getAll));
+    }
+
+    /**
+     * Resolves what a new booking for the showtime will display, so it can
+     * be looked up before the showtime's writer takes the booking.
+     */
+    public Enrichment forShowtime(String showtimeId) {
+        Booking booking = new Booking();
+        booking.setShowtimeId(showtimeId);
+        return enrich(List.of(booking));
+    }
+
+    public ShowtimeDTO showtime(String showtimeId) {
+        return showtimes.get(showtimeId, showtimeBatches::getAll);
+    }
+
+    /**
+     * Copies the display fields resolved in {@code enrichment} onto the booking.
+     * Returns true, and stamps {@code snapshotAt}, only when the showtime, movie
+     * and theater all resolved; a partial snapshot is left for a later retry.
+     */
+    public boolean applySnapshot(Booking booking, Enrichment enrichment) {
+        ShowtimeDTO showtime = enrichment.showtime(booking.getShowtimeId());
+        if (showtime == null) {
+            return false;
+        }
+        booking.setMovieId(Objects.requireNonNullElse(showtime.getMovieId(), ""));
+        booking.setTheaterId(Objects.requireNonNullElse(showtime.getTheaterId(), ""));
+        booking.setShowDateTime(showtime.getShowDateTime());
+        if (booking.getTicketPriceSnapshot() == null) {
+            booking.setTicketPriceSnapshot(showtime.getTicketPrice());
+        }
+
+        String screenId = showtime.getScreen();
+        if ((booking.getScreenName() == null || booking.getScreenName().isEmpty())
+                && screenId != null && !screenId.isEmpty()) {
+            booking.setScreenName(Objects.requireNonNullElse(enrichment.screenName(screenId),
+                    "Screen " + screenId.substring(0, Math.min(8, screenId.length()))));
+        }
+
+        boolean complete = true;
+        if (!booking.getMovieId().isEmpty()) {
+            MovieDTO movie = enrichment.movie(booking.getMovieId());
+            if (movie != null) {
+                booking.setMovieTitle(Objects.requireNonNullElse(movie.getTitle(), ""));
+                booking.setMoviePosterUrl(Objects.requireNonNullElse(movie.getPosterUrl(), ""));
+            } else {
+                booking.setMovieTitle("Movie Info Unavailable");
+                complete = false;
+            }
+        }
+
+        if (!booking.getTheaterId().isEmpty()) {
+            TheaterDTO theater = enrichment.theater(booking.getTheaterId());
+            if (theater != null) {
+                booking.setTheaterName(Objects.requireNonNullElse(theater.getName(), ""));
+                String location = Objects.requireNonNullElse(theater.getLocation(), "");
+                String city = Objects.requireNonNullElse(theater.getCity(), "");
+                booking.setTheaterLocation(location.isEmpty() ? city
+                        : (city.isEmpty() ? location : location + ", " + city));
+            } else {
+                booking.setTheaterName("Theater Info Unavailable");
+                complete = false;
+            }
+        }
+
+        if (complete) {
+            booking.setSnapshotAt(LocalDateTime.now());
+        }
+        return complete;
+    }
+
+    // Ids missing from a batch answer are not cached and are retried next time
+    private static <V> Map<String, V> index(List<V> values, Function<V, String> idOf) {
+        Map<String, V> result = new HashMap<>();
+        if (values != null) {
+            for (V value : values) {
+                if (value != null && idOf.apply(value) != null) {
+                    result.put(idOf.apply(value), value);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static Map<String, String> screenNamesById(List<Map<String, Object>> screens) {
+        Map<String, String> result = new HashMap<>();
+        if (screens != null) {
+            for (Map<String, Object> screen : screens) {
+                if (screen != null && screen.get("id") != null && screen.get("name") != null) {
+                    result.put((String) screen.get("id"), (String) screen.get("name"));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void addIfPresent(Set<String> ids, String id) {
+        if (id != null && !id.isEmpty()) {
+            ids.add(id);
+        }
+    }
+
+    public static class Enrichment {
+        private final Map<String, ShowtimeDTO> showtimes;
+        private final Map<String, MovieDTO> movies;
+        private final Map<String, TheaterDTO> theaters;
+        private final Map<String, String> screenNames;
+
+        Enrichment(Map<String, ShowtimeDTO> showtimes, Map<String, MovieDTO> movies,
+                Map<String, TheaterDTO> theaters, Map<String, String> screenNames) {
+            this.showtimes = showtimes;
+            this.movies = movies;
+            this.theaters = theaters;
+            this.screenNames = screenNames;
+        }
+
+        public ShowtimeDTO showtime(String id) {
+            return id != null ? showtimes.get(id) : null;
+        }
+
+        public MovieDTO movie(String id) {
+            return id != null ? movies.get(id) : null;
+        }
+
+        public TheaterDTO theater(String id) {
+            return id != null ? theaters.get(id) : null;
+        }
+
+        public String screenName(String id) {
+            return id != null ? screenNames.get(id) : null;
+        }
+    }
+}
@@ -1,52 +1,78 @@
 package com.revticket.booking.service;
 
-import com.revticket.booking.client.MovieServiceClient;
-import com.revticket.booking.client.NotificationServiceClient;
-import com.revticket.booking.client.ShowtimeServiceClient;
-import com.revticket.booking.client.TheaterServiceClient;
 import com.revticket.booking.dto.*;
 import com.revticket.booking.entity.Booking;
-import com.revticket.booking.entity.Seat;
+import com.revticket.booking.entity.Refund;
 import com.revticket.booking.repository.BookingRepository;
-import com.revticket.booking.repository.SeatRepository;
+import com.revticket.booking.repository.RefundRepository;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class BookingService {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    // Share of the amount paid returned when a customer's cancellation goes through
+    static final double STANDARD_REFUND_RATE = 0.9;
+
     @Autowired
     private BookingRepository bookingRepository;
 
     @Autowired
-    private SeatRepository seatRepository;
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private BookingEnricher bookingEnricher;
 
     @Autowired
-    private ShowtimeServiceClient showtimeServiceClient;
+    private BookingStatsService bookingStatsService;
 
     @Autowired
-    private MovieServiceClient movieServiceClient;
+    private TicketTokenService ticketTokenService;
 
     @Autowired
-    private TheaterServiceClient theaterServiceClient;
+    private TicketScanService ticketScanService;
 
     @Autowired
-    private NotificationServiceClient notificationServiceClient;
+    private RefundRepository refundRepository;
 
     // private static final int MAX_SEATS_PER_BOOKING = 10;
     // private static final int CANCELLATION_WINDOW_HOURS = 2;
 
     @Transactional
     public BookingResponse createBooking(String userId, BookingRequest request) {
+        return createBooking(userId, request, bookingEnricher.forShowtime(request.getShowtimeId()));
+    }
+
+    /**
+     * Creates a booking whose display snapshot was resolved beforehand, so
+     * the showtime's writer makes no remote calls while it holds the seats.
+     */
+    @Transactional
+    public BookingResponse createBooking(String userId, BookingRequest request,
+            BookingEnricher.Enrichment snapshot) {
         System.out.println("=== BOOKING CREATION START ===");
         System.out.println("UserId: " + userId);
         System.out.println("ShowtimeId: " + request.getShowtimeId());
@@ -56,46 +82,15 @@ public class BookingService {
             throw new RuntimeException("No seats selected");
         }
 
-        // Validate and block seats first
-        List<Seat> showtimeSeats = seatRepository.findByShowtimeId(request.getShowtimeId());
-        System.out.println("Found " + showtimeSeats.size() + " seats for showtime");
-
-        if (showtimeSeats.isEmpty()) {
-            throw new RuntimeException("Seats not initialized for showtime " + request.getShowtimeId()
-                    + ". Please refresh and select seats again.");
-        }
-
-        for (String seatId : request.getSeats()) {
-            System.out.println("Looking for seat: " + seatId);
-            Seat seat = showtimeSeats.stream()
-                    .filter(s -> seatId.equals(s.getId()) ||
-                            seatId.equals(s.getRow() + s.getNumber()))
-                    .findFirst()
-                    .orElseThrow(() -> {
-                        System.out.println("Available seats: "
-                                + showtimeSeats.stream().map(s -> s.getId() + "(" + s.getRow() + s.getNumber() + ")")
-                                        .collect(java.util.stream.Collectors.toList()));
-                        return new RuntimeException("Seat not found: " + seatId);
-                    });
-
-            System.out.println("Found seat: " + seat.getId() + " (" + seat.getRow() + seat.getNumber() + ") - Booked: "
-                    + seat.getIsBooked());
-
-            if (seat.getIsBooked()) {
-                throw new RuntimeException("Seat " + seat.getRow() + seat.getNumber() + " is already booked");
-            }
-
-            if (seat.getIsHeld() && seat.getHoldExpiry() != null && seat.getHoldExpiry().isAfter(LocalDateTime.now())) {
-                throw new RuntimeException(
-                        "Seat " + seat.getRow() + seat.getNumber() + " is currently held by another user");
-            }
-        }
+        // Validate and block seats atomically through the inventory engine
+        List<String> seatIds = seatInventoryService.book(request.getShowtimeId(), request.getSeats(),
+                request.getSessionId());
 
         // Create booking
         Booking booking = new Booking();
         booking.setUserId(userId);
         booking.setShowtimeId(request.getShowtimeId());
-        booking.setSeats(request.getSeats());
+        booking.setSeats(seatIds);
         if (request.getSeatLabels() != null && !request.getSeatLabels().isEmpty()) {
             booking.setSeatLabels(request.getSeatLabels());
         }
@@ -106,50 +101,79 @@ public class BookingService {
         booking.setCustomerPhone(Objects.requireNonNullElse(request.getCustomerPhone(), ""));
         booking.setStatus(Booking.BookingStatus.CONFIRMED);
         booking.setTicketNumber("TKT" + UUID.randomUUID().toString().substring(0, 8).toUpperCase());
-        booking.setQrCode("QR_" + UUID.randomUUID().toString());
+        bookingEnricher.applySnapshot(booking, snapshot);
 
         booking = bookingRepository.save(booking);
-
-        // Send booking confirmation notification
-        try {
-            sendBookingConfirmationNotification(booking);
-            sendAdminNewBookingNotification(booking);
-        } catch (Exception e) {
-            System.out.println("Failed to send booking confirmation notification: " + e.getMessage());
-        }
-
-        // Block the seats
-        for (String seatId : request.getSeats()) {
-            Seat seat = showtimeSeats.stream()
-                    .filter(s -> seatId.equals(s.getId()) ||
-                            seatId.equals(s.getRow() + s.getNumber()))
-                    .findFirst()
-                    .orElse(null);
-            if (seat != null) {
-                seat.setIsBooked(true);
-                seat.setIsHeld(false);
-                seat.setHoldExpiry(null);
-                seat.setSessionId(null);
-                seatRepository.save(seat);
-            }
-        }
+        // The signed ticket carries the booking id, so it can only be issued once saved
+        booking.setQrCode(ticketTokenService.issue(booking, ticketLabels(booking)));
+        outboxService.bookingCreated(booking);
+        bookingStatsService.changed(null, booking);
 
         return mapToResponse(booking);
     }
 
     @Transactional(readOnly = true)
     public List<BookingResponse> getUserBookings(String userId) {
-        return bookingRepository.findByUserId(Objects.requireNonNullElse(userId, ""))
-                .stream()
-                .sorted((b1, b2) -> b2.getBookingDate().compareTo(b1.getBookingDate()))
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return getUserBookings(userId, false);
+    }
+
+    @Transactional(readOnly = true)
+    public List<BookingResponse> getUserBookings(String userId, boolean enrich) {
+        return getUserBookings(userId, enrich, BookingView.FULL);
+    }
+
+    @Transactional(readOnly = true)
+    public List<BookingResponse> getUserBookings(String userId, boolean enrich, BookingView view) {
+        String user = Objects.requireNonNullElse(userId, "");
+        List<Booking> bookings = view.isProjected()
+                ? fromSummaries(bookingRepository.findUserSummaries(user, Pageable.unpaged()), view)
+                : bookingRepository.findByUserIdOrderByBookingDateDescIdDesc(user);
+        return mapAll(bookings, enrich, view);
+    }
+
+    @Transactional(readOnly = true)
+    public BookingPage getUserBookingsPage(String userId, String cursor, Integer limit, boolean enrich) {
+        return getUserBookingsPage(userId, cursor, limit, enrich, BookingView.FULL);
+    }
+
+    @Transactional(readOnly = true)
+    public BookingPage getUserBookingsPage(String userId, String cursor, Integer limit, boolean enrich,
+            BookingView view) {
+        String user = Objects.requireNonNullElse(userId, "");
+        if (view.isProjected()) {
+            return page(cursor, limit, enrich, view,
+                    pageable -> fromSummaries(bookingRepository.findUserSummaries(user, pageable), view),
+                    (after, pageable) -> fromSummaries(
+                            bookingRepository.findUserSummariesAfter(user, after.date, after.id, pageable), view));
+        }
+        return page(cursor, limit, enrich, view,
+                pageable -> bookingRepository.findByUserIdOrderByBookingDateDescIdDesc(user, pageable),
+                (after, pageable) -> bookingRepository.findUserPageAfter(user, after.date, after.id, pageable));
     }
 
     @Transactional(readOnly = true)
     public Optional<BookingResponse> getBookingById(String id) {
-        return bookingRepository.findById(Objects.requireNonNullElse(id, ""))
-                .map(this::mapToResponse);
+        return getBookingById(id, false);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<BookingResponse> getBookingById(String id, boolean enrich) {
+        return getBookingById(id, enrich, BookingView.FULL);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<BookingResponse> getBookingById(String id, boolean enrich, BookingView view) {
+        String bookingId = Objects.requireNonNullElse(id, "");
+        Optional<Booking> booking = view.isProjected()
+                ? bookingRepository.findSummaryById(bookingId)
+                        .map(summary -> fromSummaries(List.of(summary), view).get(0))
+                : bookingRepository.findById(bookingId);
+        return booking.map(b -> mapAll(List.of(b), enrich, view).get(0));
+    }
+
+    public String getShowtimeId(String bookingId) {
+        return bookingRepository.findShowtimeIdById(Objects.requireNonNullElse(bookingId, ""))
+                .orElseThrow(() -> new RuntimeException("Booking not found"));
     }
 
     @Transactional
@@ -161,29 +185,43 @@ public class BookingService {
             throw new RuntimeException("Only confirmed bookings can request cancellation");
         }
 
+        BookingStatsService.Contribution before = bookingStatsService.contribution(booking);
         booking.setStatus(Booking.BookingStatus.CANCELLATION_PENDING);
         booking.setCancellationReason(Objects.requireNonNullElse(reason, ""));
         booking.setCancellationRequestedAt(LocalDateTime.now());
 
         booking = bookingRepository.save(booking);
-
-        // Send cancellation request notification to admin
-        try {
-            sendCancellationRequestNotification(booking);
-        } catch (Exception e) {
-            System.out.println("Failed to send cancellation request notification: " + e.getMessage());
-        }
+        outboxService.cancellationRequested(booking);
+        bookingStatsService.changed(before, booking);
 
         return mapToResponse(booking);
     }
 
     @Transactional(readOnly = true)
     public List<BookingResponse> getCancellationRequests() {
-        return bookingRepository.findAll()
-                .stream()
-                .filter(b -> b.getStatus() == Booking.BookingStatus.CANCELLATION_PENDING)
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return getCancellationRequests(false);
+    }
+
+    @Transactional(readOnly = true)
+    public List<BookingResponse> getCancellationRequests(boolean enrich) {
+        return mapAll(bookingRepository.findByStatusOrderByBookingDateDescIdDesc(
+                Booking.BookingStatus.CANCELLATION_PENDING), enrich);
+    }
+
+    @Transactional(readOnly = true)
+    public BookingPage getCancellationRequestsPage(String cursor, Integer limit, boolean enrich) {
+        Booking.BookingStatus status = Booking.BookingStatus.CANCELLATION_PENDING;
+        return page(cursor, limit, enrich, BookingView.FULL,
+                pageable -> bookingRepository.findByStatusOrderByBookingDateDescIdDesc(status, pageable),
+                (after, pageable) -> bookingRepository.findStatusPageAfter(status, after.date, after.id, pageable));
+    }
+
+    /**
+     * Refund for cancelling a live booking at {@code rate} of what was paid;
+     * bookings never paid for have nothing to refund.
+     */
+    static double refundFor(Booking booking, double rate) {
+        return booking.getStatus() == Booking.BookingStatus.PENDING ? 0.0 : booking.getTotalAmount() * rate;
     }
 
     @Transactional
@@ -195,45 +233,62 @@ public class BookingService {
             throw new RuntimeException("Booking is already cancelled");
         }
 
+        BookingStatsService.Contribution before = bookingStatsService.contribution(booking);
+        double refund = refundFor(booking, STANDARD_REFUND_RATE);
         booking.setStatus(Booking.BookingStatus.CANCELLED);
         if (reason != null && !reason.isEmpty()) {
             booking.setCancellationReason(Objects.requireNonNullElse(reason, ""));
         }
 
-        List<Seat> showtimeSeats = seatRepository.findByShowtimeId(booking.getShowtimeId());
-        for (String seatId : booking.getSeats()) {
-            Seat seat = showtimeSeats.stream()
-                    .filter(s -> seatId.equals(s.getId()))
-                    .findFirst()
-                    .orElse(null);
-            if (seat != null) {
-                seat.setIsBooked(false);
-                seat.setIsHeld(false);
-                seatRepository.save(seat);
-            }
-        }
+        seatInventoryService.unbook(booking.getShowtimeId(), booking.getSeats());
 
-        booking.setRefundAmount(booking.getTotalAmount() * 0.9);
+        booking.setRefundAmount(refund);
         booking.setRefundDate(LocalDateTime.now());
 
         Booking savedBooking = bookingRepository.save(booking);
-
-        // Send booking cancellation notification
-        try {
-            sendBookingCancelledNotification(savedBooking);
-        } catch (Exception e) {
-            System.out.println("Failed to send booking cancellation notification: " + e.getMessage());
-        }
+        refundRepository.save(new Refund(savedBooking.getId(), null, savedBooking.getRefundAmount(),
+                savedBooking.getRefundDate()));
+        outboxService.bookingCancelled(savedBooking);
+        bookingStatsService.changed(before, savedBooking);
+        ticketScanService.revoke(savedBooking.getId());
 
         return mapToResponse(savedBooking);
     }
 
     @Transactional(readOnly = true)
     public List<BookingResponse> getAllBookings() {
-        return bookingRepository.findAll()
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return getAllBookings(false);
+    }
+
+    @Transactional(readOnly = true)
+    public List<BookingResponse> getAllBookings(boolean enrich) {
+        return getAllBookings(enrich, BookingView.FULL);
+    }
+
+    @Transactional(readOnly = true)
+    public List<BookingResponse> getAllBookings(boolean enrich, BookingView view) {
+        List<Booking> bookings = view.isProjected()
+                ? fromSummaries(bookingRepository.findSummaries(Pageable.unpaged()), view)
+                : bookingRepository.findAll();
+        return mapAll(bookings, enrich, view);
+    }
+
+    @Transactional(readOnly = true)
+    public BookingPage getAllBookingsPage(String cursor, Integer limit, boolean enrich) {
+        return getAllBookingsPage(cursor, limit, enrich, BookingView.FULL);
+    }
+
+    @Transactional(readOnly = true)
+    public BookingPage getAllBookingsPage(String cursor, Integer limit, boolean enrich, BookingView view) {
+        if (view.isProjected()) {
+            return page(cursor, limit, enrich, view,
+                    pageable -> fromSummaries(bookingRepository.findSummaries(pageable), view),
+                    (after, pageable) -> fromSummaries(
+                            bookingRepository.findSummariesAfter(after.date, after.id, pageable), view));
+        }
+        return page(cursor, limit, enrich, view,
+                bookingRepository::findAllByOrderByBookingDateDescIdDesc,
+                (after, pageable) -> bookingRepository.findPageAfter(after.date, after.id, pageable));
     }
 
     @Transactional
@@ -241,21 +296,13 @@ public class BookingService {
         Booking booking = bookingRepository.findById(Objects.requireNonNullElse(id, ""))
                 .orElseThrow(() -> new RuntimeException("Booking not found"));
 
-        List<Seat> showtimeSeats = seatRepository.findByShowtimeId(booking.getShowtimeId());
-        for (String seatId : booking.getSeats()) {
-            Seat seat = showtimeSeats.stream()
-                    .filter(s -> seatId.equals(s.getId()) ||
-                            seatId.equals(s.getRow() + s.getNumber()))
-                    .findFirst()
-                    .orElse(null);
-            if (seat != null) {
-                seat.setIsBooked(false);
-                seat.setIsHeld(false);
-                seatRepository.save(seat);
-            }
+        if (booking.getStatus() != Booking.BookingStatus.CANCELLED) {
+            seatInventoryService.unbook(booking.getShowtimeId(), booking.getSeats());
         }
 
         bookingRepository.delete(booking);
+        bookingStatsService.changed(bookingStatsService.contribution(booking), null);
+        ticketScanService.revoke(booking.getId());
     }
 
     @Transactional
@@ -267,8 +314,11 @@ public class BookingService {
             throw new RuntimeException("Cannot scan cancelled booking");
         }
 
+        BookingStatsService.Contribution before = bookingStatsService.contribution(booking);
         booking.setStatus(Booking.BookingStatus.CONFIRMED);
-        return mapToResponse(bookingRepository.save(booking));
+        booking = bookingRepository.save(booking);
+        bookingStatsService.changed(before, booking);
+        return mapToResponse(booking);
     }
 
     @Transactional
@@ -280,45 +330,17 @@ public class BookingService {
             throw new RuntimeException("Cannot reassign seats for cancelled booking");
         }
 
-        List<Seat> showtimeSeats = seatRepository.findByShowtimeId(booking.getShowtimeId());
-
-        for (String seatId : booking.getSeats()) {
-            Seat seat = showtimeSeats.stream()
-                    .filter(s -> seatId.equals(s.getId()) ||
-                            seatId.equals(s.getRow() + s.getNumber()))
-                    .findFirst()
-                    .orElse(null);
-            if (seat != null) {
-                seat.setIsBooked(false);
-                seatRepository.save(seat);
-            }
-        }
-
-        for (String seatId : newSeats) {
-            Seat seat = showtimeSeats.stream()
-                    .filter(s -> seatId.equals(s.getId()) ||
-                            seatId.equals(s.getRow() + s.getNumber()))
-                    .findFirst()
-                    .orElseThrow(() -> new RuntimeException("Seat not found: " + seatId));
-            if (seat.getIsBooked()) {
-                throw new RuntimeException("Seat " + seat.getRow() + seat.getNumber() + " is already booked");
-            }
-        }
-
-        booking.setSeats(newSeats);
-        for (String seatId : newSeats) {
-            Seat seat = showtimeSeats.stream()
-                    .filter(s -> seatId.equals(s.getId()) ||
-                            seatId.equals(s.getRow() + s.getNumber()))
-                    .findFirst()
-                    .orElse(null);
-            if (seat != null) {
-                seat.setIsBooked(true);
-                seatRepository.save(seat);
-            }
-        }
+        BookingStatsService.Contribution before = bookingStatsService.contribution(booking);
+        seatInventoryService.unbook(booking.getShowtimeId(), booking.getSeats());
+        booking.setSeats(seatInventoryService.book(booking.getShowtimeId(), newSeats, null));
+        // Reissue so the ticket shows the new seats, and stop the old ticket admitting
+        booking.setSeatLabels(new ArrayList<>(seatInventoryService.labels(booking.getShowtimeId(), booking.getSeats())));
+        booking.setQrCode(ticketTokenService.reissue(booking, ticketLabels(booking)));
 
-        return mapToResponse(bookingRepository.save(booking));
+        booking = bookingRepository.save(booking);
+        ticketScanService.reissued(booking.getId(), booking.getTicketReissuedAt());
+        bookingStatsService.changed(before, booking);
+        return mapToResponse(booking);
     }
 
     @Transactional
@@ -326,108 +348,162 @@ public class BookingService {
         Booking booking = bookingRepository.findById(Objects.requireNonNullElse(bookingId, ""))
                 .orElseThrow(() -> new RuntimeException("Booking not found"));
 
+        BookingStatsService.Contribution before = bookingStatsService.contribution(booking);
         booking.setPaymentId(transactionId);
         booking.setStatus(Booking.BookingStatus.CONFIRMED);
 
         booking = bookingRepository.save(booking);
+        bookingStatsService.changed(before, booking);
         return mapToResponse(booking);
     }
 
     public BookingStatsResponse getBookingStats() {
-        Long totalBookings = bookingRepository.count();
-        Long cancelledBookings = bookingRepository.countByStatus(Booking.BookingStatus.CANCELLED);
-        LocalDateTime now = LocalDateTime.now();
-        Long bookingsLast7Days = bookingRepository.countByDateRange(now.minusDays(7), now);
-        Long bookingsLast30Days = bookingRepository.countByDateRange(now.minusDays(30), now);
-        Long totalSeatsBooked = bookingRepository.findAll().stream()
-                .mapToLong(b -> b.getSeats() != null ? b.getSeats().size() : 0)
-                .sum();
-        return new BookingStatsResponse(totalBookings, cancelledBookings, bookingsLast7Days, bookingsLast30Days,
-                totalSeatsBooked);
+        return bookingStatsService.stats();
+    }
+
+    /**
+     * Fetches one newest-first page by (bookingDate, id) keyset. One extra row is
+     * read to tell whether another page follows; the cursor is the last row's
+     * key, so paging cost does not grow with how far in the caller is.
+     */
+    private BookingPage page(String cursor, Integer limit, boolean enrich, BookingView view,
+            Function<Pageable, List<Booking>> first,
+            BiFunction<PageCursor, Pageable, List<Booking>> after) {
+        int size = Math.max(1, Math.min(Objects.requireNonNullElse(limit, DEFAULT_PAGE_SIZE), MAX_PAGE_SIZE));
+        Pageable pageable = PageRequest.of(0, size + 1);
+        List<Booking> rows = cursor == null || cursor.isEmpty()
+                ? first.apply(pageable)
+                : after.apply(PageCursor.decode(cursor), pageable);
+
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            nextCursor = PageCursor.encode(rows.get(size - 1));
+        }
+        return new BookingPage(mapAll(rows, enrich, view), nextCursor);
+    }
+
+    private static final class PageCursor {
+        private final LocalDateTime date;
+        private final String id;
+
+        private PageCursor(LocalDateTime date, String id) {
+            this.date = date;
+            this.id = id;
+        }
+
+        static String encode(Booking booking) {
+            String key = booking.getBookingDate() + "|" + booking.getId();
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static PageCursor decode(String cursor) {
+            try {
+                String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int split = key.indexOf('|');
+                return new PageCursor(LocalDateTime.parse(key.substring(0, split)), key.substring(split + 1));
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Invalid page cursor");
+            }
+        }
+    }
+
+    private List<String> ticketLabels(Booking booking) {
+        if (booking.getSeatLabels() != null && !booking.getSeatLabels().isEmpty()) {
+            return booking.getSeatLabels();
+        }
+        List<String> labels = seatInventoryService.labels(booking.getShowtimeId(), booking.getSeats());
+        return labels.isEmpty() ? booking.getSeats() : labels;
     }
 
     private BookingResponse mapToResponse(Booking booking) {
-        String movieId = "";
-        String movieTitle = "";
-        String moviePosterUrl = "";
-        String theaterId = "";
-        String theaterName = "";
-        String theaterLocation = "";
-        LocalDateTime showtime = null;
-        String screen = booking.getScreenName();
-        Double ticketPrice = booking.getTicketPriceSnapshot();
-
-        try {
-            ShowtimeDTO showtimeDTO = showtimeServiceClient.getShowtimeById(booking.getShowtimeId());
-            if (showtimeDTO != null) {
-                movieId = Objects.requireNonNullElse(showtimeDTO.getMovieId(), "");
-                theaterId = Objects.requireNonNullElse(showtimeDTO.getTheaterId(), "");
-                showtime = showtimeDTO.getShowDateTime();
-                if (ticketPrice == null) {
-                    ticketPrice = showtimeDTO.getTicketPrice();
-                }
-
-                // Get screen name from theater service
-                if (screen == null || screen.isEmpty()) {
-                    String screenId = showtimeDTO.getScreen();
-                    if (screenId != null && !screenId.isEmpty()) {
-                        try {
-                            Map<String, Object> screenData = theaterServiceClient.getScreenById(screenId);
-                            if (screenData != null && screenData.containsKey("name")) {
-                                screen = (String) screenData.get("name");
-                            } else {
-                                screen = "Screen " + screenId.substring(0, Math.min(8, screenId.length()));
-                            }
-                        } catch (Exception e) {
-                            screen = "Screen Info Unavailable";
-                        }
-                    }
-                }
-
-                if (!movieId.isEmpty()) {
-                    try {
-                        MovieDTO movieDTO = movieServiceClient.getMovieById(movieId);
-                        if (movieDTO != null) {
-                            movieTitle = Objects.requireNonNullElse(movieDTO.getTitle(), "");
-                            moviePosterUrl = Objects.requireNonNullElse(movieDTO.getPosterUrl(), "");
-                        }
-                    } catch (Exception e) {
-                        movieTitle = "Movie Info Unavailable";
-                    }
-                }
-
-                if (!theaterId.isEmpty()) {
-                    try {
-                        TheaterDTO theaterDTO = theaterServiceClient.getTheaterById(theaterId);
-                        if (theaterDTO != null) {
-                            theaterName = Objects.requireNonNullElse(theaterDTO.getName(), "");
-                            String location = Objects.requireNonNullElse(theaterDTO.getLocation(), "");
-                            String city = Objects.requireNonNullElse(theaterDTO.getCity(), "");
-                            theaterLocation = location.isEmpty() ? city
-                                    : (city.isEmpty() ? location : location + ", " + city);
-                        }
-                    } catch (Exception e) {
-                        theaterName = "Theater Info Unavailable";
+        return mapAll(List.of(booking), false).get(0);
+    }
+
+    private List<BookingResponse> mapAll(List<Booking> bookings, boolean enrich) {
+        return mapAll(bookings, enrich, BookingView.FULL);
+    }
+
+    /**
+     * Builds responses from the booking's own snapshot columns. Bookings without
+     * a snapshot, or every booking when {@code enrich} is set, are resolved
+     * against the other services in one batch instead, limited to the lookups
+     * the view's fields need; a view without such fields skips them entirely.
+     */
+    private List<BookingResponse> mapAll(List<Booking> bookings, boolean enrich, BookingView view) {
+        List<Booking> toEnrich = !view.needsShowtime() ? List.of() : enrich ? bookings : bookings.stream()
+                .filter(b -> b.getSnapshotAt() == null)
+                .collect(Collectors.toList());
+        BookingEnricher.Enrichment enrichment = toEnrich.isEmpty() ? null
+                : bookingEnricher.enrich(toEnrich, view.needsMovies(), view.needsTheaters(), view.needsScreens());
+
+        return bookings.stream()
+                .map(booking -> {
+                    if (enrichment == null || (!enrich && booking.getSnapshotAt() != null)) {
+                        return mapSnapshot(booking);
                     }
-                }
+                    Booking enriched = new Booking();
+                    BeanUtils.copyProperties(booking, enriched);
+                    bookingEnricher.applySnapshot(enriched, enrichment);
+                    return mapSnapshot(enriched);
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Detached bookings holding the projected columns, for the same mapping as
+     * loaded entities. Seats and labels are filled only when the view asks for
+     * them, with one query each for the whole list.
+     */
+    private List<Booking> fromSummaries(List<BookingSummary> summaries, BookingView view) {
+        Map<String, Booking> byId = new LinkedHashMap<>();
+        for (BookingSummary summary : summaries) {
+            Booking booking = new Booking();
+            booking.setId(summary.getId());
+            booking.setUserId(summary.getUserId());
+            booking.setShowtimeId(summary.getShowtimeId());
+            booking.setMovieId(summary.getMovieId());
+            booking.setMovieTitle(summary.getMovieTitle());
+            booking.setTheaterId(summary.getTheaterId());
+            booking.setTheaterName(summary.getTheaterName());
+            booking.setShowDateTime(summary.getShowDateTime());
+            booking.setScreenName(summary.getScreenName());
+            booking.setTicketPriceSnapshot(summary.getTicketPriceSnapshot());
+            booking.setTotalAmount(summary.getTotalAmount());
+            booking.setBookingDate(summary.getBookingDate());
+            booking.setStatus(summary.getStatus());
+            booking.setTicketNumber(summary.getTicketNumber());
+            booking.setRefundAmount(summary.getRefundAmount());
+            booking.setSnapshotAt(summary.getSnapshotAt());
+            byId.put(booking.getId(), booking);
+        }
+        if (!byId.isEmpty() && view.includes("seats")) {
+            for (Object[] row : bookingRepository.findSeatsByIdIn(byId.keySet())) {
+                byId.get((String) row[0]).getSeats().add((String) row[1]);
+            }
+        }
+        if (!byId.isEmpty() && view.includes("seatLabels")) {
+            for (Object[] row : bookingRepository.findSeatLabelsByIdIn(byId.keySet())) {
+                byId.get((String) row[0]).getSeatLabels().add((String) row[1]);
             }
-        } catch (Exception e) {
-            // Fallback to empty values if showtime service fails
         }
+        return new ArrayList<>(byId.values());
+    }
 
+    private BookingResponse mapSnapshot(Booking booking) {
         return BookingResponse.builder()
                 .id(Objects.requireNonNullElse(booking.getId(), ""))
                 .userId(Objects.requireNonNullElse(booking.getUserId(), ""))
-                .movieId(movieId)
-                .movieTitle(movieTitle)
-                .moviePosterUrl(moviePosterUrl)
-                .theaterId(theaterId)
-                .theaterName(theaterName)
-                .theaterLocation(theaterLocation)
+                .movieId(Objects.requireNonNullElse(booking.getMovieId(), ""))
+                .movieTitle(Objects.requireNonNullElse(booking.getMovieTitle(), ""))
+                .moviePosterUrl(Objects.requireNonNullElse(booking.getMoviePosterUrl(), ""))
+                .theaterId(Objects.requireNonNullElse(booking.getTheaterId(), ""))
+                .theaterName(Objects.requireNonNullElse(booking.getTheaterName(), ""))
+                .theaterLocation(Objects.requireNonNullElse(booking.getTheaterLocation(), ""))
                 .showtimeId(Objects.requireNonNullElse(booking.getShowtimeId(), ""))
-                .showtime(showtime)
-                .screen(screen)
-                .ticketPrice(ticketPrice)
+                .showtime(booking.getShowDateTime())
+                .screen(booking.getScreenName())
+                .ticketPrice(booking.getTicketPriceSnapshot())
                 .seats(booking.getSeats())
                 .seatLabels(booking.getSeatLabels())
                 .totalAmount(booking.getTotalAmount())
@@ -444,155 +520,4 @@ public class BookingService {
                 .cancellationReason(Objects.requireNonNullElse(booking.getCancellationReason(), ""))
                 .build();
     }
-
-    private void sendBookingConfirmationNotification(Booking booking) {
-        Map<String, Object> request = new java.util.HashMap<>();
-        request.put("customerEmail", booking.getCustomerEmail());
-        request.put("customerName", booking.getCustomerName());
-        request.put("ticketNumber", booking.getTicketNumber());
-        request.put("bookingId", booking.getId());
-        request.put("totalAmount", booking.getTotalAmount());
-        // Use seat labels if available, otherwise use seat IDs
-        if (booking.getSeatLabels() != null && !booking.getSeatLabels().isEmpty()) {
-            request.put("seats", booking.getSeatLabels());
-        } else {
-            request.put("seats", booking.getSeats());
-        }
-
-        // Fetch movie and theater details
-        try {
-            ShowtimeDTO showtimeDTO = showtimeServiceClient.getShowtimeById(booking.getShowtimeId());
-            if (showtimeDTO != null) {
-                request.put("showDateTime", showtimeDTO.getShowDateTime());
-
-                // Get movie details
-                if (showtimeDTO.getMovieId() != null) {
-                    try {
-                        MovieDTO movieDTO = movieServiceClient.getMovieById(showtimeDTO.getMovieId());
-                        if (movieDTO != null) {
-                            request.put("movieTitle", movieDTO.getTitle());
-                        }
-                    } catch (Exception e) {
-                        request.put("movieTitle", "Movie Info Unavailable");
-                    }
-                }
-
-                // Get theater details
-                if (showtimeDTO.getTheaterId() != null) {
-                    try {
-                        TheaterDTO theaterDTO = theaterServiceClient.getTheaterById(showtimeDTO.getTheaterId());
-                        if (theaterDTO != null) {
-                            request.put("theaterName", theaterDTO.getName());
-                        }
-                    } catch (Exception e) {
-                        request.put("theaterName", "Theater Info Unavailable");
-                    }
-                }
-
-                // Get screen details
-                if (showtimeDTO.getScreen() != null) {
-                    try {
-                        Map<String, Object> screenData = theaterServiceClient.getScreenById(showtimeDTO.getScreen());
-                        if (screenData != null && screenData.containsKey("name")) {
-                            request.put("screenName", screenData.get("name"));
-                        } else {
-                            request.put("screenName", "Screen " + showtimeDTO.getScreen().substring(0,
-                                    Math.min(8, showtimeDTO.getScreen().length())));
-                        }
-                    } catch (Exception e) {
-                        request.put("screenName", "Screen Info Unavailable");
-                    }
-                }
-            }
-        } catch (Exception e) {
-            System.out.println("Failed to fetch booking details for notification: " + e.getMessage());
-        }
-
-        notificationServiceClient.sendBookingConfirmation(request);
-    }
-
-    private void sendCancellationRequestNotification(Booking booking) {
-        Map<String, Object> request = new java.util.HashMap<>();
-        request.put("bookingId", booking.getId());
-        request.put("customerName", booking.getCustomerName());
-        request.put("customerEmail", booking.getCustomerEmail());
-        request.put("reason", booking.getCancellationReason());
-        request.put("ticketNumber", booking.getTicketNumber());
-        notificationServiceClient.sendCancellationRequest(request);
-    }
-
-    private void sendBookingCancelledNotification(Booking booking) {
-        Map<String, Object> request = new java.util.HashMap<>();
-        request.put("customerEmail", booking.getCustomerEmail());
-        request.put("customerName", booking.getCustomerName());
-        request.put("ticketNumber", booking.getTicketNumber());
-        request.put("refundAmount", booking.getRefundAmount());
-        notificationServiceClient.sendBookingCancelled(request);
-    }
-
-    private void sendAdminNewBookingNotification(Booking booking) {
-        Map<String, Object> request = new java.util.HashMap<>();
-        request.put("bookingId", booking.getId());
-        request.put("customerName", booking.getCustomerName());
-        request.put("customerEmail", booking.getCustomerEmail());
-        request.put("ticketNumber", booking.getTicketNumber());
-        request.put("totalAmount", booking.getTotalAmount());
-        // Use seat labels if available, otherwise use seat IDs
-        if (booking.getSeatLabels() != null && !booking.getSeatLabels().isEmpty()) {
-            request.put("seats", booking.getSeatLabels());
-        } else {
-            request.put("seats", booking.getSeats());
-        }
-
-        // Fetch movie and theater details for admin notification
-        try {
-            ShowtimeDTO showtimeDTO = showtimeServiceClient.getShowtimeById(booking.getShowtimeId());
-            if (showtimeDTO != null) {
-                request.put("showDateTime", showtimeDTO.getShowDateTime());
-
-                // Get movie details
-                if (showtimeDTO.getMovieId() != null) {
-                    try {
-                        MovieDTO movieDTO = movieServiceClient.getMovieById(showtimeDTO.getMovieId());
-                        if (movieDTO != null) {
-                            request.put("movieTitle", movieDTO.getTitle());
-                        }
-                    } catch (Exception e) {
-                        request.put("movieTitle", "Movie Info Unavailable");
-                    }
-                }
-
-                // Get theater details
-                if (showtimeDTO.getTheaterId() != null) {
-                    try {
-                        TheaterDTO theaterDTO = theaterServiceClient.getTheaterById(showtimeDTO.getTheaterId());
-                        if (theaterDTO != null) {
-                            request.put("theaterName", theaterDTO.getName());
-                        }
-                    } catch (Exception e) {
-                        request.put("theaterName", "Theater Info Unavailable");
-                    }
-                }
-
-                // Get screen details
-                if (showtimeDTO.getScreen() != null) {
-                    try {
-                        Map<String, Object> screenData = theaterServiceClient.getScreenById(showtimeDTO.getScreen());
-                        if (screenData != null && screenData.containsKey("name")) {
-                            request.put("screenName", screenData.get("name"));
-                        } else {
-                            request.put("screenName", "Screen " + showtimeDTO.getScreen().substring(0,
-                                    Math.min(8, showtimeDTO.getScreen().length())));
-                        }
-                    } catch (Exception e) {
-                        request.put("screenName", "Screen Info Unavailable");
-                    }
-                }
-            }
-        } catch (Exception e) {
-            System.out.println("Failed to fetch booking details for admin notification: " + e.getMessage());
-        }
-
-        notificationServiceClient.sendAdminNewBooking(request);
-    }
 }
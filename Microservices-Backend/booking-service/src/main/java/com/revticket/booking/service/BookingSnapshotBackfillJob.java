@@ -0,0 +1,119 @@
+package com.revticket.booking.service;
+
+import com.revticket.booking.entity.Booking;
+import com.revticket.booking.entity.JobCheckpoint;
+import com.revticket.booking.repository.BookingRepository;
+import com.revticket.booking.repository.JobCheckpointRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fills the display snapshot columns of bookings created before they existed.
+ * Walks bookings in id order, one chunk per transaction, and records the last
+ * id handled in {@code job_checkpoints} so a restarted run resumes where the
+ * previous one stopped. Bookings whose details could not be resolved keep a
+ * null {@code snapshot_at} and are picked up again after a reset.
+ */
+@Component
+public class BookingSnapshotBackfillJob {
+
+    public static final String JOB_NAME = "booking-snapshot-backfill";
+    private static final Logger logger = LoggerFactory.getLogger(BookingSnapshotBackfillJob.class);
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private JobCheckpointRepository jobCheckpointRepository;
+
+    @Autowired
+    private BookingEnricher bookingEnricher;
+
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "booking-snapshot-backfill");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public BookingSnapshotBackfillJob(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Starts a run in the background unless one is already going.
+     */
+    public boolean start(int chunkSize, boolean reset) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        if (reset) {
+            jobCheckpointRepository.deleteById(JOB_NAME);
+        }
+        executor.execute(() -> {
+            try {
+                run(chunkSize);
+            } catch (Exception e) {
+                logger.error("Booking snapshot backfill stopped: {}", e.getMessage());
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    public Map<String, Object> status() {
+        JobCheckpoint checkpoint = jobCheckpointRepository.findById(JOB_NAME).orElse(new JobCheckpoint(JOB_NAME));
+        Map<String, Object> status = new HashMap<>();
+        status.put("running", running.get());
+        status.put("cursor", checkpoint.getCursor());
+        status.put("processed", checkpoint.getProcessed());
+        status.put("updatedAt", checkpoint.getUpdatedAt());
+        return status;
+    }
+
+    void run(int chunkSize) {
+        while (true) {
+            Integer handled = transactionTemplate.execute(status -> processChunk(chunkSize));
+            if (handled == null || handled < chunkSize) {
+                return;
+            }
+        }
+    }
+
+    private int processChunk(int chunkSize) {
+        JobCheckpoint checkpoint = jobCheckpointRepository.findById(JOB_NAME).orElse(new JobCheckpoint(JOB_NAME));
+        String afterId = checkpoint.getCursor() != null ? checkpoint.getCursor() : "";
+
+        List<Booking> chunk = bookingRepository.findSnapshotPending(afterId, PageRequest.of(0, chunkSize));
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+
+        BookingEnricher.Enrichment enrichment = bookingEnricher.enrich(chunk);
+        for (Booking booking : chunk) {
+            bookingEnricher.applySnapshot(booking, enrichment);
+        }
+        bookingRepository.saveAll(chunk);
+
+        checkpoint.setCursor(chunk.get(chunk.size() - 1).getId());
+        checkpoint.setProcessed(checkpoint.getProcessed() + chunk.size());
+        jobCheckpointRepository.save(checkpoint);
+        logger.info("Backfilled booking snapshots up to {} ({} total)", checkpoint.getCursor(),
+                checkpoint.getProcessed());
+        return chunk.size();
+    }
+}
@@ -0,0 +1,375 @@
+package com.revticket.booking.service;
+
+import com.revticket.booking.dto.BookingStatsResponse;
+import com.revticket.booking.entity.Booking;
+import com.revticket.booking.entity.BookingStatsDay;
+import com.revticket.booking.repository.BookingStatsDayRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Booking statistics kept as running counters instead of scanning bookings.
+ * Every booking contributes to the bucket of the day it was made: one booking,
+ * its seats, one count for its current status, its amount while confirmed and
+ * its refund once cancelled. Writers report a booking's contribution before
+ * and after a change; the difference is applied to the in-memory counters
+ * after commit and queued for the {@code booking_stats_daily} table, which is
+ * updated additively so several instances can share it. Each instance reloads
+ * the table periodically to pick up the others' changes, and a reconciliation
+ * pass recomputes every day from the bookings table to correct any drift.
+ */
+@Service
+public class BookingStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingStatsService.class);
+
+    static final int BOOKINGS = 0;
+    static final int SEATS = 1;
+    // One slot per BookingStatus, in declaration order
+    static final int STATUS_BASE = 2;
+    static final int REVENUE_CENTS = STATUS_BASE + Booking.BookingStatus.values().length;
+    static final int REFUND_CENTS = REVENUE_CENTS + 1;
+    static final int FIELDS = REFUND_CENTS + 1;
+
+    private static final int RELOAD_EVERY_FLUSHES = 6;
+
+    @Autowired
+    private BookingStatsDayRepository statsRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile Counters live = new Counters();
+    private final Map<LocalDate, AtomicLongArray> pending = new ConcurrentHashMap<>();
+    private int flushes;
+
+    public BookingStatsService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * A booking's current share of the counters; null for no booking.
+     */
+    public Contribution contribution(Booking booking) {
+        if (booking == null || booking.getStatus() == null) {
+            return null;
+        }
+        long[] values = new long[FIELDS];
+        values[BOOKINGS] = 1;
+        values[SEATS] = booking.getSeats() != null ? booking.getSeats().size() : 0;
+        values[STATUS_BASE + booking.getStatus().ordinal()] = 1;
+        if (booking.getStatus() == Booking.BookingStatus.CONFIRMED) {
+            values[REVENUE_CENTS] = cents(booking.getTotalAmount());
+        } else if (booking.getStatus() == Booking.BookingStatus.CANCELLED) {
+            values[REFUND_CENTS] = cents(booking.getRefundAmount());
+        }
+        LocalDate day = booking.getBookingDate() != null ? booking.getBookingDate().toLocalDate() : LocalDate.now();
+        return new Contribution(day, values);
+    }
+
+    /**
+     * Records that a booking went from {@code before} to {@code after}; pass null
+     * for before on create and null for after on delete. Applied once the
+     * surrounding transaction commits.
+     */
+    public void changed(Contribution before, Booking after) {
+        Map<LocalDate, long[]> delta = new HashMap<>();
+        accumulate(delta, contribution(after), 1);
+        accumulate(delta, before, -1);
+        delta.values().removeIf(BookingStatsService::isZero);
+        if (delta.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(delta);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(delta);
+            }
+        });
+    }
+
+    public BookingStatsResponse stats() {
+        Counters counters = live;
+        LocalDate today = LocalDate.now();
+        BookingStatsResponse response = new BookingStatsResponse();
+        response.setTotalBookings(counters.totals.get(BOOKINGS));
+        response.setTotalSeatsBooked(counters.totals.get(SEATS));
+        response.setPendingBookings(counters.totals.get(statusIndex(Booking.BookingStatus.PENDING)));
+        response.setConfirmedBookings(counters.totals.get(statusIndex(Booking.BookingStatus.CONFIRMED)));
+        response.setCancelledBookings(counters.totals.get(statusIndex(Booking.BookingStatus.CANCELLED)));
+        response.setCancellationPendingBookings(
+                counters.totals.get(statusIndex(Booking.BookingStatus.CANCELLATION_PENDING)));
+        response.setTotalRevenue(counters.totals.get(REVENUE_CENTS) / 100.0);
+        response.setTotalRefunds(counters.totals.get(REFUND_CENTS) / 100.0);
+        response.setAverageBookingValue(response.getConfirmedBookings() > 0
+                ? response.getTotalRevenue() / response.getConfirmedBookings() : 0.0);
+        response.setBookingsLast7Days(counters.sumSince(today.minusDays(6), BOOKINGS));
+        response.setBookingsLast30Days(counters.sumSince(today.minusDays(29), BOOKINGS));
+        return response;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            if (statsRepository.count() == 0) {
+                reconcile();
+            } else {
+                reload();
+            }
+        } catch (Exception e) {
+            logger.error("Could not load booking statistics: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Writes queued deltas to the table. Deltas whose write fails are queued
+     * again for the next pass.
+     */
+    @Scheduled(fixedDelay = 5000)
+    public synchronized void flush() {
+        Map<LocalDate, long[]> drained = new HashMap<>();
+        pending.forEach((day, values) -> {
+            long[] delta = new long[FIELDS];
+            for (int i = 0; i < FIELDS; i++) {
+                delta[i] = values.getAndSet(i, 0);
+            }
+            if (!isZero(delta)) {
+                drained.put(day, delta);
+            }
+        });
+        if (!drained.isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> drained.forEach((day, d) ->
+                        statsRepository.addDelta(day, d[BOOKINGS], d[SEATS],
+                                d[statusIndex(Booking.BookingStatus.PENDING)],
+                                d[statusIndex(Booking.BookingStatus.CONFIRMED)],
+                                d[statusIndex(Booking.BookingStatus.CANCELLED)],
+                                d[statusIndex(Booking.BookingStatus.CANCELLATION_PENDING)],
+                                d[REVENUE_CENTS], d[REFUND_CENTS])));
+            } catch (Exception e) {
+                logger.warn("Booking statistics flush failed, retrying next pass: {}", e.getMessage());
+                drained.forEach(this::addPending);
+                return;
+            }
+        }
+        if (++flushes % RELOAD_EVERY_FLUSHES == 0) {
+            reload();
+        }
+    }
+
+    /**
+     * Recomputes every day bucket from the bookings table and replaces the
+     * stored counters. A booking committed while the pass runs may be counted
+     * twice until the next pass.
+     */
+    @Scheduled(initialDelayString = "${booking.stats.reconcile-interval-ms:3600000}",
+               fixedDelayString = "${booking.stats.reconcile-interval-ms:3600000}")
+    public synchronized Map<String, Object> reconcile() {
+        flush();
+        Map<LocalDate, BookingStatsDay> computed = new HashMap<>();
+        int[] corrected = new int[1];
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Object[] row : statsRepository.aggregateBookingsByDayAndStatus()) {
+                if (row[0] == null || row[1] == null) {
+                    continue;
+                }
+                BookingStatsDay day = computed.computeIfAbsent(toLocalDate(row[0]), BookingStatsService::emptyDay);
+                Booking.BookingStatus bookingStatus = Booking.BookingStatus.valueOf(row[1].toString());
+                long count = ((Number) row[2]).longValue();
+                day.setBookings(day.getBookings() + count);
+                switch (bookingStatus) {
+                    case PENDING -> day.setPendingCount(count);
+                    case CONFIRMED -> {
+                        day.setConfirmedCount(count);
+                        day.setRevenueCents(cents(((Number) row[3]).doubleValue()));
+                    }
+                    case CANCELLED -> {
+                        day.setCancelledCount(count);
+                        day.setRefundCents(cents(((Number) row[4]).doubleValue()));
+                    }
+                    case CANCELLATION_PENDING -> day.setCancellationPendingCount(count);
+                }
+            }
+            for (Object[] row : statsRepository.aggregateSeatsByDay()) {
+                if (row[0] != null) {
+                    computed.computeIfAbsent(toLocalDate(row[0]), BookingStatsService::emptyDay)
+                            .setSeats(((Number) row[1]).longValue());
+                }
+            }
+
+            Map<LocalDate, BookingStatsDay> stored = new HashMap<>();
+            statsRepository.findAll().forEach(day -> stored.put(day.getDay(), day));
+            for (BookingStatsDay day : computed.values()) {
+                if (!sameCounts(day, stored.remove(day.getDay()))) {
+                    corrected[0]++;
+                }
+            }
+            corrected[0] += stored.size();
+
+            statsRepository.deleteAllInBatch();
+            statsRepository.saveAll(computed.values());
+        });
+        reload();
+        if (corrected[0] > 0) {
+            logger.info("Booking statistics reconciled: {} of {} days corrected", corrected[0], computed.size());
+        }
+        Map<String, Object> result = new HashMap<>();
+        result.put("days", computed.size());
+        result.put("corrected", corrected[0]);
+        return result;
+    }
+
+    private void reload() {
+        Counters fresh = new Counters();
+        for (BookingStatsDay day : statsRepository.findAll()) {
+            fresh.add(day.getDay(), toValues(day));
+        }
+        pending.forEach((day, values) -> {
+            long[] unflushed = new long[FIELDS];
+            for (int i = 0; i < FIELDS; i++) {
+                unflushed[i] = values.get(i);
+            }
+            fresh.add(day, unflushed);
+        });
+        live = fresh;
+    }
+
+    private void apply(Map<LocalDate, long[]> delta) {
+        Counters counters = live;
+        delta.forEach((day, values) -> {
+            counters.add(day, values);
+            addPending(day, values);
+        });
+    }
+
+    private void addPending(LocalDate day, long[] values) {
+        AtomicLongArray queued = pending.computeIfAbsent(day, d -> new AtomicLongArray(FIELDS));
+        for (int i = 0; i < FIELDS; i++) {
+            if (values[i] != 0) {
+                queued.addAndGet(i, values[i]);
+            }
+        }
+    }
+
+    private static void accumulate(Map<LocalDate, long[]> delta, Contribution contribution, int sign) {
+        if (contribution == null) {
+            return;
+        }
+        long[] values = delta.computeIfAbsent(contribution.day, d -> new long[FIELDS]);
+        for (int i = 0; i < FIELDS; i++) {
+            values[i] += sign * contribution.values[i];
+        }
+    }
+
+    private static long[] toValues(BookingStatsDay day) {
+        long[] values = new long[FIELDS];
+        values[BOOKINGS] = day.getBookings();
+        values[SEATS] = day.getSeats();
+        values[statusIndex(Booking.BookingStatus.PENDING)] = day.getPendingCount();
+        values[statusIndex(Booking.BookingStatus.CONFIRMED)] = day.getConfirmedCount();
+        values[statusIndex(Booking.BookingStatus.CANCELLED)] = day.getCancelledCount();
+        values[statusIndex(Booking.BookingStatus.CANCELLATION_PENDING)] = day.getCancellationPendingCount();
+        values[REVENUE_CENTS] = day.getRevenueCents();
+        values[REFUND_CENTS] = day.getRefundCents();
+        return values;
+    }
+
+    private static boolean sameCounts(BookingStatsDay a, BookingStatsDay b) {
+        return b != null && Arrays.equals(toValues(a), toValues(b));
+    }
+
+    private static BookingStatsDay emptyDay(LocalDate date) {
+        BookingStatsDay day = new BookingStatsDay();
+        day.setDay(date);
+        return day;
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof LocalDate localDate) {
+            return localDate;
+        }
+        if (value instanceof java.sql.Date sqlDate) {
+            return sqlDate.toLocalDate();
+        }
+        return LocalDate.parse(value.toString().substring(0, 10));
+    }
+
+    private static int statusIndex(Booking.BookingStatus status) {
+        return STATUS_BASE + status.ordinal();
+    }
+
+    private static long cents(Double amount) {
+        return amount != null ? Math.round(amount * 100) : 0;
+    }
+
+    private static boolean isZero(long[] values) {
+        for (long value : values) {
+            if (value != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A booking's share of one day's counters.
+     */
+    public static final class Contribution {
+        private final LocalDate day;
+        private final long[] values;
+
+        private Contribution(LocalDate day, long[] values) {
+            this.day = day;
+            this.values = values;
+        }
+    }
+
+    /**
+     * Per-day counters plus running totals, so reads never walk the days for
+     * all-time figures.
+     */
+    private static final class Counters {
+        private final AtomicLongArray totals = new AtomicLongArray(FIELDS);
+        private final Map<LocalDate, AtomicLongArray> days = new ConcurrentHashMap<>();
+
+        void add(LocalDate day, long[] values) {
+            AtomicLongArray bucket = days.computeIfAbsent(day, d -> new AtomicLongArray(FIELDS));
+            for (int i = 0; i < FIELDS; i++) {
+                if (values[i] != 0) {
+                    bucket.addAndGet(i, values[i]);
+                    totals.addAndGet(i, values[i]);
+                }
+            }
+        }
+
+        long sumSince(LocalDate from, int field) {
+            long sum = 0;
+            for (LocalDate day = from; !day.isAfter(LocalDate.now()); day = day.plusDays(1)) {
+                AtomicLongArray bucket = days.get(day);
+                if (bucket != null) {
+                    sum += bucket.get(field);
+                }
+            }
+            return sum;
+        }
+    }
+}
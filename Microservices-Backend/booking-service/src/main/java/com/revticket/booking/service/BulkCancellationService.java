@@ -0,0 +1,375 @@
+package com.revticket.booking.service;
+
+import com.revticket.booking.entity.Booking;
+import com.revticket.booking.entity.BulkCancellationJob;
+import com.revticket.booking.repository.BookingRepository;
+import com.revticket.booking.repository.BulkCancellationJobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Cancels bookings in bulk: every live booking of a cancelled showtime, or a
+ * batch of approved cancellation requests. Bookings are handled in chunks that
+ * each belong to one showtime, and a chunk is one transaction on that
+ * showtime's writer: one seat-release update for all its seats, the booking
+ * updates, one batched insert of refund records, and the customer emails
+ * queued in the outbox. The job row's progress is written in the same
+ * transaction, so a run interrupted by a crash or restart resumes on the next
+ * chunk. Bookings already cancelled are skipped, which also makes a re-run of
+ * the same selection harmless.
+ */
+@Service
+public class BulkCancellationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkCancellationService.class);
+
+    public static final int MAX_BOOKINGS = 5000;
+    static final int CHUNK_SIZE = 200;
+    static final double SHOWTIME_REFUND_RATE = 1.0;
+    static final double REQUEST_REFUND_RATE = BookingService.STANDARD_REFUND_RATE;
+
+    private static final Set<BulkCancellationJob.Status> UNFINISHED = EnumSet.of(
+            BulkCancellationJob.Status.PENDING, BulkCancellationJob.Status.RUNNING);
+    private static final String INSERT_REFUND = "INSERT IGNORE INTO refunds "
+            + "(booking_id, job_id, amount, created_at) VALUES (?, ?, ?, ?)";
+
+    @Autowired
+    private BulkCancellationJobRepository jobRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private BookingStatsService bookingStatsService;
+
+    @Autowired
+    private TicketScanService ticketScanService;
+
+    @Autowired
+    private ShowtimeWriteExecutor showtimeWriteExecutor;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "bulk-cancellation");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Set<String> active = ConcurrentHashMap.newKeySet();
+
+    public BulkCancellationService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Starts cancelling every live booking of a showtime with a full refund.
+     * Returns the showtime's unfinished job instead if there already is one.
+     */
+    public Map<String, Object> cancelShowtime(String showtimeId, String reason) {
+        if (showtimeId == null || showtimeId.isEmpty()) {
+            throw new RuntimeException("Showtime id is required");
+        }
+        BulkCancellationJob job = jobRepository.findFirstByShowtimeIdAndStatusIn(showtimeId, UNFINISHED)
+                .orElseGet(() -> {
+                    BulkCancellationJob created = new BulkCancellationJob();
+                    created.setType(BulkCancellationJob.Type.SHOWTIME);
+                    created.setShowtimeId(showtimeId);
+                    created.setReason(reason != null && !reason.isEmpty() ? reason : "Show cancelled");
+                    created.setRefundRate(SHOWTIME_REFUND_RATE);
+                    created.setTotal(bookingRepository.countLiveByShowtime(showtimeId));
+                    return jobRepository.save(created);
+                });
+        submit(job.getId());
+        return status(job);
+    }
+
+    /**
+     * Starts cancelling the given bookings with the standard refund, as when
+     * approving a batch of cancellation requests. Unknown ids are dropped.
+     */
+    public Map<String, Object> cancelBookings(List<String> bookingIds, String reason) {
+        if (bookingIds == null || bookingIds.isEmpty()) {
+            throw new RuntimeException("No bookings selected");
+        }
+        Set<String> ids = new LinkedHashSet<>(bookingIds);
+        if (ids.size() > MAX_BOOKINGS) {
+            throw new RuntimeException("At most " + MAX_BOOKINGS + " bookings can be cancelled at once");
+        }
+        // Sorted by showtime so every chunk stays within one showtime
+        List<String> ordered = bookingRepository.findShowtimeIdsByIdIn(ids).stream()
+                .sorted(Comparator.<Object[], String>comparing(row -> (String) row[1])
+                        .thenComparing(row -> (String) row[0]))
+                .map(row -> (String) row[0])
+                .collect(Collectors.toList());
+
+        BulkCancellationJob job = new BulkCancellationJob();
+        job.setType(BulkCancellationJob.Type.BOOKINGS);
+        job.setBookingIds(ordered);
+        job.setReason(Objects.requireNonNullElse(reason, ""));
+        job.setRefundRate(REQUEST_REFUND_RATE);
+        job.setTotal((long) ordered.size());
+        job.setSkipped((long) (ids.size() - ordered.size()));
+        job = jobRepository.save(job);
+        submit(job.getId());
+        return status(job);
+    }
+
+    /**
+     * Restarts a failed or stalled job from its last committed chunk.
+     */
+    public Map<String, Object> resume(String jobId) {
+        BulkCancellationJob job = jobRepository.findById(Objects.requireNonNullElse(jobId, ""))
+                .orElseThrow(() -> new RuntimeException("Bulk cancellation job not found"));
+        if (job.getStatus() == BulkCancellationJob.Status.COMPLETED) {
+            return status(job);
+        }
+        submit(job.getId());
+        return status(job);
+    }
+
+    public Map<String, Object> status(String jobId) {
+        return status(jobRepository.findById(Objects.requireNonNullElse(jobId, ""))
+                .orElseThrow(() -> new RuntimeException("Bulk cancellation job not found")));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinished() {
+        for (BulkCancellationJob job : jobRepository.findByStatusIn(UNFINISHED)) {
+            logger.info("Resuming bulk cancellation {} at {} of {}", job.getId(), job.getProcessed(), job.getTotal());
+            submit(job.getId());
+        }
+    }
+
+    private void submit(String jobId) {
+        if (!active.add(jobId)) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                run(jobId);
+            } catch (OptimisticLockingFailureException e) {
+                // Another instance advanced the same job; leave it to that one
+                logger.info("Bulk cancellation {} is being run elsewhere, stopping here", jobId);
+            } catch (Exception e) {
+                logger.error("Bulk cancellation {} stopped: {}", jobId, e.getMessage());
+                markFailed(jobId, e);
+            } finally {
+                active.remove(jobId);
+            }
+        });
+    }
+
+    void run(String jobId) {
+        BulkCancellationJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null || job.getStatus() == BulkCancellationJob.Status.COMPLETED) {
+            return;
+        }
+        if (job.getType() == BulkCancellationJob.Type.SHOWTIME) {
+            String showtimeId = job.getShowtimeId();
+            boolean more = true;
+            while (more) {
+                more = Boolean.TRUE.equals(showtimeWriteExecutor.execute(showtimeId,
+                        () -> transactionTemplate.execute(status -> showtimeChunk(jobId))));
+            }
+        } else {
+            runBookingList(jobId, transactionTemplate.execute(status ->
+                    new ArrayList<>(jobRepository.findById(jobId).orElseThrow().getBookingIds())));
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            BulkCancellationJob done = jobRepository.findById(jobId).orElseThrow();
+            done.setStatus(BulkCancellationJob.Status.COMPLETED);
+            done.setCompletedAt(LocalDateTime.now());
+            done.setError(null);
+            jobRepository.save(done);
+            logger.info("Bulk cancellation {} done: {} cancelled, {} skipped, {} refunded", jobId,
+                    done.getCancelled(), done.getSkipped(), done.getRefundTotal());
+        });
+    }
+
+    private void runBookingList(String jobId, List<String> bookingIds) {
+        long position = jobRepository.findById(jobId).orElseThrow().getProcessed();
+        if (position >= bookingIds.size()) {
+            return;
+        }
+        Map<String, String> showtimes = new HashMap<>();
+        for (Object[] row : bookingRepository.findShowtimeIdsByIdIn(
+                bookingIds.subList((int) position, bookingIds.size()))) {
+            showtimes.put((String) row[0], (String) row[1]);
+        }
+        while (position < bookingIds.size()) {
+            // Take consecutive bookings of the same showtime, up to a chunk
+            int from = (int) position;
+            String showtimeId = showtimes.get(bookingIds.get(from));
+            int to = from + 1;
+            while (to < bookingIds.size() && to - from < CHUNK_SIZE
+                    && Objects.equals(showtimes.get(bookingIds.get(to)), showtimeId)) {
+                to++;
+            }
+            List<String> chunk = bookingIds.subList(from, to);
+            long next = to;
+            if (showtimeId == null) {
+                // Deleted since the job was created
+                transactionTemplate.executeWithoutResult(status -> advance(jobId, null, next, chunk.size(),
+                        List.of(), 0.0));
+            } else {
+                showtimeWriteExecutor.execute(showtimeId, () -> transactionTemplate.execute(status ->
+                        listChunk(jobId, showtimeId, chunk, next)));
+            }
+            position = next;
+        }
+    }
+
+    private boolean showtimeChunk(String jobId) {
+        BulkCancellationJob job = jobRepository.findById(jobId).orElseThrow();
+        String afterId = job.getCursor() != null ? job.getCursor() : "";
+        List<Booking> bookings = bookingRepository.findLiveByShowtimeAfter(job.getShowtimeId(), afterId,
+                PageRequest.of(0, CHUNK_SIZE));
+        if (bookings.isEmpty()) {
+            return false;
+        }
+        double refunded = cancel(job, job.getShowtimeId(), bookings);
+        advance(jobId, bookings.get(bookings.size() - 1).getId(), job.getProcessed() + bookings.size(), 0,
+                bookings, refunded);
+        return bookings.size() == CHUNK_SIZE;
+    }
+
+    private Void listChunk(String jobId, String showtimeId, List<String> bookingIds, long next) {
+        BulkCancellationJob job = jobRepository.findById(jobId).orElseThrow();
+        Map<String, Booking> found = bookingRepository.findAllById(bookingIds).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        List<Booking> live = new ArrayList<>(bookingIds.size());
+        for (String id : bookingIds) {
+            Booking booking = found.get(id);
+            if (booking != null && booking.getStatus() != Booking.BookingStatus.CANCELLED
+                    && showtimeId.equals(booking.getShowtimeId())) {
+                live.add(booking);
+            }
+        }
+        double refunded = cancel(job, showtimeId, live);
+        advance(jobId, null, next, bookingIds.size() - live.size(), live, refunded);
+        return null;
+    }
+
+    /**
+     * Cancels one showtime's bookings: a single seat release for all of them,
+     * then the booking updates, refund records and queued emails. Returns the
+     * amount refunded.
+     */
+    private double cancel(BulkCancellationJob job, String showtimeId, List<Booking> bookings) {
+        if (bookings.isEmpty()) {
+            return 0.0;
+        }
+        List<String> seatIds = new ArrayList<>();
+        for (Booking booking : bookings) {
+            seatIds.addAll(booking.getSeats());
+        }
+        seatInventoryService.unbook(showtimeId, seatIds);
+
+        LocalDateTime now = LocalDateTime.now();
+        double refunded = 0.0;
+        for (Booking booking : bookings) {
+            BookingStatsService.Contribution before = bookingStatsService.contribution(booking);
+            double refund = BookingService.refundFor(booking, job.getRefundRate());
+            booking.setStatus(Booking.BookingStatus.CANCELLED);
+            if (job.getReason() != null && !job.getReason().isEmpty()) {
+                booking.setCancellationReason(job.getReason());
+            }
+            booking.setRefundAmount(refund);
+            booking.setRefundDate(now);
+            refunded += refund;
+            outboxService.bookingCancelled(booking);
+            bookingStatsService.changed(before, booking);
+            ticketScanService.revoke(booking.getId());
+        }
+        bookingRepository.saveAll(bookings);
+
+        Timestamp createdAt = Timestamp.valueOf(now);
+        jdbcTemplate.batchUpdate(INSERT_REFUND, bookings, bookings.size(), (ps, booking) -> {
+            ps.setString(1, booking.getId());
+            ps.setString(2, job.getId());
+            ps.setDouble(3, booking.getRefundAmount());
+            ps.setTimestamp(4, createdAt);
+        });
+        return refunded;
+    }
+
+    private void advance(String jobId, String cursor, long processed, long skipped, List<Booking> cancelled,
+            double refunded) {
+        BulkCancellationJob job = jobRepository.findById(jobId).orElseThrow();
+        job.setStatus(BulkCancellationJob.Status.RUNNING);
+        if (cursor != null) {
+            job.setCursor(cursor);
+        }
+        job.setProcessed(processed);
+        job.setSkipped(job.getSkipped() + skipped);
+        job.setCancelled(job.getCancelled() + cancelled.size());
+        job.setRefundTotal(job.getRefundTotal() + refunded);
+        job.setError(null);
+        jobRepository.save(job);
+    }
+
+    private void markFailed(String jobId, Exception cause) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> jobRepository.findById(jobId).ifPresent(job -> {
+                job.setStatus(BulkCancellationJob.Status.FAILED);
+                job.setError(cause.getMessage());
+                jobRepository.save(job);
+            }));
+        } catch (RuntimeException e) {
+            logger.warn("Could not record failure of bulk cancellation {}: {}", jobId, e.getMessage());
+        }
+    }
+
+    private Map<String, Object> status(BulkCancellationJob job) {
+        Map<String, Object> status = new HashMap<>();
+        status.put("jobId", job.getId());
+        status.put("type", job.getType());
+        status.put("showtimeId", job.getShowtimeId());
+        status.put("status", job.getStatus());
+        status.put("running", active.contains(job.getId()));
+        status.put("total", job.getTotal());
+        status.put("processed", job.getProcessed());
+        status.put("cancelled", job.getCancelled());
+        status.put("skipped", job.getSkipped());
+        status.put("refundTotal", job.getRefundTotal());
+        status.put("error", job.getError());
+        status.put("createdAt", job.getCreatedAt());
+        status.put("updatedAt", job.getUpdatedAt());
+        status.put("completedAt", job.getCompletedAt());
+        return status;
+    }
+}
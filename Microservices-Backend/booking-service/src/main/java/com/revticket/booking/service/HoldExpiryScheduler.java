@@ -0,0 +1,133 @@
+package com.revticket.booking.service;
+
+import com.revticket.booking.event.SeatStateChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Expires seat holds in the background. Every hold is scheduled on a
+ * {@link HoldTimingWheel}; each tick collects the leases that fell due and
+ * clears them with one bulk update per showtime. Holds that are released or
+ * booked first are taken off the wheel. The wheel is rebuilt from
+ * the held seats in the database on startup, so holds survive restarts.
+ */
+@Component
+public class HoldExpiryScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(HoldExpiryScheduler.class);
+    private static final long TICK_MILLIS = 1000L;
+
+    @Autowired
+    private SeatStore seatStore;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    private final HoldTimingWheel wheel = new HoldTimingWheel(TICK_MILLIS, System.currentTimeMillis());
+    private final TransactionTemplate transactionTemplate;
+    private final Counter expiredCounter;
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    public HoldExpiryScheduler(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.expiredCounter = Counter.builder("seat.holds.expired")
+                .description("Seat holds cleared by the expiry scheduler")
+                .register(meterRegistry);
+        Gauge.builder("seat.holds.active", wheel, HoldTimingWheel::size)
+                .description("Hold leases waiting on the timing wheel")
+                .register(meterRegistry);
+        Gauge.builder("seat.holds.wheel.lag", lagMillis, AtomicLong::get)
+                .description("Milliseconds between a lease falling due and being expired")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Object[]> holds = seatStore.findActiveHolds();
+        for (Object[] hold : holds) {
+            wheel.schedule((String) hold[0], (String) hold[1], SeatInventory.toMillis((LocalDateTime) hold[2]));
+        }
+        logger.info("Rebuilt hold expiry wheel with {} active holds", holds.size());
+    }
+
+    /**
+     * Schedules new holds and drops the leases of holds that were released or
+     * booked, once the transition has committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSeatStateChanged(SeatStateChangedEvent event) {
+        switch (event.getTransition()) {
+            case HELD -> {
+                if (event.getHoldExpiry() == null) {
+                    return;
+                }
+                long expiry = SeatInventory.toMillis(event.getHoldExpiry());
+                for (String seatId : event.getSeatIds()) {
+                    wheel.schedule(event.getShowtimeId(), seatId, expiry);
+                }
+            }
+            case RELEASED, BOOKED -> {
+                for (String seatId : event.getSeatIds()) {
+                    wheel.cancel(event.getShowtimeId(), seatId);
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Points the showtime's leases at new seat ids after its storage was
+     * converted, so they still match the seats once they fall due.
+     */
+    public void rekey(String showtimeId, Map<String, String> newSeatIds) {
+        wheel.rekey(showtimeId, newSeatIds);
+    }
+
+    @Scheduled(fixedDelay = TICK_MILLIS)
+    public void expireDueHolds() {
+        long now = System.currentTimeMillis();
+        List<HoldTimingWheel.Lease> due = wheel.advance(now);
+        if (due.isEmpty()) {
+            lagMillis.set(0);
+            return;
+        }
+
+        Map<String, List<String>> seatsByShowtime = new HashMap<>();
+        long oldestExpiry = Long.MAX_VALUE;
+        for (HoldTimingWheel.Lease lease : due) {
+            seatsByShowtime.computeIfAbsent(lease.getShowtimeId(), k -> new ArrayList<>()).add(lease.getSeatId());
+            oldestExpiry = Math.min(oldestExpiry, lease.getExpiryMillis());
+        }
+        lagMillis.set(Math.max(0, now - oldestExpiry));
+
+        seatsByShowtime.forEach((showtimeId, seatIds) -> {
+            try {
+                Integer expired = transactionTemplate.execute(
+                        status -> seatInventoryService.expireHolds(showtimeId, seatIds, now));
+                expiredCounter.increment(expired != null ? expired : 0);
+            } catch (Exception e) {
+                logger.warn("Failed to expire holds for showtime {}: {}", showtimeId, e.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,170 @@
+package com.revticket.booking.service;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel for seat hold leases.
+ * Three levels of 64 slots each; level 0 slots are one tick wide and each
+ * higher level is 64 times coarser, so a one second tick covers about three
+ * days before leases park in the top level and re-cascade. Scheduling is
+ * O(1) and advancing costs O(1) per tick plus the leases that fall due.
+ * A seat has at most one live lease: scheduling it again replaces the old
+ * lease and cancelling drops it. Replaced and cancelled leases stay in their
+ * slot until it comes round and are skipped then.
+ */
+public class HoldTimingWheel {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = 3;
+    private static final long TOP_SPAN = 1L << (SLOT_BITS * LEVELS);
+
+    private final long tickMillis;
+    private final List<List<Lease>> slots = new ArrayList<>(LEVELS * SLOTS);
+    // Showtime id to seat id to the seat's live lease
+    private final Map<String, Map<String, Lease>> live = new HashMap<>();
+    private long currentTick;
+    private int size;
+
+    public HoldTimingWheel(long tickMillis, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        for (int i = 0; i < LEVELS * SLOTS; i++) {
+            slots.add(new ArrayList<>());
+        }
+    }
+
+    public synchronized void schedule(String showtimeId, String seatId, long expiryMillis) {
+        Lease lease = new Lease(showtimeId, seatId, expiryMillis);
+        if (live.computeIfAbsent(showtimeId, k -> new HashMap<>()).put(seatId, lease) == null) {
+            size++;
+        }
+        List<Lease> due = new ArrayList<>(0);
+        place(lease, due);
+        // Already lapsed: park it in the next tick so the caller sees it on the next advance
+        for (Lease lapsed : due) {
+            slot(0, currentTick + 1).add(lapsed);
+        }
+    }
+
+    /**
+     * Drops the seat's live lease, if it has one.
+     */
+    public synchronized void cancel(String showtimeId, String seatId) {
+        Map<String, Lease> seats = live.get(showtimeId);
+        if (seats != null && seats.remove(seatId) != null) {
+            size--;
+            if (seats.isEmpty()) {
+                live.remove(showtimeId);
+            }
+        }
+    }
+
+    /**
+     * Moves the live leases of a showtime's seats to their new ids, keeping
+     * their expiry. A new id that already has a lease keeps that one.
+     */
+    public synchronized void rekey(String showtimeId, Map<String, String> newSeatIds) {
+        for (Lease lease : leases(showtimeId)) {
+            String newSeatId = newSeatIds.get(lease.getSeatId());
+            if (newSeatId == null) {
+                continue;
+            }
+            cancel(showtimeId, lease.getSeatId());
+            Map<String, Lease> seats = live.get(showtimeId);
+            if (seats == null || !seats.containsKey(newSeatId)) {
+                schedule(showtimeId, newSeatId, lease.getExpiryMillis());
+            }
+        }
+    }
+
+    /**
+     * Returns the live leases of a showtime.
+     */
+    public synchronized List<Lease> leases(String showtimeId) {
+        Map<String, Lease> seats = live.get(showtimeId);
+        return seats != null ? new ArrayList<>(seats.values()) : List.of();
+    }
+
+    /**
+     * Moves the wheel forward to {@code nowMillis} and returns every lease
+     * whose expiry has passed.
+     */
+    public synchronized List<Lease> advance(long nowMillis) {
+        List<Lease> due = new ArrayList<>();
+        long target = nowMillis / tickMillis;
+        while (currentTick < target) {
+            currentTick++;
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    List<Lease> bucket = slot(level, currentTick);
+                    List<Lease> cascading = new ArrayList<>(bucket);
+                    bucket.clear();
+                    for (Lease lease : cascading) {
+                        if (isLive(lease)) {
+                            place(lease, due);
+                        }
+                    }
+                }
+            }
+            List<Lease> bucket = slot(0, currentTick);
+            for (Lease lease : bucket) {
+                if (isLive(lease)) {
+                    due.add(lease);
+                }
+            }
+            bucket.clear();
+        }
+        for (Lease lease : due) {
+            cancel(lease.getShowtimeId(), lease.getSeatId());
+        }
+        return due;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    private boolean isLive(Lease lease) {
+        Map<String, Lease> seats = live.get(lease.getShowtimeId());
+        return seats != null && seats.get(lease.getSeatId()) == lease;
+    }
+
+    private void place(Lease lease, List<Lease> due) {
+        long tick = lease.getExpiryMillis() / tickMillis;
+        long delta = tick - currentTick;
+        if (delta <= 0) {
+            due.add(lease);
+            return;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < (1L << (SLOT_BITS * (level + 1)))) {
+                slot(level, tick).add(lease);
+                return;
+            }
+        }
+        // Beyond the top level: park in the furthest top slot and re-place on cascade
+        slot(LEVELS - 1, currentTick + TOP_SPAN - 1).add(lease);
+    }
+
+    private List<Lease> slot(int level, long tick) {
+        int index = (int) ((tick >>> (SLOT_BITS * level)) & (SLOTS - 1));
+        return slots.get(level * SLOTS + index);
+    }
+
+    @Value
+    public static class Lease {
+        String showtimeId;
+        String seatId;
+        long expiryMillis;
+    }
+}
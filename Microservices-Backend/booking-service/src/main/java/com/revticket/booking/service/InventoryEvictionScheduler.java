@@ -0,0 +1,57 @@
+package com.revticket.booking.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops resident seat inventories that have not been used for
+ * {@code booking.inventory.idle-minutes}, so showtimes that ended or went
+ * quiet stop holding memory. Each drop goes through the showtime's writer, so
+ * queued writes finish first, and is skipped if the inventory was used again
+ * in the meantime. A dropped showtime is reloaded from the store on next use.
+ */
+@Component
+public class InventoryEvictionScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryEvictionScheduler.class);
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private ShowtimeWriteExecutor showtimeWriteExecutor;
+
+    private final long idleMillis;
+    private final Counter evictedCounter;
+
+    public InventoryEvictionScheduler(MeterRegistry meterRegistry,
+            @Value("${booking.inventory.idle-minutes:30}") long idleMinutes) {
+        this.idleMillis = idleMinutes * 60_000L;
+        this.evictedCounter = Counter.builder("seat.inventories.evicted")
+                .description("Seat inventories dropped after going unused")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${booking.inventory.sweep-interval-ms:60000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleMillis;
+        for (String showtimeId : seatInventoryService.idleShowtimeIds(cutoff)) {
+            try {
+                boolean evicted = showtimeWriteExecutor.execute(showtimeId,
+                        () -> seatInventoryService.evictIfIdle(showtimeId, cutoff));
+                if (evicted) {
+                    evictedCounter.increment();
+                    logger.debug("Evicted idle inventory of showtime {}", showtimeId);
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Eviction of showtime {} failed: {}", showtimeId, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.revticket.booking.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.revticket.booking.client.NotificationServiceClient;
+import com.revticket.booking.entity.OutboxEvent;
+import com.revticket.booking.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drains the outbox in batches. A short transaction claims due events by
+ * pushing their next attempt out by a lease, so a crashed dispatcher's events
+ * reappear once the lease lapses. Delivery happens outside any transaction.
+ * Failures retry with exponential backoff; after {@link #MAX_ATTEMPTS} the
+ * event is parked as DEAD.
+ */
+@Component
+public class OutboxDispatcher {
+
+    static final int MAX_ATTEMPTS = 8;
+    private static final int BATCH_SIZE = 50;
+    private static final long CLAIM_LEASE_SECONDS = 120;
+    private static final long BASE_BACKOFF_SECONDS = 5;
+    private static final long MAX_BACKOFF_SECONDS = 30 * 60;
+    private static final Logger logger = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private NotificationServiceClient notificationServiceClient;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public OutboxDispatcher(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelay = 2000)
+    public void dispatch() {
+        List<OutboxEvent> batch;
+        do {
+            batch = transactionTemplate.execute(status -> claim());
+            if (batch == null) {
+                return;
+            }
+            for (OutboxEvent event : batch) {
+                deliver(event);
+            }
+        } while (batch.size() == BATCH_SIZE);
+    }
+
+    private List<OutboxEvent> claim() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> due = outboxEventRepository.findDueForUpdate(now, PageRequest.of(0, BATCH_SIZE));
+        for (OutboxEvent event : due) {
+            event.setAttempts(event.getAttempts() + 1);
+            event.setNextAttemptAt(now.plusSeconds(CLAIM_LEASE_SECONDS));
+        }
+        return outboxEventRepository.saveAll(due);
+    }
+
+    private void deliver(OutboxEvent event) {
+        try {
+            Map<String, Object> payload = objectMapper.readValue(event.getPayload(),
+                    new TypeReference<Map<String, Object>>() {});
+            switch (event.getEventType()) {
+                case BOOKING_CONFIRMATION -> notificationServiceClient.sendBookingConfirmation(payload);
+                case ADMIN_NEW_BOOKING -> notificationServiceClient.sendAdminNewBooking(payload);
+                case CANCELLATION_REQUEST -> notificationServiceClient.sendCancellationRequest(payload);
+                case BOOKING_CANCELLED -> notificationServiceClient.sendBookingCancelled(payload);
+                case WAITLIST_OFFER -> notificationServiceClient.sendEmail(payload);
+            }
+            event.setStatus(OutboxEvent.Status.SENT);
+            event.setSentAt(LocalDateTime.now());
+            event.setLastError(null);
+        } catch (Exception e) {
+            event.setLastError(e.getMessage());
+            if (event.getAttempts() >= MAX_ATTEMPTS) {
+                event.setStatus(OutboxEvent.Status.DEAD);
+                logger.warn("Outbox event {} ({}) dead after {} attempts: {}", event.getId(),
+                        event.getEventType(), event.getAttempts(), e.getMessage());
+            } else {
+                long backoff = Math.min(MAX_BACKOFF_SECONDS, BASE_BACKOFF_SECONDS << (event.getAttempts() - 1));
+                event.setNextAttemptAt(LocalDateTime.now().plusSeconds(backoff));
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> outboxEventRepository.save(event));
+    }
+
+    /**
+     * Puts a dead event back in the queue with a fresh attempt budget.
+     */
+    public boolean requeue(String eventId) {
+        Boolean requeued = transactionTemplate.execute(status -> outboxEventRepository.findById(eventId)
+                .filter(event -> event.getStatus() == OutboxEvent.Status.DEAD)
+                .map(event -> {
+                    event.setStatus(OutboxEvent.Status.PENDING);
+                    event.setAttempts(0);
+                    event.setNextAttemptAt(LocalDateTime.now());
+                    outboxEventRepository.save(event);
+                    return true;
+                })
+                .orElse(false));
+        return Boolean.TRUE.equals(requeued);
+    }
+}
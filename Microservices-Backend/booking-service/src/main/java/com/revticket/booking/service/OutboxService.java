@@ -0,0 +1,111 @@
+package com.revticket.booking.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.revticket.booking.entity.Booking;
+import com.revticket.booking.entity.OutboxEvent;
+import com.revticket.booking.entity.WaitlistEntry;
+import com.revticket.booking.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Writes notification events to the outbox table inside the caller's
+ * transaction, so an event exists if and only if the booking change that
+ * produced it committed. {@link OutboxDispatcher} delivers them afterwards.
+ * Payloads are built from the booking's own snapshot columns and need no
+ * remote lookups.
+ */
+@Service
+public class OutboxService {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void bookingCreated(Booking booking) {
+        Map<String, Object> confirmation = bookingDetails(booking);
+        enqueue(OutboxEvent.EventType.BOOKING_CONFIRMATION, booking.getId(), confirmation);
+        enqueue(OutboxEvent.EventType.ADMIN_NEW_BOOKING, booking.getId(), bookingDetails(booking));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void cancellationRequested(Booking booking) {
+        Map<String, Object> request = new HashMap<>();
+        request.put("bookingId", booking.getId());
+        request.put("customerName", booking.getCustomerName());
+        request.put("customerEmail", booking.getCustomerEmail());
+        request.put("reason", booking.getCancellationReason());
+        request.put("ticketNumber", booking.getTicketNumber());
+        enqueue(OutboxEvent.EventType.CANCELLATION_REQUEST, booking.getId(), request);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void bookingCancelled(Booking booking) {
+        Map<String, Object> request = new HashMap<>();
+        request.put("customerEmail", booking.getCustomerEmail());
+        request.put("customerName", booking.getCustomerName());
+        request.put("ticketNumber", booking.getTicketNumber());
+        request.put("refundAmount", booking.getRefundAmount());
+        enqueue(OutboxEvent.EventType.BOOKING_CANCELLED, booking.getId(), request);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void waitlistOffer(WaitlistEntry entry, List<String> seatLabels) {
+        if (entry.getCustomerEmail() == null || entry.getCustomerEmail().isEmpty()) {
+            return;
+        }
+        Map<String, Object> request = new HashMap<>();
+        request.put("to", entry.getCustomerEmail());
+        request.put("subject", "Seats are available for your waitlisted show");
+        request.put("body", "Hi " + Objects.requireNonNullElse(entry.getCustomerName(), "there") + ",\n\n"
+                + "Seats " + String.join(", ", seatLabels) + " have opened up and are being held for you until "
+                + entry.getOfferExpiresAt() + ". Open your waitlist in RevTicket to complete the booking "
+                + "before the hold runs out.");
+        enqueue(OutboxEvent.EventType.WAITLIST_OFFER, entry.getId(), request);
+    }
+
+    private Map<String, Object> bookingDetails(Booking booking) {
+        Map<String, Object> request = new HashMap<>();
+        request.put("bookingId", booking.getId());
+        request.put("customerEmail", booking.getCustomerEmail());
+        request.put("customerName", booking.getCustomerName());
+        request.put("ticketNumber", booking.getTicketNumber());
+        request.put("totalAmount", booking.getTotalAmount());
+        // Use seat labels if available, otherwise use seat IDs
+        if (booking.getSeatLabels() != null && !booking.getSeatLabels().isEmpty()) {
+            request.put("seats", booking.getSeatLabels());
+        } else {
+            request.put("seats", booking.getSeats());
+        }
+        request.put("showDateTime", booking.getShowDateTime());
+        request.put("movieTitle", booking.getMovieTitle());
+        request.put("theaterName", booking.getTheaterName());
+        request.put("screenName", booking.getScreenName());
+        return request;
+    }
+
+    private void enqueue(OutboxEvent.EventType type, String aggregateId, Map<String, Object> payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setEventType(type);
+        event.setAggregateId(aggregateId);
+        event.setNextAttemptAt(LocalDateTime.now());
+        try {
+            event.setPayload(objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize outbox payload: " + e.getMessage());
+        }
+        outboxEventRepository.save(event);
+    }
+}
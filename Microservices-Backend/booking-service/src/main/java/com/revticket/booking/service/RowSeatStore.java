@@ -0,0 +1,109 @@
+package com.revticket.booking.service;
+
+import com.revticket.booking.dto.LayoutSeat;
+import com.revticket.booking.dto.SeatAvailability;
+import com.revticket.booking.entity.Seat;
+import com.revticket.booking.repository.SeatRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * One {@code seats} row per seat per showtime, written with conditional bulk
+ * updates and created with JDBC batch inserts.
+ */
+@Component
+@ConditionalOnProperty(name = "booking.seats.storage", havingValue = "rows", matchIfMissing = true)
+public class RowSeatStore implements SeatStore {
+
+    private static final int INSERT_BATCH_SIZE = 1000;
+    private static final String INSERT_SEAT = "INSERT INTO seats (id, showtime_id, `row`, number, price, type, "
+            + "is_booked, is_held, is_disabled) VALUES (?, ?, ?, ?, ?, ?, false, false, false)";
+
+    @Autowired
+    private SeatRepository seatRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Seat> findByShowtimeId(String showtimeId) {
+        return seatRepository.findByShowtimeId(showtimeId);
+    }
+
+    @Override
+    public Set<String> findInitialized(Collection<String> showtimeIds) {
+        return new HashSet<>(seatRepository.findInitializedShowtimeIds(showtimeIds));
+    }
+
+    @Override
+    public Map<String, SeatAvailability> countSeats(Collection<String> showtimeIds) {
+        return counts(seatRepository.countByShowtimeIds(showtimeIds));
+    }
+
+    static Map<String, SeatAvailability> counts(List<Object[]> rows) {
+        Map<String, SeatAvailability> counts = new HashMap<>();
+        for (Object[] row : rows) {
+            String showtimeId = (String) row[0];
+            counts.put(showtimeId, SeatAvailability.of(showtimeId, ((Number) row[1]).intValue(),
+                    ((Number) row[2]).intValue(), ((Number) row[3]).intValue(), ((Number) row[4]).intValue(), 0));
+        }
+        return counts;
+    }
+
+    @Override
+    public void initialize(SeatLayoutTemplate template, Collection<String> showtimeIds) {
+        List<Object[]> rows = new ArrayList<>(template.getSeats().size() * showtimeIds.size());
+        for (String showtimeId : showtimeIds) {
+            for (LayoutSeat seat : template.getSeats()) {
+                rows.add(new Object[] { UUID.randomUUID().toString(), showtimeId, seat.getRow(), seat.getNumber(),
+                        seat.getPrice(), seat.getType().name() });
+            }
+        }
+        for (int from = 0; from < rows.size(); from += INSERT_BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(INSERT_SEAT, rows.subList(from, Math.min(rows.size(), from + INSERT_BATCH_SIZE)));
+        }
+    }
+
+    @Override
+    public int bookSeats(String showtimeId, Collection<String> seatIds, String sessionId, LocalDateTime now) {
+        return seatRepository.bookSeats(showtimeId, seatIds, sessionId, now);
+    }
+
+    @Override
+    public int holdSeats(String showtimeId, Collection<String> seatIds, String sessionId, LocalDateTime expiry,
+            LocalDateTime now) {
+        return seatRepository.holdSeats(showtimeId, seatIds, sessionId, expiry, now);
+    }
+
+    @Override
+    public int releaseHolds(String showtimeId, Collection<String> seatIds) {
+        return seatRepository.releaseHolds(showtimeId, seatIds);
+    }
+
+    @Override
+    public int expireHolds(String showtimeId, Collection<String> seatIds, LocalDateTime now) {
+        return seatRepository.expireHolds(showtimeId, seatIds, now);
+    }
+
+    @Override
+    public int unbookSeats(String showtimeId, Collection<String> seatIds) {
+        return seatRepository.unbookSeats(showtimeId, seatIds);
+    }
+
+    @Override
+    public List<Object[]> findActiveHolds() {
+        return seatRepository.findActiveHolds();
+    }
+}
@@ -0,0 +1,94 @@
+package com.revticket.booking.service;
+
+import com.revticket.booking.client.TheaterServiceClient;
+import com.revticket.booking.dto.ScreenLayout;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Parsed screen layouts keyed by screen id and layout version. A cached
+ * layout is trusted for {@link #VERSION_CHECK_MILLIS}; after that a cheap
+ * version lookup decides whether it is still current, and only a changed
+ * version fetches the full configuration again. If theater-service cannot be
+ * reached the last known layout keeps being used.
+ */
+@Component
+public class ScreenLayoutCache {
+
+    static final long VERSION_CHECK_MILLIS = 30_000L;
+
+    @Autowired
+    private TheaterServiceClient theaterServiceClient;
+
+    private final Map<String, SeatLayoutTemplate> templates = new ConcurrentHashMap<>();
+    private final Map<String, Known> known = new ConcurrentHashMap<>();
+
+    public SeatLayoutTemplate get(String screenId) {
+        long now = System.currentTimeMillis();
+        Known current = known.get(screenId);
+        if (current != null) {
+            SeatLayoutTemplate cached = templates.get(key(screenId, current.version));
+            if (cached != null) {
+                if (now - current.checkedAt < VERSION_CHECK_MILLIS) {
+                    return cached;
+                }
+                Long latest = fetchVersion(screenId);
+                if (latest == null || latest == current.version) {
+                    known.put(screenId, new Known(current.version, now));
+                    return cached;
+                }
+            }
+        }
+
+        ScreenLayout layout;
+        try {
+            layout = theaterServiceClient.getScreenLayout(screenId);
+        } catch (Exception e) {
+            layout = null;
+        }
+        if (layout == null) {
+            throw new RuntimeException("Screen layout unavailable for screen " + screenId);
+        }
+        SeatLayoutTemplate template = new SeatLayoutTemplate(screenId, layout);
+        templates.put(key(screenId, template.getVersion()), template);
+        if (current != null && current.version != template.getVersion()) {
+            templates.remove(key(screenId, current.version));
+        }
+        known.put(screenId, new Known(template.getVersion(), now));
+        return template;
+    }
+
+    public void invalidate(String screenId) {
+        Known current = known.remove(screenId);
+        if (current != null) {
+            templates.remove(key(screenId, current.version));
+        }
+    }
+
+    private Long fetchVersion(String screenId) {
+        try {
+            Map<String, Object> response = theaterServiceClient.getLayoutVersion(screenId);
+            Object version = response != null ? response.get("layoutVersion") : null;
+            return version instanceof Number number ? number.longValue() : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static String key(String screenId, long version) {
+        return screenId + ":" + version;
+    }
+
+    private static final class Known {
+        private final long version;
+        private final long checkedAt;
+
+        private Known(long version, long checkedAt) {
+            this.version = version;
+            this.checkedAt = checkedAt;
+        }
+    }
+}
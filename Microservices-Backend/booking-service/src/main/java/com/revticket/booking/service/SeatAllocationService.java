@@ -0,0 +1,226 @@
+package com.revticket.booking.service;
+
+import com.revticket.booking.dto.ScreenLayout;
+import com.revticket.booking.dto.ShowtimeDTO;
+import com.revticket.booking.entity.Seat;
+import com.revticket.booking.util.TtlCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Best-available seat allocation. Each showtime gets a {@link SeatBlockFinder}
+ * built once from theater-service's screen layout (or, when the layout cannot
+ * be fetched, from the seat rows and numbers alone) and reused until the
+ * showtime's inventory is reloaded. A plan built without the layout is only
+ * kept briefly, so categories come back soon after theater-service does. An
+ * allocation searches and holds in one
+ * step under the inventory lock, so concurrent callers never pick the same
+ * seats.
+ */
+@Service
+public class SeatAllocationService {
+
+    public static final int MAX_SEATS = 10;
+    private static final long FALLBACK_PLAN_TTL_MILLIS = 30_000L;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private BookingEnricher bookingEnricher;
+
+    @Autowired
+    private ScreenLayoutCache screenLayoutCache;
+
+    private final TtlCache<String, Plan> plans = new TtlCache<>(2000, 10 * 60_000L);
+
+    @Transactional
+    public List<Seat> holdBestAvailable(String showtimeId, int count, String category, String sessionId) {
+        if (count < 1 || count > MAX_SEATS) {
+            throw new RuntimeException("Seat count must be between 1 and " + MAX_SEATS);
+        }
+        if (sessionId == null || sessionId.isEmpty()) {
+            throw new RuntimeException("sessionId is required");
+        }
+        SeatInventory inventory = seatInventoryService.getInventory(showtimeId);
+        if (inventory.isEmpty()) {
+            throw new RuntimeException("Seats not initialized for showtime " + showtimeId);
+        }
+        List<String> seatIds = holdBlock(showtimeId, inventory, count, category, sessionId);
+        if (seatIds.isEmpty()) {
+            throw new RuntimeException("No block of " + count + " adjacent seats is available"
+                    + (category != null && !category.isEmpty() ? " in " + category : ""));
+        }
+        return inventory.toSeats(inventory.resolve(seatIds), System.currentTimeMillis());
+    }
+
+    /**
+     * Holds the best block of {@code count} adjacent seats for the session and
+     * returns their ids, or an empty list when no block fits or the screen has
+     * no such category. Does not throw for either, so a caller running it in
+     * its own transaction is not left with a rollback-only one.
+     */
+    @Transactional
+    public List<String> holdBlock(String showtimeId, int count, String category, String sessionId) {
+        SeatInventory inventory = seatInventoryService.getInventory(showtimeId);
+        if (inventory.isEmpty()) {
+            return List.of();
+        }
+        Plan plan = plan(showtimeId, inventory);
+        if (!plan.knows(category)) {
+            return List.of();
+        }
+        return seatInventoryService.holdBest(showtimeId, plan.finder, count, plan.categoryIds(category), sessionId);
+    }
+
+    /**
+     * Whether the showtime's screen has a seat category with this id or name;
+     * no category at all always matches.
+     */
+    public boolean hasCategory(String showtimeId, String category) {
+        SeatInventory inventory = seatInventoryService.getInventory(showtimeId);
+        return inventory.isEmpty() || plan(showtimeId, inventory).knows(category);
+    }
+
+    private List<String> holdBlock(String showtimeId, SeatInventory inventory, int count, String category,
+            String sessionId) {
+        Plan plan = plan(showtimeId, inventory);
+        return seatInventoryService.holdBest(showtimeId, plan.finder, count, plan.categoryIds(category), sessionId);
+    }
+
+    private Plan plan(String showtimeId, SeatInventory inventory) {
+        Plan plan = plans.get(showtimeId, ids -> Map.of(showtimeId, buildPlan(showtimeId, inventory)));
+        // Inventory was reloaded, so ordinals may have moved, or the plan lacks a layout worth retrying
+        if (plan.inventory != inventory || plan.expiresAt <= System.currentTimeMillis()) {
+            plans.invalidate(showtimeId);
+            plan = plans.get(showtimeId, ids -> Map.of(showtimeId, buildPlan(showtimeId, inventory)));
+        }
+        return plan;
+    }
+
+    private Plan buildPlan(String showtimeId, SeatInventory inventory) {
+        ShowtimeDTO showtime = bookingEnricher.showtime(showtimeId);
+        ScreenLayout layout = showtime != null && showtime.getScreen() != null
+                ? fetchLayout(showtime.getScreen())
+                : null;
+        if (layout == null || layout.getSeatMap() == null || layout.getSeatMap().isEmpty()) {
+            return new Plan(inventory, fromInventory(inventory), null,
+                    System.currentTimeMillis() + FALLBACK_PLAN_TTL_MILLIS);
+        }
+        return new Plan(inventory, fromLayout(layout, inventory), layout.getCategories(), Long.MAX_VALUE);
+    }
+
+    private ScreenLayout fetchLayout(String screenId) {
+        try {
+            return screenLayoutCache.get(screenId).getLayout();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Maps layout cells onto inventory ordinals the same way seats were
+     * initialized: row index to a letter, column to a 1-based seat number.
+     */
+    private static SeatBlockFinder fromLayout(ScreenLayout layout, SeatInventory inventory) {
+        int rowCount = 0;
+        int width = 0;
+        for (ScreenLayout.Cell cell : layout.getSeatMap()) {
+            if (cell.getRow() != null && cell.getCol() != null) {
+                rowCount = Math.max(rowCount, cell.getRow() + 1);
+                width = Math.max(width, cell.getCol() + 1);
+            }
+        }
+        int[] ordinalAt = emptyGrid(rowCount * width);
+        String[] categoryAt = new String[rowCount * width];
+        for (ScreenLayout.Cell cell : layout.getSeatMap()) {
+            if (cell.getRow() == null || cell.getCol() == null || "disabled".equals(cell.getStatus())) {
+                continue;
+            }
+            int ordinal = inventory.ordinalOf(SeatLayoutTemplate.rowLabel(cell.getRow()) + (cell.getCol() + 1));
+            if (ordinal >= 0) {
+                ordinalAt[cell.getRow() * width + cell.getCol()] = ordinal;
+                categoryAt[cell.getRow() * width + cell.getCol()] = cell.getCategoryId();
+            }
+        }
+        return new SeatBlockFinder(rowCount, width, ordinalAt, categoryAt);
+    }
+
+    private static SeatBlockFinder fromInventory(SeatInventory inventory) {
+        Map<String, Integer> rowIndex = new LinkedHashMap<>();
+        int width = 0;
+        for (int ordinal = 0; ordinal < inventory.size(); ordinal++) {
+            rowIndex.putIfAbsent(inventory.row(ordinal), rowIndex.size());
+            width = Math.max(width, inventory.number(ordinal));
+        }
+        int[] ordinalAt = emptyGrid(rowIndex.size() * width);
+        for (int ordinal = 0; ordinal < inventory.size(); ordinal++) {
+            int number = inventory.number(ordinal);
+            if (number >= 1) {
+                ordinalAt[rowIndex.get(inventory.row(ordinal)) * width + number - 1] = ordinal;
+            }
+        }
+        return new SeatBlockFinder(rowIndex.size(), width, ordinalAt, null);
+    }
+
+    private static int[] emptyGrid(int cells) {
+        int[] grid = new int[cells];
+        Arrays.fill(grid, -1);
+        return grid;
+    }
+
+    private static final class Plan {
+        private final SeatInventory inventory;
+        private final SeatBlockFinder finder;
+        private final Map<String, String> categoryIdByKey = new HashMap<>();
+        // Before the cache's own expiry, for plans built without a layout
+        private final long expiresAt;
+
+        private Plan(SeatInventory inventory, SeatBlockFinder finder, List<ScreenLayout.Category> categories,
+                long expiresAt) {
+            this.inventory = inventory;
+            this.finder = finder;
+            this.expiresAt = expiresAt;
+            if (categories != null) {
+                for (ScreenLayout.Category category : categories) {
+                    if (category.getId() == null) {
+                        continue;
+                    }
+                    categoryIdByKey.put(category.getId().toLowerCase(), category.getId());
+                    if (category.getName() != null) {
+                        categoryIdByKey.put(category.getName().toLowerCase(), category.getId());
+                    }
+                }
+            }
+        }
+
+        boolean knows(String category) {
+            return category == null || category.isEmpty() || categoryIdByKey.containsKey(category.toLowerCase());
+        }
+
+        /**
+         * Resolves a category id or name to the ids to search, or null for any.
+         */
+        Set<String> categoryIds(String category) {
+            if (category == null || category.isEmpty()) {
+                return null;
+            }
+            String id = categoryIdByKey.get(category.toLowerCase());
+            if (id == null) {
+                throw new RuntimeException("Unknown seat category: " + category);
+            }
+            Set<String> ids = new HashSet<>();
+            ids.add(id);
+            return ids;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.revticket.booking.service;
+
+import com.revticket.booking.client.ShowtimeServiceClient;
+import com.revticket.booking.dto.SeatAvailability;
+import com.revticket.booking.event.SeatStateChangedEvent;
+import com.revticket.booking.util.JwtUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.client.RestClientException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Live available/held/booked counts per showtime. Counts are re-taken from
+ * the showtime's inventory after every committed seat transition, since an
+ * event does not say which state each seat left, and swapped in whole so a
+ * reader never sees a half-updated set; an older snapshot never replaces a
+ * newer one. Showtimes whose counts changed are pushed to showtime-service
+ * in one batched call every few seconds, keeping
+ * {@code showtimes.available_seats} close to live. Showtimes another shard
+ * owns are asked of that shard, one call per owner for all of its showtimes
+ * in a request, since their transitions happen there. Snapshots are only
+ * kept for showtimes with seat activity: the rest, and the showtimes of
+ * owners that cannot be reached, are counted by the seat store in one grouped
+ * query per request and not cached.
+ */
+@Service
+public class SeatAvailabilityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeatAvailabilityService.class);
+
+    public static final int MAX_SHOWTIMES = 500;
+    static final int FLUSH_BATCH_SIZE = 500;
+
+    // Snapshots of showtimes with no activity for this long are dropped
+    private static final long IDLE_MILLIS = 30 * 60_000L;
+    private static final String AVAILABILITY_PATH = "/api/seats/availability";
+    private static final ParameterizedTypeReference<Map<String, SeatAvailability>> AVAILABILITY_TYPE =
+            new ParameterizedTypeReference<>() {
+            };
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private ShardManager shardManager;
+
+    @Autowired
+    private ShardForwarder shardForwarder;
+
+    @Autowired
+    private ShowtimeServiceClient showtimeServiceClient;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private final Map<String, Entry> snapshots = new ConcurrentHashMap<>();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSeatStateChanged(SeatStateChangedEvent event) {
+        if (refresh(event.getShowtimeId()) != null) {
+            dirty.add(event.getShowtimeId());
+        }
+    }
+
+    /**
+     * Counts for up to {@link #MAX_SHOWTIMES} showtimes, keyed by showtime id
+     * in request order. Showtimes without seats are left out.
+     */
+    public Map<String, SeatAvailability> availability(Collection<String> showtimeIds) {
+        Set<String> ids = new LinkedHashSet<>(showtimeIds);
+        ids.remove(null);
+        if (ids.size() > MAX_SHOWTIMES) {
+            throw new RuntimeException("At most " + MAX_SHOWTIMES + " showtimes per request");
+        }
+        Map<String, SeatAvailability> known = fromOwners(ids);
+        List<String> cold = new ArrayList<>();
+        for (String showtimeId : ids) {
+            if (known.containsKey(showtimeId)) {
+                continue;
+            }
+            // Showtimes of unreachable owners have no snapshot here and are counted too
+            Entry entry = shardManager.isLocal(showtimeId) ? snapshots.get(showtimeId) : null;
+            if (entry != null) {
+                known.put(showtimeId, entry.counts);
+            } else {
+                cold.add(showtimeId);
+            }
+        }
+        if (!cold.isEmpty()) {
+            known.putAll(seatInventoryService.availability(cold));
+        }
+
+        Map<String, SeatAvailability> result = new LinkedHashMap<>();
+        for (String showtimeId : ids) {
+            SeatAvailability counts = known.get(showtimeId);
+            if (counts != null) {
+                result.put(showtimeId, counts);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Counts of the showtimes other instances own, asked of each owner in one
+     * call. Showtimes an owner answered for without counts map to null;
+     * showtimes of unreachable owners are left out.
+     */
+    private Map<String, SeatAvailability> fromOwners(Set<String> ids) {
+        Map<String, SeatAvailability> counts = new HashMap<>();
+        if (!shardManager.isEnabled() || shardForwarder.isForwarded()) {
+            return counts;
+        }
+        Map<ServiceInstance, List<String>> byOwner = new LinkedHashMap<>();
+        for (String showtimeId : ids) {
+            ServiceInstance owner = shardManager.owner(showtimeId);
+            if (owner != null) {
+                byOwner.computeIfAbsent(owner, key -> new ArrayList<>()).add(showtimeId);
+            }
+        }
+        for (Map.Entry<ServiceInstance, List<String>> owned : byOwner.entrySet()) {
+            try {
+                Map<String, SeatAvailability> answered = shardForwarder.post(owned.getKey(), AVAILABILITY_PATH,
+                        Map.of("showtimeIds", owned.getValue()), AVAILABILITY_TYPE);
+                Set<String> asked = new HashSet<>(owned.getValue());
+                asked.forEach(showtimeId -> counts.put(showtimeId, null));
+                if (answered != null) {
+                    answered.forEach((showtimeId, found) -> {
+                        if (asked.contains(showtimeId)) {
+                            counts.put(showtimeId, found);
+                        }
+                    });
+                }
+            } catch (RestClientException e) {
+                logger.warn("Could not get availability of {} showtimes from {}: {}", owned.getValue().size(),
+                        owned.getKey().getInstanceId(), e.getMessage());
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Sends changed counts to showtime-service. A failed batch stays dirty
+     * and goes out with the next flush.
+     */
+    @Scheduled(fixedDelay = 5000)
+    public void flush() {
+        List<String> changed = new ArrayList<>(dirty);
+        dirty.removeAll(changed);
+        for (int from = 0; from < changed.size(); from += FLUSH_BATCH_SIZE) {
+            List<String> batch = changed.subList(from, Math.min(from + FLUSH_BATCH_SIZE, changed.size()));
+            List<Map<String, Object>> updates = new ArrayList<>(batch.size());
+            for (String showtimeId : batch) {
+                Entry entry = snapshots.get(showtimeId);
+                if (entry != null) {
+                    updates.add(Map.of(
+                            "showtimeId", showtimeId,
+                            "availableSeats", entry.counts.getAvailable(),
+                            "heldSeats", entry.counts.getHeld(),
+                            "bookedSeats", entry.counts.getBooked()));
+                }
+            }
+            if (updates.isEmpty()) {
+                continue;
+            }
+            try {
+                showtimeServiceClient.updateAvailability(updates, jwtUtil.serviceAuthorization());
+            } catch (Exception e) {
+                logger.warn("Could not push availability of {} showtimes: {}", updates.size(), e.getMessage());
+                dirty.addAll(batch);
+            }
+        }
+
+        long idleSince = System.currentTimeMillis() - IDLE_MILLIS;
+        snapshots.entrySet().removeIf(e -> e.getValue().takenAt < idleSince && !dirty.contains(e.getKey()));
+    }
+
+    private SeatAvailability refresh(String showtimeId) {
+        SeatAvailability counts = seatInventoryService.availability(showtimeId);
+        if (counts == null) {
+            snapshots.remove(showtimeId);
+            return null;
+        }
+        Entry taken = new Entry(counts, System.currentTimeMillis());
+        return snapshots.merge(showtimeId, taken,
+                (current, next) -> next.counts.getVersion() >= current.counts.getVersion() ? next : current)
+                .counts;
+    }
+
+    private static class Entry {
+        private final SeatAvailability counts;
+        private final long takenAt;
+
+        Entry(SeatAvailability counts, long takenAt) {
+            this.counts = counts;
+            this.takenAt = takenAt;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.revticket.booking.service;
+
+import java.util.Set;
+import java.util.function.IntPredicate;
+
+/**
+ * Finds the best block of adjacent seats on one screen layout.
+ * The layout is a grid of rows and columns where each cell maps to a seat
+ * ordinal in the showtime's {@link SeatInventory} or to nothing (aisle,
+ * disabled seat). Each search first builds two bitmaps per row, free seats
+ * and free seats of the wanted category, then scans rows outward from the
+ * sweet spot about two thirds of the way back, scoring every run of
+ * {@code count} eligible seats by its distance from the sweet spot. A block
+ * that would strand a single free seat next to it is only chosen when no
+ * other block fits.
+ */
+public class SeatBlockFinder {
+
+    // Column distances are doubled so a block centre between two seats stays integral
+    private static final int ROW_WEIGHT = 4;
+    private static final int GAP_PENALTY = 1 << 20;
+
+    private final int rowCount;
+    private final int width;
+    private final int words;
+    private final int[] ordinalAt;
+    private final String[] categoryAt;
+    private final int sweetRow;
+
+    /**
+     * @param ordinalAt  seat ordinal per cell, row-major, or -1 for no seat
+     * @param categoryAt category id per cell, may be null or hold nulls
+     */
+    public SeatBlockFinder(int rowCount, int width, int[] ordinalAt, String[] categoryAt) {
+        this.rowCount = rowCount;
+        this.width = width;
+        this.words = (width + 63) >>> 6;
+        this.ordinalAt = ordinalAt;
+        this.categoryAt = categoryAt;
+        this.sweetRow = Math.max(0, Math.min(rowCount - 1, (rowCount * 2) / 3));
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the ordinals of the best block, left to right, or null if no row
+     * has {@code count} adjacent eligible seats.
+     *
+     * @param categoryIds categories to choose from, or null for any
+     * @param free        whether a seat ordinal can be taken right now
+     */
+    public int[] find(int count, Set<String> categoryIds, IntPredicate free) {
+        if (count <= 0 || count > width) {
+            return null;
+        }
+        long[] freeMask = new long[rowCount * words];
+        long[] eligible = new long[rowCount * words];
+        for (int cell = 0; cell < ordinalAt.length; cell++) {
+            int ordinal = ordinalAt[cell];
+            if (ordinal < 0 || !free.test(ordinal)) {
+                continue;
+            }
+            int row = cell / width;
+            int col = cell % width;
+            int word = row * words + (col >>> 6);
+            freeMask[word] |= 1L << col;
+            if (categoryIds == null || (categoryAt != null && categoryIds.contains(categoryAt[cell]))) {
+                eligible[word] |= 1L << col;
+            }
+        }
+
+        int bestScore = Integer.MAX_VALUE;
+        int bestRow = -1;
+        int bestStart = -1;
+        // Visit rows nearest the sweet spot first so the row term alone can end the scan
+        for (int distance = 0; distance < rowCount && ROW_WEIGHT * distance < bestScore; distance++) {
+            for (int side = 0; side < (distance == 0 ? 1 : 2); side++) {
+                int row = side == 0 ? sweetRow + distance : sweetRow - distance;
+                if (row < 0 || row >= rowCount || popCount(eligible, row) < count) {
+                    continue;
+                }
+                int run = 0;
+                for (int col = 0; col < width; col++) {
+                    run = test(eligible, row, col) ? run + 1 : 0;
+                    if (run < count) {
+                        continue;
+                    }
+                    int start = col - count + 1;
+                    int score = ROW_WEIGHT * distance + Math.abs(2 * start + count - 1 - (width - 1));
+                    if (leavesGap(freeMask, row, start, col)) {
+                        score += GAP_PENALTY;
+                    }
+                    if (score < bestScore) {
+                        bestScore = score;
+                        bestRow = row;
+                        bestStart = start;
+                    }
+                }
+            }
+        }
+        if (bestRow < 0) {
+            return null;
+        }
+        int[] ordinals = new int[count];
+        for (int i = 0; i < count; i++) {
+            ordinals[i] = ordinalAt[bestRow * width + bestStart + i];
+        }
+        return ordinals;
+    }
+
+    /**
+     * True when taking columns start..end would leave exactly one free seat
+     * between the block and the next taken seat, aisle or wall on either side.
+     */
+    private boolean leavesGap(long[] freeMask, int row, int start, int end) {
+        boolean leftSingle = start >= 1 && test(freeMask, row, start - 1)
+                && (start < 2 || !test(freeMask, row, start - 2));
+        boolean rightSingle = end + 1 < width && test(freeMask, row, end + 1)
+                && (end + 2 >= width || !test(freeMask, row, end + 2));
+        return leftSingle || rightSingle;
+    }
+
+    private boolean test(long[] mask, int row, int col) {
+        return (mask[row * words + (col >>> 6)] & (1L << col)) != 0;
+    }
+
+    private int popCount(long[] mask, int row) {
+        int count = 0;
+        for (int w = 0; w < words; w++) {
+            count += Long.bitCount(mask[row * words + w]);
+        }
+        return count;
+    }
+}
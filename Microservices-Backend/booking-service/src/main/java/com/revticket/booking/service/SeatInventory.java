@@ -0,0 +1,487 @@
+package com.revticket.booking.service;
+
+import com.revticket.booking.entity.Seat;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory seat state for a single showtime.
+ * Seats are addressed by ordinal (their position in layout order) and their
+ * booked/held/disabled flags live in bitsets, with hold expiry and holder
+ * session kept in ordinal-indexed arrays. Every transition checks all
+ * requested seats first and only then applies, under the inventory monitor,
+ * so a hold or booking either takes every seat or none of them.
+ */
+public class SeatInventory {
+
+    public static final int AVAILABLE = 0;
+    public static final int HELD = 1;
+    public static final int BOOKED = 2;
+    public static final int DISABLED = 3;
+
+    /**
+     * Layout order: rows by label length then label (A..Z, AA..), seats by number.
+     */
+    public static final Comparator<Seat> LAYOUT_ORDER = Comparator.comparing((Seat s) -> s.getRow().length())
+            .thenComparing(Seat::getRow)
+            .thenComparing(Seat::getNumber);
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private final String showtimeId;
+    private final String[] seatIds;
+    private final String[] rows;
+    private final int[] numbers;
+    private final double[] prices;
+    private final Seat.SeatType[] types;
+    private final Map<String, Integer> ordinalByRef;
+
+    private final BitSet booked;
+    private final BitSet held;
+    private final BitSet disabled;
+    private final long[] holdExpiry;
+    private final String[] holdSession;
+
+    // Versioning: starts from wall-clock micros so a reloaded inventory never reuses a version
+    private static final int CHANGE_LOG_SIZE = 1024;
+    private final long[] changeVersions = new long[CHANGE_LOG_SIZE];
+    private final int[] changeOrdinals = new int[CHANGE_LOG_SIZE];
+    private long changeCount;
+    private long logFloor;
+    private long version;
+
+    // Last time a caller fetched this inventory; read by the idle sweep
+    private volatile long lastUsed = System.currentTimeMillis();
+
+    public SeatInventory(String showtimeId, List<Seat> seats) {
+        List<Seat> ordered = new ArrayList<>(seats);
+        ordered.sort(LAYOUT_ORDER);
+
+        int size = ordered.size();
+        this.showtimeId = showtimeId;
+        this.seatIds = new String[size];
+        this.rows = new String[size];
+        this.numbers = new int[size];
+        this.prices = new double[size];
+        this.types = new Seat.SeatType[size];
+        this.ordinalByRef = new HashMap<>(size * 4);
+        this.booked = new BitSet(size);
+        this.held = new BitSet(size);
+        this.disabled = new BitSet(size);
+        this.holdExpiry = new long[size];
+        this.holdSession = new String[size];
+
+        for (int i = 0; i < size; i++) {
+            Seat seat = ordered.get(i);
+            seatIds[i] = seat.getId();
+            rows[i] = seat.getRow();
+            numbers[i] = seat.getNumber();
+            prices[i] = seat.getPrice() != null ? seat.getPrice() : 0.0;
+            types[i] = seat.getType();
+            ordinalByRef.put(seat.getId(), i);
+            ordinalByRef.putIfAbsent(label(i), i);
+
+            booked.set(i, Boolean.TRUE.equals(seat.getIsBooked()));
+            disabled.set(i, Boolean.TRUE.equals(seat.getIsDisabled()));
+            if (Boolean.TRUE.equals(seat.getIsHeld())) {
+                held.set(i);
+                holdExpiry[i] = seat.getHoldExpiry() != null ? toMillis(seat.getHoldExpiry()) : 0L;
+                holdSession[i] = seat.getSessionId();
+            }
+        }
+        this.version = System.currentTimeMillis() * 1000;
+        this.logFloor = version;
+    }
+
+    public String getShowtimeId() {
+        return showtimeId;
+    }
+
+    public int size() {
+        return seatIds.length;
+    }
+
+    public boolean isEmpty() {
+        return seatIds.length == 0;
+    }
+
+    public String seatId(int ordinal) {
+        return seatIds[ordinal];
+    }
+
+    public String row(int ordinal) {
+        return rows[ordinal];
+    }
+
+    public int number(int ordinal) {
+        return numbers[ordinal];
+    }
+
+    public String label(int ordinal) {
+        return rows[ordinal] + numbers[ordinal];
+    }
+
+    /**
+     * Returns the ordinal for a seat id or a row+number label such as "A7", or -1.
+     */
+    public int ordinalOf(String ref) {
+        if (ref == null) {
+            return -1;
+        }
+        Integer ordinal = ordinalByRef.get(ref);
+        return ordinal != null ? ordinal : -1;
+    }
+
+    /**
+     * Resolves every ref to its ordinal or throws. A seat named twice, by the
+     * same ref or by both its id and its label, is rejected rather than
+     * counted twice against the seats actually written.
+     */
+    public int[] resolve(List<String> refs) {
+        int[] ordinals = new int[refs.size()];
+        BitSet seen = new BitSet(size());
+        for (int i = 0; i < ordinals.length; i++) {
+            int ordinal = ordinalOf(refs.get(i));
+            if (ordinal < 0) {
+                throw new RuntimeException("Seat not found: " + refs.get(i));
+            }
+            if (seen.get(ordinal)) {
+                throw new RuntimeException("Seat " + label(ordinal) + " is selected more than once");
+            }
+            seen.set(ordinal);
+            ordinals[i] = ordinal;
+        }
+        return ordinals;
+    }
+
+    public synchronized boolean isBooked(int ordinal) {
+        return booked.get(ordinal);
+    }
+
+    public synchronized boolean isHeld(int ordinal, long now) {
+        return held.get(ordinal) && holdExpiry[ordinal] > now;
+    }
+
+    /**
+     * Books every seat or throws. A seat held by someone else blocks the
+     * booking until its hold expires; the caller's own hold does not.
+     */
+    public synchronized void book(int[] ordinals, String sessionId, long now) {
+        for (int ordinal : ordinals) {
+            if (booked.get(ordinal)) {
+                throw new RuntimeException("Seat " + label(ordinal) + " is already booked");
+            }
+            if (disabled.get(ordinal)) {
+                throw new RuntimeException("Seat " + label(ordinal) + " is not available");
+            }
+            if (isHeldByOther(ordinal, sessionId, now)) {
+                throw new RuntimeException("Seat " + label(ordinal) + " is currently held by another user");
+            }
+        }
+        for (int ordinal : ordinals) {
+            booked.set(ordinal);
+            clearHold(ordinal);
+        }
+        recordChanges(ordinals, ordinals.length);
+    }
+
+    /**
+     * Holds every seat for the session until {@code expiry} or throws.
+     */
+    public synchronized void hold(int[] ordinals, String sessionId, long expiry, long now) {
+        for (int ordinal : ordinals) {
+            if (booked.get(ordinal)) {
+                throw new RuntimeException("Seat " + label(ordinal) + " is already booked");
+            }
+            if (disabled.get(ordinal)) {
+                throw new RuntimeException("Seat " + label(ordinal) + " is not available");
+            }
+            if (isHeldByOther(ordinal, sessionId, now)) {
+                throw new RuntimeException("Seat " + label(ordinal) + " is currently held by another user");
+            }
+        }
+        for (int ordinal : ordinals) {
+            held.set(ordinal);
+            holdExpiry[ordinal] = expiry;
+            holdSession[ordinal] = sessionId;
+        }
+        recordChanges(ordinals, ordinals.length);
+    }
+
+    /**
+     * Picks the best free block with {@code finder} and holds it for the
+     * session in the same critical section, so no concurrent hold or booking
+     * can take a seat between the search and the hold. Returns the held
+     * ordinals, or null when no block fits.
+     */
+    public synchronized int[] holdBest(SeatBlockFinder finder, int count, Set<String> categoryIds,
+            String sessionId, long expiry, long now) {
+        int[] ordinals = finder.find(count, categoryIds, ordinal -> isFree(ordinal, now));
+        if (ordinals != null) {
+            hold(ordinals, sessionId, expiry, now);
+        }
+        return ordinals;
+    }
+
+    /**
+     * Drops the hold on every listed seat that is not booked and returns the
+     * ordinals that actually changed.
+     */
+    public synchronized int[] release(int[] ordinals) {
+        int[] changed = new int[ordinals.length];
+        int count = 0;
+        for (int ordinal : ordinals) {
+            if (!booked.get(ordinal) && held.get(ordinal)) {
+                clearHold(ordinal);
+                changed[count++] = ordinal;
+            }
+        }
+        recordChanges(changed, count);
+        return Arrays.copyOf(changed, count);
+    }
+
+    /**
+     * Clears holds that have lapsed by {@code now}. A seat that was booked or
+     * re-held with a later expiry in the meantime is left alone.
+     */
+    public synchronized int[] expire(int[] ordinals, long now) {
+        int[] changed = new int[ordinals.length];
+        int count = 0;
+        for (int ordinal : ordinals) {
+            if (!booked.get(ordinal) && held.get(ordinal) && holdExpiry[ordinal] <= now) {
+                clearHold(ordinal);
+                changed[count++] = ordinal;
+            }
+        }
+        recordChanges(changed, count);
+        return Arrays.copyOf(changed, count);
+    }
+
+    /**
+     * Returns booked seats to the available pool and returns the ordinals that
+     * actually changed.
+     */
+    public synchronized int[] unbook(int[] ordinals) {
+        int[] changed = new int[ordinals.length];
+        int count = 0;
+        for (int ordinal : ordinals) {
+            if (booked.get(ordinal) || held.get(ordinal)) {
+                booked.clear(ordinal);
+                clearHold(ordinal);
+                changed[count++] = ordinal;
+            }
+        }
+        recordChanges(changed, count);
+        return Arrays.copyOf(changed, count);
+    }
+
+    /**
+     * Number of seats that could be held right now.
+     */
+    public synchronized int freeCount(long now) {
+        int free = 0;
+        for (int ordinal = 0; ordinal < seatIds.length; ordinal++) {
+            if (isFree(ordinal, now)) {
+                free++;
+            }
+        }
+        return free;
+    }
+
+    /**
+     * Seat counts per status as {@link #status} reports them, indexed by the
+     * status codes. Bitset cardinalities, so cheap enough to take on every
+     * transition.
+     */
+    public synchronized int[] counts() {
+        BitSet bookedSeats = (BitSet) booked.clone();
+        bookedSeats.andNot(disabled);
+        BitSet heldSeats = (BitSet) held.clone();
+        heldSeats.andNot(disabled);
+        heldSeats.andNot(booked);
+
+        int[] counts = new int[4];
+        counts[DISABLED] = disabled.cardinality();
+        counts[BOOKED] = bookedSeats.cardinality();
+        counts[HELD] = heldSeats.cardinality();
+        counts[AVAILABLE] = seatIds.length - counts[DISABLED] - counts[BOOKED] - counts[HELD];
+        return counts;
+    }
+
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    public long getLastUsed() {
+        return lastUsed;
+    }
+
+    public void touch(long now) {
+        lastUsed = now;
+    }
+
+    /**
+     * Status code of a seat as stored: {@link #AVAILABLE}, {@link #HELD},
+     * {@link #BOOKED} or {@link #DISABLED}. Lapsed holds stay HELD until the
+     * expiry scheduler clears them, so a status only changes with the version.
+     */
+    public synchronized int status(int ordinal) {
+        return statusOf(ordinal);
+    }
+
+    /**
+     * Packs every seat's status into two bits, four seats per byte, in layout order.
+     */
+    public synchronized byte[] packedStatus() {
+        byte[] packed = new byte[(seatIds.length + 3) / 4];
+        for (int i = 0; i < seatIds.length; i++) {
+            packed[i >> 2] |= (byte) (statusOf(i) << ((i & 3) << 1));
+        }
+        return packed;
+    }
+
+    /**
+     * Returns ordinal/status pairs for seats changed after {@code sinceVersion},
+     * or null when the change log no longer reaches back that far.
+     */
+    public synchronized int[][] changesSince(long sinceVersion) {
+        if (sinceVersion < logFloor || sinceVersion > version) {
+            return null;
+        }
+        BitSet changed = new BitSet(seatIds.length);
+        long first = Math.max(0, changeCount - CHANGE_LOG_SIZE);
+        for (long i = first; i < changeCount; i++) {
+            int slot = (int) (i % CHANGE_LOG_SIZE);
+            if (changeVersions[slot] > sinceVersion) {
+                changed.set(changeOrdinals[slot]);
+            }
+        }
+        int[][] changes = new int[changed.cardinality()][];
+        int n = 0;
+        for (int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1)) {
+            changes[n++] = new int[] { i, statusOf(i) };
+        }
+        return changes;
+    }
+
+    public List<String> seatIds() {
+        return Arrays.asList(seatIds.clone());
+    }
+
+    public List<String> labels() {
+        List<String> labels = new ArrayList<>(seatIds.length);
+        for (int i = 0; i < seatIds.length; i++) {
+            labels.add(label(i));
+        }
+        return labels;
+    }
+
+    public double price(int ordinal) {
+        return prices[ordinal];
+    }
+
+    /**
+     * Materializes the current state as {@link Seat} entities in layout order.
+     * Holds that have already lapsed are reported as free.
+     */
+    public synchronized List<Seat> toSeats(long now) {
+        List<Seat> seats = new ArrayList<>(seatIds.length);
+        for (int i = 0; i < seatIds.length; i++) {
+            seats.add(toSeat(i, now));
+        }
+        return seats;
+    }
+
+    public synchronized List<Seat> toSeats(int[] ordinals, long now) {
+        List<Seat> seats = new ArrayList<>(ordinals.length);
+        for (int ordinal : ordinals) {
+            seats.add(toSeat(ordinal, now));
+        }
+        return seats;
+    }
+
+    public synchronized List<String> bookedSeatIds() {
+        List<String> ids = new ArrayList<>(booked.cardinality());
+        for (int i = booked.nextSetBit(0); i >= 0; i = booked.nextSetBit(i + 1)) {
+            ids.add(seatIds[i]);
+        }
+        return ids;
+    }
+
+    private Seat toSeat(int ordinal, long now) {
+        boolean activeHold = held.get(ordinal) && holdExpiry[ordinal] > now;
+        Seat seat = new Seat();
+        seat.setId(seatIds[ordinal]);
+        seat.setShowtimeId(showtimeId);
+        seat.setRow(rows[ordinal]);
+        seat.setNumber(numbers[ordinal]);
+        seat.setPrice(prices[ordinal]);
+        seat.setType(types[ordinal]);
+        seat.setIsBooked(booked.get(ordinal));
+        seat.setIsDisabled(disabled.get(ordinal));
+        seat.setIsHeld(activeHold);
+        seat.setHoldExpiry(activeHold ? toDateTime(holdExpiry[ordinal]) : null);
+        seat.setSessionId(activeHold ? holdSession[ordinal] : null);
+        return seat;
+    }
+
+    private int statusOf(int ordinal) {
+        if (disabled.get(ordinal)) {
+            return DISABLED;
+        }
+        if (booked.get(ordinal)) {
+            return BOOKED;
+        }
+        return held.get(ordinal) ? HELD : AVAILABLE;
+    }
+
+    private void recordChanges(int[] ordinals, int count) {
+        if (count == 0) {
+            return;
+        }
+        version++;
+        for (int i = 0; i < count; i++) {
+            int slot = (int) (changeCount % CHANGE_LOG_SIZE);
+            if (changeCount >= CHANGE_LOG_SIZE) {
+                logFloor = Math.max(logFloor, changeVersions[slot]);
+            }
+            changeVersions[slot] = version;
+            changeOrdinals[slot] = ordinals[i];
+            changeCount++;
+        }
+    }
+
+    private boolean isFree(int ordinal, long now) {
+        return !booked.get(ordinal) && !disabled.get(ordinal) && !(held.get(ordinal) && holdExpiry[ordinal] > now);
+    }
+
+    private boolean isHeldByOther(int ordinal, String sessionId, long now) {
+        return held.get(ordinal)
+                && holdExpiry[ordinal] > now
+                && (sessionId == null || !sessionId.equals(holdSession[ordinal]));
+    }
+
+    private void clearHold(int ordinal) {
+        held.clear(ordinal);
+        holdExpiry[ordinal] = 0L;
+        holdSession[ordinal] = null;
+    }
+
+    public static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZONE).toInstant().toEpochMilli();
+    }
+
+    public static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZONE);
+    }
+}
@@ -0,0 +1,312 @@
+package com.revticket.booking.service;
+
+import com.revticket.booking.dto.SeatAvailability;
+import com.revticket.booking.entity.Seat;
+import com.revticket.booking.event.SeatStateChangedEvent;
+import com.revticket.booking.event.SeatStateChangedEvent.Transition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntSupplier;
+
+/**
+ * Seat inventory engine. Keeps a {@link SeatInventory} per active showtime so
+ * seat lookups and availability checks never go back to the database, and
+ * writes every transition through the {@link SeatStore} as a single
+ * conditional write whose changed-seat count decides success. If the surrounding
+ * transaction rolls back, the showtime's inventory is dropped and reloaded on
+ * next use. Inventories nobody has used for a while are dropped by
+ * {@link InventoryEvictionScheduler}, and ones for showtimes another instance
+ * now owns by {@link ShardManager}. Every transition is announced as a {@link SeatStateChangedEvent}
+ * once written; listeners that must only see committed state use a
+ * transactional event listener.
+ */
+@Service
+public class SeatInventoryService {
+
+    public static final int HOLD_MINUTES = 10;
+
+    @Autowired
+    private SeatStore seatStore;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final Map<String, SeatInventory> inventories = new ConcurrentHashMap<>();
+
+    public SeatInventory getInventory(String showtimeId) {
+        SeatInventory inventory = inventories.get(showtimeId);
+        if (inventory != null) {
+            inventory.touch(System.currentTimeMillis());
+            return inventory;
+        }
+        SeatInventory loaded = new SeatInventory(showtimeId, seatStore.findByShowtimeId(showtimeId));
+        if (loaded.isEmpty()) {
+            // Seats not initialized yet; don't pin an empty inventory in memory
+            return loaded;
+        }
+        SeatInventory existing = inventories.putIfAbsent(showtimeId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    public Set<String> residentShowtimeIds() {
+        return Set.copyOf(inventories.keySet());
+    }
+
+    /**
+     * Version of the showtime's resident inventory, or -1 when none is loaded.
+     */
+    public long residentVersion(String showtimeId) {
+        SeatInventory inventory = inventories.get(showtimeId);
+        return inventory != null ? inventory.getVersion() : -1;
+    }
+
+    /**
+     * Seat counts of the showtime, from its resident inventory or else counted
+     * by the seat store. Null when seats are not initialized.
+     */
+    public SeatAvailability availability(String showtimeId) {
+        return availability(List.of(showtimeId)).get(showtimeId);
+    }
+
+    /**
+     * Seat counts of several showtimes. Resident inventories answer from
+     * memory; the rest are counted by the seat store in one grouped query,
+     * without loading or pinning their seats. Showtimes without seats are
+     * left out.
+     */
+    public Map<String, SeatAvailability> availability(Collection<String> showtimeIds) {
+        Map<String, SeatAvailability> counts = new HashMap<>();
+        List<String> cold = new ArrayList<>();
+        for (String showtimeId : showtimeIds) {
+            SeatInventory inventory = inventories.get(showtimeId);
+            if (inventory == null) {
+                cold.add(showtimeId);
+            } else if (!inventory.isEmpty()) {
+                synchronized (inventory) {
+                    int[] seatCounts = inventory.counts();
+                    counts.put(showtimeId, SeatAvailability.of(showtimeId, inventory.size(),
+                            seatCounts[SeatInventory.DISABLED], seatCounts[SeatInventory.BOOKED],
+                            seatCounts[SeatInventory.HELD], inventory.getVersion()));
+                }
+            }
+        }
+        if (!cold.isEmpty()) {
+            counts.putAll(seatStore.countSeats(cold));
+        }
+        return counts;
+    }
+
+    public void evict(String showtimeId) {
+        inventories.remove(showtimeId);
+    }
+
+    /**
+     * Showtimes whose resident inventory has not been fetched since {@code cutoff}.
+     */
+    public List<String> idleShowtimeIds(long cutoff) {
+        List<String> idle = new ArrayList<>();
+        inventories.forEach((showtimeId, inventory) -> {
+            if (inventory.getLastUsed() < cutoff) {
+                idle.add(showtimeId);
+            }
+        });
+        return idle;
+    }
+
+    /**
+     * Drops the showtime's inventory unless it was fetched since {@code cutoff}.
+     */
+    public boolean evictIfIdle(String showtimeId, long cutoff) {
+        SeatInventory inventory = inventories.get(showtimeId);
+        return inventory != null && inventory.getLastUsed() < cutoff && inventories.remove(showtimeId, inventory);
+    }
+
+    public List<Seat> getSeats(String showtimeId) {
+        return getInventory(showtimeId).toSeats(System.currentTimeMillis());
+    }
+
+    /**
+     * Row+number labels for the given seat ids, in the same order; ids the
+     * inventory does not know are left out.
+     */
+    public List<String> labels(String showtimeId, List<String> seatIds) {
+        SeatInventory inventory = getInventory(showtimeId);
+        List<String> labels = new ArrayList<>(seatIds.size());
+        for (int ordinal : resolveKnown(inventory, seatIds)) {
+            labels.add(inventory.label(ordinal));
+        }
+        return labels;
+    }
+
+    /**
+     * Books the given seats (ids or row+number labels) and returns their seat ids.
+     * The in-memory check rejects conflicts cheaply; the conditional bulk update
+     * is what guarantees no other booker got there first.
+     */
+    public List<String> book(String showtimeId, List<String> seatRefs, String sessionId) {
+        SeatInventory inventory = requireInventory(showtimeId);
+        int[] ordinals = inventory.resolve(seatRefs);
+        inventory.book(ordinals, sessionId, System.currentTimeMillis());
+        List<String> seatIds = seatIds(inventory, ordinals);
+        int updated = write(inventory, () -> seatStore.bookSeats(showtimeId, seatIds, sessionId,
+                LocalDateTime.now()));
+        requireAll(inventory, updated, seatIds.size());
+        publish(showtimeId, Transition.BOOKED, inventory, ordinals, sessionId, null);
+        return seatIds;
+    }
+
+    public List<String> hold(String showtimeId, List<String> seatRefs, String sessionId) {
+        SeatInventory inventory = requireInventory(showtimeId);
+        int[] ordinals = inventory.resolve(seatRefs);
+        long now = System.currentTimeMillis();
+        long expiry = now + HOLD_MINUTES * 60_000L;
+        inventory.hold(ordinals, sessionId, expiry, now);
+        List<String> seatIds = seatIds(inventory, ordinals);
+        int updated = write(inventory, () -> seatStore.holdSeats(showtimeId, seatIds, sessionId,
+                SeatInventory.toDateTime(expiry), SeatInventory.toDateTime(now)));
+        requireAll(inventory, updated, seatIds.size());
+        publish(showtimeId, Transition.HELD, inventory, ordinals, sessionId, SeatInventory.toDateTime(expiry));
+        return seatIds;
+    }
+
+    /**
+     * Holds the best block of {@code count} adjacent seats chosen by
+     * {@code finder}, which must have been built for this showtime's current
+     * inventory. Returns the held seat ids, or an empty list when no block fits.
+     */
+    public List<String> holdBest(String showtimeId, SeatBlockFinder finder, int count, Set<String> categoryIds,
+            String sessionId) {
+        SeatInventory inventory = requireInventory(showtimeId);
+        long now = System.currentTimeMillis();
+        long expiry = now + HOLD_MINUTES * 60_000L;
+        int[] ordinals = inventory.holdBest(finder, count, categoryIds, sessionId, expiry, now);
+        if (ordinals == null) {
+            return List.of();
+        }
+        List<String> seatIds = seatIds(inventory, ordinals);
+        int updated = write(inventory, () -> seatStore.holdSeats(showtimeId, seatIds, sessionId,
+                SeatInventory.toDateTime(expiry), SeatInventory.toDateTime(now)));
+        requireAll(inventory, updated, seatIds.size());
+        publish(showtimeId, Transition.HELD, inventory, ordinals, sessionId, SeatInventory.toDateTime(expiry));
+        return seatIds;
+    }
+
+    public void release(String showtimeId, List<String> seatRefs) {
+        SeatInventory inventory = getInventory(showtimeId);
+        int[] changed = inventory.release(resolveKnown(inventory, seatRefs));
+        if (changed.length > 0) {
+            write(inventory, () -> seatStore.releaseHolds(showtimeId, seatIds(inventory, changed)));
+            publish(showtimeId, Transition.RELEASED, inventory, changed, null, null);
+        }
+    }
+
+    public void unbook(String showtimeId, List<String> seatRefs) {
+        SeatInventory inventory = getInventory(showtimeId);
+        int[] changed = inventory.unbook(resolveKnown(inventory, seatRefs));
+        if (changed.length > 0) {
+            write(inventory, () -> seatStore.unbookSeats(showtimeId, seatIds(inventory, changed)));
+            publish(showtimeId, Transition.UNBOOKED, inventory, changed, null, null);
+        }
+    }
+
+    /**
+     * Clears lapsed holds for one showtime in a single bulk update. Works whether
+     * or not the showtime's inventory is resident; the update's own expiry check
+     * leaves seats that were re-held or booked since the lease was scheduled.
+     */
+    public int expireHolds(String showtimeId, List<String> seatIds, long now) {
+        SeatInventory inventory = inventories.get(showtimeId);
+        if (inventory != null) {
+            int[] changed = inventory.expire(resolveKnown(inventory, seatIds), now);
+            if (changed.length == 0) {
+                return 0;
+            }
+            List<String> expiredIds = seatIds(inventory, changed);
+            int updated = write(inventory, () -> seatStore.expireHolds(showtimeId, expiredIds,
+                    SeatInventory.toDateTime(now)));
+            publish(showtimeId, Transition.EXPIRED, inventory, changed, null, null);
+            return updated;
+        }
+        return seatStore.expireHolds(showtimeId, seatIds, SeatInventory.toDateTime(now));
+    }
+
+    private void publish(String showtimeId, Transition transition, SeatInventory inventory, int[] ordinals,
+            String sessionId, LocalDateTime holdExpiry) {
+        eventPublisher.publishEvent(new SeatStateChangedEvent(showtimeId, transition,
+                seatIds(inventory, ordinals), ordinals, sessionId, holdExpiry));
+    }
+
+    private SeatInventory requireInventory(String showtimeId) {
+        SeatInventory inventory = getInventory(showtimeId);
+        if (inventory.isEmpty()) {
+            throw new RuntimeException("Seats not initialized for showtime " + showtimeId
+                    + ". Please refresh and select seats again.");
+        }
+        return inventory;
+    }
+
+    private int[] resolveKnown(SeatInventory inventory, List<String> seatRefs) {
+        int[] ordinals = new int[seatRefs.size()];
+        int count = 0;
+        for (String ref : seatRefs) {
+            int ordinal = inventory.ordinalOf(ref);
+            if (ordinal >= 0) {
+                ordinals[count++] = ordinal;
+            }
+        }
+        return Arrays.copyOf(ordinals, count);
+    }
+
+    private List<String> seatIds(SeatInventory inventory, int[] ordinals) {
+        List<String> ids = new ArrayList<>(ordinals.length);
+        for (int ordinal : ordinals) {
+            ids.add(inventory.seatId(ordinal));
+        }
+        return ids;
+    }
+
+    private int write(SeatInventory inventory, IntSupplier statement) {
+        evictOnRollback(inventory.getShowtimeId());
+        try {
+            return statement.getAsInt();
+        } catch (RuntimeException e) {
+            evict(inventory.getShowtimeId());
+            throw e;
+        }
+    }
+
+    private void requireAll(SeatInventory inventory, int updated, int expected) {
+        if (updated != expected) {
+            // Another instance or writer changed these seats; memory is stale
+            evict(inventory.getShowtimeId());
+            throw new RuntimeException("One or more selected seats are no longer available");
+        }
+    }
+
+    private void evictOnRollback(String showtimeId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    evict(showtimeId);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,74 @@
+package com.revticket.booking.service;
+
+import com.revticket.booking.dto.LayoutSeat;
+import com.revticket.booking.dto.ScreenLayout;
+import com.revticket.booking.entity.Seat;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A screen layout parsed once into what seat initialization needs: the
+ * sellable seats in layout order with their prices resolved from a
+ * category-to-price map. Immutable, so one instance serves every showtime on
+ * the screen until the layout version changes.
+ */
+@Getter
+public class SeatLayoutTemplate {
+
+    private static final double DEFAULT_PRICE = 100.0;
+
+    public static final Comparator<LayoutSeat> LAYOUT_ORDER = Comparator
+            .comparing((LayoutSeat s) -> s.getRow().length())
+            .thenComparing(LayoutSeat::getRow)
+            .thenComparing(LayoutSeat::getNumber);
+
+    private final String screenId;
+    private final long version;
+    private final ScreenLayout layout;
+    private final Map<String, Double> priceByCategory;
+    private final List<LayoutSeat> seats;
+
+    public SeatLayoutTemplate(String screenId, ScreenLayout layout) {
+        this.screenId = screenId;
+        this.version = layout.getLayoutVersion() != null ? layout.getLayoutVersion() : 0L;
+        this.layout = layout;
+
+        Map<String, Double> prices = new HashMap<>();
+        if (layout.getCategories() != null) {
+            for (ScreenLayout.Category category : layout.getCategories()) {
+                if (category.getId() != null && category.getPrice() != null) {
+                    prices.put(category.getId(), category.getPrice());
+                }
+            }
+        }
+        this.priceByCategory = Collections.unmodifiableMap(prices);
+
+        List<LayoutSeat> sellable = new ArrayList<>();
+        if (layout.getSeatMap() != null) {
+            for (ScreenLayout.Cell cell : layout.getSeatMap()) {
+                if ("disabled".equals(cell.getStatus()) || cell.getRow() == null || cell.getCol() == null) {
+                    continue;
+                }
+                sellable.add(new LayoutSeat(rowLabel(cell.getRow()), cell.getCol() + 1,
+                        priceOf(cell.getCategoryId()), Seat.SeatType.REGULAR));
+            }
+        }
+        sellable.sort(LAYOUT_ORDER);
+        this.seats = Collections.unmodifiableList(sellable);
+    }
+
+    public double priceOf(String categoryId) {
+        Double price = categoryId != null ? priceByCategory.get(categoryId) : null;
+        return price != null ? price : DEFAULT_PRICE;
+    }
+
+    public static String rowLabel(int row) {
+        return String.valueOf((char) ('A' + row));
+    }
+}
@@ -0,0 +1,136 @@
+package com.revticket.booking.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.revticket.booking.dto.SeatMapResponse;
+import lombok.Value;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serves versioned seat maps. The full map for a showtime is serialized once
+ * per version and the bytes are reused for every poll until the next seat
+ * transition; deltas are built from the inventory's change log. Only the most
+ * recently served showtimes keep their serialized map. A delta carries its
+ * own ETag ({@code "<version>-d"}), since its body differs from the full map
+ * at the same version.
+ */
+@Service
+public class SeatMapService {
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private static final int MAX_CACHED_MAPS = 500;
+
+    // Access-ordered, so the least recently served map is dropped first; guarded by itself
+    private final Map<String, SerializedMap> fullMaps = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SerializedMap> eldest) {
+            return size() > MAX_CACHED_MAPS;
+        }
+    };
+
+    /**
+     * Whether an {@code If-None-Match} value names the showtime's current
+     * version, as either a full map or a delta.
+     */
+    public boolean isCurrent(String showtimeId, String eTag) {
+        if (eTag == null) {
+            return false;
+        }
+        long version = seatInventoryService.getInventory(showtimeId).getVersion();
+        return eTag.equals(eTagFor(version, false)) || eTag.equals(eTagFor(version, true));
+    }
+
+    static String eTagFor(long version, boolean delta) {
+        return "\"" + version + (delta ? "-d" : "") + "\"";
+    }
+
+    /**
+     * Returns the serialized map, as a delta when {@code sinceVersion} is still
+     * covered by the change log and as a full map otherwise.
+     */
+    public SerializedMap getSeatMap(String showtimeId, Long sinceVersion) {
+        SeatInventory inventory = seatInventoryService.getInventory(showtimeId);
+        if (sinceVersion != null) {
+            long version;
+            int[][] changes;
+            synchronized (inventory) {
+                version = inventory.getVersion();
+                changes = inventory.changesSince(sinceVersion);
+            }
+            if (changes != null) {
+                return new SerializedMap(version, true, serialize(SeatMapResponse.builder()
+                        .showtimeId(showtimeId)
+                        .version(version)
+                        .delta(true)
+                        .changes(changes)
+                        .build()));
+            }
+        }
+
+        SerializedMap cached;
+        synchronized (fullMaps) {
+            cached = fullMaps.get(showtimeId);
+        }
+        if (cached != null && cached.getVersion() == inventory.getVersion()) {
+            return cached;
+        }
+        SerializedMap built = buildFullMap(inventory);
+        synchronized (fullMaps) {
+            fullMaps.merge(showtimeId, built, (old, fresh) -> fresh.getVersion() >= old.getVersion() ? fresh : old);
+        }
+        return built;
+    }
+
+    private SerializedMap buildFullMap(SeatInventory inventory) {
+        long version;
+        byte[] packed;
+        synchronized (inventory) {
+            version = inventory.getVersion();
+            packed = inventory.packedStatus();
+        }
+        List<Double> prices = new ArrayList<>(inventory.size());
+        for (int i = 0; i < inventory.size(); i++) {
+            prices.add(inventory.price(i));
+        }
+        return new SerializedMap(version, false, serialize(SeatMapResponse.builder()
+                .showtimeId(inventory.getShowtimeId())
+                .version(version)
+                .delta(false)
+                .seatIds(inventory.seatIds())
+                .labels(inventory.labels())
+                .prices(prices)
+                .status(Base64.getEncoder().encodeToString(packed))
+                .build()));
+    }
+
+    private byte[] serialize(SeatMapResponse response) {
+        try {
+            return objectMapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize seat map: " + e.getMessage());
+        }
+    }
+
+    @Value
+    public static class SerializedMap {
+        long version;
+        boolean delta;
+        byte[] body;
+
+        public String getETag() {
+            return eTagFor(version, delta);
+        }
+    }
+}
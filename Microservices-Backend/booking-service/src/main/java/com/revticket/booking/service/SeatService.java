@@ -1,139 +1,81 @@
 package com.revticket.booking.service;
 
-import com.revticket.booking.client.TheaterServiceClient;
 import com.revticket.booking.entity.Seat;
-import com.revticket.booking.repository.SeatRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.Set;
 
 @Service
 public class SeatService {
 
     @Autowired
-    private TheaterServiceClient theaterServiceClient;
+    private ScreenLayoutCache screenLayoutCache;
 
     @Autowired
-    private SeatRepository seatRepository;
+    private SeatStore seatStore;
 
-    @Transactional
-    public List<Seat> getSeatsByShowtime(String showtimeId) {
-        List<Seat> seats = seatRepository.findByShowtimeId(showtimeId);
-
-        LocalDateTime now = LocalDateTime.now();
-        List<Seat> expiredHolds = new ArrayList<>();
-        for (Seat seat : seats) {
-            if (Boolean.TRUE.equals(seat.getIsHeld()) &&
-                seat.getHoldExpiry() != null &&
-                seat.getHoldExpiry().isBefore(now)) {
-                seat.setIsHeld(false);
-                seat.setHoldExpiry(null);
-                seat.setSessionId(null);
-                expiredHolds.add(seat);
-            }
-        }
-
-        if (!expiredHolds.isEmpty()) {
-            seatRepository.saveAll(expiredHolds);
-        }
+    @Autowired
+    private SeatInventoryService seatInventoryService;
 
-        return seats;
+    @Transactional(readOnly = true)
+    public List<Seat> getSeatsByShowtime(String showtimeId) {
+        return seatInventoryService.getSeats(showtimeId);
     }
 
     @Transactional
     public void holdSeats(String showtimeId, List<String> seatIds, String sessionId) {
-        for (String seatId : seatIds) {
-            String safeSeatId = Objects.requireNonNullElse(seatId, "");
-            Seat seat = seatRepository.findById(safeSeatId)
-                    .orElseThrow(() -> new RuntimeException("Seat not found: " + seatId));
-
-            if (seat.getIsBooked()) {
-                throw new RuntimeException("Seat " + seatId + " is already booked");
-            }
-
-            seat.setIsHeld(true);
-            seat.setHoldExpiry(LocalDateTime.now().plusMinutes(10));
-            seat.setSessionId(sessionId);
-            seatRepository.save(seat);
-        }
+        seatInventoryService.hold(showtimeId, seatIds, sessionId);
     }
 
     @Transactional
     public void releaseSeats(String showtimeId, List<String> seatIds) {
-        for (String seatId : seatIds) {
-            String safeSeatId = Objects.requireNonNullElse(seatId, "");
-            Seat seat = seatRepository.findById(safeSeatId).orElse(null);
-            if (seat != null && !seat.getIsBooked()) {
-                seat.setIsHeld(false);
-                seat.setHoldExpiry(null);
-                seat.setSessionId(null);
-                seatRepository.save(seat);
-            }
-        }
+        seatInventoryService.release(showtimeId, seatIds);
     }
 
     @Transactional(readOnly = true)
     public List<String> getBookedSeatIds(String showtimeId) {
-        return seatRepository.findByShowtimeId(showtimeId)
-                .stream()
-                .filter(seat -> Boolean.TRUE.equals(seat.getIsBooked()))
-                .map(Seat::getId)
-                .collect(java.util.stream.Collectors.toList());
+        return seatInventoryService.getInventory(showtimeId).bookedSeatIds();
     }
 
     @Transactional
     public void initializeSeatsForShowtime(String showtimeId, String screenId) {
-        List<Seat> existingSeats = seatRepository.findByShowtimeId(showtimeId);
-        if (!existingSeats.isEmpty()) {
-            return;
-        }
-
         try {
-            Map<String, Object> screenConfig = theaterServiceClient.getScreenConfig(screenId);
-            @SuppressWarnings("unchecked")
-            List<Map<String, Object>> seatMap = (List<Map<String, Object>>) screenConfig.get("seatMap");
-            @SuppressWarnings("unchecked")
-            List<Map<String, Object>> categories = (List<Map<String, Object>>) screenConfig.get("categories");
-
-            List<Seat> seats = new ArrayList<>();
-            for (Map<String, Object> seatData : seatMap) {
-                String status = (String) seatData.get("status");
-                if ("disabled".equals(status)) {
-                    continue;
-                }
-
-                Integer rowNum = (Integer) seatData.get("row");
-                Integer col = (Integer) seatData.get("col");
-                String categoryId = (String) seatData.get("categoryId");
-
-                Map<String, Object> category = categories.stream()
-                        .filter(c -> categoryId.equals(c.get("id")))
-                        .findFirst()
-                        .orElse(null);
-
-                Double price = category != null ? ((Number) category.get("price")).doubleValue() : 100.0;
-
-                Seat seat = new Seat();
-                seat.setShowtimeId(showtimeId);
-                seat.setRow(String.valueOf((char) ('A' + rowNum)));
-                seat.setNumber(col + 1);
-                seat.setPrice(price);
-                seat.setType(Seat.SeatType.REGULAR);
-                seat.setIsBooked(false);
-                seat.setIsHeld(false);
-                seat.setIsDisabled(false);
-                seats.add(seat);
-            }
-
-            seatRepository.saveAll(seats);
+            initializeSeatsBatch(Map.of(showtimeId, screenId));
         } catch (Exception e) {
             throw new RuntimeException("Failed to initialize seats: " + e.getMessage());
         }
     }
+
+    /**
+     * Initializes seats for many showtimes in one transaction. Showtimes that
+     * already have seats are skipped; the rest are grouped by screen so each
+     * layout is resolved once and written with batched inserts.
+     *
+     * @param screenByShowtime screen id keyed by showtime id
+     * @return showtime ids that were initialized by this call
+     */
+    @Transactional
+    public List<String> initializeSeatsBatch(Map<String, String> screenByShowtime) {
+        Set<String> existing = seatStore.findInitialized(screenByShowtime.keySet());
+        Map<String, List<String>> showtimesByScreen = new LinkedHashMap<>();
+        screenByShowtime.forEach((showtimeId, screenId) -> {
+            if (!existing.contains(showtimeId)) {
+                showtimesByScreen.computeIfAbsent(screenId, k -> new ArrayList<>()).add(showtimeId);
+            }
+        });
+
+        List<String> initialized = new ArrayList<>();
+        showtimesByScreen.forEach((screenId, showtimeIds) -> {
+            seatStore.initialize(screenLayoutCache.get(screenId), showtimeIds);
+            initialized.addAll(showtimeIds);
+        });
+        initialized.forEach(seatInventoryService::evict);
+        return initialized;
+    }
 }
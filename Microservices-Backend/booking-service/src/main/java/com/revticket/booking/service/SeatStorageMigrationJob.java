@@ -0,0 +1,118 @@
+package com.revticket.booking.service;
+
+import com.revticket.booking.entity.JobCheckpoint;
+import com.revticket.booking.repository.JobCheckpointRepository;
+import com.revticket.booking.repository.SeatRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Converts showtimes still stored as {@code seats} rows to bitmap state.
+ * Only runs while {@code booking.seats.storage=bitmap}. Walks showtime ids in
+ * order, converting each in its own transaction, and records the last id in
+ * {@code job_checkpoints} so a restarted run resumes where it stopped.
+ */
+@Component
+public class SeatStorageMigrationJob {
+
+    public static final String JOB_NAME = "seat-storage-migration";
+    private static final Logger logger = LoggerFactory.getLogger(SeatStorageMigrationJob.class);
+
+    @Autowired
+    private SeatRepository seatRepository;
+
+    @Autowired
+    private JobCheckpointRepository jobCheckpointRepository;
+
+    @Autowired
+    private SeatStore seatStore;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private HoldExpiryScheduler holdExpiryScheduler;
+
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "seat-storage-migration");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public SeatStorageMigrationJob(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Starts a run in the background unless one is already going.
+     */
+    public boolean start(int chunkSize, boolean reset) {
+        if (!(seatStore instanceof BitmapSeatStore)) {
+            throw new RuntimeException("Set booking.seats.storage=bitmap before migrating seat storage");
+        }
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        if (reset) {
+            jobCheckpointRepository.deleteById(JOB_NAME);
+        }
+        executor.execute(() -> {
+            try {
+                run((BitmapSeatStore) seatStore, chunkSize);
+            } catch (Exception e) {
+                logger.error("Seat storage migration stopped: {}", e.getMessage());
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    public Map<String, Object> status() {
+        JobCheckpoint checkpoint = jobCheckpointRepository.findById(JOB_NAME).orElse(new JobCheckpoint(JOB_NAME));
+        Map<String, Object> status = new HashMap<>();
+        status.put("running", running.get());
+        status.put("cursor", checkpoint.getCursor());
+        status.put("processed", checkpoint.getProcessed());
+        status.put("updatedAt", checkpoint.getUpdatedAt());
+        return status;
+    }
+
+    private void run(BitmapSeatStore store, int chunkSize) {
+        while (true) {
+            JobCheckpoint checkpoint = jobCheckpointRepository.findById(JOB_NAME).orElse(new JobCheckpoint(JOB_NAME));
+            String after = checkpoint.getCursor() != null ? checkpoint.getCursor() : "";
+            List<String> showtimeIds = seatRepository.findShowtimeIdsAfter(after, PageRequest.of(0, chunkSize));
+            if (showtimeIds.isEmpty()) {
+                logger.info("Seat storage migration finished after {} showtimes", checkpoint.getProcessed());
+                return;
+            }
+            for (String showtimeId : showtimeIds) {
+                Map<String, String> renamed = transactionTemplate.execute(status -> {
+                    Map<String, String> seatIds = store.convert(showtimeId);
+                    checkpoint.setCursor(showtimeId);
+                    checkpoint.setProcessed(checkpoint.getProcessed() + 1);
+                    jobCheckpointRepository.save(checkpoint);
+                    return seatIds;
+                });
+                // Holds in flight were scheduled under the old seat ids
+                holdExpiryScheduler.rekey(showtimeId, renamed);
+                seatInventoryService.evict(showtimeId);
+            }
+        }
+    }
+}
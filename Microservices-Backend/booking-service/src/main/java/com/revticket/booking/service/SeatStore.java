@@ -0,0 +1,56 @@
+package com.revticket.booking.service;
+
+import com.revticket.booking.dto.SeatAvailability;
+import com.revticket.booking.entity.Seat;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Persistence for per-showtime seat state, selected with
+ * {@code booking.seats.storage}: {@code rows} keeps one {@code seats} row per
+ * seat ({@link RowSeatStore}), {@code bitmap} keeps one packed row per
+ * showtime ({@link BitmapSeatStore}). Every write is conditional and returns
+ * how many seats it changed, so callers can detect a lost race the same way
+ * in both modes.
+ */
+public interface SeatStore {
+
+    List<Seat> findByShowtimeId(String showtimeId);
+
+    /**
+     * Returns which of the given showtimes already have seats.
+     */
+    Set<String> findInitialized(Collection<String> showtimeIds);
+
+    /**
+     * Seat counts of every listed showtime that has seats, taken without
+     * loading the seats. The version is 0, as for a freshly loaded inventory.
+     */
+    Map<String, SeatAvailability> countSeats(Collection<String> showtimeIds);
+
+    /**
+     * Creates the seats of every listed showtime from one screen layout, in
+     * batched statements; seat ids are assigned by the store.
+     */
+    void initialize(SeatLayoutTemplate template, Collection<String> showtimeIds);
+
+    int bookSeats(String showtimeId, Collection<String> seatIds, String sessionId, LocalDateTime now);
+
+    int holdSeats(String showtimeId, Collection<String> seatIds, String sessionId, LocalDateTime expiry,
+            LocalDateTime now);
+
+    int releaseHolds(String showtimeId, Collection<String> seatIds);
+
+    int expireHolds(String showtimeId, Collection<String> seatIds, LocalDateTime now);
+
+    int unbookSeats(String showtimeId, Collection<String> seatIds);
+
+    /**
+     * Rows of {showtimeId, seatId, holdExpiry} for every hold still recorded, lapsed or not.
+     */
+    List<Object[]> findActiveHolds();
+}
@@ -0,0 +1,191 @@
+package com.revticket.booking.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Relays the seat streams of showtimes owned by other instances. Each such
+ * showtime has at most one subscription to its owner's stream, opened for the
+ * first local subscriber, and every event on it is fanned out to the local
+ * subscribers through {@link SeatStreamService}. The owner's stream is read
+ * with the JDK's asynchronous HTTP client, so relayed subscribers hold no
+ * thread either. Subscribers that join after the owner's snapshot get a
+ * "resync" and refetch the seat map. When the owner's stream ends, fails or
+ * the showtime changes owner, the local subscribers are disconnected and
+ * their reconnects are routed afresh.
+ */
+@Service
+public class SeatStreamRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeatStreamRelay.class);
+
+    @Autowired
+    private ShardManager shardManager;
+
+    @Autowired
+    private SeatStreamService seatStreamService;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final Map<String, Upstream> upstreams = new ConcurrentHashMap<>();
+
+    /**
+     * Subscribes to a showtime owned by {@code owner}, whose stream is at
+     * {@code streamUri}, opening the relay if none is open yet.
+     */
+    public SseEmitter subscribe(String showtimeId, ServiceInstance owner, URI streamUri) {
+        Upstream[] opened = new Upstream[1];
+        Upstream upstream = upstreams.computeIfAbsent(showtimeId, k -> {
+            opened[0] = new Upstream(showtimeId, owner.getUri());
+            return opened[0];
+        });
+        SseEmitter emitter = seatStreamService.subscribeRelayed(showtimeId, () -> upstream.snapshotSeen);
+        if (opened[0] != null) {
+            opened[0].open(streamUri);
+        }
+        return emitter;
+    }
+
+    /**
+     * Closes relays nobody listens to any more and relays whose showtime now
+     * belongs to another instance, or to this one.
+     */
+    @Scheduled(fixedDelay = 15_000)
+    public void prune() {
+        upstreams.forEach((showtimeId, upstream) -> {
+            ServiceInstance owner = shardManager.owner(showtimeId);
+            if (!seatStreamService.hasSubscribers(showtimeId) || owner == null
+                    || !owner.getUri().equals(upstream.owner)) {
+                upstream.close();
+            }
+        });
+    }
+
+    private class Upstream implements Flow.Subscriber<String> {
+        private final String showtimeId;
+        private final URI owner;
+        private final AtomicBoolean ended = new AtomicBoolean();
+        private volatile boolean snapshotSeen;
+        private volatile Flow.Subscription subscription;
+        private volatile CompletableFuture<HttpResponse<Void>> exchange;
+
+        // Event being read; only touched by the client's delivery
+        private String event;
+        private String id;
+        private StringBuilder data = new StringBuilder();
+
+        Upstream(String showtimeId, URI owner) {
+            this.showtimeId = showtimeId;
+            this.owner = owner;
+        }
+
+        void open(URI streamUri) {
+            HttpRequest request = HttpRequest.newBuilder(streamUri)
+                    .header(ShardForwarder.FORWARDED_HEADER, "true")
+                    .header(HttpHeaders.ACCEPT, MediaType.TEXT_EVENT_STREAM_VALUE)
+                    .GET()
+                    .build();
+            exchange = httpClient.sendAsync(request, info -> info.statusCode() / 100 == 2
+                    ? HttpResponse.BodySubscribers.fromLineSubscriber(this)
+                    : HttpResponse.BodySubscribers.discarding());
+            exchange.whenComplete((response, error) -> {
+                if (error != null) {
+                    logger.warn("Seat stream of {} from {} failed: {}", showtimeId, owner, error.getMessage());
+                } else if (response.statusCode() / 100 != 2) {
+                    logger.warn("Shard owner {} refused seat stream of {} with {}", owner, showtimeId,
+                            response.statusCode());
+                }
+                end();
+            });
+        }
+
+        void close() {
+            if (subscription != null) {
+                subscription.cancel();
+            }
+            if (exchange != null) {
+                exchange.cancel(true);
+            }
+            end();
+        }
+
+        private void end() {
+            if (ended.compareAndSet(false, true)) {
+                upstreams.remove(showtimeId, this);
+                seatStreamService.disconnect(showtimeId);
+            }
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (ended.get()) {
+                subscription.cancel();
+                return;
+            }
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (line.isEmpty()) {
+                dispatch();
+            } else if (line.startsWith("event:")) {
+                event = field(line, 6);
+            } else if (line.startsWith("id:")) {
+                id = field(line, 3);
+            } else if (line.startsWith("data:")) {
+                if (data.length() > 0) {
+                    data.append('\n');
+                }
+                data.append(field(line, 5));
+            }
+            // Comments such as heartbeats are not relayed; local subscribers get their own
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            end();
+        }
+
+        @Override
+        public void onComplete() {
+            end();
+        }
+
+        private void dispatch() {
+            if (event != null && data.length() > 0) {
+                if ("snapshot".equals(event)) {
+                    snapshotSeen = true;
+                }
+                seatStreamService.relay(showtimeId, event, id, data.toString());
+            }
+            event = null;
+            id = null;
+            data = new StringBuilder();
+        }
+
+        private String field(String line, int from) {
+            return line.startsWith(" ", from) ? line.substring(from + 1) : line.substring(from);
+        }
+    }
+}
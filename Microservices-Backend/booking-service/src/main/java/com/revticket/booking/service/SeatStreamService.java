@@ -0,0 +1,247 @@
+package com.revticket.booking.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.revticket.booking.dto.SeatMapResponse;
+import com.revticket.booking.event.SeatStateChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Pushes seat-state deltas to subscribers over server-sent events.
+ * Subscriptions are async servlet responses, so idle subscribers cost no
+ * thread. Seat transitions only mark ordinals dirty per showtime; a flusher
+ * coalesces them into one delta per showtime per tick, serializes it once and
+ * hands it to every subscriber's bounded queue. A small shared pool drains
+ * the queues. A subscriber that falls a full queue behind gets a single
+ * "resync" event instead of the backlog and should refetch the seat map.
+ * Subscribers of showtimes owned by another instance are fed the same way
+ * from a {@link SeatStreamRelay}.
+ */
+@Service
+public class SeatStreamService {
+
+    private static final long EMITTER_TIMEOUT_MILLIS = 30 * 60_000L;
+    private static final int SUBSCRIBER_BUFFER = 32;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private SeatMapService seatMapService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final Map<String, BitSet> dirty = new ConcurrentHashMap<>();
+    private final ExecutorService deliveryPool = Executors.newFixedThreadPool(4, runnable -> {
+        Thread thread = new Thread(runnable, "seat-stream-delivery");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SseEmitter subscribe(String showtimeId) {
+        return join(showtimeId, () -> {
+            SeatMapService.SerializedMap snapshot = seatMapService.getSeatMap(showtimeId, null);
+            return SseEmitter.event().name("snapshot").id(String.valueOf(snapshot.getVersion()))
+                    .data(snapshot.getBody(), MediaType.APPLICATION_JSON);
+        });
+    }
+
+    /**
+     * Subscribes to a showtime whose events arrive through {@link #relay}
+     * instead of this instance's inventory. The subscriber is sent a "resync"
+     * first when {@code resync} says the relay's snapshot has already gone by.
+     */
+    public SseEmitter subscribeRelayed(String showtimeId, BooleanSupplier resync) {
+        return join(showtimeId, () -> resync.getAsBoolean() ? resyncEvent() : null);
+    }
+
+    /**
+     * Hands an event received from another instance's stream to every local
+     * subscriber of the showtime.
+     */
+    public void relay(String showtimeId, String name, String id, String data) {
+        Set<Subscriber> showtimeSubscribers = subscribers.get(showtimeId);
+        if (showtimeSubscribers == null) {
+            return;
+        }
+        byte[] body = data.getBytes(StandardCharsets.UTF_8);
+        for (Subscriber subscriber : showtimeSubscribers) {
+            SseEmitter.SseEventBuilder event = SseEmitter.event().name(name).data(body, MediaType.APPLICATION_JSON);
+            subscriber.offer(id != null ? event.id(id) : event);
+        }
+    }
+
+    public boolean hasSubscribers(String showtimeId) {
+        return subscribers.containsKey(showtimeId);
+    }
+
+    /**
+     * Ends every subscription to the showtime; clients reconnect and are
+     * routed afresh.
+     */
+    public void disconnect(String showtimeId) {
+        Set<Subscriber> showtimeSubscribers = subscribers.get(showtimeId);
+        if (showtimeSubscribers != null) {
+            showtimeSubscribers.forEach(subscriber -> subscriber.emitter.complete());
+        }
+    }
+
+    private SseEmitter join(String showtimeId, Supplier<SseEmitter.SseEventBuilder> first) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MILLIS);
+        Subscriber subscriber = new Subscriber(emitter);
+        // Sets are only changed inside compute, so a set is never dropped
+        // between another subscriber finding it and joining it
+        subscribers.compute(showtimeId, (k, set) -> {
+            Set<Subscriber> joined = set != null ? set : ConcurrentHashMap.newKeySet();
+            joined.add(subscriber);
+            return joined;
+        });
+
+        Runnable remove = () -> subscribers.computeIfPresent(showtimeId, (k, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+
+        SseEmitter.SseEventBuilder event = first.get();
+        if (event != null) {
+            subscriber.offer(event);
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSeatStateChanged(SeatStateChangedEvent event) {
+        if (!subscribers.containsKey(event.getShowtimeId())) {
+            return;
+        }
+        dirty.compute(event.getShowtimeId(), (k, ordinals) -> {
+            BitSet merged = ordinals != null ? ordinals : new BitSet();
+            for (int ordinal : event.getOrdinals()) {
+                merged.set(ordinal);
+            }
+            return merged;
+        });
+    }
+
+    @Scheduled(fixedDelay = 250)
+    public void flush() {
+        for (String showtimeId : dirty.keySet()) {
+            BitSet ordinals = dirty.remove(showtimeId);
+            Set<Subscriber> showtimeSubscribers = subscribers.get(showtimeId);
+            if (ordinals == null || showtimeSubscribers == null || showtimeSubscribers.isEmpty()) {
+                continue;
+            }
+
+            SeatInventory inventory = seatInventoryService.getInventory(showtimeId);
+            long version;
+            int[][] changes;
+            synchronized (inventory) {
+                version = inventory.getVersion();
+                changes = new int[ordinals.cardinality()][];
+                int n = 0;
+                for (int i = ordinals.nextSetBit(0); i >= 0; i = ordinals.nextSetBit(i + 1)) {
+                    changes[n++] = new int[] { i, inventory.status(i) };
+                }
+            }
+
+            byte[] body = serialize(SeatMapResponse.builder()
+                    .showtimeId(showtimeId)
+                    .version(version)
+                    .delta(true)
+                    .changes(changes)
+                    .build());
+            for (Subscriber subscriber : showtimeSubscribers) {
+                subscriber.offer(SseEmitter.event().name("delta").id(String.valueOf(version))
+                        .data(body, MediaType.APPLICATION_JSON));
+            }
+        }
+    }
+
+    @Scheduled(fixedRate = 15_000)
+    public void heartbeat() {
+        for (Set<Subscriber> showtimeSubscribers : subscribers.values()) {
+            for (Subscriber subscriber : showtimeSubscribers) {
+                subscriber.offer(SseEmitter.event().comment("heartbeat"));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        deliveryPool.shutdownNow();
+    }
+
+    private static SseEmitter.SseEventBuilder resyncEvent() {
+        return SseEmitter.event().name("resync").data("{}", MediaType.APPLICATION_JSON);
+    }
+
+    private byte[] serialize(SeatMapResponse response) {
+        try {
+            return objectMapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize seat delta: " + e.getMessage());
+        }
+    }
+
+    private class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> buffer = new ArrayBlockingQueue<>(SUBSCRIBER_BUFFER);
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(SseEmitter.SseEventBuilder event) {
+            if (!buffer.offer(event)) {
+                buffer.clear();
+                buffer.offer(resyncEvent());
+            }
+            if (draining.compareAndSet(false, true)) {
+                deliveryPool.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while ((event = buffer.poll()) != null) {
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                draining.set(false);
+            }
+            if (!buffer.isEmpty() && draining.compareAndSet(false, true)) {
+                deliveryPool.execute(this::drain);
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.revticket.booking.service;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Sends showtime requests to the instance that owns the showtime. The current
+ * request is replayed against the owner with the same method, path, query and
+ * body, and the owner's response is passed back unchanged. Forwarded requests
+ * are marked so they are always served where they land, and an unreachable
+ * owner is treated as gone: the request is served locally, where the
+ * conditional seat updates still keep it correct. Seat streams are not
+ * replayed per request but joined to a {@link SeatStreamRelay}.
+ */
+@Service
+public class ShardForwarder {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardForwarder.class);
+
+    static final String FORWARDED_HEADER = "X-Shard-Forwarded";
+    private static final List<String> REQUEST_HEADERS = List.of(HttpHeaders.AUTHORIZATION,
+            HttpHeaders.CONTENT_TYPE, HttpHeaders.ACCEPT, HttpHeaders.IF_NONE_MATCH,
+            AdmissionControlService.USER_HEADER, AdmissionControlService.TOKEN_HEADER);
+    private static final List<String> RESPONSE_HEADERS = List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.ETAG,
+            HttpHeaders.RETRY_AFTER);
+
+    @Autowired
+    private ShardManager shardManager;
+
+    @Autowired
+    private SeatStreamRelay seatStreamRelay;
+
+    private final RestClient restClient;
+
+    public ShardForwarder(RestClient.Builder restClientBuilder) {
+        this.restClient = restClientBuilder.build();
+    }
+
+    public ResponseEntity<?> route(String showtimeId, Object body, Supplier<? extends ResponseEntity<?>> local) {
+        return route(() -> showtimeId, body, local);
+    }
+
+    /**
+     * Serves the current request with {@code local} if this instance owns the
+     * showtime, and forwards it to the owner otherwise. The showtime id is only
+     * resolved when sharding is enabled.
+     */
+    public ResponseEntity<?> route(Supplier<String> showtimeId, Object body,
+            Supplier<? extends ResponseEntity<?>> local) {
+        if (!shardManager.isEnabled()) {
+            return local.get();
+        }
+        HttpServletRequest request = currentRequest();
+        if (request == null || request.getHeader(FORWARDED_HEADER) != null) {
+            return local.get();
+        }
+        ServiceInstance owner = shardManager.owner(showtimeId.get());
+        if (owner == null) {
+            return local.get();
+        }
+        try {
+            return forward(owner, request, body);
+        } catch (ResourceAccessException e) {
+            logger.warn("Shard owner {} unreachable, serving locally: {}", owner.getInstanceId(), e.getMessage());
+            return local.get();
+        }
+    }
+
+    /**
+     * Subscribes the current server-sent event request to the showtime's
+     * owner through {@link SeatStreamRelay}, or returns null when this
+     * instance should serve it: sharding is off, it owns the showtime, or the
+     * request was forwarded here.
+     */
+    public SseEmitter relayStream(String showtimeId) {
+        if (!shardManager.isEnabled()) {
+            return null;
+        }
+        HttpServletRequest request = currentRequest();
+        if (request == null || request.getHeader(FORWARDED_HEADER) != null) {
+            return null;
+        }
+        ServiceInstance owner = shardManager.owner(showtimeId);
+        if (owner == null) {
+            return null;
+        }
+        return seatStreamRelay.subscribe(showtimeId, owner, ownerUri(owner, request));
+    }
+
+    /**
+     * Whether the current request was forwarded here by another instance, and
+     * so must be answered from this instance's own state.
+     */
+    public boolean isForwarded() {
+        HttpServletRequest request = currentRequest();
+        return request != null && request.getHeader(FORWARDED_HEADER) != null;
+    }
+
+    /**
+     * Posts {@code body} to {@code path} on another instance, marked as
+     * forwarded so it is answered there. Throws a
+     * {@link org.springframework.web.client.RestClientException} when the
+     * instance is unreachable or fails.
+     */
+    public <T> T post(ServiceInstance instance, String path, Object body, ParameterizedTypeReference<T> type) {
+        URI uri = UriComponentsBuilder.fromUri(instance.getUri()).path(path).build(true).toUri();
+        return restClient.post()
+                .uri(uri)
+                .header(FORWARDED_HEADER, "true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body)
+                .retrieve()
+                .body(type);
+    }
+
+    private ResponseEntity<byte[]> forward(ServiceInstance owner, HttpServletRequest request, Object body) {
+        RestClient.RequestBodySpec spec = restClient.method(HttpMethod.valueOf(request.getMethod()))
+                .uri(ownerUri(owner, request))
+                .header(FORWARDED_HEADER, "true")
+                .headers(headers -> copyHeaders(request, headers));
+        if (body != null) {
+            spec.body(body);
+        }
+        return spec.exchange((clientRequest, response) -> {
+            HttpHeaders headers = new HttpHeaders();
+            RESPONSE_HEADERS.forEach(name -> {
+                String value = response.getHeaders().getFirst(name);
+                if (value != null) {
+                    headers.set(name, value);
+                }
+            });
+            if (headers.getContentType() == null) {
+                headers.setContentType(MediaType.APPLICATION_JSON);
+            }
+            return ResponseEntity.status(response.getStatusCode())
+                    .headers(headers)
+                    .body(response.getBody().readAllBytes());
+        });
+    }
+
+    private static URI ownerUri(ServiceInstance owner, HttpServletRequest request) {
+        return UriComponentsBuilder.fromUri(owner.getUri())
+                .path(request.getRequestURI())
+                .query(request.getQueryString())
+                .build(true)
+                .toUri();
+    }
+
+    private static void copyHeaders(HttpServletRequest request, HttpHeaders headers) {
+        REQUEST_HEADERS.forEach(name -> {
+            String value = request.getHeader(name);
+            if (value != null) {
+                headers.set(name, value);
+            }
+        });
+    }
+
+    private static HttpServletRequest currentRequest() {
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                ? attributes.getRequest() : null;
+    }
+}
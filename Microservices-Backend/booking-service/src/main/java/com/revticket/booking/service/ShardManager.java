@@ -0,0 +1,120 @@
+package com.revticket.booking.service;
+
+import com.revticket.booking.util.ShardRing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decides which booking-service instance owns each showtime. Members are the
+ * healthy instances registered in Consul, placed on a {@link ShardRing}; the
+ * ring is rebuilt whenever membership changes. After every refresh the
+ * inventories this instance holds for showtimes it no longer owns are handed
+ * off: dropped through the showtime's writer, so queued writes finish first
+ * and the new owner loads the state they left in the database. Until an
+ * instance sees itself registered, or when sharding is disabled, it treats
+ * every showtime as its own.
+ */
+@Service
+public class ShardManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardManager.class);
+
+    @Autowired
+    private DiscoveryClient discoveryClient;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private ShowtimeWriteExecutor showtimeWriteExecutor;
+
+    @Value("${spring.application.name}")
+    private String serviceName;
+
+    @Value("${booking.sharding.enabled:false}")
+    private boolean enabled;
+
+    @Value("${booking.sharding.self:${spring.cloud.consul.discovery.instance-id:}}")
+    private String self;
+
+    @Value("${booking.sharding.virtual-nodes:64}")
+    private int virtualNodes;
+
+    private volatile ShardRing ring = new ShardRing(List.of(), 0);
+    private volatile Map<String, ServiceInstance> instances = Map.of();
+
+    @Scheduled(fixedDelayString = "${booking.sharding.refresh-interval-ms:5000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        List<ServiceInstance> discovered;
+        try {
+            discovered = discoveryClient.getInstances(serviceName);
+        } catch (RuntimeException e) {
+            logger.warn("Shard membership lookup failed, keeping current ring: {}", e.getMessage());
+            return;
+        }
+        Map<String, ServiceInstance> byId = new HashMap<>();
+        for (ServiceInstance instance : discovered) {
+            byId.put(memberId(instance), instance);
+        }
+        instances = byId;
+        if (!byId.keySet().equals(ring.members())) {
+            ring = new ShardRing(byId.keySet(), virtualNodes);
+            logger.info("Shard ring now has {} members: {}", byId.size(), byId.keySet());
+        }
+        handOff();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isLocal(String showtimeId) {
+        ShardRing current = ring;
+        return !enabled || !current.members().contains(self) || self.equals(current.owner(showtimeId));
+    }
+
+    /**
+     * The instance owning a showtime, or null when it is this one or unknown.
+     */
+    public ServiceInstance owner(String showtimeId) {
+        if (isLocal(showtimeId)) {
+            return null;
+        }
+        return instances.get(ring.owner(showtimeId));
+    }
+
+    private void handOff() {
+        for (String showtimeId : seatInventoryService.residentShowtimeIds()) {
+            if (isLocal(showtimeId)) {
+                continue;
+            }
+            try {
+                showtimeWriteExecutor.execute(showtimeId, () -> {
+                    seatInventoryService.evict(showtimeId);
+                    return null;
+                });
+                logger.debug("Handed off showtime {}", showtimeId);
+            } catch (RuntimeException e) {
+                logger.warn("Handoff of showtime {} failed: {}", showtimeId, e.getMessage());
+            }
+        }
+    }
+
+    private static String memberId(ServiceInstance instance) {
+        return instance.getInstanceId() != null ? instance.getInstanceId()
+                : instance.getHost() + ":" + instance.getPort();
+    }
+}
@@ -0,0 +1,259 @@
+package com.revticket.booking.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs seat-changing booking operations one showtime at a time. In
+ * {@code serialized} mode every mutation is queued on one of a fixed number of
+ * stripes chosen by showtime id, and each stripe's worker thread is the only
+ * writer for its showtimes on this instance: the in-memory inventory rejects
+ * conflicts before they reach the database, and the conditional updates never
+ * wait on each other's row locks. A worker takes whatever has queued up, up to
+ * {@code MAX_GROUP} operations, and commits them in one transaction. A failing
+ * operation, including one whose service method marked the transaction
+ * rollback-only, is failed alone and the others are committed without it;
+ * callers are answered once their operation has committed. In the default
+ * {@code direct} mode operations run on the caller's thread as before.
+ */
+@Service
+public class ShowtimeWriteExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShowtimeWriteExecutor.class);
+
+    private static final int MAX_GROUP = 32;
+    private static final int QUEUE_CAPACITY = 1000;
+    private static final long WAIT_SECONDS = 30;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    private final boolean serialized;
+    private final TransactionTemplate transaction;
+    private final Stripe[] stripes;
+    private final DistributionSummary groupSizes;
+
+    public ShowtimeWriteExecutor(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+            @Value("${booking.writes.mode:direct}") String mode,
+            @Value("${booking.writes.stripes:0}") int stripeCount) {
+        this.serialized = "serialized".equalsIgnoreCase(mode);
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.groupSizes = DistributionSummary.builder("booking.writes.group.size")
+                .description("Operations committed together by one showtime writer")
+                .register(meterRegistry);
+
+        int count = stripeCount > 0 ? stripeCount : Runtime.getRuntime().availableProcessors() * 2;
+        this.stripes = new Stripe[serialized ? count : 0];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe(i);
+        }
+        Gauge.builder("booking.writes.queued", this, ShowtimeWriteExecutor::queued)
+                .description("Operations waiting for a showtime writer")
+                .register(meterRegistry);
+        if (serialized) {
+            logger.info("Serializing showtime writes over {} stripes", stripes.length);
+        }
+    }
+
+    public <T> T execute(String showtimeId, Supplier<T> operation) {
+        return execute(() -> showtimeId, operation);
+    }
+
+    /**
+     * Runs {@code operation} as the writer for a showtime and returns its result.
+     * The showtime id is only resolved when writes are serialized, so callers
+     * that have to look it up pay for that only in that mode.
+     */
+    public <T> T execute(Supplier<String> showtimeId, Supplier<T> operation) {
+        if (!serialized) {
+            return operation.get();
+        }
+        String key = showtimeId.get();
+        Operation<T> queued = new Operation<>(key, operation);
+        if (!stripes[Math.floorMod(key.hashCode(), stripes.length)].queue.offer(queued)) {
+            throw new RuntimeException("Too many booking requests for this show right now, please retry");
+        }
+        try {
+            return queued.result.get(WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new RuntimeException("Booking request timed out, please check your bookings before retrying");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for booking request");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Stripe stripe : stripes) {
+            stripe.worker.interrupt();
+        }
+    }
+
+    private int queued() {
+        int total = 0;
+        for (Stripe stripe : stripes) {
+            total += stripe.queue.size();
+        }
+        return total;
+    }
+
+    /**
+     * Runs a drained group in one transaction and answers every caller after
+     * it commits. When an operation fails the whole transaction is rolled
+     * back, that operation alone is failed, and the rest run again as a
+     * group, so each conflict costs the others one rerun. If the commit
+     * itself fails there is no operation to blame, and the group falls back
+     * to one transaction per operation.
+     */
+    private void runGroup(List<Operation<?>> group) {
+        groupSizes.record(group.size());
+        List<Operation<?>> pending = new ArrayList<>(group);
+        while (pending.size() > 1) {
+            Map<String, Long> versions = residentVersions(pending);
+            Operation<?>[] running = new Operation<?>[1];
+            try {
+                transaction.executeWithoutResult(status -> {
+                    for (Operation<?> operation : pending) {
+                        running[0] = operation;
+                        operation.run();
+                    }
+                    running[0] = null;
+                });
+            } catch (RuntimeException e) {
+                evictChanged(versions);
+                if (running[0] == null) {
+                    pending.forEach(this::runIsolated);
+                    return;
+                }
+                running[0].result.completeExceptionally(e);
+                pending.remove(running[0]);
+                continue;
+            }
+            pending.forEach(Operation::complete);
+            return;
+        }
+        pending.forEach(this::runIsolated);
+    }
+
+    /**
+     * Runs one operation in a transaction of its own. On failure nothing it
+     * wrote or registered for after commit survives, and the showtime's
+     * inventory is reloaded if the operation had already changed it.
+     */
+    /**
+     * Runs one operation in a transaction of its own. On failure nothing it
+     * wrote or registered for after commit survives, and the showtime's
+     * inventory is reloaded if the operation had already changed it.
+     */
+    private void runIsolated(Operation<?> operation) {
+        Map<String, Long> versions = residentVersions(List.of(operation));
+        try {
+            transaction.executeWithoutResult(status -> operation.run());
+        } catch (RuntimeException e) {
+            evictChanged(versions);
+            operation.result.completeExceptionally(e);
+            return;
+        }
+        operation.complete();
+    }
+
+    private Map<String, Long> residentVersions(List<Operation<?>> operations) {
+        Map<String, Long> versions = new HashMap<>();
+        for (Operation<?> operation : operations) {
+            versions.computeIfAbsent(operation.showtimeId, seatInventoryService::residentVersion);
+        }
+        return versions;
+    }
+
+    /**
+     * Reloads the inventories that rolled-back operations had already changed.
+     */
+    private void evictChanged(Map<String, Long> versions) {
+        versions.forEach((showtimeId, version) -> {
+            if (seatInventoryService.residentVersion(showtimeId) != version) {
+                seatInventoryService.evict(showtimeId);
+            }
+        });
+    }
+
+    private final class Stripe implements Runnable {
+        private final BlockingQueue<Operation<?>> queue = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+        private final Thread worker;
+
+        Stripe(int index) {
+            worker = new Thread(this, "showtime-writer-" + index);
+            worker.setDaemon(true);
+            worker.start();
+        }
+
+        @Override
+        public void run() {
+            List<Operation<?>> group = new ArrayList<>(MAX_GROUP);
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    group.add(queue.take());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                queue.drainTo(group, MAX_GROUP - 1);
+                try {
+                    runGroup(group);
+                } catch (RuntimeException e) {
+                    logger.error("Showtime writer failed", e);
+                    group.forEach(operation -> operation.result.completeExceptionally(e));
+                }
+                group.clear();
+            }
+        }
+    }
+
+    private static final class Operation<T> {
+        private final String showtimeId;
+        private final Supplier<T> body;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private T value;
+
+        Operation(String showtimeId, Supplier<T> body) {
+            this.showtimeId = showtimeId;
+            this.body = body;
+        }
+
+        void run() {
+            value = body.get();
+        }
+
+        void complete() {
+            result.complete(value);
+        }
+    }
+}
@@ -0,0 +1,461 @@
+package com.revticket.booking.service;
+
+import com.revticket.booking.dto.ScanResult;
+import com.revticket.booking.entity.Booking;
+import com.revticket.booking.entity.TicketScan;
+import com.revticket.booking.repository.BookingRepository;
+import com.revticket.booking.repository.TicketScanRepository;
+import com.revticket.booking.util.BloomFilter;
+import lombok.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.IntStream;
+
+/**
+ * Gate scanning with at most one database write per admission. Signed tickets
+ * are verified locally, cancellations are checked against an in-memory
+ * revocation set of bookings for current and upcoming shows, tickets replaced
+ * by a seat reassignment against the replacement's issue time, and repeat scans
+ * are answered from an in-memory map of recent scans. A first admission is
+ * decided by its insert into {@code ticket_scans}: the table holds one row per
+ * booking, so when another instance recorded the ticket first the insert
+ * changes nothing and the scan is reported as a duplicate of that row. If the
+ * database cannot be reached the gate is answered anyway and the scan is
+ * written in a later batch. Offline scans uploaded through {@link #sync} are
+ * decided the same way before the call returns. Each instance polls for
+ * cancellations, reissues and scans recorded by the others every few seconds.
+ */
+@Service
+public class TicketScanService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TicketScanService.class);
+
+    public static final int MAX_SYNC_SCANS = 500;
+    private static final int FLUSH_BATCH = 1000;
+    private static final int MIN_REVOCATION_CAPACITY = 10_000;
+    private static final long RETAIN_HOURS = 24;
+    // Re-read a little before the last poll so rows committed late are not missed
+    private static final long POLL_OVERLAP_SECONDS = 10;
+
+    private static final String INSERT_SCAN = "INSERT IGNORE INTO ticket_scans "
+            + "(booking_id, showtime_id, gate_id, device_id, source, scanned_at, recorded_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private TicketTokenService ticketTokenService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private TicketScanRepository ticketScanRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private volatile Revocations revocations = new Revocations(Set.of());
+    // Booking id to the issue time, in epoch seconds, of its current ticket when it was reissued
+    private final Map<String, Long> reissued = new ConcurrentHashMap<>();
+    private final Map<String, TicketScan> admitted = new ConcurrentHashMap<>();
+    private final Queue<TicketScan> unsaved = new ConcurrentLinkedQueue<>();
+    private volatile LocalDateTime revocationsPolledAt;
+    private volatile LocalDateTime scansPolledAt;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        LocalDateTime now = LocalDateTime.now();
+        // Tickets for shows that ended a day ago no longer reach a gate
+        revocations = new Revocations(
+                bookingRepository.findCancelledIdsForShowsAfter(now.minusHours(RETAIN_HOURS)));
+        bookingRepository.findReissuedForShowsAfter(now.minusHours(RETAIN_HOURS)).forEach(this::addReissued);
+        revocationsPolledAt = now;
+        for (TicketScan scan : ticketScanRepository.findByRecordedAtAfter(now.minusHours(RETAIN_HOURS))) {
+            admitted.putIfAbsent(scan.getBookingId(), scan);
+        }
+        scansPolledAt = now;
+        logger.info("Ticket scanning ready: {} revoked bookings, {} reissued tickets, {} recent scans",
+                revocations.size(), reissued.size(), admitted.size());
+    }
+
+    /**
+     * Marks a booking's ticket as no longer valid once the surrounding
+     * transaction commits.
+     */
+    public void revoke(String bookingId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            addRevoked(bookingId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                addRevoked(bookingId);
+            }
+        });
+    }
+
+    /**
+     * Refuses the booking's tickets issued before {@code issuedAt}, stamped by
+     * {@link TicketTokenService#reissue}, once the surrounding transaction
+     * commits.
+     */
+    public void reissued(String bookingId, LocalDateTime issuedAt) {
+        long seconds = TicketTokenService.issuedAt(issuedAt);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reissued.merge(bookingId, seconds, Math::max);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                reissued.merge(bookingId, seconds, Math::max);
+            }
+        });
+    }
+
+    public boolean isRevoked(String bookingId) {
+        return revocations.contains(bookingId);
+    }
+
+    /**
+     * Checks one ticket presented at a gate and, if it is admitted, records the
+     * admission. Accepts signed tokens and, for tickets issued before signing,
+     * the old opaque QR codes, which still need a lookup.
+     */
+    public ScanResult scan(String code, String gateId, String deviceId) {
+        TicketTokenService.Ticket ticket = resolve(code);
+        if (ticket == null) {
+            return invalid();
+        }
+        ScanResult refused = refused(ticket);
+        if (refused != null) {
+            return refused;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        TicketScan scan = new TicketScan(ticket.getBookingId(), ticket.getShowtimeId(), gateId, deviceId,
+                TicketScan.Source.ONLINE, now, now);
+        TicketScan first = admitted.putIfAbsent(ticket.getBookingId(), scan);
+        if (first == null) {
+            first = record(scan);
+        }
+        if (first != scan) {
+            return result(ScanResult.Status.ALREADY_SCANNED, ticket, first, "Ticket already scanned");
+        }
+        return result(ScanResult.Status.ADMITTED, ticket, null, "Admitted");
+    }
+
+    /**
+     * Records scans a gate device made while offline. Results are returned in
+     * upload order. When the same ticket appears more than once, the earliest
+     * scan wins; re-uploading a scan already recorded for the same device and
+     * time is acknowledged as admitted again.
+     */
+    @Transactional
+    public List<ScanResult> sync(String deviceId, List<OfflineScan> scans) {
+        if (scans.size() > MAX_SYNC_SCANS) {
+            throw new RuntimeException("At most " + MAX_SYNC_SCANS + " scans can be synced at once");
+        }
+        List<TicketTokenService.Ticket> tickets = new ArrayList<>(scans.size());
+        List<String> bookingIds = new ArrayList<>();
+        for (OfflineScan scan : scans) {
+            TicketTokenService.Ticket ticket = resolve(scan.getCode());
+            tickets.add(ticket);
+            if (ticket != null) {
+                bookingIds.add(ticket.getBookingId());
+            }
+        }
+
+        Map<String, TicketScan> recorded = new HashMap<>();
+        for (TicketScan scan : ticketScanRepository.findAllById(bookingIds)) {
+            recorded.put(scan.getBookingId(), scan);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        ScanResult[] results = new ScanResult[scans.size()];
+        List<TicketScan> fresh = new ArrayList<>();
+        List<Integer> freshIndexes = new ArrayList<>();
+        int[] byTime = IntStream.range(0, scans.size()).boxed()
+                .sorted(Comparator.comparing(i -> Objects.requireNonNullElse(scans.get(i).getScannedAt(), now)))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        for (int i : byTime) {
+            TicketTokenService.Ticket ticket = tickets.get(i);
+            if (ticket == null) {
+                results[i] = invalid();
+                continue;
+            }
+            ScanResult refused = refused(ticket);
+            if (refused != null) {
+                results[i] = refused;
+                continue;
+            }
+            LocalDateTime scannedAt = Objects.requireNonNullElse(scans.get(i).getScannedAt(), now);
+            TicketScan first = recorded.get(ticket.getBookingId());
+            if (first == null) {
+                first = admitted.get(ticket.getBookingId());
+            }
+            if (first == null) {
+                TicketScan scan = new TicketScan(ticket.getBookingId(), ticket.getShowtimeId(),
+                        scans.get(i).getGateId(), deviceId, TicketScan.Source.OFFLINE, scannedAt, now);
+                recorded.put(ticket.getBookingId(), scan);
+                fresh.add(scan);
+                freshIndexes.add(i);
+                results[i] = result(ScanResult.Status.ADMITTED, ticket, null, "Admitted");
+            } else if (Objects.equals(first.getDeviceId(), deviceId) && first.getScannedAt().equals(scannedAt)) {
+                results[i] = result(ScanResult.Status.ADMITTED, ticket, null, "Admitted");
+            } else {
+                results[i] = result(ScanResult.Status.ALREADY_SCANNED, ticket, first, "Ticket already scanned");
+            }
+        }
+
+        int[] inserted = insert(fresh);
+        Map<String, Integer> lost = new HashMap<>();
+        for (int n = 0; n < fresh.size(); n++) {
+            if (inserted[n] == 0) {
+                lost.put(fresh.get(n).getBookingId(), freshIndexes.get(n));
+            } else {
+                admitted.putIfAbsent(fresh.get(n).getBookingId(), fresh.get(n));
+            }
+        }
+        if (!lost.isEmpty()) {
+            // Recorded by another instance since the read above
+            for (TicketScan first : ticketScanRepository.findByBookingIdIn(lost.keySet())) {
+                int i = lost.get(first.getBookingId());
+                admitted.put(first.getBookingId(), first);
+                if (!Objects.equals(first.getDeviceId(), deviceId) || !first.getScannedAt().equals(
+                        Objects.requireNonNullElse(scans.get(i).getScannedAt(), now))) {
+                    results[i] = result(ScanResult.Status.ALREADY_SCANNED, tickets.get(i), first,
+                            "Ticket already scanned");
+                }
+            }
+        }
+        return List.of(results);
+    }
+
+    @Scheduled(fixedDelay = 1000)
+    public void flush() {
+        List<TicketScan> batch = new ArrayList<>();
+        TicketScan scan;
+        while (batch.size() < FLUSH_BATCH && (scan = unsaved.poll()) != null) {
+            batch.add(scan);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            insert(batch);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to record {} ticket scans, will retry: {}", batch.size(), e.getMessage());
+            unsaved.addAll(batch);
+        }
+    }
+
+    /**
+     * Picks up cancellations and scans recorded by other instances, and forgets
+     * scans older than the retention window.
+     */
+    @Scheduled(fixedDelay = 5000, initialDelay = 5000)
+    public void poll() {
+        if (revocationsPolledAt == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        bookingRepository.findCancelledIdsSince(revocationsPolledAt.minusSeconds(POLL_OVERLAP_SECONDS))
+                .forEach(this::addRevoked);
+        bookingRepository.findReissuedSince(revocationsPolledAt.minusSeconds(POLL_OVERLAP_SECONDS))
+                .forEach(this::addReissued);
+        revocationsPolledAt = now;
+
+        for (TicketScan scan : ticketScanRepository.findByRecordedAtAfter(
+                scansPolledAt.minusSeconds(POLL_OVERLAP_SECONDS))) {
+            admitted.putIfAbsent(scan.getBookingId(), scan);
+        }
+        scansPolledAt = now;
+
+        LocalDateTime cutoff = now.minusHours(RETAIN_HOURS);
+        admitted.values().removeIf(scan -> scan.getRecordedAt().isBefore(cutoff));
+    }
+
+    private TicketTokenService.Ticket resolve(String code) {
+        if (code == null || code.isEmpty()) {
+            return null;
+        }
+        if (TicketTokenService.isSigned(code)) {
+            return ticketTokenService.verify(code);
+        }
+        return bookingRepository.findByQrCode(code)
+                .map(booking -> new TicketTokenService.Ticket(booking.getId(), booking.getShowtimeId(),
+                        labels(booking), 0))
+                .orElse(null);
+    }
+
+    /**
+     * Inserts a first admission and returns the scan that holds the booking's
+     * row: this one, or the one another instance recorded first. A failed
+     * write admits the ticket and queues the scan for {@link #flush}.
+     */
+    private TicketScan record(TicketScan scan) {
+        int inserted;
+        try {
+            inserted = jdbcTemplate.update(INSERT_SCAN, scan.getBookingId(), scan.getShowtimeId(), scan.getGateId(),
+                    scan.getDeviceId(), scan.getSource().name(), Timestamp.valueOf(scan.getScannedAt()),
+                    Timestamp.valueOf(scan.getRecordedAt()));
+        } catch (RuntimeException e) {
+            logger.warn("Failed to record ticket scan of booking {}, will retry: {}", scan.getBookingId(),
+                    e.getMessage());
+            unsaved.add(scan);
+            return scan;
+        }
+        if (inserted > 0) {
+            return scan;
+        }
+        TicketScan first = ticketScanRepository.findById(scan.getBookingId()).orElse(scan);
+        admitted.put(scan.getBookingId(), first);
+        return first;
+    }
+
+    /**
+     * Inserts the scans in one batch and returns, per scan, the rows it
+     * changed: 0 where the booking already had a row.
+     */
+    private int[] insert(List<TicketScan> scans) {
+        if (scans.isEmpty()) {
+            return new int[0];
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_SCAN, scans, scans.size(), (ps, scan) -> {
+            ps.setString(1, scan.getBookingId());
+            ps.setString(2, scan.getShowtimeId());
+            ps.setString(3, scan.getGateId());
+            ps.setString(4, scan.getDeviceId());
+            ps.setString(5, scan.getSource().name());
+            ps.setTimestamp(6, Timestamp.valueOf(scan.getScannedAt()));
+            ps.setTimestamp(7, Timestamp.valueOf(scan.getRecordedAt()));
+        });
+        int[] inserted = new int[scans.size()];
+        // Drivers that batch statements together may report SUCCESS_NO_INFO (-2); count those as inserted
+        Arrays.fill(inserted, 1);
+        int n = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (n < inserted.length && count == 0) {
+                    inserted[n] = 0;
+                }
+                n++;
+            }
+        }
+        return inserted;
+    }
+
+    /**
+     * Returns the REVOKED result for a cancelled booking or a ticket replaced
+     * by a newer one, or null when the ticket may be admitted.
+     */
+    private ScanResult refused(TicketTokenService.Ticket ticket) {
+        if (isRevoked(ticket.getBookingId())) {
+            return result(ScanResult.Status.REVOKED, ticket, null, "Ticket has been cancelled");
+        }
+        Long current = reissued.get(ticket.getBookingId());
+        if (current != null && ticket.getIssuedAt() < current) {
+            return result(ScanResult.Status.REVOKED, ticket, null, "Ticket has been replaced by a newer one");
+        }
+        return null;
+    }
+
+    private void addReissued(Object[] row) {
+        reissued.merge((String) row[0], TicketTokenService.issuedAt((LocalDateTime) row[1]), Math::max);
+    }
+
+    private synchronized void addRevoked(String bookingId) {
+        Revocations current = revocations;
+        current.add(bookingId);
+        if (current.size() > current.capacity) {
+            // Filter is past its planned size; rebuild larger so false positives stay rare
+            revocations = new Revocations(current.exact);
+        }
+    }
+
+    private static List<String> labels(Booking booking) {
+        return booking.getSeatLabels() != null && !booking.getSeatLabels().isEmpty()
+                ? booking.getSeatLabels() : booking.getSeats();
+    }
+
+    private static ScanResult invalid() {
+        return ScanResult.builder()
+                .status(ScanResult.Status.INVALID)
+                .message("Ticket not recognised")
+                .build();
+    }
+
+    private static ScanResult result(ScanResult.Status status, TicketTokenService.Ticket ticket, TicketScan first,
+            String message) {
+        return ScanResult.builder()
+                .status(status)
+                .bookingId(ticket.getBookingId())
+                .showtimeId(ticket.getShowtimeId())
+                .seats(ticket.getSeatLabels())
+                .firstScannedAt(first != null ? first.getScannedAt() : null)
+                .firstGateId(first != null ? first.getGateId() : null)
+                .message(message)
+                .build();
+    }
+
+    /**
+     * Cancelled booking ids: a Bloom filter answers the common "not revoked"
+     * case, and the exact set confirms its rare positives.
+     */
+    private static final class Revocations {
+        private final Set<String> exact = ConcurrentHashMap.newKeySet();
+        private final BloomFilter filter;
+        private final int capacity;
+
+        Revocations(Collection<String> bookingIds) {
+            this.capacity = Math.max(MIN_REVOCATION_CAPACITY, bookingIds.size() * 2);
+            this.filter = new BloomFilter(capacity, 0.01);
+            bookingIds.forEach(this::add);
+        }
+
+        void add(String bookingId) {
+            exact.add(bookingId);
+            filter.put(bookingId);
+        }
+
+        boolean contains(String bookingId) {
+            return filter.mightContain(bookingId) && exact.contains(bookingId);
+        }
+
+        int size() {
+            return exact.size();
+        }
+    }
+
+    @Value
+    public static class OfflineScan {
+        String code;
+        String gateId;
+        LocalDateTime scannedAt;
+    }
+}
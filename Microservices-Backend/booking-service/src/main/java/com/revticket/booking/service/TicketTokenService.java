@@ -0,0 +1,95 @@
+package com.revticket.booking.service;
+
+import com.revticket.booking.entity.Booking;
+import com.revticket.booking.util.TokenSigner;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Issues and verifies the QR payload printed on a ticket. A token is
+ * {@code RT1.<payload>.<signature>}: the payload carries the booking id,
+ * showtime id, seat labels and issue time, and the signature is a truncated
+ * HMAC-SHA256 over it. Gates can therefore read and trust a ticket without a
+ * database lookup; whether it was cancelled or replaced since issue is a
+ * separate check.
+ */
+@Service
+public class TicketTokenService {
+
+    static final String PREFIX = "RT1.";
+    // Zone of the booking's LocalDateTime columns
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private final TokenSigner signer;
+
+    public TicketTokenService(@Value("${booking.tickets.secret}") String secret) {
+        this.signer = new TokenSigner(secret);
+    }
+
+    public String issue(Booking booking, List<String> seatLabels) {
+        return sign(booking, seatLabels, System.currentTimeMillis() / 1000);
+    }
+
+    /**
+     * Issues a ticket replacing the booking's current one and stamps the
+     * booking with its issue time. The new ticket is always issued at least a
+     * second after the one it replaces, so tickets issued before the stamp are
+     * the superseded ones.
+     */
+    public String reissue(Booking booking, List<String> seatLabels) {
+        Ticket current = booking.getQrCode() != null ? verify(booking.getQrCode()) : null;
+        long issuedAt = System.currentTimeMillis() / 1000;
+        if (current != null) {
+            issuedAt = Math.max(issuedAt, current.getIssuedAt() + 1);
+        }
+        booking.setTicketReissuedAt(LocalDateTime.ofInstant(Instant.ofEpochSecond(issuedAt), ZONE));
+        return sign(booking, seatLabels, issuedAt);
+    }
+
+    /**
+     * Issue time, in epoch seconds, of tickets stamped on a booking by
+     * {@link #reissue}.
+     */
+    public static long issuedAt(LocalDateTime ticketReissuedAt) {
+        return ticketReissuedAt.atZone(ZONE).toEpochSecond();
+    }
+
+    public static boolean isSigned(String code) {
+        return code != null && code.startsWith(PREFIX);
+    }
+
+    /**
+     * Returns the ticket a token describes, or null when it is malformed or its
+     * signature does not match.
+     */
+    public Ticket verify(String token) {
+        String[] fields = signer.verify(PREFIX, token, 4);
+        if (fields == null) {
+            return null;
+        }
+        try {
+            List<String> seats = fields[2].isEmpty() ? List.of() : List.of(fields[2].split(","));
+            return new Ticket(fields[0], fields[1], seats, Long.parseLong(fields[3]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private String sign(Booking booking, List<String> seatLabels, long issuedAt) {
+        return signer.sign(PREFIX, booking.getId(), booking.getShowtimeId(), String.join(",", seatLabels),
+                Long.toString(issuedAt));
+    }
+
+    @lombok.Value
+    public static class Ticket {
+        String bookingId;
+        String showtimeId;
+        List<String> seatLabels;
+        long issuedAt;
+    }
+}
@@ -0,0 +1,91 @@
+package com.revticket.booking.service;
+
+import lombok.Value;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Waiting requests of one showtime. Requests are queued first come, first
+ * served per shape (seat category and party size), and a global sequence
+ * number keeps arrival order across shapes. Finding the next request to serve
+ * only compares the head of each queue, so a matching pass costs a handful of
+ * steps per distinct shape however many customers are waiting.
+ */
+public class Waitlist {
+
+    private final Map<String, ArrayDeque<Entry>> queues = new HashMap<>();
+    private final Map<String, Entry> entries = new HashMap<>();
+    private long nextSeq;
+
+    public synchronized void add(String id, int partySize, String category) {
+        if (entries.containsKey(id)) {
+            return;
+        }
+        Entry entry = new Entry(id, partySize, category, nextSeq++);
+        entries.put(id, entry);
+        queues.computeIfAbsent(shape(partySize, category), k -> new ArrayDeque<>()).addLast(entry);
+    }
+
+    public synchronized boolean remove(String id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return false;
+        }
+        String shape = shape(entry.getPartySize(), entry.getCategory());
+        ArrayDeque<Entry> queue = queues.get(shape);
+        queue.remove(entry);
+        if (queue.isEmpty()) {
+            queues.remove(shape);
+        }
+        return true;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    /**
+     * Oldest request that fits in {@code free} seats, skipping categories in
+     * {@code failedSize} for parties at least as large as the size that
+     * already found no block there. Returns null when nothing can be tried.
+     */
+    public synchronized Entry next(int free, Map<String, Integer> failedSize) {
+        Entry best = null;
+        for (ArrayDeque<Entry> queue : queues.values()) {
+            Entry head = queue.peekFirst();
+            if (head.getPartySize() > free) {
+                continue;
+            }
+            Integer failed = failedSize.get(categoryKey(head.getCategory()));
+            if (failed != null && head.getPartySize() >= failed) {
+                continue;
+            }
+            if (best == null || head.getSeq() < best.getSeq()) {
+                best = head;
+            }
+        }
+        return best;
+    }
+
+    static String categoryKey(String category) {
+        return category != null ? category.toLowerCase() : "";
+    }
+
+    private static String shape(int partySize, String category) {
+        return categoryKey(category) + "|" + partySize;
+    }
+
+    @Value
+    public static class Entry {
+        String id;
+        int partySize;
+        String category;
+        long seq;
+    }
+}
@@ -0,0 +1,378 @@
+package com.revticket.booking.service;
+
+import com.revticket.booking.entity.WaitlistEntry;
+import com.revticket.booking.event.SeatStateChangedEvent;
+import com.revticket.booking.repository.WaitlistEntryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Waitlists for sold-out showtimes. Each showtime with waiting customers has a
+ * {@link Waitlist} in memory; showtimes without one cost nothing. When seats
+ * of a waitlisted showtime are released, expire or are unbooked, the showtime
+ * gets a matching pass right after that change commits: the oldest requests
+ * that fit are offered the best free block for their party, held for them as
+ * an ordinary seat hold, and emailed through the outbox. The customer books
+ * the offered seats with the offer's session id before the hold runs out;
+ * offers not booked in time lapse, and the seats they free start the next
+ * pass. Passes run off the request threads, as the showtime's writer.
+ */
+@Service
+public class WaitlistService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WaitlistService.class);
+
+    static final String SESSION_PREFIX = "waitlist-";
+    private static final Set<WaitlistEntry.Status> OPEN = EnumSet.of(
+            WaitlistEntry.Status.WAITING, WaitlistEntry.Status.OFFERED);
+
+    @Autowired
+    private WaitlistEntryRepository waitlistEntryRepository;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private SeatAllocationService seatAllocationService;
+
+    @Autowired
+    private ShowtimeWriteExecutor showtimeWriteExecutor;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private AdmissionControlService admissionControlService;
+
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, Waitlist> waitlists = new ConcurrentHashMap<>();
+    // Open offers by hold session id
+    private final Map<String, Offer> offers = new ConcurrentHashMap<>();
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final ExecutorService matcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "waitlist-matcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Counter offered;
+
+    public WaitlistService(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.offered = Counter.builder("booking.waitlist.offers")
+                .description("Seat offers made to waitlisted customers")
+                .register(meterRegistry);
+        Gauge.builder("booking.waitlist.waiting", waitlists, WaitlistService::waiting)
+                .description("Customers waiting across all showtime waitlists")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<WaitlistEntry> open = waitlistEntryRepository.findByStatusInOrderByCreatedAtAscIdAsc(OPEN);
+        for (WaitlistEntry entry : open) {
+            if (entry.getStatus() == WaitlistEntry.Status.WAITING) {
+                waitlist(entry.getShowtimeId()).add(entry.getId(), entry.getPartySize(), entry.getCategory());
+            } else {
+                offers.put(entry.getHoldSessionId(), Offer.of(entry));
+            }
+        }
+        logger.info("Loaded {} open waitlist entries", open.size());
+    }
+
+    public Map<String, Object> join(String showtimeId, String userId, Map<String, Object> request) {
+        int partySize = request.get("partySize") != null ? ((Number) request.get("partySize")).intValue() : 1;
+        if (partySize < 1 || partySize > SeatAllocationService.MAX_SEATS) {
+            throw new RuntimeException("Party size must be between 1 and " + SeatAllocationService.MAX_SEATS);
+        }
+        if (seatInventoryService.getInventory(showtimeId).isEmpty()) {
+            throw new RuntimeException("Seats not initialized for showtime " + showtimeId);
+        }
+        WaitlistEntry existing = waitlistEntryRepository
+                .findFirstByShowtimeIdAndUserIdAndStatusIn(showtimeId, userId, OPEN).orElse(null);
+        if (existing != null) {
+            return toResponse(existing, waitlists.get(showtimeId));
+        }
+        String category = (String) request.get("category");
+        if (!seatAllocationService.hasCategory(showtimeId, category)) {
+            throw new RuntimeException("Unknown seat category: " + category);
+        }
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setShowtimeId(showtimeId);
+        entry.setUserId(userId);
+        entry.setPartySize(partySize);
+        entry.setCategory(category != null && !category.isEmpty() ? category : null);
+        entry.setCustomerName((String) request.get("customerName"));
+        entry.setCustomerEmail((String) request.get("customerEmail"));
+        WaitlistEntry saved = waitlistEntryRepository.save(entry);
+
+        waitlist(showtimeId).add(saved.getId(), partySize, saved.getCategory());
+        // Seats may already be free, e.g. when holds lapsed before anyone joined
+        schedule(showtimeId);
+        return toResponse(saved, waitlists.get(showtimeId));
+    }
+
+    public List<Map<String, Object>> getUserEntries(String userId) {
+        List<Map<String, Object>> entries = new ArrayList<>();
+        for (WaitlistEntry entry : waitlistEntryRepository.findByUserIdOrderByCreatedAtDesc(userId)) {
+            entries.add(toResponse(entry, waitlists.get(entry.getShowtimeId())));
+        }
+        return entries;
+    }
+
+    public String getShowtimeId(String entryId) {
+        return waitlistEntryRepository.findById(Objects.requireNonNullElse(entryId, ""))
+                .map(WaitlistEntry::getShowtimeId)
+                .orElseThrow(() -> new RuntimeException("Waitlist entry not found"));
+    }
+
+    /**
+     * Takes the customer off the waitlist, releasing any seats offered to them.
+     */
+    public void withdraw(String entryId, String userId) {
+        String showtimeId = transactionTemplate.execute(status -> {
+            WaitlistEntry entry = waitlistEntryRepository.findById(Objects.requireNonNullElse(entryId, ""))
+                    .filter(found -> found.getUserId().equals(userId))
+                    .orElseThrow(() -> new RuntimeException("Waitlist entry not found"));
+            if (!OPEN.contains(entry.getStatus())) {
+                return entry.getShowtimeId();
+            }
+            if (entry.getStatus() == WaitlistEntry.Status.OFFERED) {
+                offers.remove(entry.getHoldSessionId());
+                seatInventoryService.release(entry.getShowtimeId(), entry.getOfferedSeats());
+            }
+            entry.setStatus(WaitlistEntry.Status.WITHDRAWN);
+            waitlistEntryRepository.save(entry);
+            return entry.getShowtimeId();
+        });
+        Waitlist waitlist = waitlists.get(showtimeId);
+        if (waitlist != null) {
+            waitlist.remove(entryId);
+        }
+    }
+
+    /**
+     * Starts a matching pass when seats of a waitlisted showtime become free,
+     * and marks an offer claimed when its seats are booked.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSeatStateChanged(SeatStateChangedEvent event) {
+        switch (event.getTransition()) {
+            case RELEASED, EXPIRED, UNBOOKED -> {
+                Waitlist waitlist = waitlists.get(event.getShowtimeId());
+                if (waitlist != null && !waitlist.isEmpty()) {
+                    schedule(event.getShowtimeId());
+                }
+            }
+            case BOOKED -> {
+                Offer offer = event.getSessionId() != null ? offers.remove(event.getSessionId()) : null;
+                if (offer != null) {
+                    matcher.execute(() -> close(offer, WaitlistEntry.Status.CLAIMED));
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Lapses offers whose hold ran out. Their expiring holds normally start a
+     * pass that does this first; this catches offers whose seats were let go
+     * some other way.
+     */
+    @Scheduled(fixedDelay = 30_000)
+    public void lapseExpiredOffers() {
+        long now = System.currentTimeMillis();
+        for (Offer offer : offers.values()) {
+            if (offer.expiresAt <= now && offers.remove(offer.sessionId) != null) {
+                matcher.execute(() -> close(offer, WaitlistEntry.Status.LAPSED));
+            }
+        }
+    }
+
+    @Scheduled(fixedDelay = 600_000)
+    public void evictEmptyWaitlists() {
+        waitlists.values().removeIf(Waitlist::isEmpty);
+    }
+
+    private void schedule(String showtimeId) {
+        if (pending.add(showtimeId)) {
+            matcher.execute(() -> {
+                pending.remove(showtimeId);
+                try {
+                    showtimeWriteExecutor.execute(showtimeId,
+                            () -> transactionTemplate.execute(status -> match(showtimeId)));
+                } catch (RuntimeException e) {
+                    logger.warn("Waitlist pass for showtime {} failed: {}", showtimeId, e.getMessage());
+                    reload(showtimeId);
+                }
+            });
+        }
+    }
+
+    /**
+     * One matching pass: lapses the showtime's expired offers, then offers
+     * free seats to the oldest requests that fit until the seats or the
+     * requests that can use them run out.
+     */
+    int match(String showtimeId) {
+        long now = System.currentTimeMillis();
+        for (Offer offer : offers.values()) {
+            if (offer.showtimeId.equals(showtimeId) && offer.expiresAt <= now
+                    && offers.remove(offer.sessionId) != null) {
+                close(offer, WaitlistEntry.Status.LAPSED);
+            }
+        }
+        Waitlist waitlist = waitlists.get(showtimeId);
+        if (waitlist == null || waitlist.isEmpty()) {
+            return 0;
+        }
+        SeatInventory inventory = seatInventoryService.getInventory(showtimeId);
+        int free = inventory.freeCount(now);
+        Map<String, Integer> failedSize = new HashMap<>();
+        int made = 0;
+        while (free > 0) {
+            Waitlist.Entry next = waitlist.next(free, failedSize);
+            if (next == null) {
+                break;
+            }
+            // Empty when no block fits or the screen no longer has the category
+            List<String> seatIds = seatAllocationService.holdBlock(showtimeId, next.getPartySize(),
+                    next.getCategory(), SESSION_PREFIX + next.getId());
+            if (seatIds.isEmpty()) {
+                failedSize.merge(Waitlist.categoryKey(next.getCategory()), next.getPartySize(), Math::min);
+                continue;
+            }
+            waitlist.remove(next.getId());
+            WaitlistEntry entry = waitlistEntryRepository.findById(next.getId()).orElse(null);
+            if (entry == null || entry.getStatus() != WaitlistEntry.Status.WAITING) {
+                seatInventoryService.release(showtimeId, seatIds);
+                continue;
+            }
+            offer(entry, seatIds, now);
+            free -= seatIds.size();
+            made++;
+        }
+        return made;
+    }
+
+    private void offer(WaitlistEntry entry, List<String> seatIds, long now) {
+        entry.setStatus(WaitlistEntry.Status.OFFERED);
+        entry.setHoldSessionId(SESSION_PREFIX + entry.getId());
+        entry.setOfferedSeats(new ArrayList<>(seatIds));
+        entry.setOfferedAt(SeatInventory.toDateTime(now));
+        entry.setOfferExpiresAt(SeatInventory.toDateTime(now + SeatInventoryService.HOLD_MINUTES * 60_000L));
+        WaitlistEntry saved = waitlistEntryRepository.save(entry);
+        outboxService.waitlistOffer(saved, seatInventoryService.labels(saved.getShowtimeId(), seatIds));
+        offers.put(saved.getHoldSessionId(), Offer.of(saved));
+        offered.increment();
+    }
+
+    private void close(Offer offer, WaitlistEntry.Status status) {
+        try {
+            transactionTemplate.executeWithoutResult(tx -> waitlistEntryRepository.findById(offer.entryId)
+                    .filter(entry -> entry.getStatus() == WaitlistEntry.Status.OFFERED)
+                    .ifPresent(entry -> {
+                        entry.setStatus(status);
+                        waitlistEntryRepository.save(entry);
+                    }));
+        } catch (RuntimeException e) {
+            logger.warn("Could not mark waitlist offer {} {}: {}", offer.entryId, status, e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuilds a showtime's waitlist and offers from the database after a
+     * failed pass, whose in-memory changes did not commit.
+     */
+    private void reload(String showtimeId) {
+        Waitlist rebuilt = new Waitlist();
+        offers.values().removeIf(offer -> offer.showtimeId.equals(showtimeId));
+        for (WaitlistEntry entry : waitlistEntryRepository.findByStatusInOrderByCreatedAtAscIdAsc(OPEN)) {
+            if (!entry.getShowtimeId().equals(showtimeId)) {
+                continue;
+            }
+            if (entry.getStatus() == WaitlistEntry.Status.WAITING) {
+                rebuilt.add(entry.getId(), entry.getPartySize(), entry.getCategory());
+            } else {
+                offers.put(entry.getHoldSessionId(), Offer.of(entry));
+            }
+        }
+        waitlists.put(showtimeId, rebuilt);
+    }
+
+    private Waitlist waitlist(String showtimeId) {
+        return waitlists.computeIfAbsent(showtimeId, id -> new Waitlist());
+    }
+
+    private Map<String, Object> toResponse(WaitlistEntry entry, Waitlist waitlist) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("id", entry.getId());
+        response.put("showtimeId", entry.getShowtimeId());
+        response.put("partySize", entry.getPartySize());
+        response.put("category", entry.getCategory());
+        response.put("status", entry.getStatus());
+        response.put("createdAt", entry.getCreatedAt());
+        if (entry.getStatus() == WaitlistEntry.Status.WAITING && waitlist != null) {
+            response.put("waiting", waitlist.size());
+        }
+        if (entry.getStatus() == WaitlistEntry.Status.OFFERED) {
+            response.put("sessionId", entry.getHoldSessionId());
+            response.put("seats", entry.getOfferedSeats());
+            response.put("seatLabels", seatInventoryService.labels(entry.getShowtimeId(), entry.getOfferedSeats()));
+            response.put("offerExpiresAt", entry.getOfferExpiresAt());
+            response.put("admissionToken", admissionControlService.admit(entry.getShowtimeId(), entry.getUserId()));
+        }
+        return response;
+    }
+
+    private static double waiting(Map<String, Waitlist> waitlists) {
+        long total = 0;
+        for (Waitlist waitlist : waitlists.values()) {
+            total += waitlist.size();
+        }
+        return total;
+    }
+
+    private static final class Offer {
+        private final String entryId;
+        private final String showtimeId;
+        private final String sessionId;
+        private final long expiresAt;
+
+        private Offer(String entryId, String showtimeId, String sessionId, long expiresAt) {
+            this.entryId = entryId;
+            this.showtimeId = showtimeId;
+            this.sessionId = sessionId;
+            this.expiresAt = expiresAt;
+        }
+
+        static Offer of(WaitlistEntry entry) {
+            LocalDateTime expiry = entry.getOfferExpiresAt();
+            return new Offer(entry.getId(), entry.getShowtimeId(), entry.getHoldSessionId(),
+                    expiry != null ? SeatInventory.toMillis(expiry) : 0L);
+        }
+    }
+}
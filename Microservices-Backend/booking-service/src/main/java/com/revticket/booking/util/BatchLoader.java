@@ -0,0 +1,123 @@
+package com.revticket.booking.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Coalesces lookups by id into batch calls. Keys requested by concurrent
+ * callers within {@code windowMillis} of each other are loaded together, at
+ * most {@code maxBatchSize} per call. The first caller of a window waits out
+ * the window and runs the load on its own thread; the others wait for its
+ * result, so no extra threads are involved. Keys the loader does not return
+ * are absent from the result; a failed load fails every caller waiting on it.
+ *
+ * <p>Copied between booking-service and showtime-service, whose
+ * {@code BatchLoaderCopyTest} keeps them equal; the behaviour tests are in
+ * booking-service.
+ */
+public class BatchLoader<K, V> {
+
+    private static final long WAIT_TIMEOUT_MILLIS = 10_000L;
+
+    private final Function<Set<K>, Map<K, V>> loader;
+    private final int maxBatchSize;
+    private final long windowMillis;
+
+    private Map<K, CompletableFuture<V>> pending = new LinkedHashMap<>();
+    private boolean flushScheduled;
+
+    public BatchLoader(Function<Set<K>, Map<K, V>> loader, int maxBatchSize, long windowMillis) {
+        this.loader = loader;
+        this.maxBatchSize = maxBatchSize;
+        this.windowMillis = windowMillis;
+    }
+
+    public V get(K key) {
+        return getAll(Set.of(key)).get(key);
+    }
+
+    public Map<K, V> getAll(Collection<K> keys) {
+        Map<K, CompletableFuture<V>> futures = new HashMap<>();
+        boolean leader;
+        synchronized (this) {
+            for (K key : new LinkedHashSet<>(keys)) {
+                if (key != null) {
+                    futures.put(key, pending.computeIfAbsent(key, k -> new CompletableFuture<>()));
+                }
+            }
+            if (futures.isEmpty()) {
+                return new HashMap<>();
+            }
+            leader = !flushScheduled;
+            flushScheduled = true;
+        }
+
+        if (leader) {
+            try {
+                Thread.sleep(windowMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            flush();
+        }
+
+        Map<K, V> result = new HashMap<>();
+        for (Map.Entry<K, CompletableFuture<V>> entry : futures.entrySet()) {
+            V value = await(entry.getValue());
+            if (value != null) {
+                result.put(entry.getKey(), value);
+            }
+        }
+        return result;
+    }
+
+    private void flush() {
+        Map<K, CompletableFuture<V>> batch;
+        synchronized (this) {
+            batch = pending;
+            pending = new LinkedHashMap<>();
+            flushScheduled = false;
+        }
+
+        List<K> keys = new ArrayList<>(batch.keySet());
+        for (int from = 0; from < keys.size(); from += maxBatchSize) {
+            Set<K> chunk = new LinkedHashSet<>(keys.subList(from, Math.min(from + maxBatchSize, keys.size())));
+            try {
+                Map<K, V> loaded = loader.apply(chunk);
+                for (K key : chunk) {
+                    batch.get(key).complete(loaded != null ? loaded.get(key) : null);
+                }
+            } catch (RuntimeException e) {
+                for (K key : chunk) {
+                    batch.get(key).completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    private V await(CompletableFuture<V> future) {
+        try {
+            return future.get(WAIT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for batch load");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException
+                    ? (RuntimeException) e.getCause()
+                    : new RuntimeException("Batch load failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new RuntimeException("Timed out waiting for batch load");
+        }
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.util.Date;
 
 /**
  * JWT Utility for Booking Service
@@ -20,6 +21,12 @@ public class JwtUtil {
     @Value("${jwt.secret}")
     private String jwtSecret;
 
+    @Value("${jwt.expiration}")
+    private Long expiration;
+
+    @Value("${spring.application.name}")
+    private String serviceName;
+
     /**
      * Extract userId from JWT token
      * Equivalent to SecurityUtil.getCurrentUserId() in monolithic
@@ -35,6 +42,22 @@ public class JwtUtil {
         return extractClaims(token).get("role", String.class);
     }
 
+    /**
+     * Authorization header value for this service's own calls to internal
+     * endpoints of other services, which require the SERVICE role
+     */
+    public String serviceAuthorization() {
+        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        String token = Jwts.builder()
+                .claim("role", "SERVICE")
+                .subject(serviceName)
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + expiration))
+                .signWith(key)
+                .compact();
+        return "Bearer " + token;
+    }
+
     /**
      * Extract all claims from JWT token
      */
@@ -0,0 +1,50 @@
+package com.revticket.booking.util;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Immutable consistent-hash ring. Each member is placed at a number of
+ * virtual points so keys spread evenly; a key belongs to the first point at
+ * or after its own hash. Adding or removing a member only moves the keys
+ * between it and its neighbours, and every node that builds a ring from the
+ * same members agrees on every owner.
+ */
+public final class ShardRing {
+
+    private final NavigableMap<Long, String> points = new TreeMap<>();
+    private final Set<String> members;
+
+    public ShardRing(Collection<String> members, int virtualNodes) {
+        this.members = Set.copyOf(members);
+        // Insert in a fixed order so a rare point collision resolves the same way everywhere
+        for (String member : new TreeSet<>(members)) {
+            for (int i = 0; i < virtualNodes; i++) {
+                points.putIfAbsent(BloomFilter.hash64(member + "#" + i), member);
+            }
+        }
+    }
+
+    /**
+     * Returns the member owning {@code key}, or null when the ring is empty.
+     */
+    public String owner(String key) {
+        if (points.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, String> point = points.ceilingEntry(BloomFilter.hash64(key));
+        return (point != null ? point : points.firstEntry()).getValue();
+    }
+
+    public Set<String> members() {
+        return members;
+    }
+
+    public boolean isEmpty() {
+        return members.isEmpty();
+    }
+}
@@ -0,0 +1,128 @@
+package com.revticket.booking.util;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Small bounded cache with a fixed time-to-live per entry.
+ * Loads are batched: {@link #getAll} collects every missing key and hands
+ * them to the loader in one call. Concurrent callers asking for a key that
+ * is already being loaded wait for that load instead of starting their own.
+ * Keys the loader does not return, or returns null for, are not cached.
+ */
+public class TtlCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    public TtlCache(int maxSize, long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public V get(K key, Function<Set<K>, Map<K, V>> loader) {
+        return getAll(Set.of(key), loader).get(key);
+    }
+
+    public Map<K, V> getAll(Collection<K> keys, Function<Set<K>, Map<K, V>> loader) {
+        long now = System.currentTimeMillis();
+        Map<K, CompletableFuture<V>> pending = new HashMap<>();
+        Map<K, CompletableFuture<V>> owned = new HashMap<>();
+
+        for (K key : new LinkedHashSet<>(keys)) {
+            if (key == null) {
+                continue;
+            }
+            Entry<V> entry = entries.get(key);
+            if (entry == null || entry.isExpired(now)) {
+                Entry<V> fresh = new Entry<>(new CompletableFuture<>(), now + ttlMillis);
+                Entry<V> existing = entry == null
+                        ? entries.putIfAbsent(key, fresh)
+                        : (entries.replace(key, entry, fresh) ? null : entries.get(key));
+                if (existing == null) {
+                    owned.put(key, fresh.future);
+                    entry = fresh;
+                } else {
+                    entry = existing;
+                }
+            }
+            pending.put(key, entry.future);
+        }
+
+        if (!owned.isEmpty()) {
+            load(owned, loader);
+            evictIfFull(now);
+        }
+
+        Map<K, V> result = new HashMap<>();
+        pending.forEach((key, future) -> {
+            V value = future.exceptionally(e -> null).join();
+            if (value != null) {
+                result.put(key, value);
+            }
+        });
+        return result;
+    }
+
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void load(Map<K, CompletableFuture<V>> owned, Function<Set<K>, Map<K, V>> loader) {
+        Map<K, V> loaded;
+        try {
+            loaded = loader.apply(owned.keySet());
+        } catch (RuntimeException e) {
+            loaded = Map.of();
+        }
+        for (Map.Entry<K, CompletableFuture<V>> own : owned.entrySet()) {
+            V value = loaded != null ? loaded.get(own.getKey()) : null;
+            if (value == null) {
+                entries.remove(own.getKey());
+            }
+            own.getValue().complete(value);
+        }
+    }
+
+    private void evictIfFull(long now) {
+        if (entries.size() <= maxSize) {
+            return;
+        }
+        entries.values().removeIf(entry -> entry.isExpired(now));
+        Iterator<K> keys = entries.keySet().iterator();
+        while (entries.size() > maxSize && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private static class Entry<V> {
+        private final CompletableFuture<V> future;
+        private final long expiresAt;
+
+        Entry(CompletableFuture<V> future, long expiresAt) {
+            this.future = future;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.revticket.booking.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlServiceTest {
+
+    // Two admissions per second, one request of burst
+    private final AdmissionControlService admission = new AdmissionControlService(new SimpleMeterRegistry(),
+            true, 2, 1, 1, 10, 300, 300, "test-secret");
+
+    private ResponseEntity<?> hold(String showtimeId, String userId, String token) {
+        return admission.run(showtimeId, userId, token, () -> ResponseEntity.ok("held"));
+    }
+
+    @Test
+    void testSpikeQueuesCallersWithoutAffectingOtherShowtimes() throws Exception {
+        assertEquals(HttpStatus.OK, hold("show1", "user1", null).getStatusCode());
+        ResponseEntity<?> rejected = hold("show1", "user2", null);
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getStatusCode());
+        assertEquals("1", rejected.getHeaders().getFirst("Retry-After"));
+
+        // Another show has its own bucket
+        assertEquals(HttpStatus.OK, hold("show2", "user2", null).getStatusCode());
+
+        Map<String, Object> waiting = admission.join("show1", "user2");
+        assertEquals("WAITING", waiting.get("status"));
+        assertEquals(1L, waiting.get("position"));
+
+        Thread.sleep(600);
+        Map<String, Object> admitted = admission.status("show1", "user2", (String) waiting.get("ticket"));
+        assertEquals("ADMITTED", admitted.get("status"));
+        String token = (String) admitted.get("admissionToken");
+
+        // The token works for its holder and show even while the bucket is empty
+        assertEquals(HttpStatus.OK, hold("show1", "user2", token).getStatusCode());
+        assertEquals(HttpStatus.OK, hold("show1", "user2", token).getStatusCode());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, hold("show1", "user3", token).getStatusCode());
+    }
+
+    @Test
+    void testInternalCallsBypassAndForgedTicketsAreRejected() {
+        assertEquals(HttpStatus.OK, hold("show1", "user1", null).getStatusCode());
+        // No gateway user: a service-to-service call, never queued
+        assertEquals(HttpStatus.OK, hold("show1", null, null).getStatusCode());
+
+        Map<String, Object> waiting = admission.join("show1", "user2");
+        String ticket = (String) waiting.get("ticket");
+        assertThrows(RuntimeException.class, () -> admission.status("show1", "user3", ticket));
+        assertThrows(RuntimeException.class, () -> admission.status("show1", "user2", ticket + "x"));
+    }
+}
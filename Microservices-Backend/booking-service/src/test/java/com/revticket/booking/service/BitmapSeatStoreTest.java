@@ -0,0 +1,110 @@
+package com.revticket.booking.service;
+
+import com.revticket.booking.entity.Seat;
+import com.revticket.booking.entity.SeatHold;
+import com.revticket.booking.entity.ShowtimeSeatState;
+import com.revticket.booking.repository.SeatHoldRepository;
+import com.revticket.booking.repository.SeatRepository;
+import com.revticket.booking.repository.ShowtimeSeatStateRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BitmapSeatStoreTest {
+
+    @Mock
+    private ShowtimeSeatStateRepository stateRepository;
+
+    @Mock
+    private SeatHoldRepository holdRepository;
+
+    @Mock
+    private SeatRepository seatRepository;
+
+    @InjectMocks
+    private BitmapSeatStore seatStore = new BitmapSeatStore();
+
+    private ShowtimeSeatState state(int seatCount) {
+        ShowtimeSeatState state = new ShowtimeSeatState();
+        state.setShowtimeId("show1");
+        state.setLayoutId("layout");
+        state.setSeatCount(seatCount);
+        return state;
+    }
+
+    @Test
+    void testBookSetsBitAndClearsOwnHold() {
+        ShowtimeSeatState state = state(4);
+        BitSet held = new BitSet();
+        held.set(2);
+        state.setHeld(held.toByteArray());
+        LocalDateTime now = LocalDateTime.now();
+        SeatHold hold = new SeatHold("show1", 2, "session1", now.plusMinutes(5));
+
+        when(stateRepository.findForUpdate("show1")).thenReturn(Optional.of(state));
+        when(holdRepository.findByShowtimeIdAndOrdinalIn(eq("show1"), anyCollection())).thenReturn(List.of(hold));
+
+        int updated = seatStore.bookSeats("show1", List.of("show1:1", "show1:2"), "session1", now);
+
+        assertEquals(2, updated);
+        assertTrue(BitSet.valueOf(state.getBooked()).get(1));
+        assertTrue(BitSet.valueOf(state.getBooked()).get(2));
+        assertTrue(BitSet.valueOf(state.getHeld()).isEmpty());
+        verify(holdRepository).deleteAll(List.of(hold));
+    }
+
+    @Test
+    void testHoldByAnotherSessionBlocksAndWritesNothing() {
+        ShowtimeSeatState state = state(4);
+        BitSet held = new BitSet();
+        held.set(0);
+        state.setHeld(held.toByteArray());
+        LocalDateTime now = LocalDateTime.now();
+
+        when(stateRepository.findForUpdate("show1")).thenReturn(Optional.of(state));
+        when(holdRepository.findByShowtimeIdAndOrdinalIn(eq("show1"), anyCollection()))
+                .thenReturn(Collections.singletonList(new SeatHold("show1", 0, "other", now.plusMinutes(5))));
+
+        int updated = seatStore.holdSeats("show1", List.of("show1:0", "show1:1"), "session1",
+                now.plusMinutes(10), now);
+
+        assertEquals(1, updated);
+        assertTrue(BitSet.valueOf(state.getBooked()).isEmpty());
+        verify(stateRepository, never()).save(any());
+        verify(holdRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void testUnconvertedShowtimeIsServedFromSeatRowsWithoutConverting() {
+        Seat seat = new Seat();
+        seat.setId("seat1");
+        seat.setShowtimeId("show1");
+        LocalDateTime now = LocalDateTime.now();
+        when(stateRepository.findById("show1")).thenReturn(Optional.empty());
+        when(stateRepository.findForUpdate("show1")).thenReturn(Optional.empty());
+        when(seatRepository.findByShowtimeId("show1")).thenReturn(List.of(seat));
+        when(seatRepository.bookSeats("show1", List.of("seat1"), "session1", now)).thenReturn(1);
+
+        assertEquals(List.of(seat), seatStore.findByShowtimeId("show1"));
+        assertEquals(1, seatStore.bookSeats("show1", List.of("seat1"), "session1", now));
+
+        verify(stateRepository, never()).save(any());
+        verify(seatRepository, never()).findByShowtimeIdForUpdate(any());
+        verify(seatRepository, never()).deleteAllInBatch(any());
+    }
+}
@@ -1,14 +1,19 @@
 package com.revticket.booking.service;
 
 import com.revticket.booking.client.MovieServiceClient;
-import com.revticket.booking.client.NotificationServiceClient;
 import com.revticket.booking.client.ShowtimeServiceClient;
 import com.revticket.booking.client.TheaterServiceClient;
+import com.revticket.booking.dto.BookingPage;
 import com.revticket.booking.dto.BookingRequest;
 import com.revticket.booking.dto.BookingResponse;
+import com.revticket.booking.dto.BookingSummary;
+import com.revticket.booking.dto.BookingView;
+import com.revticket.booking.dto.MovieDTO;
+import com.revticket.booking.dto.ShowtimeDTO;
 import com.revticket.booking.entity.Booking;
 import com.revticket.booking.entity.Seat;
 import com.revticket.booking.repository.BookingRepository;
+import com.revticket.booking.repository.RefundRepository;
 import com.revticket.booking.repository.SeatRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,13 +21,23 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -44,17 +59,40 @@ class BookingServiceTest {
     private TheaterServiceClient theaterServiceClient;
 
     @Mock
-    private NotificationServiceClient notificationServiceClient;
+    private OutboxService outboxService;
+
+    @Mock
+    private BookingStatsService bookingStatsService;
+
+    @Mock
+    private TicketScanService ticketScanService;
+
+    @Mock
+    private RefundRepository refundRepository;
 
     @InjectMocks
     private BookingService bookingService;
 
+    private SeatInventoryService seatInventoryService;
+
     // private io.jsonwebtoken.security.Keys keys; // not used directly but good to
     // have context if needed
 
     @BeforeEach
     void setUp() {
-        // No specific setup needed for basic tests
+        RowSeatStore seatStore = new RowSeatStore();
+        ReflectionTestUtils.setField(seatStore, "seatRepository", seatRepository);
+        seatInventoryService = new SeatInventoryService();
+        ReflectionTestUtils.setField(seatInventoryService, "seatStore", seatStore);
+        ReflectionTestUtils.setField(seatInventoryService, "eventPublisher", mock(ApplicationEventPublisher.class));
+        ReflectionTestUtils.setField(bookingService, "seatInventoryService", seatInventoryService);
+
+        BookingEnricher bookingEnricher = new BookingEnricher();
+        ReflectionTestUtils.setField(bookingEnricher, "showtimeServiceClient", showtimeServiceClient);
+        ReflectionTestUtils.setField(bookingEnricher, "movieServiceClient", movieServiceClient);
+        ReflectionTestUtils.setField(bookingEnricher, "theaterServiceClient", theaterServiceClient);
+        ReflectionTestUtils.setField(bookingService, "bookingEnricher", bookingEnricher);
+        ReflectionTestUtils.setField(bookingService, "ticketTokenService", new TicketTokenService("test-secret"));
     }
 
     @Test
@@ -75,25 +113,25 @@ class BookingServiceTest {
         seat.setIsHeld(false);
 
         when(seatRepository.findByShowtimeId("show1")).thenReturn(Collections.singletonList(seat));
+        when(seatRepository.bookSeats(eq("show1"), anyCollection(), any(), any())).thenReturn(1);
         when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> {
             Booking b = invocation.getArgument(0);
             b.setId("booking1");
             return b;
         });
 
-        // Mock notification client to avoid NPE if called
-        doNothing().when(notificationServiceClient).sendBookingConfirmation(any());
-        doNothing().when(notificationServiceClient).sendAdminNewBooking(any());
-
         // Lenient stubs for external services used in mapToResponse
-        lenient().when(showtimeServiceClient.getShowtimeById(anyString())).thenReturn(null);
+        lenient().when(showtimeServiceClient.getShowtimesByIds(anyList())).thenReturn(Collections.emptyList());
 
         BookingResponse response = bookingService.createBooking(userId, request);
 
         assertNotNull(response);
         assertEquals("booking1", response.getId());
         assertEquals("CONFIRMED", response.getStatus().name());
-        verify(seatRepository, atLeastOnce()).save(any(Seat.class)); // Verifying seat status update
+        assertTrue(response.getQrCode().startsWith(TicketTokenService.PREFIX)); // Signed once the id is known
+        verify(seatRepository).bookSeats(eq("show1"), eq(Collections.singletonList("A1")), any(), any()); // Verifying seat status update
+        verify(outboxService).bookingCreated(any(Booking.class)); // Notifications queued with the booking
+        verify(bookingStatsService).changed(isNull(), any(Booking.class)); // Counted as a new booking
     }
 
     @Test
@@ -118,4 +156,110 @@ class BookingServiceTest {
         assertTrue(exception.getMessage().contains("is already booked"));
         verify(bookingRepository, never()).save(any(Booking.class));
     }
+
+    @Test
+    void testCreateBooking_LosesRaceOnConditionalUpdate() {
+        BookingRequest request = new BookingRequest();
+        request.setShowtimeId("show1");
+        request.setSeats(Arrays.asList("A1"));
+
+        Seat seat = new Seat();
+        seat.setId("A1");
+        seat.setRow("A");
+        seat.setNumber(1);
+        seat.setIsBooked(false);
+        seat.setIsHeld(false);
+
+        when(seatRepository.findByShowtimeId("show1")).thenReturn(Collections.singletonList(seat));
+        when(seatRepository.bookSeats(eq("show1"), anyCollection(), any(), any())).thenReturn(0);
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> bookingService.createBooking("user123", request));
+
+        assertTrue(exception.getMessage().contains("no longer available"));
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    @Test
+    void testGetUserBookingsPage_FollowsCursor() {
+        LocalDateTime now = LocalDateTime.of(2024, 1, 10, 12, 0);
+        Booking newer = snapshotBooking("b2", now);
+        Booking older = snapshotBooking("b1", now.minusHours(1));
+        Booking oldest = snapshotBooking("b0", now.minusHours(2));
+
+        when(bookingRepository.findByUserIdOrderByBookingDateDescIdDesc(eq("user123"), any(Pageable.class)))
+                .thenReturn(Arrays.asList(newer, older, oldest));
+
+        BookingPage first = bookingService.getUserBookingsPage("user123", null, 2, false);
+
+        assertEquals(2, first.getItems().size());
+        assertEquals("b1", first.getItems().get(1).getId());
+        assertNotNull(first.getNextCursor());
+
+        when(bookingRepository.findUserPageAfter(eq("user123"), eq(older.getBookingDate()), eq("b1"),
+                any(Pageable.class))).thenReturn(Collections.singletonList(oldest));
+
+        BookingPage second = bookingService.getUserBookingsPage("user123", first.getNextCursor(), 2, false);
+
+        assertEquals(1, second.getItems().size());
+        assertNull(second.getNextCursor());
+        verify(bookingRepository, never()).findAll();
+    }
+
+    @Test
+    void testGetUserBookings_SummaryViewReadsProjectionWithoutLookups() {
+        LocalDateTime now = LocalDateTime.of(2024, 1, 10, 12, 0);
+        BookingSummary summary = mock(BookingSummary.class);
+        when(summary.getId()).thenReturn("b1");
+        when(summary.getStatus()).thenReturn(Booking.BookingStatus.CONFIRMED);
+        when(summary.getSnapshotAt()).thenReturn(now);
+        when(bookingRepository.findUserSummaries(eq("user123"), any(Pageable.class)))
+                .thenReturn(Collections.singletonList(summary));
+        when(bookingRepository.findSeatsByIdIn(anyCollection()))
+                .thenReturn(Arrays.asList(new Object[] { "b1", "s1" }, new Object[] { "b1", "s2" }));
+
+        List<BookingResponse> responses = bookingService.getUserBookings("user123", false,
+                BookingView.parse(null, "status,seats"));
+
+        assertEquals(1, responses.size());
+        assertEquals(Booking.BookingStatus.CONFIRMED, responses.get(0).getStatus());
+        assertEquals(Arrays.asList("s1", "s2"), responses.get(0).getSeats());
+        verify(bookingRepository, never()).findByUserIdOrderByBookingDateDescIdDesc(anyString());
+        verify(bookingRepository, never()).findSeatLabelsByIdIn(anyCollection());
+        verifyNoInteractions(showtimeServiceClient, movieServiceClient, theaterServiceClient);
+    }
+
+    @Test
+    void testGetBookingById_FetchesOnlyLookupsForSelectedFields() {
+        BookingSummary summary = mock(BookingSummary.class);
+        when(summary.getId()).thenReturn("b1");
+        when(summary.getShowtimeId()).thenReturn("show1");
+        when(bookingRepository.findSummaryById("b1")).thenReturn(Optional.of(summary));
+        ShowtimeDTO showtime = new ShowtimeDTO();
+        showtime.setId("show1");
+        showtime.setMovieId("m1");
+        showtime.setTheaterId("t1");
+        showtime.setScreen("screen1");
+        when(showtimeServiceClient.getShowtimesByIds(List.of("show1"))).thenReturn(List.of(showtime));
+        MovieDTO movie = new MovieDTO();
+        movie.setId("m1");
+        movie.setTitle("Inception");
+        when(movieServiceClient.getMoviesByIds(List.of("m1"))).thenReturn(List.of(movie));
+
+        BookingResponse response = bookingService.getBookingById("b1", false,
+                BookingView.parse(null, "movieTitle")).orElseThrow();
+
+        assertEquals("Inception", response.getMovieTitle());
+        verify(bookingRepository, never()).findById(anyString());
+        verifyNoInteractions(theaterServiceClient);
+    }
+
+    private Booking snapshotBooking(String id, LocalDateTime bookingDate) {
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setUserId("user123");
+        booking.setBookingDate(bookingDate);
+        booking.setSnapshotAt(bookingDate);
+        return booking;
+    }
 }
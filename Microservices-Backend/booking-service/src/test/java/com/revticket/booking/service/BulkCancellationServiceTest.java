@@ -0,0 +1,143 @@
+package com.revticket.booking.service;
+
+import com.revticket.booking.entity.Booking;
+import com.revticket.booking.entity.BulkCancellationJob;
+import com.revticket.booking.repository.BookingRepository;
+import com.revticket.booking.repository.BulkCancellationJobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkCancellationServiceTest {
+
+    @Mock
+    private BulkCancellationJobRepository jobRepository;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private SeatInventoryService seatInventoryService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private BookingStatsService bookingStatsService;
+
+    @Mock
+    private TicketScanService ticketScanService;
+
+    @Mock
+    private ShowtimeWriteExecutor showtimeWriteExecutor;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BulkCancellationService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new BulkCancellationService(transactionManager);
+        ReflectionTestUtils.setField(service, "jobRepository", jobRepository);
+        ReflectionTestUtils.setField(service, "bookingRepository", bookingRepository);
+        ReflectionTestUtils.setField(service, "seatInventoryService", seatInventoryService);
+        ReflectionTestUtils.setField(service, "outboxService", outboxService);
+        ReflectionTestUtils.setField(service, "bookingStatsService", bookingStatsService);
+        ReflectionTestUtils.setField(service, "ticketScanService", ticketScanService);
+        ReflectionTestUtils.setField(service, "showtimeWriteExecutor", showtimeWriteExecutor);
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        when(showtimeWriteExecutor.execute(anyString(), any(Supplier.class)))
+                .thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(1)).get());
+    }
+
+    private static Booking booking(String id, String showtimeId, Booking.BookingStatus status, String... seats) {
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setShowtimeId(showtimeId);
+        booking.setStatus(status);
+        booking.setTotalAmount(100.0);
+        booking.setSeats(List.of(seats));
+        return booking;
+    }
+
+    private BulkCancellationJob job(BulkCancellationJob.Type type, double refundRate) {
+        BulkCancellationJob job = new BulkCancellationJob();
+        job.setId("job1");
+        job.setType(type);
+        job.setRefundRate(refundRate);
+        job.setReason("Show cancelled");
+        when(jobRepository.findById("job1")).thenReturn(Optional.of(job));
+        return job;
+    }
+
+    @Test
+    void testShowtimeRun_ReleasesSeatsOncePerChunkAndRefundsInFull() {
+        BulkCancellationJob job = job(BulkCancellationJob.Type.SHOWTIME, 1.0);
+        job.setShowtimeId("show1");
+        Booking paid = booking("b1", "show1", Booking.BookingStatus.CONFIRMED, "s1", "s2");
+        Booking unpaid = booking("b2", "show1", Booking.BookingStatus.PENDING, "s3");
+        when(bookingRepository.findLiveByShowtimeAfter(eq("show1"), eq(""), any()))
+                .thenReturn(List.of(paid, unpaid));
+
+        service.run("job1");
+
+        verify(seatInventoryService, times(1)).unbook("show1", List.of("s1", "s2", "s3"));
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+        verify(outboxService, times(2)).bookingCancelled(any());
+        assertEquals(Booking.BookingStatus.CANCELLED, paid.getStatus());
+        assertEquals(100.0, paid.getRefundAmount());
+        assertEquals(0.0, unpaid.getRefundAmount());
+        assertEquals(BulkCancellationJob.Status.COMPLETED, job.getStatus());
+        assertEquals("b2", job.getCursor());
+        assertEquals(2L, job.getCancelled());
+        assertEquals(100.0, job.getRefundTotal());
+    }
+
+    @Test
+    void testBookingListRun_ChunksByShowtimeAndSkipsCancelled() {
+        BulkCancellationJob job = job(BulkCancellationJob.Type.BOOKINGS, 0.9);
+        job.setBookingIds(List.of("b1", "b2", "b3"));
+        Booking first = booking("b1", "show1", Booking.BookingStatus.CANCELLATION_PENDING, "s1");
+        Booking done = booking("b2", "show1", Booking.BookingStatus.CANCELLED, "s2");
+        Booking other = booking("b3", "show2", Booking.BookingStatus.CANCELLATION_PENDING, "t1");
+        when(bookingRepository.findShowtimeIdsByIdIn(List.of("b1", "b2", "b3"))).thenReturn(List.of(
+                new Object[] { "b1", "show1" }, new Object[] { "b2", "show1" }, new Object[] { "b3", "show2" }));
+        when(bookingRepository.findAllById(List.of("b1", "b2"))).thenReturn(List.of(first, done));
+        when(bookingRepository.findAllById(List.of("b3"))).thenReturn(List.of(other));
+
+        service.run("job1");
+
+        verify(seatInventoryService).unbook("show1", List.of("s1"));
+        verify(seatInventoryService).unbook("show2", List.of("t1"));
+        verify(showtimeWriteExecutor).execute(eq("show1"), any(Supplier.class));
+        verify(showtimeWriteExecutor).execute(eq("show2"), any(Supplier.class));
+        assertEquals(90.0, first.getRefundAmount());
+        assertNull(done.getRefundAmount());
+        assertEquals(3L, job.getProcessed());
+        assertEquals(2L, job.getCancelled());
+        assertEquals(1L, job.getSkipped());
+        assertEquals(BulkCancellationJob.Status.COMPLETED, job.getStatus());
+    }
+}
@@ -0,0 +1,79 @@
+package com.revticket.booking.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HoldTimingWheelTest {
+
+    @Test
+    void testLeasesFallDueAtTheirExpiryAcrossLevels() {
+        HoldTimingWheel wheel = new HoldTimingWheel(1000L, 0L);
+        wheel.schedule("show1", "a1", 5_000L);
+        wheel.schedule("show1", "a2", 600_000L);
+        wheel.schedule("show2", "b1", 300_000_000L);
+        assertEquals(3, wheel.size());
+
+        assertTrue(wheel.advance(4_999L).isEmpty());
+        List<HoldTimingWheel.Lease> due = wheel.advance(5_000L);
+        assertEquals(1, due.size());
+        assertEquals("a1", due.get(0).getSeatId());
+
+        assertTrue(wheel.advance(599_999L).isEmpty());
+        assertEquals("a2", wheel.advance(600_000L).get(0).getSeatId());
+
+        assertTrue(wheel.advance(299_999_999L).isEmpty());
+        assertEquals("b1", wheel.advance(300_000_000L).get(0).getSeatId());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testLapsedLeaseIsReturnedOnNextAdvance() {
+        HoldTimingWheel wheel = new HoldTimingWheel(1000L, 10_000L);
+        wheel.schedule("show1", "a1", 2_000L);
+
+        List<HoldTimingWheel.Lease> due = wheel.advance(11_000L);
+        assertEquals(1, due.size());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testCancelledAndReplacedLeasesNeverFallDue() {
+        HoldTimingWheel wheel = new HoldTimingWheel(1000L, 0L);
+        wheel.schedule("show1", "a1", 5_000L);
+        wheel.schedule("show1", "a2", 5_000L);
+        wheel.schedule("show1", "a3", 600_000L);
+        // Extending a hold replaces its lease
+        wheel.schedule("show1", "a2", 8_000L);
+        wheel.cancel("show1", "a3");
+        wheel.cancel("show1", "missing");
+        assertEquals(2, wheel.size());
+        assertEquals(2, wheel.leases("show1").size());
+
+        assertEquals(List.of("a1"), wheel.advance(5_000L).stream().map(HoldTimingWheel.Lease::getSeatId).toList());
+        assertEquals(List.of("a2"), wheel.advance(8_000L).stream().map(HoldTimingWheel.Lease::getSeatId).toList());
+        assertTrue(wheel.advance(600_000L).isEmpty());
+        assertEquals(0, wheel.size());
+        assertTrue(wheel.leases("show1").isEmpty());
+    }
+
+    @Test
+    void testRekeyedLeasesFallDueUnderTheirNewIds() {
+        HoldTimingWheel wheel = new HoldTimingWheel(1000L, 0L);
+        wheel.schedule("show1", "uuid-a", 5_000L);
+        wheel.schedule("show1", "uuid-b", 5_000L);
+        // Held again under its new id after conversion
+        wheel.schedule("show1", "show1:1", 9_000L);
+
+        wheel.rekey("show1", Map.of("uuid-a", "show1:0", "uuid-b", "show1:1"));
+
+        assertEquals(2, wheel.size());
+        assertEquals(List.of("show1:0"),
+                wheel.advance(5_000L).stream().map(HoldTimingWheel.Lease::getSeatId).toList());
+        assertEquals(List.of("show1:1"),
+                wheel.advance(9_000L).stream().map(HoldTimingWheel.Lease::getSeatId).toList());
+    }
+}
@@ -0,0 +1,72 @@
+package com.revticket.booking.service;
+
+import com.revticket.booking.entity.Seat;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryEvictionSchedulerTest {
+
+    @Mock
+    private SeatStore seatStore;
+
+    private SeatInventoryService seatInventoryService;
+    private InventoryEvictionScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        seatInventoryService = new SeatInventoryService();
+        ReflectionTestUtils.setField(seatInventoryService, "seatStore", seatStore);
+        ShowtimeWriteExecutor executor = new ShowtimeWriteExecutor(mock(PlatformTransactionManager.class),
+                new SimpleMeterRegistry(), "direct", 0);
+
+        scheduler = new InventoryEvictionScheduler(new SimpleMeterRegistry(), 30);
+        ReflectionTestUtils.setField(scheduler, "seatInventoryService", seatInventoryService);
+        ReflectionTestUtils.setField(scheduler, "showtimeWriteExecutor", executor);
+    }
+
+    private static List<Seat> seats(String showtimeId) {
+        Seat seat = new Seat();
+        seat.setId(showtimeId + "-a1");
+        seat.setShowtimeId(showtimeId);
+        seat.setRow("A");
+        seat.setNumber(1);
+        return List.of(seat);
+    }
+
+    @Test
+    void testUnusedInventoriesAreDroppedAndRecentOnesKept() {
+        when(seatStore.findByShowtimeId("old")).thenReturn(seats("old"));
+        when(seatStore.findByShowtimeId("busy")).thenReturn(seats("busy"));
+        seatInventoryService.getInventory("old").touch(System.currentTimeMillis() - 31 * 60_000L);
+        seatInventoryService.getInventory("busy");
+
+        scheduler.evictIdle();
+
+        assertEquals(Set.of("busy"), seatInventoryService.residentShowtimeIds());
+    }
+
+    @Test
+    void testInventoryUsedAfterTheScanIsKept() {
+        when(seatStore.findByShowtimeId("show1")).thenReturn(seats("show1"));
+        long cutoff = System.currentTimeMillis();
+        seatInventoryService.getInventory("show1").touch(cutoff - 1);
+
+        seatInventoryService.getInventory("show1");
+
+        assertFalse(seatInventoryService.evictIfIdle("show1", cutoff));
+        assertEquals(Set.of("show1"), seatInventoryService.residentShowtimeIds());
+    }
+}
@@ -0,0 +1,53 @@
+package com.revticket.booking.service;
+
+import com.revticket.booking.client.TheaterServiceClient;
+import com.revticket.booking.dto.ScreenLayout;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ScreenLayoutCacheTest {
+
+    @Mock
+    private TheaterServiceClient theaterServiceClient;
+
+    @InjectMocks
+    private ScreenLayoutCache screenLayoutCache;
+
+    private static ScreenLayout layout(long version) {
+        ScreenLayout layout = new ScreenLayout();
+        layout.setId("screen1");
+        layout.setLayoutVersion(version);
+        layout.setCategories(List.of(new ScreenLayout.Category("vip", "VIP", 350.0)));
+        layout.setSeatMap(List.of(
+                new ScreenLayout.Cell("s1", "B1", 1, 0, "vip", "available"),
+                new ScreenLayout.Cell("s2", "A2", 0, 1, "unknown", "available"),
+                new ScreenLayout.Cell("s3", "A1", 0, 0, "vip", "disabled")));
+        return layout;
+    }
+
+    @Test
+    void testParsesLayoutOnceWithPricesInLayoutOrder() {
+        when(theaterServiceClient.getScreenLayout("screen1")).thenReturn(layout(3));
+
+        SeatLayoutTemplate template = screenLayoutCache.get("screen1");
+        assertSame(template, screenLayoutCache.get("screen1"));
+
+        assertEquals(3, template.getVersion());
+        assertEquals(2, template.getSeats().size());
+        assertEquals("A", template.getSeats().get(0).getRow());
+        assertEquals(100.0, template.getSeats().get(0).getPrice());
+        assertEquals("B", template.getSeats().get(1).getRow());
+        assertEquals(350.0, template.getSeats().get(1).getPrice());
+        verify(theaterServiceClient, times(1)).getScreenLayout("screen1");
+        verify(theaterServiceClient, never()).getLayoutVersion("screen1");
+    }
+}
@@ -0,0 +1,142 @@
+package com.revticket.booking.service;
+
+import com.revticket.booking.client.ShowtimeServiceClient;
+import com.revticket.booking.dto.SeatAvailability;
+import com.revticket.booking.event.SeatStateChangedEvent;
+import com.revticket.booking.util.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SeatAvailabilityServiceTest {
+
+    @Mock
+    private SeatInventoryService seatInventoryService;
+
+    @Mock
+    private ShardManager shardManager;
+
+    @Mock
+    private ShardForwarder shardForwarder;
+
+    @Mock
+    private ShowtimeServiceClient showtimeServiceClient;
+
+    @Mock
+    private JwtUtil jwtUtil;
+
+    private SeatAvailabilityService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new SeatAvailabilityService();
+        ReflectionTestUtils.setField(service, "seatInventoryService", seatInventoryService);
+        ReflectionTestUtils.setField(service, "shardManager", shardManager);
+        ReflectionTestUtils.setField(service, "shardForwarder", shardForwarder);
+        ReflectionTestUtils.setField(service, "showtimeServiceClient", showtimeServiceClient);
+        ReflectionTestUtils.setField(service, "jwtUtil", jwtUtil);
+    }
+
+    private static SeatAvailability counts(String showtimeId, int available, int held, int booked, long version) {
+        return SeatAvailability.builder()
+                .showtimeId(showtimeId)
+                .available(available)
+                .held(held)
+                .booked(booked)
+                .total(available + held + booked)
+                .version(version)
+                .build();
+    }
+
+    private static SeatStateChangedEvent event(String showtimeId) {
+        return new SeatStateChangedEvent(showtimeId, SeatStateChangedEvent.Transition.BOOKED, List.of("s1"),
+                new int[] { 0 }, "session", null);
+    }
+
+    @Test
+    void testTransitionsArePushedInOneBatchAndRetriedOnFailure() {
+        when(seatInventoryService.availability("show1")).thenReturn(counts("show1", 98, 0, 2, 10));
+        when(seatInventoryService.availability("show2")).thenReturn(counts("show2", 50, 5, 45, 20));
+        when(jwtUtil.serviceAuthorization()).thenReturn("Bearer service");
+        doThrow(new RuntimeException("down")).doNothing().when(showtimeServiceClient)
+                .updateAvailability(anyList(), eq("Bearer service"));
+
+        service.onSeatStateChanged(event("show1"));
+        service.onSeatStateChanged(event("show2"));
+        service.onSeatStateChanged(event("show1"));
+        service.flush();
+        service.flush();
+        service.flush();
+
+        verify(showtimeServiceClient, times(2)).updateAvailability(argThat(updates -> updates.size() == 2
+                && updates.stream().anyMatch(u -> "show1".equals(u.get("showtimeId"))
+                        && Integer.valueOf(98).equals(u.get("availableSeats")))), eq("Bearer service"));
+    }
+
+    @Test
+    void testLocalShowtimesAreServedFromSnapshotsAndRemoteOnesByTheirOwner() {
+        ServiceInstance owner = new DefaultServiceInstance("booking-2", "booking-service", "host2", 8085, false);
+        when(shardManager.isEnabled()).thenReturn(true);
+        when(shardManager.isLocal(anyString())).thenAnswer(invocation ->
+                !((String) invocation.getArgument(0)).startsWith("remote"));
+        when(shardManager.owner(anyString())).thenAnswer(invocation ->
+                ((String) invocation.getArgument(0)).startsWith("remote") ? owner : null);
+        when(shardForwarder.post(eq(owner), eq("/api/seats/availability"), any(), any()))
+                .thenReturn(Map.of("remote1", counts("remote1", 10, 0, 90, 1),
+                        "remote2", counts("remote2", 20, 0, 80, 1)))
+                .thenThrow(new ResourceAccessException("down"));
+        when(seatInventoryService.availability(List.of("show1", "empty")))
+                .thenReturn(Map.of("show1", counts("show1", 95, 0, 5, 0)));
+        when(seatInventoryService.availability("show1"))
+                .thenReturn(counts("show1", 90, 5, 5, 20))
+                .thenReturn(counts("show1", 99, 1, 0, 10));
+        when(seatInventoryService.availability(List.of("remote1")))
+                .thenReturn(Map.of("remote1", counts("remote1", 9, 0, 91, 2)));
+
+        // Showtimes without activity are counted in one call
+        Map<String, SeatAvailability> first = service.availability(List.of("show1", "remote1", "empty", "remote2"));
+        service.onSeatStateChanged(event("show1"));
+        // An event whose counts were taken at an older version does not win
+        service.onSeatStateChanged(event("show1"));
+        // The owner is down now, so its showtime is counted here
+        Map<String, SeatAvailability> second = service.availability(List.of("show1", "remote1"));
+
+        assertEquals(List.of("show1", "remote1", "remote2"), List.copyOf(first.keySet()));
+        assertEquals(95, first.get("show1").getAvailable());
+        assertEquals(10, first.get("remote1").getAvailable());
+        assertEquals(90, second.get("show1").getAvailable());
+        assertEquals(9, second.get("remote1").getAvailable());
+        // Both remote showtimes went to their owner in one call
+        verify(shardForwarder, times(2)).post(eq(owner), anyString(), any(), any());
+        verify(seatInventoryService, times(2)).availability(anyList());
+    }
+
+    @Test
+    void testShowtimesWithoutActivityAreNotCached() {
+        when(shardManager.isLocal(anyString())).thenReturn(true);
+        when(seatInventoryService.availability(List.of("show1")))
+                .thenReturn(Map.of("show1", counts("show1", 100, 0, 0, 0)))
+                .thenReturn(Map.of("show1", counts("show1", 97, 0, 3, 0)));
+
+        assertEquals(100, service.availability(List.of("show1")).get("show1").getAvailable());
+        assertEquals(97, service.availability(List.of("show1")).get("show1").getAvailable());
+        verify(seatInventoryService, never()).availability(anyString());
+    }
+}
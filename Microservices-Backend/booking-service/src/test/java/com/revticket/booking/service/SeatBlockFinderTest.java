@@ -0,0 +1,54 @@
+package com.revticket.booking.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatBlockFinderTest {
+
+    // 3 rows x 8 seats, ordinal = row * 8 + col
+    private static SeatBlockFinder grid(String[] categories) {
+        int[] ordinals = new int[24];
+        for (int i = 0; i < ordinals.length; i++) {
+            ordinals[i] = i;
+        }
+        return new SeatBlockFinder(3, 8, ordinals, categories);
+    }
+
+    @Test
+    void testPicksCentredBlockInSweetRow() {
+        int[] block = grid(null).find(2, null, ordinal -> true);
+
+        // Sweet row is 2 (two thirds back); centre of 8 seats is between cols 3 and 4
+        assertArrayEquals(new int[] { 19, 20 }, block);
+    }
+
+    @Test
+    void testAvoidsStrandingSingleSeat() {
+        BitSet taken = new BitSet();
+        taken.set(16, 18);  // row 2 cols 0-1
+        taken.set(21, 24);  // row 2 cols 5-7, leaving cols 2-4 free
+
+        int[] block = grid(null).find(2, null, ordinal -> !taken.get(ordinal));
+
+        // Any pair from cols 2-4 would strand one seat, so the next row is used
+        assertEquals(1, block[0] / 8);
+        assertFalse(Arrays.stream(block).anyMatch(taken::get));
+    }
+
+    @Test
+    void testRespectsCategoryAndReturnsNullWhenNothingFits() {
+        String[] categories = new String[24];
+        Arrays.fill(categories, "regular");
+        categories[2] = "vip";
+        categories[3] = "vip";
+        categories[4] = "vip";
+
+        assertArrayEquals(new int[] { 3, 4 }, grid(categories).find(2, Set.of("vip"), ordinal -> true));
+        assertNull(grid(categories).find(4, Set.of("vip"), ordinal -> true));
+    }
+}
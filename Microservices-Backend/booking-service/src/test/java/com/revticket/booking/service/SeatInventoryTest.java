@@ -0,0 +1,112 @@
+package com.revticket.booking.service;
+
+import com.revticket.booking.entity.Seat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatInventoryTest {
+
+    private SeatInventory inventory;
+
+    @BeforeEach
+    void setUp() {
+        List<Seat> seats = new ArrayList<>();
+        for (String row : Arrays.asList("B", "A")) {
+            for (int number = 1; number <= 3; number++) {
+                Seat seat = new Seat();
+                seat.setId(row.toLowerCase() + number);
+                seat.setShowtimeId("show1");
+                seat.setRow(row);
+                seat.setNumber(number);
+                seat.setPrice(100.0);
+                seats.add(seat);
+            }
+        }
+        inventory = new SeatInventory("show1", seats);
+    }
+
+    @Test
+    void testResolveByIdAndLabel() {
+        assertEquals(0, inventory.ordinalOf("A1"));
+        assertEquals(0, inventory.ordinalOf("a1"));
+        assertEquals(5, inventory.ordinalOf("B3"));
+        assertEquals(-1, inventory.ordinalOf("Z9"));
+        assertThrows(RuntimeException.class, () -> inventory.resolve(Arrays.asList("A1", "Z9")));
+    }
+
+    @Test
+    void testResolveRejectsSeatNamedTwice() {
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> inventory.resolve(Arrays.asList("A1", "a1")));
+        assertEquals("Seat A1 is selected more than once", exception.getMessage());
+        assertThrows(RuntimeException.class, () -> inventory.resolve(Arrays.asList("B2", "A3", "B2")));
+    }
+
+    @Test
+    void testHoldBlocksOtherSessionsUntilExpiry() {
+        long now = 1_000L;
+        int[] seats = inventory.resolve(Arrays.asList("A1", "A2"));
+        inventory.hold(seats, "s1", now + 500, now);
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> inventory.book(inventory.resolve(Arrays.asList("A2", "A3")), "s2", now));
+        assertTrue(exception.getMessage().contains("held by another user"));
+        assertFalse(inventory.isBooked(inventory.ordinalOf("A3")));
+
+        inventory.book(inventory.resolve(Arrays.asList("A2", "A3")), "s2", now + 501);
+        assertTrue(inventory.isBooked(inventory.ordinalOf("A2")));
+    }
+
+    @Test
+    void testOwnHoldCanBeBookedAndUnbooked() {
+        long now = 1_000L;
+        int[] seats = inventory.resolve(Arrays.asList("B1"));
+        inventory.hold(seats, "s1", now + 500, now);
+        inventory.book(seats, "s1", now);
+
+        assertThrows(RuntimeException.class, () -> inventory.book(seats, "s1", now));
+        assertArrayEquals(seats, inventory.unbook(seats));
+        assertEquals(0, inventory.unbook(seats).length);
+        assertTrue(inventory.bookedSeatIds().isEmpty());
+    }
+
+    @Test
+    void testCountsFollowTransitions() {
+        long now = 1_000L;
+        assertArrayEquals(new int[] { 6, 0, 0, 0 }, inventory.counts());
+
+        inventory.hold(inventory.resolve(Arrays.asList("A1", "A2")), "s1", now + 500, now);
+        inventory.book(inventory.resolve(Arrays.asList("A2", "B1")), "s1", now);
+        assertArrayEquals(new int[] { 3, 1, 2, 0 }, inventory.counts());
+
+        inventory.unbook(inventory.resolve(List.of("B1")));
+        inventory.release(inventory.resolve(List.of("A1")));
+        assertArrayEquals(new int[] { 5, 0, 1, 0 }, inventory.counts());
+    }
+
+    @Test
+    void testVersionedChangesAndPackedStatus() {
+        long start = inventory.getVersion();
+        inventory.hold(inventory.resolve(Arrays.asList("A2")), "s1", 2_000L, 1_000L);
+        long afterHold = inventory.getVersion();
+        inventory.book(inventory.resolve(Arrays.asList("B1")), null, 1_000L);
+
+        assertEquals(start + 2, inventory.getVersion());
+        int[][] changes = inventory.changesSince(afterHold);
+        assertEquals(1, changes.length);
+        assertArrayEquals(new int[] { 3, SeatInventory.BOOKED }, changes[0]);
+        assertEquals(2, inventory.changesSince(start).length);
+        assertNull(inventory.changesSince(start - 1));
+
+        byte[] packed = inventory.packedStatus();
+        assertEquals(2, packed.length);
+        assertEquals(SeatInventory.HELD << 2, packed[0] & 0x0F);
+        assertEquals(SeatInventory.BOOKED << 6, packed[0] & 0xC0);
+    }
+}
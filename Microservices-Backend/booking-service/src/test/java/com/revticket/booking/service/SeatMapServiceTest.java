@@ -0,0 +1,73 @@
+package com.revticket.booking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.revticket.booking.entity.Seat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SeatMapServiceTest {
+
+    @Mock
+    private SeatInventoryService seatInventoryService;
+
+    private SeatMapService seatMapService;
+
+    @BeforeEach
+    void setUp() {
+        seatMapService = new SeatMapService();
+        ReflectionTestUtils.setField(seatMapService, "seatInventoryService", seatInventoryService);
+        ReflectionTestUtils.setField(seatMapService, "objectMapper", new ObjectMapper());
+    }
+
+    private SeatInventory inventory(String showtimeId) {
+        Seat seat = new Seat();
+        seat.setId(showtimeId + "-a1");
+        seat.setShowtimeId(showtimeId);
+        seat.setRow("A");
+        seat.setNumber(1);
+        seat.setPrice(200.0);
+        SeatInventory inventory = new SeatInventory(showtimeId, List.of(seat));
+        when(seatInventoryService.getInventory(showtimeId)).thenReturn(inventory);
+        return inventory;
+    }
+
+    @Test
+    void testDeltaAndFullMapOfTheSameVersionHaveDifferentETags() {
+        long version = inventory("show1").getVersion();
+
+        SeatMapService.SerializedMap full = seatMapService.getSeatMap("show1", null);
+        SeatMapService.SerializedMap delta = seatMapService.getSeatMap("show1", version);
+
+        assertFalse(full.isDelta());
+        assertTrue(delta.isDelta());
+        assertEquals("\"" + version + "\"", full.getETag());
+        assertEquals("\"" + version + "-d\"", delta.getETag());
+        assertTrue(seatMapService.isCurrent("show1", full.getETag()));
+        assertTrue(seatMapService.isCurrent("show1", delta.getETag()));
+        assertFalse(seatMapService.isCurrent("show1", "\"" + (version - 1) + "\""));
+    }
+
+    @Test
+    void testFullMapCacheIsBounded() {
+        for (int i = 0; i < 600; i++) {
+            inventory("show" + i);
+            seatMapService.getSeatMap("show" + i, null);
+        }
+
+        Map<?, ?> fullMaps = (Map<?, ?>) ReflectionTestUtils.getField(seatMapService, "fullMaps");
+        assertEquals(500, fullMaps.size());
+        assertFalse(fullMaps.containsKey("show0"));
+        assertTrue(fullMaps.containsKey("show599"));
+    }
+}
@@ -0,0 +1,98 @@
+package com.revticket.booking.service;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class SeatStreamRelayTest {
+
+    private final ShardManager shardManager = mock(ShardManager.class);
+    private final SeatStreamService seatStreamService = mock(SeatStreamService.class);
+    private final AtomicInteger connections = new AtomicInteger();
+    private final CountDownLatch endStream = new CountDownLatch(1);
+    private HttpServer owner;
+    private ServiceInstance ownerInstance;
+    private URI streamUri;
+    private SeatStreamRelay relay;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        owner = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        owner.createContext("/api/seats/showtime/show1/stream", exchange -> {
+            connections.incrementAndGet();
+            exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(("event:snapshot\nid:3\ndata:{\"version\":3}\n\n:heartbeat\n\n"
+                        + "event:delta\nid:4\ndata:{\"version\":4}\n\n").getBytes(StandardCharsets.UTF_8));
+                body.flush();
+                endStream.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        owner.start();
+        int port = owner.getAddress().getPort();
+        ownerInstance = new DefaultServiceInstance("owner", "booking-service", "localhost", port, false);
+        streamUri = URI.create("http://localhost:" + port + "/api/seats/showtime/show1/stream");
+
+        relay = new SeatStreamRelay();
+        ReflectionTestUtils.setField(relay, "shardManager", shardManager);
+        ReflectionTestUtils.setField(relay, "seatStreamService", seatStreamService);
+        when(seatStreamService.subscribeRelayed(eq("show1"), any())).thenAnswer(invocation -> new SseEmitter());
+    }
+
+    @AfterEach
+    void tearDown() {
+        endStream.countDown();
+        owner.stop(0);
+    }
+
+    @Test
+    void testSubscribersShareOneOwnerStream() {
+        relay.subscribe("show1", ownerInstance, streamUri);
+        verify(seatStreamService, timeout(5_000)).relay("show1", "delta", "4", "{\"version\":4}");
+        relay.subscribe("show1", ownerInstance, streamUri);
+
+        assertEquals(1, connections.get());
+        verify(seatStreamService).relay("show1", "snapshot", "3", "{\"version\":3}");
+        verify(seatStreamService, times(2)).relay(eq("show1"), any(), any(), any());
+
+        ArgumentCaptor<BooleanSupplier> resync = ArgumentCaptor.forClass(BooleanSupplier.class);
+        verify(seatStreamService, times(2)).subscribeRelayed(eq("show1"), resync.capture());
+        assertTrue(resync.getAllValues().get(1).getAsBoolean());
+    }
+
+    @Test
+    void testEndOfOwnerStreamDisconnectsSubscribers() {
+        relay.subscribe("show1", ownerInstance, streamUri);
+        verify(seatStreamService, timeout(5_000)).relay(eq("show1"), eq("delta"), any(), any());
+
+        endStream.countDown();
+
+        verify(seatStreamService, timeout(5_000)).disconnect("show1");
+        relay.subscribe("show1", ownerInstance, streamUri);
+        verify(seatStreamService, timeout(5_000).times(2)).relay(eq("show1"), eq("delta"), any(), any());
+        assertEquals(2, connections.get());
+    }
+}
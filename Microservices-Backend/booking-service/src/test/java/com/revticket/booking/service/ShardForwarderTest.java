@@ -0,0 +1,74 @@
+package com.revticket.booking.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ShardForwarderTest {
+
+    private static final String STREAM_PATH = "/api/seats/showtime/show1/stream";
+
+    private final ShardManager shardManager = mock(ShardManager.class);
+    private final SeatStreamRelay seatStreamRelay = mock(SeatStreamRelay.class);
+    private final ServiceInstance owner =
+            new DefaultServiceInstance("booking-service:8086", "booking-service", "owner", 8086, false);
+    private ShardForwarder forwarder;
+
+    @BeforeEach
+    void setUp() {
+        forwarder = new ShardForwarder(RestClient.builder());
+        ReflectionTestUtils.setField(forwarder, "shardManager", shardManager);
+        ReflectionTestUtils.setField(forwarder, "seatStreamRelay", seatStreamRelay);
+
+        when(shardManager.isEnabled()).thenReturn(true);
+        when(shardManager.owner("show1")).thenReturn(owner);
+        RequestContextHolder.setRequestAttributes(
+                new ServletRequestAttributes(new MockHttpServletRequest("GET", STREAM_PATH)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void testStreamOfRemoteShowtimeJoinsTheOwnersRelay() {
+        SseEmitter relayed = new SseEmitter();
+        when(seatStreamRelay.subscribe("show1", owner, URI.create("http://owner:8086" + STREAM_PATH)))
+                .thenReturn(relayed);
+
+        assertSame(relayed, forwarder.relayStream("show1"));
+    }
+
+    @Test
+    void testStreamOfOwnShowtimeIsServedLocally() {
+        when(shardManager.owner("show1")).thenReturn(null);
+
+        assertNull(forwarder.relayStream("show1"));
+        verify(seatStreamRelay, never()).subscribe(any(), any(), any());
+    }
+
+    @Test
+    void testForwardedStreamIsNeverRelayedAgain() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", STREAM_PATH);
+        request.addHeader(ShardForwarder.FORWARDED_HEADER, "true");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        assertNull(forwarder.relayStream("show1"));
+        verify(seatStreamRelay, never()).subscribe(any(), any(), any());
+    }
+}
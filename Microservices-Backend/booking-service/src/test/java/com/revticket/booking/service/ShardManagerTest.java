@@ -0,0 +1,147 @@
+package com.revticket.booking.service;
+
+import com.revticket.booking.util.ShardRing;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs several shard managers side by side against one shared registry, as a
+ * cluster of booking-service instances would.
+ */
+class ShardManagerTest {
+
+    private final List<ServiceInstance> registry = new ArrayList<>();
+    private final DiscoveryClient discoveryClient = mock(DiscoveryClient.class);
+    private final Map<String, ShardManager> nodes = new HashMap<>();
+    private final Map<String, SeatInventoryService> inventories = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        when(discoveryClient.getInstances("booking-service")).thenAnswer(invocation -> List.copyOf(registry));
+        for (String node : List.of("booking-service:8085", "booking-service:8086", "booking-service:8087")) {
+            join(node);
+        }
+        refreshAll();
+    }
+
+    private void join(String node) {
+        int port = Integer.parseInt(node.substring(node.indexOf(':') + 1));
+        registry.add(new DefaultServiceInstance(node, "booking-service", "localhost", port, false));
+
+        SeatInventoryService inventory = mock(SeatInventoryService.class);
+        when(inventory.residentShowtimeIds()).thenReturn(Set.of());
+        ShowtimeWriteExecutor executor = mock(ShowtimeWriteExecutor.class);
+        when(executor.execute(anyString(), any())).thenAnswer(invocation -> {
+            Supplier<?> operation = invocation.getArgument(1);
+            return operation.get();
+        });
+
+        ShardManager manager = new ShardManager();
+        ReflectionTestUtils.setField(manager, "discoveryClient", discoveryClient);
+        ReflectionTestUtils.setField(manager, "seatInventoryService", inventory);
+        ReflectionTestUtils.setField(manager, "showtimeWriteExecutor", executor);
+        ReflectionTestUtils.setField(manager, "serviceName", "booking-service");
+        ReflectionTestUtils.setField(manager, "enabled", true);
+        ReflectionTestUtils.setField(manager, "self", node);
+        ReflectionTestUtils.setField(manager, "virtualNodes", 64);
+        nodes.put(node, manager);
+        inventories.put(node, inventory);
+    }
+
+    private void refreshAll() {
+        nodes.values().forEach(ShardManager::refresh);
+    }
+
+    private String ownerOf(String showtimeId) {
+        String owner = null;
+        for (Map.Entry<String, ShardManager> node : nodes.entrySet()) {
+            if (node.getValue().isLocal(showtimeId)) {
+                assertNull(owner, "showtime " + showtimeId + " owned twice");
+                owner = node.getKey();
+            }
+        }
+        assertNotNull(owner, "showtime " + showtimeId + " has no owner");
+        return owner;
+    }
+
+    @Test
+    void testEveryShowtimeHasExactlyOneOwnerAndOthersForwardToIt() {
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 3000; i++) {
+            String showtimeId = "show-" + i;
+            String owner = ownerOf(showtimeId);
+            counts.merge(owner, 1, Integer::sum);
+            for (Map.Entry<String, ShardManager> node : nodes.entrySet()) {
+                ServiceInstance target = node.getValue().owner(showtimeId);
+                assertEquals(node.getKey().equals(owner) ? null : owner,
+                        target != null ? target.getInstanceId() : null);
+            }
+        }
+        // Virtual nodes keep the split roughly even
+        counts.values().forEach(count -> assertTrue(count > 600 && count < 1500, "unbalanced: " + counts));
+    }
+
+    @Test
+    void testJoiningNodeOnlyTakesKeysAndOldOwnersHandOff() {
+        Map<String, String> before = new HashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            before.put("show-" + i, ownerOf("show-" + i));
+        }
+        Map.Entry<String, String> moving = before.entrySet().stream()
+                .filter(entry -> {
+                    Set<String> members = Set.of("booking-service:8085", "booking-service:8086",
+                            "booking-service:8087", "booking-service:8088");
+                    return new ShardRing(members, 64).owner(entry.getKey()).equals("booking-service:8088");
+                })
+                .findFirst().orElseThrow();
+        when(inventories.get(moving.getValue()).residentShowtimeIds()).thenReturn(Set.of(moving.getKey()));
+
+        join("booking-service:8088");
+        refreshAll();
+
+        int moved = 0;
+        for (Map.Entry<String, String> entry : before.entrySet()) {
+            String owner = ownerOf(entry.getKey());
+            if (!owner.equals(entry.getValue())) {
+                assertEquals("booking-service:8088", owner);
+                moved++;
+            }
+        }
+        assertTrue(moved > 200 && moved < 900, "moved " + moved);
+        verify(inventories.get(moving.getValue())).evict(moving.getKey());
+    }
+
+    @Test
+    void testLeavingNodeKeysSpreadOverSurvivors() {
+        Map<String, String> before = new HashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            before.put("show-" + i, ownerOf("show-" + i));
+        }
+
+        registry.removeIf(instance -> instance.getInstanceId().equals("booking-service:8086"));
+        nodes.remove("booking-service:8086");
+        refreshAll();
+
+        for (Map.Entry<String, String> entry : before.entrySet()) {
+            if (!entry.getValue().equals("booking-service:8086")) {
+                assertEquals(entry.getValue(), ownerOf(entry.getKey()));
+            }
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.revticket.booking.service;
+
+import com.revticket.booking.entity.Seat;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ShowtimeWriteExecutorTest {
+
+    private final SeatInventoryService seatInventoryService = mock(SeatInventoryService.class);
+    private LocalContainerEntityManagerFactoryBean factoryBean;
+    private JpaTransactionManager transactionManager;
+    private EntityManager entityManager;
+    private ShowtimeWriteExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:writes;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setManagedTypes(PersistenceManagedTypes.of(Seat.class.getName()));
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaPropertyMap(Map.of("hibernate.hbm2ddl.auto", "create-drop"));
+        factoryBean.afterPropertiesSet();
+        EntityManagerFactory entityManagerFactory = factoryBean.getObject();
+        transactionManager = new JpaTransactionManager(entityManagerFactory);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+
+        executor = new ShowtimeWriteExecutor(transactionManager, new SimpleMeterRegistry(), "serialized", 2);
+        ReflectionTestUtils.setField(executor, "seatInventoryService", seatInventoryService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+        factoryBean.destroy();
+    }
+
+    @Test
+    void testFailedOperationIsUndoneAlone() throws Exception {
+        List<String> committed = new CopyOnWriteArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+
+        // Holds the stripe so the next three operations are taken as one group
+        Future<?> blocker = callers.submit(() -> executor.execute("show1", () -> {
+            await(release);
+            return null;
+        }));
+        Thread.sleep(100);
+        Future<String> first = callers.submit(() -> executor.execute("show1", () -> {
+            persistSeat("A");
+            afterCommit(() -> committed.add("A"));
+            return "booked";
+        }));
+        Thread.sleep(50);
+        Future<String> failing = callers.submit(() -> executor.execute("show1", () -> {
+            persistSeat("B");
+            afterCommit(() -> committed.add("B"));
+            // Same as a @Transactional service method throwing: marks the transaction rollback-only
+            return new TransactionTemplate(transactionManager).execute(status -> {
+                throw new RuntimeException("One or more selected seats are no longer available");
+            });
+        }));
+        Thread.sleep(50);
+        Future<String> last = callers.submit(() -> executor.execute("show1", () -> {
+            persistSeat("C");
+            afterCommit(() -> committed.add("C"));
+            return "booked";
+        }));
+        Thread.sleep(50);
+        release.countDown();
+
+        blocker.get(10, TimeUnit.SECONDS);
+        assertEquals("booked", first.get(10, TimeUnit.SECONDS));
+        assertEquals("booked", last.get(10, TimeUnit.SECONDS));
+        ExecutionException error = assertThrows(ExecutionException.class, () -> failing.get(10, TimeUnit.SECONDS));
+        assertEquals("One or more selected seats are no longer available", error.getCause().getMessage());
+        callers.shutdown();
+
+        assertEquals(List.of("A", "C"), committed);
+        assertEquals(List.of("A", "C"), entityManager
+                .createQuery("select s.row from Seat s order by s.row", String.class).getResultList());
+    }
+
+    @Test
+    void testQueuedOperationsCommitInOneTransaction() throws Exception {
+        List<Object> transactions = new CopyOnWriteArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+
+        Future<?> blocker = callers.submit(() -> executor.execute("show1", () -> {
+            await(release);
+            return null;
+        }));
+        Thread.sleep(100);
+        List<Future<?>> queued = new ArrayList<>();
+        for (String row : List.of("A", "B", "C")) {
+            queued.add(callers.submit(() -> executor.execute("show1", () -> {
+                persistSeat(row);
+                transactions.add(TransactionSynchronizationManager.getResource(factoryBean.getObject()));
+                return null;
+            })));
+            Thread.sleep(50);
+        }
+        release.countDown();
+
+        blocker.get(10, TimeUnit.SECONDS);
+        for (Future<?> result : queued) {
+            result.get(10, TimeUnit.SECONDS);
+        }
+        callers.shutdown();
+
+        assertEquals(3, transactions.size());
+        assertEquals(1, transactions.stream().distinct().count());
+        assertEquals(3L, entityManager.createQuery("select count(s) from Seat s", Long.class).getSingleResult());
+    }
+
+    @Test
+    void testSameShowtimeOperationsNeverOverlap() throws Exception {
+        int[] counter = new int[1];
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            results.add(callers.submit(() -> executor.execute("show1", () -> {
+                int seen = counter[0];
+                Thread.yield();
+                counter[0] = seen + 1;
+                return seen;
+            })));
+        }
+        for (Future<Integer> result : results) {
+            result.get();
+        }
+        callers.shutdown();
+
+        assertEquals(200, counter[0]);
+    }
+
+    @Test
+    void testDirectModeRunsOnCallerThread() {
+        ShowtimeWriteExecutor direct = new ShowtimeWriteExecutor(transactionManager, new SimpleMeterRegistry(),
+                "direct", 0);
+        Thread caller = Thread.currentThread();
+
+        assertSame(caller, direct.execute(() -> fail("showtime lookup is not needed"), Thread::currentThread));
+        assertFalse(TransactionSynchronizationManager.isActualTransactionActive());
+    }
+
+    private void persistSeat(String row) {
+        Seat seat = new Seat();
+        seat.setShowtimeId("show1");
+        seat.setRow(row);
+        seat.setNumber(1);
+        seat.setPrice(200.0);
+        seat.setType(Seat.SeatType.REGULAR);
+        entityManager.persist(seat);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,159 @@
+package com.revticket.booking.service;
+
+import com.revticket.booking.dto.ScanResult;
+import com.revticket.booking.entity.Booking;
+import com.revticket.booking.entity.TicketScan;
+import com.revticket.booking.repository.BookingRepository;
+import com.revticket.booking.repository.TicketScanRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TicketScanServiceTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private TicketScanRepository ticketScanRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private TicketScanService ticketScanService;
+
+    private final TicketTokenService ticketTokenService = new TicketTokenService("test-secret");
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(ticketScanService, "ticketTokenService", ticketTokenService);
+    }
+
+    private String token(String bookingId) {
+        Booking booking = new Booking();
+        booking.setId(bookingId);
+        booking.setShowtimeId("show1");
+        return ticketTokenService.issue(booking, List.of("A1", "A2"));
+    }
+
+    @Test
+    void testScan_AdmitsOnceThenReportsDuplicate() {
+        String token = token("booking1");
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(1);
+
+        ScanResult first = ticketScanService.scan(token, "gate1", "device1");
+        ScanResult second = ticketScanService.scan(token, "gate2", "device2");
+
+        assertEquals(ScanResult.Status.ADMITTED, first.getStatus());
+        assertEquals(List.of("A1", "A2"), first.getSeats());
+        assertEquals(ScanResult.Status.ALREADY_SCANNED, second.getStatus());
+        assertEquals("gate1", second.getFirstGateId());
+        verify(jdbcTemplate, times(1)).update(anyString(), any(Object[].class));
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void testScan_TicketRecordedByAnotherInstanceIsADuplicate() {
+        LocalDateTime at = LocalDateTime.now().minusSeconds(2);
+        TicketScan elsewhere = new TicketScan("booking1", "show1", "gate7", "device7", TicketScan.Source.ONLINE,
+                at, at);
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(0);
+        when(ticketScanRepository.findById("booking1")).thenReturn(Optional.of(elsewhere));
+
+        ScanResult result = ticketScanService.scan(token("booking1"), "gate1", "device1");
+
+        assertEquals(ScanResult.Status.ALREADY_SCANNED, result.getStatus());
+        assertEquals("gate7", result.getFirstGateId());
+        assertEquals(ScanResult.Status.ALREADY_SCANNED,
+                ticketScanService.scan(token("booking1"), "gate2", "device2").getStatus());
+        verify(jdbcTemplate, times(1)).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void testScan_RejectsTamperedAndRevokedTickets() {
+        String token = token("booking1");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertEquals(ScanResult.Status.INVALID, ticketScanService.scan(tampered, "gate1", null).getStatus());
+
+        ticketScanService.revoke("booking1");
+        assertEquals(ScanResult.Status.REVOKED, ticketScanService.scan(token, "gate1", null).getStatus());
+        assertFalse(ticketScanService.isRevoked("booking2"));
+    }
+
+    @Test
+    void testScan_RejectsTicketReplacedByReassignment() {
+        Booking booking = new Booking();
+        booking.setId("booking1");
+        booking.setShowtimeId("show1");
+        booking.setQrCode(ticketTokenService.issue(booking, List.of("A1", "A2")));
+        String old = booking.getQrCode();
+        booking.setQrCode(ticketTokenService.reissue(booking, List.of("B1", "B2")));
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(1);
+
+        ticketScanService.reissued("booking1", booking.getTicketReissuedAt());
+        ScanResult stale = ticketScanService.scan(old, "gate1", null);
+        ScanResult current = ticketScanService.scan(booking.getQrCode(), "gate1", null);
+
+        assertEquals(ScanResult.Status.REVOKED, stale.getStatus());
+        assertEquals(List.of("A1", "A2"), stale.getSeats());
+        assertEquals(ScanResult.Status.ADMITTED, current.getStatus());
+        assertEquals(List.of("B1", "B2"), current.getSeats());
+    }
+
+    @Test
+    void testSync_EarliestScanWinsAndRecordedScansAreDuplicates() {
+        LocalDateTime at = LocalDateTime.of(2024, 1, 1, 18, 0);
+        TicketScan recorded = new TicketScan("booking2", "show1", "gate9", "device9", TicketScan.Source.ONLINE,
+                at, at);
+        when(ticketScanRepository.findAllById(any())).thenReturn(List.of(recorded));
+        when(jdbcTemplate.batchUpdate(anyString(), argThat((List<TicketScan> scans) -> scans.size() == 1),
+                eq(1), any())).thenReturn(new int[][] { { 1 } });
+
+        List<ScanResult> results = ticketScanService.sync("device1", List.of(
+                new TicketScanService.OfflineScan(token("booking1"), "gate1", at.plusMinutes(5)),
+                new TicketScanService.OfflineScan(token("booking1"), "gate2", at.plusMinutes(1)),
+                new TicketScanService.OfflineScan(token("booking2"), "gate1", at.plusMinutes(2)),
+                new TicketScanService.OfflineScan("garbage", "gate1", at)));
+
+        assertEquals(ScanResult.Status.ALREADY_SCANNED, results.get(0).getStatus());
+        assertEquals("gate2", results.get(0).getFirstGateId());
+        assertEquals(ScanResult.Status.ADMITTED, results.get(1).getStatus());
+        assertEquals(ScanResult.Status.ALREADY_SCANNED, results.get(2).getStatus());
+        assertEquals(ScanResult.Status.INVALID, results.get(3).getStatus());
+        verify(jdbcTemplate).batchUpdate(anyString(), argThat((List<TicketScan> scans) -> scans.size() == 1),
+                eq(1), any());
+    }
+
+    @Test
+    void testSync_ScanRecordedConcurrentlyElsewhereIsADuplicate() {
+        LocalDateTime at = LocalDateTime.of(2024, 1, 1, 18, 0);
+        TicketScan elsewhere = new TicketScan("booking1", "show1", "gate9", "device9", TicketScan.Source.ONLINE,
+                at, at);
+        when(ticketScanRepository.findAllById(any())).thenReturn(List.of());
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), eq(1), any())).thenReturn(new int[][] { { 0 } });
+        when(ticketScanRepository.findByBookingIdIn(Set.of("booking1"))).thenReturn(List.of(elsewhere));
+
+        List<ScanResult> results = ticketScanService.sync("device1", List.of(
+                new TicketScanService.OfflineScan(token("booking1"), "gate1", at.plusMinutes(1))));
+
+        assertEquals(ScanResult.Status.ALREADY_SCANNED, results.get(0).getStatus());
+        assertEquals("gate9", results.get(0).getFirstGateId());
+    }
+}
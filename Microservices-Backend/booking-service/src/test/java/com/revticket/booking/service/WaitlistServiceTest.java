@@ -0,0 +1,131 @@
+package com.revticket.booking.service;
+
+import com.revticket.booking.entity.Seat;
+import com.revticket.booking.entity.WaitlistEntry;
+import com.revticket.booking.repository.WaitlistEntryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WaitlistServiceTest {
+
+    @Mock
+    private WaitlistEntryRepository waitlistEntryRepository;
+
+    @Mock
+    private SeatInventoryService seatInventoryService;
+
+    @Mock
+    private SeatAllocationService seatAllocationService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private WaitlistService service;
+    private Waitlist waitlist;
+
+    @BeforeEach
+    void setUp() {
+        service = new WaitlistService(transactionManager, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "waitlistEntryRepository", waitlistEntryRepository);
+        ReflectionTestUtils.setField(service, "seatInventoryService", seatInventoryService);
+        ReflectionTestUtils.setField(service, "seatAllocationService", seatAllocationService);
+        ReflectionTestUtils.setField(service, "outboxService", outboxService);
+
+        // Four seats, two of them booked
+        List<Seat> seats = new ArrayList<>();
+        for (int number = 1; number <= 4; number++) {
+            Seat seat = new Seat();
+            seat.setId("a" + number);
+            seat.setRow("A");
+            seat.setNumber(number);
+            seat.setIsBooked(number > 2);
+            seats.add(seat);
+        }
+        when(seatInventoryService.getInventory("show1")).thenReturn(new SeatInventory("show1", seats));
+
+        waitlist = new Waitlist();
+        waitlist.add("e1", 3, null);
+        waitlist.add("e2", 2, "premium");
+        waitlist.add("e3", 1, null);
+        @SuppressWarnings("unchecked")
+        Map<String, Waitlist> waitlists = (Map<String, Waitlist>) ReflectionTestUtils.getField(service, "waitlists");
+        waitlists.put("show1", waitlist);
+    }
+
+    private WaitlistEntry waiting(String id) {
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setId(id);
+        entry.setShowtimeId("show1");
+        entry.setUserId("user-" + id);
+        when(waitlistEntryRepository.findById(id)).thenReturn(Optional.of(entry));
+        return entry;
+    }
+
+    @Test
+    void testMatch_OffersOldestRequestThatFitsTheFreeSeats() {
+        WaitlistEntry entry = waiting("e2");
+        when(seatAllocationService.holdBlock("show1", 2, "premium", "waitlist-e2"))
+                .thenReturn(List.of("a1", "a2"));
+        when(waitlistEntryRepository.save(any(WaitlistEntry.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertEquals(1, service.match("show1"));
+
+        // The party of three does not fit in two free seats and keeps its place
+        assertEquals(WaitlistEntry.Status.OFFERED, entry.getStatus());
+        assertEquals("waitlist-e2", entry.getHoldSessionId());
+        assertEquals(List.of("a1", "a2"), entry.getOfferedSeats());
+        assertNotNull(entry.getOfferExpiresAt());
+        assertEquals(2, waitlist.size());
+        verify(outboxService).waitlistOffer(eq(entry), any());
+        verify(seatAllocationService, never()).holdBlock(anyString(), eq(3), any(), anyString());
+    }
+
+    @Test
+    void testMatch_SkipsShapesWithNoBlockAndTriesTheNext() {
+        waiting("e3");
+        when(seatAllocationService.holdBlock("show1", 2, "premium", "waitlist-e2")).thenReturn(List.of());
+        when(seatAllocationService.holdBlock("show1", 1, null, "waitlist-e3")).thenReturn(List.of("a1"));
+        when(waitlistEntryRepository.save(any(WaitlistEntry.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertEquals(1, service.match("show1"));
+
+        assertEquals(2, waitlist.size());
+        assertNull(waitlist.next(1, Map.of()));
+        assertEquals("e2", waitlist.next(2, Map.of()).getId());
+        verify(seatAllocationService, times(2)).holdBlock(anyString(), anyInt(), any(), anyString());
+    }
+
+    @Test
+    void testJoin_RejectsCategoryTheScreenDoesNotHave() {
+        when(seatAllocationService.hasCategory("show1", "balcony")).thenReturn(false);
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> service.join("show1", "user1",
+                Map.of("partySize", 2, "category", "balcony")));
+
+        assertEquals("Unknown seat category: balcony", error.getMessage());
+        verify(waitlistEntryRepository, never()).save(any(WaitlistEntry.class));
+        assertEquals(3, waitlist.size());
+    }
+}
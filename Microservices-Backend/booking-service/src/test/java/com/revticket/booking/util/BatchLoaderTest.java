@@ -0,0 +1,79 @@
+package com.revticket.booking.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchLoaderTest {
+
+    @Test
+    void testConcurrentSingleLookupsShareOneBatchCall() throws Exception {
+        List<Set<String>> calls = new CopyOnWriteArrayList<>();
+        BatchLoader<String, String> loader = new BatchLoader<>(ids -> {
+            calls.add(ids);
+            Map<String, String> values = new HashMap<>();
+            ids.stream().filter(id -> !id.equals("missing")).forEach(id -> values.put(id, "v-" + id));
+            return values;
+        }, 100, 200L);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 7; i++) {
+                String id = "id" + (i % 4);
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return loader.get(id);
+                }));
+            }
+            results.add(pool.submit(() -> {
+                start.await();
+                return loader.get("missing");
+            }));
+            start.countDown();
+
+            for (int i = 0; i < 7; i++) {
+                assertEquals("v-id" + (i % 4), results.get(i).get());
+            }
+            assertNull(results.get(7).get());
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, calls.size());
+        assertEquals(Set.of("id0", "id1", "id2", "id3", "missing"), calls.get(0));
+    }
+
+    @Test
+    void testSplitsLargeRequestsIntoBatchesAndReportsFailures() {
+        List<Integer> batchSizes = new ArrayList<>();
+        BatchLoader<Integer, Integer> loader = new BatchLoader<>(ids -> {
+            batchSizes.add(ids.size());
+            Map<Integer, Integer> values = new HashMap<>();
+            ids.forEach(id -> values.put(id, id * 2));
+            return values;
+        }, 2, 0L);
+
+        Map<Integer, Integer> values = loader.getAll(List.of(1, 2, 3, 4, 5));
+
+        assertEquals(5, values.size());
+        assertEquals(10, values.get(5));
+        assertEquals(List.of(2, 2, 1), batchSizes);
+
+        BatchLoader<Integer, Integer> failing = new BatchLoader<>(ids -> {
+            throw new RuntimeException("down");
+        }, 10, 0L);
+        assertThrows(RuntimeException.class, () -> failing.get(1));
+    }
+}
@@ -30,4 +30,9 @@ public class MovieController {
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
+
+    @PostMapping("/movies/batch")
+    public ResponseEntity<List<MovieDTO>> getMoviesByIds(@RequestBody List<String> ids) {
+        return ResponseEntity.ok(movieService.getMoviesByIds(ids));
+    }
 }
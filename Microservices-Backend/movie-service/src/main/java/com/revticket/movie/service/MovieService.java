@@ -9,17 +9,26 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class MovieService {
 
+    public static final int MAX_BATCH_SIZE = 500;
+
     @Autowired
     private MovieRepository movieRepository;
 
+    @Autowired
+    private ReferenceChangePublisher referenceChangePublisher;
+
     public List<Movie> getAllMovies() {
         return movieRepository.findByIsActiveTrue();
     }
@@ -46,6 +55,24 @@ public class MovieService {
                 .map(this::convertToDTO);
     }
 
+    /**
+     * Movies for up to {@link #MAX_BATCH_SIZE} ids in one query. Unknown ids
+     * are left out of the result.
+     */
+    public List<MovieDTO> getMoviesByIds(Collection<String> ids) {
+        Set<String> distinct = new LinkedHashSet<>(ids);
+        distinct.remove(null);
+        if (distinct.size() > MAX_BATCH_SIZE) {
+            throw new RuntimeException("At most " + MAX_BATCH_SIZE + " ids per batch");
+        }
+        if (distinct.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return movieRepository.findAllById(distinct).stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
     public MovieDTO createMovie(MovieRequest request) {
         Movie movie = new Movie();
         movie.setTitle(request.getTitle());
@@ -82,6 +109,7 @@ public class MovieService {
         }
 
         Movie saved = movieRepository.save(movie);
+        referenceChangePublisher.changed("MOVIE", saved.getId());
         return convertToDTO(saved);
     }
 
@@ -90,6 +118,7 @@ public class MovieService {
                 .orElseThrow(() -> new RuntimeException("Movie not found"));
         movie.setIsActive(!movie.getIsActive());
         Movie saved = movieRepository.save(movie);
+        referenceChangePublisher.changed("MOVIE", saved.getId());
         return convertToDTO(saved);
     }
 
@@ -98,6 +127,7 @@ public class MovieService {
                 .orElseThrow(() -> new RuntimeException("Movie not found"));
         movie.setIsActive(false);
         movieRepository.save(movie);
+        referenceChangePublisher.changed("MOVIE", movie.getId());
     }
 
     public List<String> getAllGenres() {
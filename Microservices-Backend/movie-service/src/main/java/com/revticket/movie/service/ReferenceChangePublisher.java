@@ -0,0 +1,99 @@
+package com.revticket.movie.service;
+
+import com.revticket.movie.util.JwtUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.client.RestClient;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Tells every showtime-service instance that a movie, theater or screen
+ * changed, so cached summaries are dropped instead of living out their TTL.
+ * Notices are sent after commit on a background thread with this service's
+ * own token, since the endpoint only accepts service callers; a lost notice
+ * only delays the update until the cache refreshes on its own.
+ *
+ * <p>Copied between movie-service and theater-service, whose
+ * {@code ReferenceChangePublisherCopyTest} keeps them equal.
+ */
+@Component
+public class ReferenceChangePublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceChangePublisher.class);
+
+    private static final String SHOWTIME_SERVICE = "showtime-service";
+
+    @Autowired
+    private DiscoveryClient discoveryClient;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private final RestClient restClient;
+
+    private final ExecutorService sender = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "reference-change-publisher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ReferenceChangePublisher(RestClient.Builder restClientBuilder) {
+        this.restClient = restClientBuilder.build();
+    }
+
+    /**
+     * Announces a change to the record of {@code type} (MOVIE, THEATER or
+     * SCREEN) with this id.
+     */
+    public void changed(String type, String id) {
+        publish(Map.of("type", type, "id", id));
+    }
+
+    private void publish(Map<String, Object> notice) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    sender.execute(() -> send(notice));
+                }
+            });
+        } else {
+            sender.execute(() -> send(notice));
+        }
+    }
+
+    private void send(Map<String, Object> notice) {
+        List<ServiceInstance> instances;
+        try {
+            instances = discoveryClient.getInstances(SHOWTIME_SERVICE);
+        } catch (RuntimeException e) {
+            logger.warn("Could not look up {} instances for change notice {}: {}",
+                    SHOWTIME_SERVICE, notice, e.getMessage());
+            return;
+        }
+        String authorization = jwtUtil.serviceAuthorization();
+        for (ServiceInstance instance : instances) {
+            try {
+                restClient.post()
+                        .uri(instance.getUri() + "/api/internal/showtimes/reference-changes")
+                        .header(HttpHeaders.AUTHORIZATION, authorization)
+                        .body(notice)
+                        .retrieve()
+                        .toBodilessEntity();
+            } catch (RuntimeException e) {
+                logger.warn("Change notice {} to {} failed: {}", notice, instance.getUri(), e.getMessage());
+            }
+        }
+    }
+}
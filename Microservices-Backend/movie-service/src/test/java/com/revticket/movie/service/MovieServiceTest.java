@@ -13,7 +13,10 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -28,6 +31,9 @@ class MovieServiceTest {
     @Mock
     private LanguageRepository languageRepository;
 
+    @Mock
+    private ReferenceChangePublisher referenceChangePublisher;
+
     @InjectMocks
     private MovieService movieService;
 
@@ -100,5 +106,17 @@ class MovieServiceTest {
         // object passed to save.
 
         verify(movieRepository).save(any(Movie.class));
+        verify(referenceChangePublisher).changed("MOVIE", "1");
+    }
+
+    @Test
+    void testGetMoviesByIds_LoadsDistinctIdsInOneQuery() {
+        when(movieRepository.findAllById(any())).thenReturn(List.of(testMovie));
+
+        List<MovieDTO> result = movieService.getMoviesByIds(Arrays.asList("1", "1", "missing"));
+
+        assertEquals(1, result.size());
+        assertEquals("Inception", result.get(0).getTitle());
+        verify(movieRepository).findAllById(Set.of("1", "missing"));
     }
 }
@@ -10,6 +10,7 @@ import java.util.Map;
 
 @FeignClient(name = "booking-service", configuration = com.revticket.review.config.FeignConfig.class)
 public interface BookingServiceClient {
-    @GetMapping("/api/bookings/user/{userId}")
+    // Only the fields the review checks read; booking-service skips the rest
+    @GetMapping("/api/bookings/user/{userId}?fields=status,movieId,showtime")
     List<Map<String, Object>> getUserBookings(@PathVariable String userId, @RequestHeader("Authorization") String token);
 }
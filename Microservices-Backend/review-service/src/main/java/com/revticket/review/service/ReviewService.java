@@ -40,19 +40,7 @@ public class ReviewService {
 
         List<Map<String, Object>> bookings = bookingServiceClient.getUserBookings(userId, token);
         boolean hasWatchedMovie = bookings.stream()
-                .anyMatch(booking -> {
-                    String status = (String) booking.get("status");
-                    Map<String, Object> showtime = (Map<String, Object>) booking.get("showtime");
-                    if (showtime != null) {
-                        Map<String, Object> showtimeMovie = (Map<String, Object>) showtime.get("movie");
-                        String showtimeDateTime = (String) showtime.get("showDateTime");
-                        return "CONFIRMED".equals(status) &&
-                                showtimeMovie != null &&
-                                request.getMovieId().equals(showtimeMovie.get("id")) &&
-                                LocalDateTime.parse(showtimeDateTime).isBefore(LocalDateTime.now());
-                    }
-                    return false;
-                });
+                .anyMatch(booking -> hasWatched(booking, request.getMovieId()));
 
         if (!hasWatchedMovie) {
             throw new RuntimeException("You can only review movies you have watched");
@@ -178,25 +166,36 @@ public class ReviewService {
             System.out.println("Found " + bookings.size() + " bookings for user");
             
             return bookings.stream()
-                    .anyMatch(booking -> {
-                        String status = (String) booking.get("status");
-                        Map<String, Object> showtime = (Map<String, Object>) booking.get("showtime");
-                        if (showtime != null) {
-                            Map<String, Object> movie = (Map<String, Object>) showtime.get("movie");
-                            String showtimeDateTime = (String) showtime.get("showDateTime");
-                            return "CONFIRMED".equals(status) &&
-                                    movie != null &&
-                                    movieId.equals(movie.get("id")) &&
-                                    LocalDateTime.parse(showtimeDateTime).isBefore(LocalDateTime.now());
-                        }
-                        return false;
-                    });
+                    .anyMatch(booking -> hasWatched(booking, movieId));
         } catch (Exception e) {
             System.out.println("Error fetching user bookings: " + e.getMessage());
             return false;
         }
     }
 
+    /**
+     * Whether a confirmed booking is for this movie and its show has started.
+     * Reads the flat booking view (movieId and showtime) and still accepts
+     * the older nested showtime object.
+     */
+    @SuppressWarnings("unchecked")
+    private boolean hasWatched(Map<String, Object> booking, String movieId) {
+        if (!"CONFIRMED".equals(booking.get("status"))) {
+            return false;
+        }
+        Object bookedMovieId = booking.get("movieId");
+        Object showDateTime = booking.get("showtime");
+        if (showDateTime instanceof Map) {
+            Map<String, Object> showtime = (Map<String, Object>) showDateTime;
+            Map<String, Object> movie = (Map<String, Object>) showtime.get("movie");
+            bookedMovieId = movie != null ? movie.get("id") : null;
+            showDateTime = showtime.get("showDateTime");
+        }
+        return movieId.equals(bookedMovieId)
+                && showDateTime instanceof String
+                && LocalDateTime.parse((String) showDateTime).isBefore(LocalDateTime.now());
+    }
+
     public Map<String, Object> getReviewStats() {
         Long totalReviews = reviewRepository.count();
         Long approvedReviews = reviewRepository.countByApprovedTrue();
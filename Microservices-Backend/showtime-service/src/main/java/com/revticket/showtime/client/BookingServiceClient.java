@@ -3,6 +3,7 @@ package com.revticket.showtime.client;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 
 import java.util.Map;
 
@@ -11,4 +12,11 @@ public interface BookingServiceClient {
     
     @PostMapping("/api/seats/initialize")
     Map<String, String> initializeSeats(@RequestBody Map<String, String> request);
-}
\ No newline at end of file
+
+    @PostMapping("/api/seats/initialize-batch")
+    Map<String, Object> initializeSeatsBatch(@RequestBody Map<String, Object> request);
+
+    @PostMapping("/api/bookings/admin/bulk-cancel")
+    Map<String, Object> startBulkCancellation(@RequestBody Map<String, Object> request,
+            @RequestHeader("Authorization") String token);
+}
@@ -3,7 +3,10 @@ package com.revticket.showtime.client;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 
+import java.util.List;
 import java.util.Map;
 
 @FeignClient(name = "theater-service")
@@ -13,4 +16,10 @@ public interface TheaterServiceClient {
     
     @GetMapping("/api/screens/{id}")
     Map<String, Object> getScreenById(@PathVariable String id);
+
+    @PostMapping("/api/theaters/batch")
+    List<Map<String, Object>> getTheatersByIds(@RequestBody List<String> ids);
+
+    @PostMapping("/api/screens/batch")
+    List<Map<String, Object>> getScreensByIds(@RequestBody List<String> ids);
 }
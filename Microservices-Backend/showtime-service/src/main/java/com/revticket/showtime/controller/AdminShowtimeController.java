@@ -1,8 +1,10 @@
 package com.revticket.showtime.controller;
 
+import com.revticket.showtime.dto.FreeSlot;
 import com.revticket.showtime.dto.ShowtimeRequest;
 import com.revticket.showtime.dto.ShowtimeResponse;
 import com.revticket.showtime.dto.ShowtimeStatsResponse;
+import com.revticket.showtime.service.ScheduleService;
 import com.revticket.showtime.service.ShowtimeService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,6 +27,9 @@ public class AdminShowtimeController {
     @Autowired
     private ShowtimeService showtimeService;
 
+    @Autowired
+    private ScheduleService scheduleService;
+
     @GetMapping
     public ResponseEntity<List<ShowtimeResponse>> getShowtimes(
             @RequestParam(name = "movieId", required = false) String movieId,
@@ -68,13 +73,43 @@ public class AdminShowtimeController {
     public ResponseEntity<Map<String, Boolean>> checkConflict(
             @RequestParam String screenId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime showDateTime,
-            @RequestParam(required = false) String excludeShowId) {
-        boolean conflict = showtimeService.checkShowtimeConflict(screenId, showDateTime, excludeShowId);
+            @RequestParam(required = false) String excludeShowId,
+            @RequestParam(required = false) String movieId) {
+        boolean conflict = showtimeService.checkShowtimeConflict(screenId, showDateTime, excludeShowId, movieId);
         Map<String, Boolean> response = new HashMap<>();
         response.put("conflict", conflict);
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/free-slots")
+    public ResponseEntity<List<FreeSlot>> getFreeSlots(
+            @RequestParam String screenId,
+            @RequestParam(required = false) String movieId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(showtimeService.suggestFreeSlots(screenId, movieId, from, to, Math.min(limit, 500)));
+    }
+
+    /**
+     * Creates a recurring schedule of showtimes; seats are initialized in the
+     * background. Returns the job with the outcome of every slot.
+     */
+    @PostMapping("/schedule")
+    public ResponseEntity<Map<String, Object>> schedule(@RequestBody Map<String, Object> request) {
+        return ResponseEntity.ok(scheduleService.schedule(request));
+    }
+
+    @GetMapping("/schedule/{jobId}")
+    public ResponseEntity<Map<String, Object>> getScheduleStatus(@PathVariable String jobId) {
+        return ResponseEntity.ok(scheduleService.status(jobId));
+    }
+
+    @PostMapping("/schedule/{jobId}/resume")
+    public ResponseEntity<Map<String, Object>> resumeSchedule(@PathVariable String jobId) {
+        return ResponseEntity.ok(scheduleService.resume(jobId));
+    }
+
     @GetMapping("/stats")
     public ResponseEntity<Map<String, Object>> getShowtimeStats() {
         ShowtimeStatsResponse stats = showtimeService.getShowtimeStats();
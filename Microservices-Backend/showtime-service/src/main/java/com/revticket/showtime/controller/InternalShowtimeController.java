@@ -0,0 +1,59 @@
+package com.revticket.showtime.controller;
+
+import com.revticket.showtime.service.ReferenceDataLoader;
+import com.revticket.showtime.service.ScreenTimeline;
+import com.revticket.showtime.service.ShowtimeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Endpoints other services call with their own service token. Not routed by
+ * the gateway.
+ */
+@RestController
+@RequestMapping("/api/internal/showtimes")
+@PreAuthorize("hasRole('SERVICE')")
+public class InternalShowtimeController {
+
+    @Autowired
+    private ShowtimeService showtimeService;
+
+    @Autowired
+    private ReferenceDataLoader referenceDataLoader;
+
+    @Autowired
+    private ScreenTimeline screenTimeline;
+
+    // Live seat counts from booking-service
+    @PostMapping("/availability")
+    public ResponseEntity<Map<String, Object>> updateAvailability(@RequestBody List<Map<String, Object>> updates) {
+        return ResponseEntity.ok(Map.of("updated", showtimeService.updateAvailability(updates)));
+    }
+
+    // Change notices from movie-service and theater-service
+    @PostMapping("/reference-changes")
+    public ResponseEntity<Void> referenceChanged(@RequestBody Map<String, Object> notice) {
+        Object type = notice.get("type");
+        Object id = notice.get("id");
+        if (type == null || id == null) {
+            throw new RuntimeException("Change notice needs a type and an id");
+        }
+        ReferenceDataLoader.Kind kind;
+        try {
+            kind = ReferenceDataLoader.Kind.valueOf(type.toString().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Unknown reference type: " + type);
+        }
+        referenceDataLoader.invalidate(kind, id.toString());
+        if (kind == ReferenceDataLoader.Kind.MOVIE) {
+            // Occupied slots depend on movie durations
+            screenTimeline.evictAll();
+        }
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -54,6 +54,12 @@ public class ShowtimeController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<ShowtimeResponse>> getShowtimesByIds(@RequestBody List<String> ids,
+            @RequestParam(name = "enrich", defaultValue = "true") boolean enrich) {
+        return ResponseEntity.ok(showtimeService.getShowtimesByIds(ids, enrich));
+    }
+
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ShowtimeResponse> createShowtime(@Valid @RequestBody ShowtimeRequest request) {
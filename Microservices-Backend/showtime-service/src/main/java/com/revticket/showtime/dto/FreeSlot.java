@@ -0,0 +1,14 @@
+package com.revticket.showtime.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+@Value
+@Builder
+public class FreeSlot {
+    String screenId;
+    LocalDateTime startTime;
+    LocalDateTime endTime;
+}
@@ -0,0 +1,75 @@
+package com.revticket.showtime.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A recurring schedule request: every slot it expanded to, with the showtime
+ * created for it or the reason it was not. Showtimes are inserted with the
+ * job row; {@code status} then tracks the seat initialization that follows
+ * in the background, recorded per slot so a restarted run only sends the
+ * showtimes still missing seats.
+ */
+@Entity
+@Table(name = "schedule_jobs", indexes = {
+        @Index(name = "idx_schedule_job_status", columnList = "status")
+})
+@Data
+@NoArgsConstructor
+public class ScheduleJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(name = "movie_id", nullable = false)
+    private String movieId;
+
+    @Column(name = "theater_id", nullable = false)
+    private String theaterId;
+
+    @ElementCollection
+    @CollectionTable(name = "schedule_job_slots", joinColumns = @JoinColumn(name = "job_id"))
+    @OrderColumn(name = "position")
+    private List<ScheduleSlot> slots = new ArrayList<>();
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status = Status.PENDING;
+
+    @Column(nullable = false)
+    private Integer created = 0;
+
+    @Column(nullable = false)
+    private Integer rejected = 0;
+
+    @Column(name = "seats_initialized", nullable = false)
+    private Integer seatsInitialized = 0;
+
+    @Column(columnDefinition = "TEXT")
+    private String error;
+
+    @Version
+    private Long version;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    public enum Status {
+        PENDING, RUNNING, COMPLETED, FAILED
+    }
+}
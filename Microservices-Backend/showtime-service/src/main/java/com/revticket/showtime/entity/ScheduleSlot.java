@@ -0,0 +1,42 @@
+package com.revticket.showtime.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One requested slot of a schedule job and what became of it.
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+public class ScheduleSlot {
+    @Column(name = "screen_id", nullable = false)
+    private String screenId;
+
+    @Column(name = "show_date_time", nullable = false)
+    private LocalDateTime showDateTime;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Result result;
+
+    @Column(name = "showtime_id")
+    private String showtimeId;
+
+    private String message;
+
+    @Column(name = "seats_initialized", nullable = false)
+    private boolean seatsInitialized;
+
+    public ScheduleSlot(String screenId, LocalDateTime showDateTime) {
+        this.screenId = screenId;
+        this.showDateTime = showDateTime;
+    }
+
+    public enum Result {
+        CREATED, CONFLICT, REJECTED
+    }
+}
@@ -8,7 +8,8 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "showtimes")
+// The screen index keeps locking reads of one screen's showtimes to that screen
+@Table(name = "showtimes", indexes = @Index(name = "idx_showtimes_screen_time", columnList = "screen, show_date_time"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -41,6 +42,10 @@ public class Showtime {
     @Enumerated(EnumType.STRING)
     private ShowStatus status = ShowStatus.ACTIVE;
 
+    // Cancelled, but booking-service has not yet accepted cancelling its bookings
+    @Column(name = "bookings_cancel_pending")
+    private Boolean bookingsCancelPending = false;
+
     public enum ShowStatus {
         ACTIVE, COMPLETED, CANCELLED
     }
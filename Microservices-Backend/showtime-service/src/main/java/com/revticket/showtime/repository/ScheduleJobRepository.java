@@ -0,0 +1,14 @@
+package com.revticket.showtime.repository;
+
+import com.revticket.showtime.entity.ScheduleJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ScheduleJobRepository extends JpaRepository<ScheduleJob, String> {
+
+    List<ScheduleJob> findByStatusIn(Collection<ScheduleJob.Status> statuses);
+}
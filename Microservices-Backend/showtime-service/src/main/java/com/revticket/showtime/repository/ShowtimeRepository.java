@@ -1,7 +1,9 @@
 package com.revticket.showtime.repository;
 
 import com.revticket.showtime.entity.Showtime;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -38,6 +40,14 @@ public interface ShowtimeRepository extends JpaRepository<Showtime, String> {
                                              @Param("end") LocalDateTime end);
 
     List<Showtime> findByScreen(String screen);
+
+    List<Showtime> findByScreenAndShowDateTimeAfter(String screen, LocalDateTime after);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Showtime s WHERE s.screen = :screen AND s.showDateTime > :after")
+    List<Showtime> findByScreenAfterForUpdate(@Param("screen") String screen, @Param("after") LocalDateTime after);
+
+    List<Showtime> findByStatusAndBookingsCancelPendingTrue(Showtime.ShowStatus status);
     
     @Query("SELECT COUNT(s) FROM Showtime s WHERE s.showDateTime > :now")
     Long countUpcomingShowtimes(@Param("now") LocalDateTime now);
@@ -0,0 +1,179 @@
+package com.revticket.showtime.service;
+
+import com.revticket.showtime.client.MovieServiceClient;
+import com.revticket.showtime.client.TheaterServiceClient;
+import com.revticket.showtime.dto.ShowtimeResponse;
+import com.revticket.showtime.util.BatchLoader;
+import com.revticket.showtime.util.NearCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Movie, theater and screen summaries shown on showtime responses, resolved
+ * through the batch endpoints of movie-service and theater-service. Lookups
+ * from concurrent requests are coalesced into shared batch calls, so a
+ * listing costs one call per kind however many showtimes it holds.
+ * Summaries are kept in bounded near-caches: refreshed in the background
+ * after five minutes, reloaded before use after thirty, served stale while
+ * the owning service is down, and dropped when movie-service or
+ * theater-service reports a change.
+ */
+@Component
+public class ReferenceDataLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(ReferenceDataLoader.class);
+
+    private static final int MAX_BATCH_SIZE = 200;
+    private static final long BATCH_WINDOW_MILLIS = 5L;
+    private static final int CACHE_SIZE = 5000;
+    private static final long REFRESH_AFTER_MILLIS = 5 * 60_000L;
+    private static final long EXPIRE_AFTER_MILLIS = 30 * 60_000L;
+
+    public enum Kind { MOVIE, THEATER, SCREEN }
+
+    @Autowired
+    private MovieServiceClient movieServiceClient;
+
+    @Autowired
+    private TheaterServiceClient theaterServiceClient;
+
+    private final BatchLoader<String, ShowtimeResponse.MovieSummary> movieBatches = new BatchLoader<>(
+            ids -> index(movieServiceClient.getMoviesByIds(new ArrayList<>(ids)), ReferenceDataLoader::toMovie),
+            MAX_BATCH_SIZE, BATCH_WINDOW_MILLIS);
+
+    private final BatchLoader<String, ShowtimeResponse.TheaterSummary> theaterBatches = new BatchLoader<>(
+            ids -> index(theaterServiceClient.getTheatersByIds(new ArrayList<>(ids)), ReferenceDataLoader::toTheater),
+            MAX_BATCH_SIZE, BATCH_WINDOW_MILLIS);
+
+    private final BatchLoader<String, ShowtimeResponse.ScreenSummary> screenBatches = new BatchLoader<>(
+            ids -> index(theaterServiceClient.getScreensByIds(new ArrayList<>(ids)), ReferenceDataLoader::toScreen),
+            MAX_BATCH_SIZE, BATCH_WINDOW_MILLIS);
+
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "reference-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final NearCache<String, ShowtimeResponse.MovieSummary> movies = newCache();
+    private final NearCache<String, ShowtimeResponse.TheaterSummary> theaters = newCache();
+    private final NearCache<String, ShowtimeResponse.ScreenSummary> screens = newCache();
+
+    private final Map<Kind, Timer> loadTimers = new EnumMap<>(Kind.class);
+
+    public ReferenceDataLoader(MeterRegistry meterRegistry) {
+        register(meterRegistry, Kind.MOVIE, movies);
+        register(meterRegistry, Kind.THEATER, theaters);
+        register(meterRegistry, Kind.SCREEN, screens);
+    }
+
+    public Map<String, ShowtimeResponse.MovieSummary> movies(Collection<String> ids) {
+        return movies.getAll(ids, missing -> load(Kind.MOVIE, movieBatches, missing));
+    }
+
+    public Map<String, ShowtimeResponse.TheaterSummary> theaters(Collection<String> ids) {
+        return theaters.getAll(ids, missing -> load(Kind.THEATER, theaterBatches, missing));
+    }
+
+    public Map<String, ShowtimeResponse.ScreenSummary> screens(Collection<String> ids) {
+        return screens.getAll(ids, missing -> load(Kind.SCREEN, screenBatches, missing));
+    }
+
+    /**
+     * Drops a cached summary after its owning service reported a change.
+     */
+    public void invalidate(Kind kind, String id) {
+        switch (kind) {
+            case MOVIE -> movies.invalidate(id);
+            case THEATER -> theaters.invalidate(id);
+            case SCREEN -> screens.invalidate(id);
+        }
+    }
+
+    // A failed load leaves the cache serving what it has, or nothing, as single lookups did
+    private <V> Map<String, V> load(Kind kind, BatchLoader<String, V> batches, Set<String> ids) {
+        try {
+            return loadTimers.get(kind).record(() -> batches.getAll(ids));
+        } catch (RuntimeException e) {
+            log.warn("Failed to load {} details for {} ids: {}", kind, ids.size(), e.getMessage());
+            throw e;
+        }
+    }
+
+    private <V> NearCache<String, V> newCache() {
+        return new NearCache<>(CACHE_SIZE, REFRESH_AFTER_MILLIS, EXPIRE_AFTER_MILLIS, refresher);
+    }
+
+    private void register(MeterRegistry registry, Kind kind, NearCache<String, ?> cache) {
+        String tag = kind.name().toLowerCase();
+        FunctionCounter.builder("showtime.reference.cache.gets", cache, NearCache::hits)
+                .tags("kind", tag, "result", "hit").register(registry);
+        FunctionCounter.builder("showtime.reference.cache.gets", cache, NearCache::misses)
+                .tags("kind", tag, "result", "miss").register(registry);
+        FunctionCounter.builder("showtime.reference.cache.stale", cache, NearCache::staleServes)
+                .description("Lookups answered from stale entries because the owner was unavailable")
+                .tag("kind", tag).register(registry);
+        Gauge.builder("showtime.reference.cache.hit.ratio", cache, NearCache::hitRatio)
+                .tag("kind", tag).register(registry);
+        Gauge.builder("showtime.reference.cache.size", cache, NearCache::size)
+                .tag("kind", tag).register(registry);
+        loadTimers.put(kind, Timer.builder("showtime.reference.cache.load")
+                .tag("kind", tag).register(registry));
+    }
+
+    private static <V> Map<String, V> index(List<Map<String, Object>> rows, Function<Map<String, Object>, V> mapper) {
+        Map<String, V> byId = new HashMap<>();
+        if (rows != null) {
+            for (Map<String, Object> row : rows) {
+                if (row != null && row.get("id") != null) {
+                    byId.put((String) row.get("id"), mapper.apply(row));
+                }
+            }
+        }
+        return byId;
+    }
+
+    private static ShowtimeResponse.MovieSummary toMovie(Map<String, Object> movieData) {
+        return ShowtimeResponse.MovieSummary.builder()
+                .id((String) movieData.get("id"))
+                .title((String) movieData.get("title"))
+                .language((String) movieData.get("language"))
+                .duration(movieData.get("duration") instanceof Number
+                        ? ((Number) movieData.get("duration")).intValue() : null)
+                .posterUrl((String) movieData.get("posterUrl"))
+                .build();
+    }
+
+    private static ShowtimeResponse.TheaterSummary toTheater(Map<String, Object> theaterData) {
+        return ShowtimeResponse.TheaterSummary.builder()
+                .id((String) theaterData.get("id"))
+                .name((String) theaterData.get("name"))
+                .location((String) theaterData.get("location"))
+                .build();
+    }
+
+    private static ShowtimeResponse.ScreenSummary toScreen(Map<String, Object> screenData) {
+        return ShowtimeResponse.ScreenSummary.builder()
+                .id((String) screenData.get("id"))
+                .name((String) screenData.get("name"))
+                .totalSeats((Integer) screenData.get("totalSeats"))
+                .build();
+    }
+}
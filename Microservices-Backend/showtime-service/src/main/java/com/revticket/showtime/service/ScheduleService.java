@@ -0,0 +1,439 @@
+package com.revticket.showtime.service;
+
+import com.revticket.showtime.client.BookingServiceClient;
+import com.revticket.showtime.dto.ShowtimeResponse;
+import com.revticket.showtime.entity.ScheduleJob;
+import com.revticket.showtime.entity.ScheduleSlot;
+import com.revticket.showtime.entity.Showtime;
+import com.revticket.showtime.repository.ScheduleJobRepository;
+import com.revticket.showtime.repository.ShowtimeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates showtimes in bulk from a recurrence: one movie on a set of screens
+ * at the same times on chosen days over a date range. Every slot is checked
+ * against the screen timeline and the slots before it on the same screen,
+ * and the accepted ones are inserted together with the job row in one
+ * transaction. That transaction first locks the upcoming showtimes of each
+ * screen and checks against them, so concurrent jobs for the same screen
+ * take turns instead of both passing the check. Seats are then initialized in the background, a chunk of
+ * showtimes per booking-service call, with progress kept per slot so a run
+ * interrupted by a failure or restart resumes with the showtimes still
+ * missing seats. The job handle reports what happened to every slot.
+ */
+@Service
+public class ScheduleService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScheduleService.class);
+
+    public static final int MAX_SLOTS = 1000;
+    public static final int MAX_DAYS = 31;
+    static final int SEAT_CHUNK_SIZE = 200;
+
+    private static final Set<ScheduleJob.Status> UNFINISHED = EnumSet.of(
+            ScheduleJob.Status.PENDING, ScheduleJob.Status.RUNNING);
+
+    @Autowired
+    private ScheduleJobRepository jobRepository;
+
+    @Autowired
+    private ShowtimeRepository showtimeRepository;
+
+    @Autowired
+    private ScreenTimeline screenTimeline;
+
+    @Autowired
+    private ReferenceDataLoader referenceDataLoader;
+
+    @Autowired
+    private BookingServiceClient bookingServiceClient;
+
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "schedule-seats");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Set<String> active = ConcurrentHashMap.newKeySet();
+
+    public ScheduleService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Expands and books a recurrence:
+     * {@code movieId, theaterId, screens: [ids], times: ["HH:mm"], from, to}
+     * (ISO dates), {@code ticketPrice}, and optionally {@code days} (day
+     * names, every day if absent) and {@code totalSeats} (the screen's size
+     * if absent). Returns the job handle.
+     */
+    public Map<String, Object> schedule(Map<String, Object> request) {
+        Recurrence recurrence = Recurrence.parse(request);
+        // Committed before submitting, so booking-service can see the showtimes
+        ScheduleJob job = transactionTemplate.execute(status -> createJob(recurrence));
+        if (job.getStatus() != ScheduleJob.Status.COMPLETED) {
+            submit(job.getId());
+        }
+        return status(job);
+    }
+
+    /**
+     * Restarts seat initialization of a failed or stalled job.
+     */
+    public Map<String, Object> resume(String jobId) {
+        ScheduleJob job = jobRepository.findById(Objects.requireNonNullElse(jobId, ""))
+                .orElseThrow(() -> new RuntimeException("Schedule job not found"));
+        if (job.getStatus() != ScheduleJob.Status.COMPLETED) {
+            submit(job.getId());
+        }
+        return status(job);
+    }
+
+    public Map<String, Object> status(String jobId) {
+        return status(jobRepository.findById(Objects.requireNonNullElse(jobId, ""))
+                .orElseThrow(() -> new RuntimeException("Schedule job not found")));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinished() {
+        for (ScheduleJob job : jobRepository.findByStatusIn(UNFINISHED)) {
+            logger.info("Resuming seat initialization for schedule {} at {} of {}", job.getId(),
+                    job.getSeatsInitialized(), job.getCreated());
+            submit(job.getId());
+        }
+    }
+
+    private ScheduleJob createJob(Recurrence recurrence) {
+        Map<String, ShowtimeResponse.ScreenSummary> screens = referenceDataLoader.screens(recurrence.screens);
+        Duration occupancy = screenTimeline.occupancy(recurrence.movieId);
+        LocalDateTime now = LocalDateTime.now();
+
+        ScheduleJob job = new ScheduleJob();
+        job.setMovieId(recurrence.movieId);
+        job.setTheaterId(recurrence.theaterId);
+        List<Showtime> showtimes = new ArrayList<>();
+        List<ScheduleSlot> createdSlots = new ArrayList<>();
+
+        // In a fixed order, so jobs sharing screens cannot deadlock
+        for (String screenId : new TreeSet<>(recurrence.screens)) {
+            screenTimeline.lock(screenId);
+        }
+        for (String screenId : recurrence.screens) {
+            ShowtimeResponse.ScreenSummary screen = screens.get(screenId);
+            Integer seats = recurrence.totalSeats != null ? recurrence.totalSeats
+                    : screen != null ? screen.getTotalSeats() : null;
+            // Slots of one movie are equally long, so only the previous one on the screen can overlap
+            LocalDateTime previousEnd = null;
+            for (LocalDateTime start : recurrence.starts()) {
+                ScheduleSlot slot = new ScheduleSlot(screenId, start);
+                job.getSlots().add(slot);
+                LocalDateTime end = start.plus(occupancy);
+                if (!start.isAfter(now)) {
+                    reject(slot, ScheduleSlot.Result.REJECTED, "Start time has passed");
+                } else if (seats == null || seats < 1) {
+                    reject(slot, ScheduleSlot.Result.REJECTED, "Screen size unknown; pass totalSeats");
+                } else if ((previousEnd != null && start.isBefore(previousEnd))
+                        || screenTimeline.overlaps(screenId, start, end, null)) {
+                    reject(slot, ScheduleSlot.Result.CONFLICT, "Overlaps another show on this screen");
+                } else {
+                    previousEnd = end;
+                    slot.setResult(ScheduleSlot.Result.CREATED);
+                    createdSlots.add(slot);
+                    showtimes.add(showtime(recurrence, screenId, start, seats));
+                }
+            }
+        }
+
+        List<Showtime> saved = showtimeRepository.saveAll(showtimes);
+        for (int i = 0; i < saved.size(); i++) {
+            createdSlots.get(i).setShowtimeId(saved.get(i).getId());
+            screenTimeline.showtimeSaved(saved.get(i));
+        }
+        job.setCreated(createdSlots.size());
+        job.setRejected(job.getSlots().size() - createdSlots.size());
+        if (createdSlots.isEmpty()) {
+            job.setStatus(ScheduleJob.Status.COMPLETED);
+            job.setCompletedAt(now);
+        }
+        ScheduleJob persisted = jobRepository.save(job);
+        logger.info("Schedule {} for movie {}: {} showtimes created, {} slots rejected", persisted.getId(),
+                recurrence.movieId, persisted.getCreated(), persisted.getRejected());
+        return persisted;
+    }
+
+    private static void reject(ScheduleSlot slot, ScheduleSlot.Result result, String message) {
+        slot.setResult(result);
+        slot.setMessage(message);
+    }
+
+    private static Showtime showtime(Recurrence recurrence, String screenId, LocalDateTime start, int seats) {
+        Showtime showtime = new Showtime();
+        showtime.setMovieId(recurrence.movieId);
+        showtime.setTheaterId(recurrence.theaterId);
+        showtime.setScreen(screenId);
+        showtime.setShowDateTime(start);
+        showtime.setTicketPrice(recurrence.ticketPrice);
+        showtime.setTotalSeats(seats);
+        showtime.setAvailableSeats(seats);
+        showtime.setStatus(Showtime.ShowStatus.ACTIVE);
+        return showtime;
+    }
+
+    private void submit(String jobId) {
+        if (!active.add(jobId)) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                run(jobId);
+            } catch (OptimisticLockingFailureException e) {
+                // Another instance advanced the same job; leave it to that one
+                logger.info("Schedule {} is being seated elsewhere, stopping here", jobId);
+            } catch (Exception e) {
+                logger.error("Seat initialization for schedule {} stopped: {}", jobId, e.getMessage());
+                markFailed(jobId, e);
+            } finally {
+                active.remove(jobId);
+            }
+        });
+    }
+
+    void run(String jobId) {
+        List<ScheduleSlot> pending = transactionTemplate.execute(status -> {
+            ScheduleJob job = jobRepository.findById(jobId).orElse(null);
+            if (job == null || job.getStatus() == ScheduleJob.Status.COMPLETED) {
+                return null;
+            }
+            job.setStatus(ScheduleJob.Status.RUNNING);
+            job.setError(null);
+            jobRepository.save(job);
+            List<ScheduleSlot> unseated = new ArrayList<>();
+            for (ScheduleSlot slot : job.getSlots()) {
+                if (slot.getResult() == ScheduleSlot.Result.CREATED && !slot.isSeatsInitialized()) {
+                    unseated.add(slot);
+                }
+            }
+            return unseated;
+        });
+        if (pending == null) {
+            return;
+        }
+
+        for (int from = 0; from < pending.size(); from += SEAT_CHUNK_SIZE) {
+            List<ScheduleSlot> chunk = pending.subList(from, Math.min(from + SEAT_CHUNK_SIZE, pending.size()));
+            List<Map<String, Object>> showtimes = new ArrayList<>();
+            for (ScheduleSlot slot : chunk) {
+                showtimes.add(Map.of("showtimeId", slot.getShowtimeId(), "screenId", slot.getScreenId()));
+            }
+            // Showtimes that already have seats are skipped, so a repeated chunk is harmless
+            bookingServiceClient.initializeSeatsBatch(Map.of("showtimes", showtimes));
+
+            Set<String> seated = new HashSet<>();
+            chunk.forEach(slot -> seated.add(slot.getShowtimeId()));
+            transactionTemplate.executeWithoutResult(status -> {
+                ScheduleJob job = jobRepository.findById(jobId).orElseThrow();
+                for (ScheduleSlot slot : job.getSlots()) {
+                    if (slot.getShowtimeId() != null && seated.contains(slot.getShowtimeId())) {
+                        slot.setSeatsInitialized(true);
+                    }
+                }
+                job.setSeatsInitialized(job.getSeatsInitialized() + chunk.size());
+                jobRepository.save(job);
+            });
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            ScheduleJob done = jobRepository.findById(jobId).orElseThrow();
+            done.setStatus(ScheduleJob.Status.COMPLETED);
+            done.setCompletedAt(LocalDateTime.now());
+            done.setError(null);
+            jobRepository.save(done);
+            logger.info("Schedule {} seated: {} showtimes", jobId, done.getSeatsInitialized());
+        });
+    }
+
+    private void markFailed(String jobId, Exception cause) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> jobRepository.findById(jobId).ifPresent(job -> {
+                job.setStatus(ScheduleJob.Status.FAILED);
+                job.setError(cause.getMessage());
+                jobRepository.save(job);
+            }));
+        } catch (RuntimeException e) {
+            logger.warn("Could not record failure of schedule {}: {}", jobId, e.getMessage());
+        }
+    }
+
+    private Map<String, Object> status(ScheduleJob job) {
+        List<Map<String, Object>> slots = new ArrayList<>(job.getSlots().size());
+        for (ScheduleSlot slot : job.getSlots()) {
+            Map<String, Object> result = new HashMap<>();
+            result.put("screenId", slot.getScreenId());
+            result.put("showDateTime", slot.getShowDateTime());
+            result.put("result", slot.getResult());
+            result.put("showtimeId", slot.getShowtimeId());
+            result.put("message", slot.getMessage());
+            result.put("seatsInitialized", slot.isSeatsInitialized());
+            slots.add(result);
+        }
+        Map<String, Object> status = new HashMap<>();
+        status.put("jobId", job.getId());
+        status.put("movieId", job.getMovieId());
+        status.put("theaterId", job.getTheaterId());
+        status.put("status", job.getStatus());
+        status.put("running", active.contains(job.getId()));
+        status.put("total", job.getSlots().size());
+        status.put("created", job.getCreated());
+        status.put("rejected", job.getRejected());
+        status.put("seatsInitialized", job.getSeatsInitialized());
+        status.put("error", job.getError());
+        status.put("createdAt", job.getCreatedAt());
+        status.put("updatedAt", job.getUpdatedAt());
+        status.put("completedAt", job.getCompletedAt());
+        status.put("slots", slots);
+        return status;
+    }
+
+    private static class Recurrence {
+        private String movieId;
+        private String theaterId;
+        private Set<String> screens;
+        private Set<DayOfWeek> days;
+        private TreeSet<LocalTime> times;
+        private LocalDate from;
+        private LocalDate to;
+        private Double ticketPrice;
+        private Integer totalSeats;
+
+        static Recurrence parse(Map<String, Object> request) {
+            Recurrence recurrence = new Recurrence();
+            recurrence.movieId = required(request, "movieId");
+            recurrence.theaterId = required(request, "theaterId");
+            recurrence.screens = new LinkedHashSet<>(strings(request, "screens"));
+            recurrence.screens.remove(null);
+            if (recurrence.screens.isEmpty()) {
+                throw new RuntimeException("screens is required");
+            }
+
+            recurrence.times = new TreeSet<>();
+            for (String time : strings(request, "times")) {
+                try {
+                    recurrence.times.add(LocalTime.parse(time));
+                } catch (DateTimeParseException | NullPointerException e) {
+                    throw new RuntimeException("Invalid time: " + time);
+                }
+            }
+            if (recurrence.times.isEmpty()) {
+                throw new RuntimeException("times is required");
+            }
+
+            recurrence.days = EnumSet.noneOf(DayOfWeek.class);
+            if (request.get("days") == null) {
+                recurrence.days.addAll(EnumSet.allOf(DayOfWeek.class));
+            } else {
+                for (String day : strings(request, "days")) {
+                    try {
+                        recurrence.days.add(DayOfWeek.valueOf(day.toUpperCase()));
+                    } catch (IllegalArgumentException | NullPointerException e) {
+                        throw new RuntimeException("Invalid day: " + day);
+                    }
+                }
+            }
+
+            try {
+                recurrence.from = LocalDate.parse(required(request, "from"));
+                recurrence.to = LocalDate.parse(required(request, "to"));
+            } catch (DateTimeParseException e) {
+                throw new RuntimeException("from and to must be ISO dates");
+            }
+            if (recurrence.to.isBefore(recurrence.from)) {
+                throw new RuntimeException("'to' must not be before 'from'");
+            }
+            // from and to are both included
+            if (ChronoUnit.DAYS.between(recurrence.from, recurrence.to) >= MAX_DAYS) {
+                throw new RuntimeException("At most " + MAX_DAYS + " days per schedule");
+            }
+
+            if (!(request.get("ticketPrice") instanceof Number)
+                    || ((Number) request.get("ticketPrice")).doubleValue() <= 0) {
+                throw new RuntimeException("ticketPrice must be a positive number");
+            }
+            recurrence.ticketPrice = ((Number) request.get("ticketPrice")).doubleValue();
+            if (request.get("totalSeats") != null) {
+                if (!(request.get("totalSeats") instanceof Number)
+                        || ((Number) request.get("totalSeats")).intValue() < 1) {
+                    throw new RuntimeException("totalSeats must be at least 1");
+                }
+                recurrence.totalSeats = ((Number) request.get("totalSeats")).intValue();
+            }
+
+            long slots = (long) recurrence.starts().size() * recurrence.screens.size();
+            if (slots > MAX_SLOTS) {
+                throw new RuntimeException("At most " + MAX_SLOTS + " slots per schedule, got " + slots);
+            }
+            return recurrence;
+        }
+
+        // Start times of one screen in order
+        List<LocalDateTime> starts() {
+            List<LocalDateTime> starts = new ArrayList<>();
+            for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+                if (days.contains(date.getDayOfWeek())) {
+                    for (LocalTime time : times) {
+                        starts.add(date.atTime(time));
+                    }
+                }
+            }
+            return starts;
+        }
+
+        private static String required(Map<String, Object> request, String key) {
+            Object value = request.get(key);
+            if (value == null || value.toString().isEmpty()) {
+                throw new RuntimeException(key + " is required");
+            }
+            return value.toString();
+        }
+
+        @SuppressWarnings("unchecked")
+        private static List<String> strings(Map<String, Object> request, String key) {
+            Object value = request.get(key);
+            if (value == null) {
+                return List.of();
+            }
+            if (!(value instanceof List)) {
+                throw new RuntimeException(key + " must be a list");
+            }
+            return (List<String>) value;
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package com.revticket.showtime.service;
+
+import com.revticket.showtime.dto.ShowtimeResponse;
+import com.revticket.showtime.entity.Showtime;
+import com.revticket.showtime.repository.ShowtimeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of when each screen is occupied. A showtime occupies its
+ * screen for [start, start + movie duration + cleaning buffer); movies with
+ * no known duration get a default run time. A screen's slots are loaded from
+ * the database on first use, kept sorted by start time, updated as showtimes
+ * are created, changed and deleted on this instance, and reloaded after
+ * {@code reloadAfterSeconds} to pick up changes made through other instances.
+ * Only showtimes that started within the last day are loaded, since older
+ * ones cannot still hold the screen; the rare overlap check reaching further
+ * back reads that stretch from the database. Loads and updates of a screen go
+ * through the map's per-key compute, so an update committed during a reload
+ * lands on the reloaded schedule. Overlap and next-free-slot queries are a
+ * logarithmic seek plus a scan of the few slots starting within one slot
+ * length of the probe.
+ */
+@Component
+public class ScreenTimeline {
+
+    private static final Logger log = LoggerFactory.getLogger(ScreenTimeline.class);
+
+    // Suggested start times are rounded up to this many minutes
+    private static final int START_GRANULARITY_MINUTES = 5;
+    // Longer than any show plus cleaning: a showtime that started this long ago has ended
+    private static final Duration LONGEST_SHOW = Duration.ofHours(12);
+    // Loaded slots reach back twice that, so checks of the recent past also stay in memory
+    private static final Duration LOAD_WINDOW = LONGEST_SHOW.multipliedBy(2);
+
+    @Autowired
+    private ShowtimeRepository showtimeRepository;
+
+    @Autowired
+    private ReferenceDataLoader referenceDataLoader;
+
+    private final Duration cleaningBuffer;
+    private final Duration defaultRunTime;
+    private final long reloadAfterMillis;
+    private final int openingHour;
+    private final int closingHour;
+
+    private final Map<String, Schedule> schedules = new ConcurrentHashMap<>();
+
+    public ScreenTimeline(
+            @Value("${showtime.schedule.cleaning-buffer-minutes:30}") long cleaningBufferMinutes,
+            @Value("${showtime.schedule.default-run-time-minutes:150}") long defaultRunTimeMinutes,
+            @Value("${showtime.schedule.reload-after-seconds:60}") long reloadAfterSeconds,
+            @Value("${showtime.schedule.opening-hour:9}") int openingHour,
+            @Value("${showtime.schedule.closing-hour:24}") int closingHour) {
+        this.cleaningBuffer = Duration.ofMinutes(cleaningBufferMinutes);
+        this.defaultRunTime = Duration.ofMinutes(defaultRunTimeMinutes);
+        this.reloadAfterMillis = reloadAfterSeconds * 1000;
+        this.openingHour = openingHour;
+        this.closingHour = closingHour;
+    }
+
+    /**
+     * How long a show of the movie keeps its screen, cleaning included.
+     */
+    public Duration occupancy(String movieId) {
+        return runTime(movieId).plus(cleaningBuffer);
+    }
+
+    public Duration runTime(String movieId) {
+        if (movieId == null) {
+            return defaultRunTime;
+        }
+        return runTimes(Set.of(movieId)).getOrDefault(movieId, defaultRunTime);
+    }
+
+    /**
+     * Whether any showtime other than {@code excludeShowtimeId} occupies the
+     * screen somewhere in [start, end).
+     */
+    public boolean overlaps(String screenId, LocalDateTime start, LocalDateTime end, String excludeShowtimeId) {
+        Schedule schedule = schedule(screenId);
+        if (start.isBefore(schedule.loadedFrom.plus(LONGEST_SHOW))) {
+            // Slots that started before the loaded window could still reach this far
+            LocalDateTime from = start.minus(LONGEST_SHOW);
+            schedule = build(showtimeRepository.findByScreenAndShowDateTimeBetween(screenId, from, end), from);
+        }
+        return schedule.overlaps(start, end, excludeShowtimeId);
+    }
+
+    /**
+     * Locks the screen's recent and upcoming showtimes until the surrounding
+     * transaction ends and reloads the screen from them, so the overlap
+     * checks that follow see every showtime committed before the lock was
+     * granted and other locking writers of the screen wait for this one.
+     */
+    public void lock(String screenId) {
+        LocalDateTime from = LocalDateTime.now().minus(LOAD_WINDOW);
+        Schedule schedule = build(showtimeRepository.findByScreenAfterForUpdate(screenId, from), from);
+        schedules.compute(screenId, (key, current) -> schedule);
+    }
+
+    /**
+     * The earliest start at or after {@code after}, on the start granularity,
+     * from which the screen is free for {@code length}, or null when no such
+     * start lets the slot finish by {@code until}.
+     */
+    public LocalDateTime nextFreeSlot(String screenId, LocalDateTime after, Duration length, LocalDateTime until) {
+        return schedule(screenId).nextFree(after, length, until);
+    }
+
+    /**
+     * Back-to-back free starts for a slot of {@code length} within opening
+     * hours on each day from {@code from} to {@code to}, skipping the past,
+     * at most {@code limit} in all.
+     */
+    public List<LocalDateTime> freeSlots(String screenId, LocalDate from, LocalDate to, Duration length, int limit) {
+        Schedule schedule = schedule(screenId);
+        LocalDateTime now = LocalDateTime.now();
+        List<LocalDateTime> starts = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to) && starts.size() < limit; day = day.plusDays(1)) {
+            LocalDateTime cursor = day.atStartOfDay().plusHours(openingHour);
+            LocalDateTime closing = day.atStartOfDay().plusHours(closingHour);
+            if (cursor.isBefore(now)) {
+                cursor = now;
+            }
+            while (starts.size() < limit) {
+                LocalDateTime start = schedule.nextFree(cursor, length, closing);
+                if (start == null) {
+                    break;
+                }
+                starts.add(start);
+                cursor = start.plus(length);
+            }
+        }
+        return starts;
+    }
+
+    /**
+     * Records a saved showtime once the surrounding transaction commits,
+     * moving it off any screen it used to be on. Cancelled showtimes free
+     * their screen.
+     */
+    public void showtimeSaved(Showtime showtime) {
+        String id = showtime.getId();
+        String screenId = showtime.getScreen();
+        String movieId = showtime.getMovieId();
+        LocalDateTime start = showtime.getShowDateTime();
+        boolean occupies = showtime.getStatus() != Showtime.ShowStatus.CANCELLED;
+        afterCommit(() -> {
+            removeEverywhere(id);
+            if (occupies && start != null) {
+                Slot slot = new Slot(id, start, start.plus(occupancy(movieId)));
+                schedules.computeIfPresent(screenId, (key, schedule) -> {
+                    schedule.add(slot);
+                    return schedule;
+                });
+            }
+        });
+    }
+
+    public void showtimeRemoved(String showtimeId) {
+        afterCommit(() -> removeEverywhere(showtimeId));
+    }
+
+    /**
+     * Drops every loaded screen, e.g. after a movie's duration may have
+     * changed. Screens are reloaded on next use.
+     */
+    public void evictAll() {
+        schedules.clear();
+    }
+
+    private Schedule schedule(String screenId) {
+        Schedule schedule = schedules.get(screenId);
+        if (schedule != null && !isStale(schedule)) {
+            return schedule;
+        }
+        return schedules.compute(screenId, (key, current) -> current == null || isStale(current)
+                ? load(key) : current);
+    }
+
+    private boolean isStale(Schedule schedule) {
+        return System.currentTimeMillis() - schedule.loadedAt >= reloadAfterMillis;
+    }
+
+    // Waits out a reload of the same screen, so the removal lands on what it loaded
+    private void removeEverywhere(String showtimeId) {
+        for (String screenId : schedules.keySet()) {
+            schedules.computeIfPresent(screenId, (key, schedule) -> {
+                schedule.remove(showtimeId);
+                return schedule;
+            });
+        }
+    }
+
+    private Schedule load(String screenId) {
+        LocalDateTime from = LocalDateTime.now().minus(LOAD_WINDOW);
+        Schedule schedule = build(showtimeRepository.findByScreenAndShowDateTimeAfter(screenId, from), from);
+        log.debug("Loaded {} showtimes for screen {}", schedule.byId.size(), screenId);
+        return schedule;
+    }
+
+    private Schedule build(List<Showtime> candidates, LocalDateTime from) {
+        List<Showtime> showtimes = new ArrayList<>();
+        for (Showtime showtime : candidates) {
+            if (showtime.getStatus() != Showtime.ShowStatus.CANCELLED && showtime.getShowDateTime() != null) {
+                showtimes.add(showtime);
+            }
+        }
+        Set<String> movieIds = new HashSet<>();
+        showtimes.forEach(showtime -> movieIds.add(showtime.getMovieId()));
+        Map<String, Duration> runTimes = runTimes(movieIds);
+
+        Schedule schedule = new Schedule(System.currentTimeMillis(), from);
+        for (Showtime showtime : showtimes) {
+            Duration length = runTimes.getOrDefault(showtime.getMovieId(), defaultRunTime).plus(cleaningBuffer);
+            schedule.add(new Slot(showtime.getId(), showtime.getShowDateTime(), showtime.getShowDateTime().plus(length)));
+        }
+        return schedule;
+    }
+
+    private Map<String, Duration> runTimes(Set<String> movieIds) {
+        Map<String, Duration> runTimes = new HashMap<>();
+        Set<String> ids = new HashSet<>(movieIds);
+        ids.remove(null);
+        if (ids.isEmpty()) {
+            return runTimes;
+        }
+        for (Map.Entry<String, ShowtimeResponse.MovieSummary> entry : referenceDataLoader.movies(ids).entrySet()) {
+            Integer minutes = entry.getValue().getDuration();
+            if (minutes != null && minutes > 0) {
+                runTimes.put(entry.getKey(), Duration.ofMinutes(minutes));
+            }
+        }
+        return runTimes;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static LocalDateTime roundUp(LocalDateTime time) {
+        LocalDateTime minute = time.truncatedTo(ChronoUnit.MINUTES);
+        if (minute.isBefore(time)) {
+            minute = minute.plusMinutes(1);
+        }
+        int remainder = minute.getMinute() % START_GRANULARITY_MINUTES;
+        return remainder == 0 ? minute : minute.plusMinutes(START_GRANULARITY_MINUTES - remainder);
+    }
+
+    private static class Slot {
+        private static final Comparator<Slot> ORDER =
+                Comparator.comparing((Slot slot) -> slot.start).thenComparing(slot -> slot.showtimeId);
+
+        private final String showtimeId;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+
+        Slot(String showtimeId, LocalDateTime start, LocalDateTime end) {
+            this.showtimeId = showtimeId;
+            this.start = start;
+            this.end = end;
+        }
+
+        // Sorts before every real slot starting at the same time
+        static Slot probe(LocalDateTime time) {
+            return new Slot("", time, time);
+        }
+    }
+
+    /**
+     * One screen's slots ordered by start. Slots may overlap where older
+     * showtimes were booked closer together, so lookups scan back by the
+     * longest slot seen rather than just to the preceding one.
+     */
+    private static class Schedule {
+        private final long loadedAt;
+        // Showtimes starting before this were not loaded
+        private final LocalDateTime loadedFrom;
+        private final TreeSet<Slot> slots = new TreeSet<>(Slot.ORDER);
+        private final Map<String, Slot> byId = new HashMap<>();
+        private Duration longest = Duration.ZERO;
+
+        Schedule(long loadedAt, LocalDateTime loadedFrom) {
+            this.loadedAt = loadedAt;
+            this.loadedFrom = loadedFrom;
+        }
+
+        synchronized void add(Slot slot) {
+            remove(slot.showtimeId);
+            slots.add(slot);
+            byId.put(slot.showtimeId, slot);
+            Duration length = Duration.between(slot.start, slot.end);
+            if (length.compareTo(longest) > 0) {
+                longest = length;
+            }
+        }
+
+        synchronized void remove(String showtimeId) {
+            Slot slot = byId.remove(showtimeId);
+            if (slot != null) {
+                slots.remove(slot);
+            }
+        }
+
+        synchronized boolean overlaps(LocalDateTime start, LocalDateTime end, String excludeShowtimeId) {
+            for (Slot slot : slots.subSet(Slot.probe(start.minus(longest)), true, Slot.probe(end), false)) {
+                if (slot.end.isAfter(start) && !slot.showtimeId.equals(excludeShowtimeId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Slots are visited by start; each one in the way pushes the candidate past its end
+        synchronized LocalDateTime nextFree(LocalDateTime after, Duration length, LocalDateTime until) {
+            LocalDateTime candidate = roundUp(after);
+            for (Slot slot : slots.tailSet(Slot.probe(after.minus(longest)), true)) {
+                if (candidate.plus(length).isAfter(until) || !slot.start.isBefore(candidate.plus(length))) {
+                    break;
+                }
+                if (slot.end.isAfter(candidate)) {
+                    candidate = roundUp(slot.end);
+                }
+            }
+            return candidate.plus(length).isAfter(until) ? null : candidate;
+        }
+    }
+}
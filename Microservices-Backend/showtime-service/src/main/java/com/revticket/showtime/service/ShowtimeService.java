@@ -1,73 +1,82 @@
 package com.revticket.showtime.service;
 
 import com.revticket.showtime.client.BookingServiceClient;
-import com.revticket.showtime.client.MovieServiceClient;
-import com.revticket.showtime.client.TheaterServiceClient;
+import com.revticket.showtime.dto.FreeSlot;
 import com.revticket.showtime.dto.ShowtimeRequest;
 import com.revticket.showtime.dto.ShowtimeResponse;
 import com.revticket.showtime.dto.ShowtimeStatsResponse;
 import com.revticket.showtime.entity.Showtime;
 import com.revticket.showtime.repository.ShowtimeRepository;
+import com.revticket.showtime.util.JwtUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @Service
 public class ShowtimeService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ShowtimeService.class);
+
+    public static final int MAX_BATCH_SIZE = 500;
+    public static final int MAX_SUGGESTION_DAYS = 31;
+
     @Autowired
     private ShowtimeRepository showtimeRepository;
     
     @Autowired
-    private TheaterServiceClient theaterServiceClient;
-    
+    private BookingServiceClient bookingServiceClient;
+
     @Autowired
-    private MovieServiceClient movieServiceClient;
-    
+    private ReferenceDataLoader referenceDataLoader;
+
     @Autowired
-    private BookingServiceClient bookingServiceClient;
+    private ScreenTimeline screenTimeline;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JwtUtil jwtUtil;
 
     @Transactional(readOnly = true)
     public List<ShowtimeResponse> getAllShowtimes() {
-        return showtimeRepository.findAllByOrderByShowDateTimeAsc()
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return mapAll(showtimeRepository.findAllByOrderByShowDateTimeAsc());
     }
 
     @Transactional(readOnly = true)
     public List<ShowtimeResponse> getShowtimesByMovie(String movieId) {
-        return showtimeRepository.findByMovieId(movieId)
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return mapAll(showtimeRepository.findByMovieId(movieId));
     }
 
     @Transactional(readOnly = true)
     public List<ShowtimeResponse> getShowtimesByTheater(String theaterId) {
-        return showtimeRepository.findByTheaterId(theaterId)
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return mapAll(showtimeRepository.findByTheaterId(theaterId));
     }
 
     @Transactional(readOnly = true)
     public List<ShowtimeResponse> getShowtimesByMovieAndDate(String movieId, LocalDate date) {
         LocalDateTime start = date.atStartOfDay();
         LocalDateTime end = date.atTime(LocalTime.MAX);
-        return showtimeRepository.findByMovieIdAndShowDateBetween(movieId, start, end)
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return mapAll(showtimeRepository.findByMovieIdAndShowDateBetween(movieId, start, end));
     }
 
     @Transactional(readOnly = true)
@@ -92,9 +101,7 @@ public class ShowtimeService {
             showtimes = showtimeRepository.findAllByOrderByShowDateTimeAsc();
         }
         
-        return showtimes.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return mapAll(showtimes);
     }
 
     @Transactional(readOnly = true)
@@ -102,11 +109,30 @@ public class ShowtimeService {
         return showtimeRepository.findById(id).map(this::mapToResponse);
     }
 
+    /**
+     * Showtimes for up to {@link #MAX_BATCH_SIZE} ids in one query, with or
+     * without their movie, theater and screen summaries. Unknown ids are left
+     * out of the result.
+     */
+    @Transactional(readOnly = true)
+    public List<ShowtimeResponse> getShowtimesByIds(Collection<String> ids, boolean enrich) {
+        Set<String> distinct = new LinkedHashSet<>(ids);
+        distinct.remove(null);
+        if (distinct.size() > MAX_BATCH_SIZE) {
+            throw new RuntimeException("At most " + MAX_BATCH_SIZE + " ids per batch");
+        }
+        if (distinct.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return mapAll(showtimeRepository.findAllById(distinct), enrich);
+    }
+
     @Transactional
     public ShowtimeResponse createShowtime(ShowtimeRequest request) {
         Showtime showtime = new Showtime();
         applyRequest(showtime, request, true);
         Showtime saved = showtimeRepository.save(showtime);
+        screenTimeline.showtimeSaved(saved);
         
         // Initialize seats for the new showtime
         try {
@@ -127,7 +153,9 @@ public class ShowtimeService {
         Showtime showtime = showtimeRepository.findById(Objects.requireNonNullElse(id, ""))
                 .orElseThrow(() -> new RuntimeException("Showtime not found"));
         applyRequest(showtime, request, false);
-        return mapToResponse(showtimeRepository.save(showtime));
+        Showtime saved = showtimeRepository.save(showtime);
+        screenTimeline.showtimeSaved(saved);
+        return mapToResponse(saved);
     }
 
     @Transactional
@@ -135,6 +163,7 @@ public class ShowtimeService {
         Showtime showtime = showtimeRepository.findById(Objects.requireNonNullElse(id, ""))
                 .orElseThrow(() -> new RuntimeException("Showtime not found"));
         showtimeRepository.delete(showtime);
+        screenTimeline.showtimeRemoved(showtime.getId());
     }
 
     @Transactional
@@ -142,13 +171,78 @@ public class ShowtimeService {
         Showtime showtime = showtimeRepository.findById(Objects.requireNonNullElse(id, ""))
                 .orElseThrow(() -> new RuntimeException("Showtime not found"));
         
+        boolean cancelling = false;
         if (showtime.getStatus() == Showtime.ShowStatus.ACTIVE) {
             showtime.setStatus(Showtime.ShowStatus.CANCELLED);
+            cancelling = true;
         } else if (showtime.getStatus() == Showtime.ShowStatus.CANCELLED) {
             showtime.setStatus(Showtime.ShowStatus.ACTIVE);
         }
-        
-        return mapToResponse(showtimeRepository.save(showtime));
+        // Cancel and refund the show's bookings; booking-service runs this as a resumable job
+        showtime.setBookingsCancelPending(cancelling && !requestBookingCancellation(showtime));
+
+        Showtime saved = showtimeRepository.save(showtime);
+        screenTimeline.showtimeSaved(saved);
+        return mapToResponse(saved);
+    }
+
+    /**
+     * Asks booking-service again to cancel the bookings of cancelled shows
+     * whose earlier request failed. Starting the same showtime's job twice
+     * is harmless, so instances may overlap here.
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void retryBookingCancellations() {
+        for (Showtime showtime : showtimeRepository.findByStatusAndBookingsCancelPendingTrue(
+                Showtime.ShowStatus.CANCELLED)) {
+            if (requestBookingCancellation(showtime)) {
+                showtime.setBookingsCancelPending(false);
+                showtimeRepository.save(showtime);
+            }
+        }
+    }
+
+    private boolean requestBookingCancellation(Showtime showtime) {
+        try {
+            bookingServiceClient.startBulkCancellation(Map.of(
+                    "showtimeId", showtime.getId(),
+                    "reason", "Show cancelled by the theater"), jwtUtil.serviceAuthorization());
+            return true;
+        } catch (Exception e) {
+            logger.warn("Could not start cancelling bookings of showtime {}, will retry: {}", showtime.getId(),
+                    e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Writes live seat counts pushed by booking-service to
+     * {@code available_seats} in one batched update, capped at each
+     * showtime's total. Rows without a showtime id or count are skipped.
+     * Returns how many showtimes were updated.
+     */
+    @Transactional
+    public int updateAvailability(List<Map<String, Object>> updates) {
+        if (updates.size() > MAX_BATCH_SIZE) {
+            throw new RuntimeException("At most " + MAX_BATCH_SIZE + " updates per batch");
+        }
+        List<Object[]> rows = new ArrayList<>(updates.size());
+        for (Map<String, Object> update : updates) {
+            Object showtimeId = update.get("showtimeId");
+            Object available = update.get("availableSeats");
+            if (showtimeId != null && available instanceof Number) {
+                rows.add(new Object[] { Math.max(0, ((Number) available).intValue()), showtimeId.toString() });
+            }
+        }
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        int updated = 0;
+        for (int count : jdbcTemplate.batchUpdate(
+                "UPDATE showtimes SET available_seats = LEAST(?, total_seats) WHERE id = ?", rows)) {
+            updated += Math.max(count, 0);
+        }
+        return updated;
     }
 
     private void applyRequest(Showtime showtime, ShowtimeRequest request, boolean isCreate) {
@@ -189,62 +283,85 @@ public class ShowtimeService {
     }
 
     public boolean checkShowtimeConflict(String screenId, LocalDateTime showDateTime, String excludeShowId) {
-        LocalDateTime startWindow = showDateTime.minusHours(3);
-        LocalDateTime endWindow = showDateTime.plusHours(3);
-        
-        List<Showtime> conflictingShows = showtimeRepository.findByScreenAndShowDateTimeBetween(
-                screenId, startWindow, endWindow);
-        
-        if (excludeShowId != null) {
-            conflictingShows = conflictingShows.stream()
-                    .filter(show -> !show.getId().equals(excludeShowId))
-                    .collect(Collectors.toList());
-        }
-        
-        return !conflictingShows.isEmpty();
+        return checkShowtimeConflict(screenId, showDateTime, excludeShowId, null);
     }
 
-    private ShowtimeResponse mapToResponse(Showtime showtime) {
-        ShowtimeResponse.MovieSummary movie = null;
-        ShowtimeResponse.TheaterSummary theater = null;
-        ShowtimeResponse.ScreenSummary screenInfo = null;
-        
-        try {
-            var movieData = movieServiceClient.getMovieById(showtime.getMovieId());
-            movie = ShowtimeResponse.MovieSummary.builder()
-                    .id((String) movieData.get("id"))
-                    .title((String) movieData.get("title"))
-                    .language((String) movieData.get("language"))
-                    .posterUrl((String) movieData.get("posterUrl"))
-                    .build();
-        } catch (Exception e) {
-            // Movie service unavailable
+    /**
+     * Whether a show of the movie starting at {@code showDateTime} would
+     * overlap another show on the screen, each occupying it for its movie's
+     * duration plus the cleaning buffer. Without a movie the default run
+     * time is assumed.
+     */
+    public boolean checkShowtimeConflict(String screenId, LocalDateTime showDateTime, String excludeShowId,
+            String movieId) {
+        LocalDateTime end = showDateTime.plus(screenTimeline.occupancy(movieId));
+        return screenTimeline.overlaps(screenId, showDateTime, end, excludeShowId);
+    }
+
+    /**
+     * Free start times for a show of the movie on the screen, back to back
+     * within opening hours from {@code from} to {@code to}.
+     */
+    public List<FreeSlot> suggestFreeSlots(String screenId, String movieId, LocalDate from, LocalDate to, int limit) {
+        if (to.isBefore(from)) {
+            throw new RuntimeException("'to' must not be before 'from'");
         }
-        
-        try {
-            var theaterData = theaterServiceClient.getTheaterById(showtime.getTheaterId());
-            theater = ShowtimeResponse.TheaterSummary.builder()
-                    .id((String) theaterData.get("id"))
-                    .name((String) theaterData.get("name"))
-                    .location((String) theaterData.get("location"))
-                    .build();
-        } catch (Exception e) {
-            // Theater service unavailable
+        if (from.plusDays(MAX_SUGGESTION_DAYS).isBefore(to)) {
+            throw new RuntimeException("At most " + MAX_SUGGESTION_DAYS + " days per suggestion");
         }
-        
-        try {
-            if (showtime.getScreen() != null) {
-                var screenData = theaterServiceClient.getScreenById(showtime.getScreen());
-                screenInfo = ShowtimeResponse.ScreenSummary.builder()
-                        .id((String) screenData.get("id"))
-                        .name((String) screenData.get("name"))
-                        .totalSeats((Integer) screenData.get("totalSeats"))
-                        .build();
+        Duration runTime = screenTimeline.runTime(movieId);
+        List<FreeSlot> slots = new ArrayList<>();
+        for (LocalDateTime start : screenTimeline.freeSlots(screenId, from, to, screenTimeline.occupancy(movieId), limit)) {
+            slots.add(FreeSlot.builder()
+                    .screenId(screenId)
+                    .startTime(start)
+                    .endTime(start.plus(runTime))
+                    .build());
+        }
+        return slots;
+    }
+
+    private ShowtimeResponse mapToResponse(Showtime showtime) {
+        return mapAll(List.of(showtime)).get(0);
+    }
+
+    private List<ShowtimeResponse> mapAll(List<Showtime> showtimes) {
+        return mapAll(showtimes, true);
+    }
+
+    /**
+     * Maps a list of showtimes with their movie, theater and screen summaries
+     * resolved in one batch lookup per kind. Without {@code enrich} the
+     * summaries are left out.
+     */
+    private List<ShowtimeResponse> mapAll(List<Showtime> showtimes, boolean enrich) {
+        Map<String, ShowtimeResponse.MovieSummary> movies = new HashMap<>();
+        Map<String, ShowtimeResponse.TheaterSummary> theaters = new HashMap<>();
+        Map<String, ShowtimeResponse.ScreenSummary> screens = new HashMap<>();
+        if (enrich && !showtimes.isEmpty()) {
+            Set<String> movieIds = new HashSet<>();
+            Set<String> theaterIds = new HashSet<>();
+            Set<String> screenIds = new HashSet<>();
+            for (Showtime showtime : showtimes) {
+                movieIds.add(showtime.getMovieId());
+                theaterIds.add(showtime.getTheaterId());
+                screenIds.add(showtime.getScreen());
             }
-        } catch (Exception e) {
-            // Screen service unavailable
+            movies = referenceDataLoader.movies(movieIds);
+            theaters = referenceDataLoader.theaters(theaterIds);
+            screens = referenceDataLoader.screens(screenIds);
         }
-        
+
+        List<ShowtimeResponse> responses = new ArrayList<>(showtimes.size());
+        for (Showtime showtime : showtimes) {
+            responses.add(toResponse(showtime, movies.get(showtime.getMovieId()),
+                    theaters.get(showtime.getTheaterId()), screens.get(showtime.getScreen())));
+        }
+        return responses;
+    }
+
+    private static ShowtimeResponse toResponse(Showtime showtime, ShowtimeResponse.MovieSummary movie,
+            ShowtimeResponse.TheaterSummary theater, ShowtimeResponse.ScreenSummary screenInfo) {
         return ShowtimeResponse.builder()
                 .id(showtime.getId())
                 .movieId(showtime.getMovieId())
@@ -22,6 +22,9 @@ public class JwtUtil {
     @Value("${jwt.expiration}")
     private Long expiration;
 
+    @Value("${spring.application.name}")
+    private String serviceName;
+
     private SecretKey getSigningKey() {
         return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
     }
@@ -62,6 +65,11 @@ public class JwtUtil {
         return createToken(claims, username);
     }
 
+    // Authorization header for this service's own calls to other services' service-only endpoints
+    public String serviceAuthorization() {
+        return "Bearer " + generateToken(serviceName, "SERVICE");
+    }
+
     // Create token (works on JJWT 0.12.x)
     private String createToken(Map<String, Object> claims, String subject) {
         return Jwts.builder()
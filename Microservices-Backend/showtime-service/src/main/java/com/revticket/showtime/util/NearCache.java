@@ -0,0 +1,179 @@
+package com.revticket.showtime.util;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded local cache for reference data owned by another service. Entries
+ * older than {@code refreshAfterMillis} are still served while a background
+ * batch reloads them; entries older than {@code expireAfterMillis} are
+ * reloaded before they are served. When a load fails, the last known value
+ * is served instead, however old. Past {@code maxSize} entries the least
+ * recently used one is dropped. {@link #invalidate} drops an entry, and a
+ * load that started before the invalidation does not put it back.
+ */
+public class NearCache<K, V> {
+
+    private final int maxSize;
+    private final long refreshAfterMillis;
+    private final long expireAfterMillis;
+    private final Executor refresher;
+
+    // Access-ordered, so lookups keep an entry away from eviction
+    private final Map<K, Entry<V>> entries;
+    private final Set<K> refreshing = ConcurrentHashMap.newKeySet();
+    private final Map<K, Long> invalidatedAt = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong staleServes = new AtomicLong();
+
+    public NearCache(int maxSize, long refreshAfterMillis, long expireAfterMillis, Executor refresher) {
+        this.maxSize = maxSize;
+        this.refreshAfterMillis = refreshAfterMillis;
+        this.expireAfterMillis = expireAfterMillis;
+        this.refresher = refresher;
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxSize;
+            }
+        });
+    }
+
+    public Map<K, V> getAll(Collection<K> keys, Function<Set<K>, Map<K, V>> loader) {
+        long now = System.currentTimeMillis();
+        Map<K, V> result = new HashMap<>();
+        Set<K> missing = new LinkedHashSet<>();
+        Set<K> stale = new LinkedHashSet<>();
+
+        for (K key : new LinkedHashSet<>(keys)) {
+            if (key == null) {
+                continue;
+            }
+            Entry<V> entry = entries.get(key);
+            if (entry != null && now - entry.loadedAt < expireAfterMillis) {
+                hits.incrementAndGet();
+                result.put(key, entry.value);
+                if (now - entry.loadedAt >= refreshAfterMillis && refreshing.add(key)) {
+                    stale.add(key);
+                }
+            } else {
+                misses.incrementAndGet();
+                missing.add(key);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            Map<K, V> loaded = load(missing, loader);
+            for (K key : missing) {
+                if (loaded != null && loaded.get(key) != null) {
+                    result.put(key, loaded.get(key));
+                } else if (loaded == null) {
+                    Entry<V> last = entries.get(key);
+                    if (last != null) {
+                        staleServes.incrementAndGet();
+                        result.put(key, last.value);
+                    }
+                }
+            }
+        }
+
+        if (!stale.isEmpty()) {
+            try {
+                refresher.execute(() -> {
+                    try {
+                        load(stale, loader);
+                    } finally {
+                        refreshing.removeAll(stale);
+                    }
+                });
+            } catch (RuntimeException e) {
+                refreshing.removeAll(stale);
+            }
+        }
+        return result;
+    }
+
+    public void invalidate(K key) {
+        if (invalidatedAt.size() >= maxSize) {
+            // Only guards loads in flight, so old marks can go
+            invalidatedAt.clear();
+        }
+        invalidatedAt.put(key, System.nanoTime());
+        entries.remove(key);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    public long staleServes() {
+        return staleServes.get();
+    }
+
+    public double hitRatio() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0.0 : (double) hits.get() / total;
+    }
+
+    /**
+     * Loads {@code keys} and stores the answers. Keys the owner no longer
+     * knows are dropped. Returns null when the load failed, leaving the
+     * entries as they were.
+     */
+    private Map<K, V> load(Set<K> keys, Function<Set<K>, Map<K, V>> loader) {
+        long started = System.nanoTime();
+        Map<K, V> loaded;
+        try {
+            loaded = loader.apply(keys);
+        } catch (RuntimeException e) {
+            return null;
+        }
+        if (loaded == null) {
+            loaded = Map.of();
+        }
+        long loadedAt = System.currentTimeMillis();
+        for (K key : keys) {
+            Long invalidated = invalidatedAt.get(key);
+            if (invalidated != null && invalidated - started > 0) {
+                continue;
+            }
+            invalidatedAt.remove(key);
+            V value = loaded.get(key);
+            if (value != null) {
+                entries.put(key, new Entry<>(value, loadedAt));
+            } else {
+                entries.remove(key);
+            }
+        }
+        return loaded;
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final long loadedAt;
+
+        Entry(V value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.revticket.showtime.service;
+
+import com.revticket.showtime.client.BookingServiceClient;
+import com.revticket.showtime.dto.ShowtimeResponse;
+import com.revticket.showtime.entity.ScheduleJob;
+import com.revticket.showtime.entity.ScheduleSlot;
+import com.revticket.showtime.entity.Showtime;
+import com.revticket.showtime.repository.ScheduleJobRepository;
+import com.revticket.showtime.repository.ShowtimeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ScheduleServiceTest {
+
+    @Mock
+    private ScheduleJobRepository jobRepository;
+
+    @Mock
+    private ShowtimeRepository showtimeRepository;
+
+    @Mock
+    private ScreenTimeline screenTimeline;
+
+    @Mock
+    private ReferenceDataLoader referenceDataLoader;
+
+    @Mock
+    private BookingServiceClient bookingServiceClient;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ScheduleService service;
+
+    private final LocalDate monday = LocalDate.now().plusWeeks(1).with(DayOfWeek.MONDAY);
+
+    @BeforeEach
+    void setUp() {
+        service = new ScheduleService(transactionManager);
+        ReflectionTestUtils.setField(service, "jobRepository", jobRepository);
+        ReflectionTestUtils.setField(service, "showtimeRepository", showtimeRepository);
+        ReflectionTestUtils.setField(service, "screenTimeline", screenTimeline);
+        ReflectionTestUtils.setField(service, "referenceDataLoader", referenceDataLoader);
+        ReflectionTestUtils.setField(service, "bookingServiceClient", bookingServiceClient);
+    }
+
+    private Map<String, Object> request() {
+        Map<String, Object> request = new HashMap<>();
+        request.put("movieId", "movie1");
+        request.put("theaterId", "theater1");
+        request.put("screens", List.of("screen1", "screen2"));
+        request.put("days", List.of("MONDAY", "TUESDAY"));
+        request.put("times", List.of("18:00", "10:00", "12:00"));
+        request.put("from", monday.toString());
+        request.put("to", monday.plusDays(6).toString());
+        request.put("ticketPrice", 250.0);
+        return request;
+    }
+
+    @Test
+    void testScheduleInsertsAcceptedSlotsInOneBatch() {
+        when(referenceDataLoader.screens(anyCollection())).thenReturn(Map.of(
+                "screen1", ShowtimeResponse.ScreenSummary.builder().id("screen1").totalSeats(120).build()));
+        when(screenTimeline.occupancy("movie1")).thenReturn(Duration.ofMinutes(150));
+        // An existing show blocks Monday 18:00 on screen1
+        when(screenTimeline.overlaps(anyString(), any(), any(), eq(null))).thenAnswer(invocation ->
+                "screen1".equals(invocation.getArgument(0))
+                        && monday.atTime(18, 0).equals(invocation.getArgument(1)));
+        when(showtimeRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Showtime> showtimes = invocation.getArgument(0);
+            for (int i = 0; i < showtimes.size(); i++) {
+                showtimes.get(i).setId("st" + i);
+            }
+            return showtimes;
+        });
+        when(jobRepository.save(any(ScheduleJob.class))).thenAnswer(invocation -> {
+            ScheduleJob job = invocation.getArgument(0);
+            job.setId("job1");
+            return job;
+        });
+        lenient().when(jobRepository.findById("job1")).thenReturn(Optional.empty());
+
+        Map<String, Object> status = service.schedule(request());
+
+        // 10:00 and 12:00 overlap each other with a 150 minute show, so 12:00 is refused on both screens
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Showtime>> saved = ArgumentCaptor.forClass(List.class);
+        verify(showtimeRepository, times(1)).saveAll(saved.capture());
+        assertEquals(3, saved.getValue().size());
+        assertTrue(saved.getValue().stream().allMatch(s -> s.getTotalSeats() == 120 && "screen1".equals(s.getScreen())));
+        verify(screenTimeline, times(3)).showtimeSaved(any(Showtime.class));
+        verify(screenTimeline).lock("screen1");
+        verify(screenTimeline).lock("screen2");
+
+        assertEquals("job1", status.get("jobId"));
+        assertEquals(12, status.get("total"));
+        assertEquals(3, status.get("created"));
+        assertEquals(9, status.get("rejected"));
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> slots = (List<Map<String, Object>>) status.get("slots");
+        assertEquals(ScheduleSlot.Result.CREATED, slots.get(0).get("result"));
+        assertEquals("st0", slots.get(0).get("showtimeId"));
+        assertEquals(ScheduleSlot.Result.CONFLICT, slots.get(1).get("result"));
+        assertEquals(ScheduleSlot.Result.CONFLICT, slots.get(2).get("result"));
+        assertEquals(ScheduleSlot.Result.REJECTED, slots.get(6).get("result"));
+    }
+
+    @Test
+    void testRunInitializesSeatsInChunksAndCompletes() {
+        ScheduleJob job = new ScheduleJob();
+        job.setId("job1");
+        job.setCreated(ScheduleService.SEAT_CHUNK_SIZE + 1);
+        List<ScheduleSlot> slots = new ArrayList<>();
+        for (int i = 0; i <= ScheduleService.SEAT_CHUNK_SIZE; i++) {
+            ScheduleSlot slot = new ScheduleSlot("screen1", LocalDateTime.now().plusDays(1).plusHours(i));
+            slot.setResult(ScheduleSlot.Result.CREATED);
+            slot.setShowtimeId("st" + i);
+            slot.setSeatsInitialized(i == 0);
+            slots.add(slot);
+        }
+        job.setSlots(slots);
+        when(jobRepository.findById("job1")).thenReturn(Optional.of(job));
+
+        service.run("job1");
+
+        verify(bookingServiceClient, times(1)).initializeSeatsBatch(argThat(request ->
+                ((List<?>) request.get("showtimes")).size() == ScheduleService.SEAT_CHUNK_SIZE));
+        assertEquals(ScheduleJob.Status.COMPLETED, job.getStatus());
+        assertEquals(ScheduleService.SEAT_CHUNK_SIZE, job.getSeatsInitialized());
+        assertTrue(job.getSlots().stream().allMatch(ScheduleSlot::isSeatsInitialized));
+    }
+
+    @Test
+    void testRejectsOversizedRecurrence() {
+        Map<String, Object> request = request();
+        request.remove("days");
+        request.put("times", List.of("09:00", "13:00", "17:00", "21:00"));
+        request.put("to", monday.plusDays(30).toString());
+        List<String> screens = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            screens.add("screen" + i);
+        }
+        request.put("screens", screens);
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> service.schedule(request));
+        assertTrue(error.getMessage().contains("At most " + ScheduleService.MAX_SLOTS));
+
+        request.put("screens", List.of("screen1"));
+        request.put("to", monday.plusDays(ScheduleService.MAX_DAYS).toString());
+        error = assertThrows(RuntimeException.class, () -> service.schedule(request));
+        assertTrue(error.getMessage().contains("At most " + ScheduleService.MAX_DAYS + " days"));
+        verifyNoInteractions(showtimeRepository);
+    }
+}
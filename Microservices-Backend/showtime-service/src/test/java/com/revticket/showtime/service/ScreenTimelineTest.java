@@ -0,0 +1,135 @@
+package com.revticket.showtime.service;
+
+import com.revticket.showtime.client.MovieServiceClient;
+import com.revticket.showtime.client.TheaterServiceClient;
+import com.revticket.showtime.entity.Showtime;
+import com.revticket.showtime.repository.ShowtimeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ScreenTimelineTest {
+
+        @Mock
+        private ShowtimeRepository showtimeRepository;
+
+        @Mock
+        private MovieServiceClient movieServiceClient;
+
+        @Mock
+        private TheaterServiceClient theaterServiceClient;
+
+        private ScreenTimeline screenTimeline;
+
+        private final LocalDate day = LocalDate.now().plusDays(7);
+
+        @BeforeEach
+        void setUp() {
+                ReferenceDataLoader referenceDataLoader = new ReferenceDataLoader(new SimpleMeterRegistry());
+                ReflectionTestUtils.setField(referenceDataLoader, "movieServiceClient", movieServiceClient);
+                ReflectionTestUtils.setField(referenceDataLoader, "theaterServiceClient", theaterServiceClient);
+
+                screenTimeline = new ScreenTimeline(30, 150, 60, 9, 24);
+                ReflectionTestUtils.setField(screenTimeline, "showtimeRepository", showtimeRepository);
+                ReflectionTestUtils.setField(screenTimeline, "referenceDataLoader", referenceDataLoader);
+
+                lenient().when(movieServiceClient.getMoviesByIds(anyList())).thenReturn(List.of(
+                                Map.of("id", "short", "duration", 90),
+                                Map.of("id", "long", "duration", 200)));
+        }
+
+        @Test
+        void testOverlapUsesMovieDurationAndCleaningBuffer() {
+                // 10:00 short film: occupied until 12:00; 18:00 long film: occupied until 21:50
+                when(showtimeRepository.findByScreenAndShowDateTimeAfter(eq("screen1"), any())).thenReturn(List.of(
+                                showtime("a", "short", day.atTime(10, 0), Showtime.ShowStatus.ACTIVE),
+                                showtime("b", "long", day.atTime(18, 0), Showtime.ShowStatus.ACTIVE),
+                                showtime("c", "long", day.atTime(13, 0), Showtime.ShowStatus.CANCELLED)));
+
+                assertTrue(screenTimeline.overlaps("screen1", day.atTime(11, 30), day.atTime(12, 30), null));
+                assertFalse(screenTimeline.overlaps("screen1", day.atTime(12, 0), day.atTime(15, 0), null));
+                assertTrue(screenTimeline.overlaps("screen1", day.atTime(21, 0), day.atTime(23, 0), null));
+                assertFalse(screenTimeline.overlaps("screen1", day.atTime(21, 0), day.atTime(23, 0), "b"));
+                verify(showtimeRepository, times(1)).findByScreenAndShowDateTimeAfter(eq("screen1"), any());
+        }
+
+        @Test
+        void testNextFreeSlotSkipsPastOccupiedSlots() {
+                when(showtimeRepository.findByScreenAndShowDateTimeAfter(eq("screen1"), any())).thenReturn(List.of(
+                                showtime("a", "short", day.atTime(10, 0), Showtime.ShowStatus.ACTIVE),
+                                showtime("b", "short", day.atTime(12, 30), Showtime.ShowStatus.ACTIVE)));
+
+                Duration length = screenTimeline.occupancy("short");
+
+                assertEquals(day.atTime(14, 30), screenTimeline.nextFreeSlot(
+                                "screen1", day.atTime(10, 30), length, day.atTime(23, 59)));
+                assertNull(screenTimeline.nextFreeSlot("screen1", day.atTime(10, 30), length, day.atTime(15, 0)));
+
+                List<LocalDateTime> slots = screenTimeline.freeSlots("screen1", day, day, length, 10);
+                assertEquals(List.of(day.atTime(14, 30), day.atTime(16, 30), day.atTime(18, 30),
+                                day.atTime(20, 30)), slots);
+        }
+
+        @Test
+        void testSavedAndRemovedShowtimesUpdateLoadedScreen() {
+                when(showtimeRepository.findByScreenAndShowDateTimeAfter(eq("screen1"), any()))
+                                .thenReturn(new ArrayList<>());
+                assertFalse(screenTimeline.overlaps("screen1", day.atTime(10, 0), day.atTime(11, 0), null));
+
+                screenTimeline.showtimeSaved(showtime("a", "short", day.atTime(9, 30), Showtime.ShowStatus.ACTIVE));
+                assertTrue(screenTimeline.overlaps("screen1", day.atTime(10, 0), day.atTime(11, 0), null));
+
+                screenTimeline.showtimeRemoved("a");
+                assertFalse(screenTimeline.overlaps("screen1", day.atTime(10, 0), day.atTime(11, 0), null));
+                verify(showtimeRepository, times(1)).findByScreenAndShowDateTimeAfter(eq("screen1"), any());
+        }
+
+        @Test
+        void testLoadsRecentShowtimesAndReadsOlderStretchesOnDemand() {
+                LocalDateTime now = LocalDateTime.now();
+                when(showtimeRepository.findByScreenAndShowDateTimeAfter(eq("screen1"), any())).thenReturn(List.of());
+                LocalDateTime lastWeek = now.minusDays(7);
+                when(showtimeRepository.findByScreenAndShowDateTimeBetween(eq("screen1"), any(), any()))
+                                .thenReturn(List.of(showtime("old", "short", lastWeek, Showtime.ShowStatus.ACTIVE)));
+
+                assertFalse(screenTimeline.overlaps("screen1", now.plusHours(1), now.plusHours(3), null));
+                assertTrue(screenTimeline.overlaps("screen1", lastWeek.plusHours(1), lastWeek.plusHours(3), null));
+
+                verify(showtimeRepository).findByScreenAndShowDateTimeAfter(eq("screen1"),
+                                argThat(from -> from.isAfter(now.minusDays(2)) && from.isBefore(now)));
+                verify(showtimeRepository, times(1)).findByScreenAndShowDateTimeBetween(eq("screen1"), any(), any());
+                verify(showtimeRepository, never()).findByScreen(any());
+        }
+
+        private static Showtime showtime(String id, String movieId, LocalDateTime start, Showtime.ShowStatus status) {
+                Showtime showtime = new Showtime();
+                showtime.setId(id);
+                showtime.setMovieId(movieId);
+                showtime.setTheaterId("theater1");
+                showtime.setScreen("screen1");
+                showtime.setShowDateTime(start);
+                showtime.setTotalSeats(100);
+                showtime.setAvailableSeats(100);
+                showtime.setStatus(status);
+                return showtime;
+        }
+}
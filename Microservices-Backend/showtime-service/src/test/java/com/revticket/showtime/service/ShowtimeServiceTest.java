@@ -7,21 +7,30 @@ import com.revticket.showtime.dto.ShowtimeRequest;
 import com.revticket.showtime.dto.ShowtimeResponse;
 import com.revticket.showtime.entity.Showtime;
 import com.revticket.showtime.repository.ShowtimeRepository;
+import com.revticket.showtime.util.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,12 +42,18 @@ class ShowtimeServiceTest {
         @Mock
         private MovieServiceClient movieServiceClient;
 
+        @Mock
+        private JdbcTemplate jdbcTemplate;
+
         @Mock
         private TheaterServiceClient theaterServiceClient;
 
         @Mock
         private BookingServiceClient bookingServiceClient;
 
+        @Mock
+        private JwtUtil jwtUtil;
+
         @InjectMocks
         private ShowtimeService showtimeService;
 
@@ -55,6 +70,16 @@ class ShowtimeServiceTest {
                 showtime.setTotalSeats(100);
                 showtime.setAvailableSeats(100);
                 showtime.setStatus(Showtime.ShowStatus.ACTIVE);
+
+                ReferenceDataLoader referenceDataLoader = new ReferenceDataLoader(new SimpleMeterRegistry());
+                ReflectionTestUtils.setField(referenceDataLoader, "movieServiceClient", movieServiceClient);
+                ReflectionTestUtils.setField(referenceDataLoader, "theaterServiceClient", theaterServiceClient);
+                ReflectionTestUtils.setField(showtimeService, "referenceDataLoader", referenceDataLoader);
+
+                ScreenTimeline screenTimeline = new ScreenTimeline(30, 150, 60, 9, 24);
+                ReflectionTestUtils.setField(screenTimeline, "showtimeRepository", showtimeRepository);
+                ReflectionTestUtils.setField(screenTimeline, "referenceDataLoader", referenceDataLoader);
+                ReflectionTestUtils.setField(showtimeService, "screenTimeline", screenTimeline);
         }
 
         @Test
@@ -62,12 +87,12 @@ class ShowtimeServiceTest {
                 when(showtimeRepository.findByMovieId("movie1")).thenReturn(Collections.singletonList(showtime));
 
                 // Mock client responses to avoid NPE in mapping
-                when(movieServiceClient.getMovieById("movie1"))
-                                .thenReturn(Map.of("id", "movie1", "title", "Inception"));
-                when(theaterServiceClient.getTheaterById("theater1"))
-                                .thenReturn(Map.of("id", "theater1", "name", "Grand Cinema"));
-                when(theaterServiceClient.getScreenById("screen1"))
-                                .thenReturn(Map.of("id", "screen1", "name", "Screen 1", "totalSeats", 100));
+                when(movieServiceClient.getMoviesByIds(List.of("movie1")))
+                                .thenReturn(List.of(Map.of("id", "movie1", "title", "Inception")));
+                when(theaterServiceClient.getTheatersByIds(List.of("theater1")))
+                                .thenReturn(List.of(Map.of("id", "theater1", "name", "Grand Cinema")));
+                when(theaterServiceClient.getScreensByIds(List.of("screen1")))
+                                .thenReturn(List.of(Map.of("id", "screen1", "name", "Screen 1", "totalSeats", 100)));
 
                 List<ShowtimeResponse> result = showtimeService.getShowtimesByMovie("movie1");
 
@@ -76,6 +101,32 @@ class ShowtimeServiceTest {
                 assertEquals("Inception", result.get(0).getMovie().getTitle());
         }
 
+        @Test
+        void testGetAllShowtimes_ResolvesSummariesWithOneCallPerKind() {
+                List<Showtime> showtimes = new ArrayList<>();
+                for (int i = 0; i < 200; i++) {
+                        Showtime show = new Showtime();
+                        show.setId("show" + i);
+                        show.setMovieId("movie" + (i % 3));
+                        show.setTheaterId("theater" + (i % 2));
+                        show.setScreen("screen" + (i % 4));
+                        showtimes.add(show);
+                }
+                when(showtimeRepository.findAllByOrderByShowDateTimeAsc()).thenReturn(showtimes);
+                when(movieServiceClient.getMoviesByIds(anyList()))
+                                .thenReturn(List.of(Map.of("id", "movie1", "title", "Inception")));
+
+                List<ShowtimeResponse> result = showtimeService.getAllShowtimes();
+
+                assertEquals(200, result.size());
+                assertEquals("Inception", result.get(1).getMovie().getTitle());
+                assertNull(result.get(0).getMovie());
+                verify(movieServiceClient, times(1)).getMoviesByIds(anyList());
+                verify(theaterServiceClient, times(1)).getTheatersByIds(anyList());
+                verify(theaterServiceClient, times(1)).getScreensByIds(anyList());
+                verify(movieServiceClient, never()).getMovieById(anyString());
+        }
+
         @Test
         void testCreateShowtime_Success() {
                 ShowtimeRequest request = new ShowtimeRequest();
@@ -89,12 +140,12 @@ class ShowtimeServiceTest {
                 lenient().when(bookingServiceClient.initializeSeats(any())).thenReturn(Collections.emptyMap());
 
                 // Mock client responses for mapping
-                lenient().when(movieServiceClient.getMovieById("movie1"))
-                                .thenReturn(Map.of("id", "movie1", "title", "Inception"));
-                lenient().when(theaterServiceClient.getTheaterById("theater1"))
-                                .thenReturn(Map.of("id", "theater1", "name", "Grand Cinema"));
-                lenient().when(theaterServiceClient.getScreenById("screen1"))
-                                .thenReturn(Map.of("id", "screen1", "name", "Screen 1", "totalSeats", 100));
+                lenient().when(movieServiceClient.getMoviesByIds(List.of("movie1")))
+                                .thenReturn(List.of(Map.of("id", "movie1", "title", "Inception")));
+                lenient().when(theaterServiceClient.getTheatersByIds(List.of("theater1")))
+                                .thenReturn(List.of(Map.of("id", "theater1", "name", "Grand Cinema")));
+                lenient().when(theaterServiceClient.getScreensByIds(List.of("screen1")))
+                                .thenReturn(List.of(Map.of("id", "screen1", "name", "Screen 1", "totalSeats", 100)));
 
                 ShowtimeResponse result = showtimeService.createShowtime(request);
 
@@ -104,10 +155,45 @@ class ShowtimeServiceTest {
                 verify(bookingServiceClient).initializeSeats(any());
         }
 
+        @Test
+        void testToggleShowtimeStatus_CancellingStartsBulkCancellation() {
+                when(showtimeRepository.findById("1")).thenReturn(Optional.of(showtime));
+                when(showtimeRepository.save(any(Showtime.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+                ShowtimeResponse cancelled = showtimeService.toggleShowtimeStatus("1");
+                ShowtimeResponse reactivated = showtimeService.toggleShowtimeStatus("1");
+
+                assertEquals(Showtime.ShowStatus.CANCELLED, cancelled.getStatus());
+                assertEquals(Showtime.ShowStatus.ACTIVE, reactivated.getStatus());
+                verify(bookingServiceClient, times(1)).startBulkCancellation(
+                                argThat(request -> "1".equals(request.get("showtimeId"))), any());
+                assertFalse(showtime.getBookingsCancelPending());
+        }
+
+        @Test
+        void testToggleShowtimeStatus_FailedBulkCancellationIsRetried() {
+                when(jwtUtil.serviceAuthorization()).thenReturn("Bearer service");
+                when(showtimeRepository.findById("1")).thenReturn(Optional.of(showtime));
+                when(showtimeRepository.save(any(Showtime.class))).thenAnswer(invocation -> invocation.getArgument(0));
+                when(bookingServiceClient.startBulkCancellation(any(), eq("Bearer service")))
+                                .thenThrow(new RuntimeException("booking-service down"))
+                                .thenReturn(Map.of("jobId", "job1"));
+
+                showtimeService.toggleShowtimeStatus("1");
+                assertTrue(showtime.getBookingsCancelPending());
+
+                when(showtimeRepository.findByStatusAndBookingsCancelPendingTrue(Showtime.ShowStatus.CANCELLED))
+                                .thenReturn(List.of(showtime));
+                showtimeService.retryBookingCancellations();
+
+                assertFalse(showtime.getBookingsCancelPending());
+                verify(bookingServiceClient, times(2)).startBulkCancellation(
+                                argThat(request -> "1".equals(request.get("showtimeId"))), eq("Bearer service"));
+        }
+
         @Test
         void testCheckShowtimeConflict_NoConflict() {
-                when(showtimeRepository.findByScreenAndShowDateTimeBetween(anyString(), any(), any()))
-                                .thenReturn(Collections.emptyList());
+                when(showtimeRepository.findByScreenAndShowDateTimeAfter(eq("screen1"), any())).thenReturn(Collections.emptyList());
 
                 boolean conflict = showtimeService.checkShowtimeConflict("screen1", LocalDateTime.now(), null);
 
@@ -116,11 +202,25 @@ class ShowtimeServiceTest {
 
         @Test
         void testCheckShowtimeConflict_WithConflict() {
-                when(showtimeRepository.findByScreenAndShowDateTimeBetween(anyString(), any(), any()))
-                                .thenReturn(Collections.singletonList(showtime));
+                when(showtimeRepository.findByScreenAndShowDateTimeAfter(eq("screen1"), any())).thenReturn(Collections.singletonList(showtime));
 
                 boolean conflict = showtimeService.checkShowtimeConflict("screen1", LocalDateTime.now(), null);
 
                 assertTrue(conflict);
         }
+
+        @Test
+        void testUpdateAvailability_WritesOneBatch() {
+                when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[] { 1, 0 });
+
+                int updated = showtimeService.updateAvailability(List.of(
+                                Map.of("showtimeId", "1", "availableSeats", 42),
+                                Map.of("showtimeId", "gone", "availableSeats", -3),
+                                Map.of("showtimeId", "2")));
+
+                assertEquals(1, updated);
+                verify(jdbcTemplate, times(1)).batchUpdate(anyString(), argThat((List<Object[]> rows) ->
+                                rows.size() == 2 && Integer.valueOf(42).equals(rows.get(0)[0])
+                                                && Integer.valueOf(0).equals(rows.get(1)[0])));
+        }
 }
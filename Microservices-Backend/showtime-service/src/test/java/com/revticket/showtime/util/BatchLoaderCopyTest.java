@@ -0,0 +1,30 @@
+package com.revticket.showtime.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class BatchLoaderCopyTest {
+
+    private static final Path SHOWTIME_COPY = Path.of("src/main/java/com/revticket/showtime/util/BatchLoader.java");
+    private static final Path BOOKING_COPY =
+            Path.of("../booking-service/src/main/java/com/revticket/booking/util/BatchLoader.java");
+
+    @Test
+    void testMatchesBookingServiceCopy() throws IOException {
+        // Only the full checkout has both modules
+        assumeTrue(Files.exists(BOOKING_COPY));
+
+        assertEquals(withoutPackage(BOOKING_COPY), withoutPackage(SHOWTIME_COPY),
+                "BatchLoader differs from booking-service's copy; change both together");
+    }
+
+    private static String withoutPackage(Path source) throws IOException {
+        return Files.readString(source).replaceFirst("package [\\w.]+;", "");
+    }
+}
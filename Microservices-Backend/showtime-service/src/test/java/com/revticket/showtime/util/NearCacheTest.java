@@ -0,0 +1,81 @@
+package com.revticket.showtime.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NearCacheTest {
+
+    @Test
+    void testServesCachedValuesAndReloadsInvalidatedKeys() {
+        List<Set<String>> calls = new ArrayList<>();
+        NearCache<String, String> cache = new NearCache<>(100, 60_000L, 60_000L, Runnable::run);
+
+        Map<String, String> first = cache.getAll(List.of("a", "b"), ids -> {
+            calls.add(ids);
+            Map<String, String> values = new HashMap<>();
+            ids.forEach(id -> values.put(id, "v1-" + id));
+            return values;
+        });
+        Map<String, String> second = cache.getAll(List.of("a", "b"), ids -> {
+            calls.add(ids);
+            return Map.of();
+        });
+
+        assertEquals(first, second);
+        assertEquals(1, calls.size());
+        assertEquals(2, cache.hits());
+        assertEquals(2, cache.misses());
+
+        cache.invalidate("a");
+        Map<String, String> third = cache.getAll(List.of("a", "b"), ids -> {
+            calls.add(ids);
+            return Map.of("a", "v2-a");
+        });
+
+        assertEquals("v2-a", third.get("a"));
+        assertEquals("v1-b", third.get("b"));
+        assertEquals(Set.of("a"), calls.get(1));
+    }
+
+    @Test
+    void testServesStaleValuesWhenReloadFails() {
+        NearCache<String, String> cache = new NearCache<>(100, 0L, 0L, Runnable::run);
+        cache.getAll(List.of("a"), ids -> Map.of("a", "v1"));
+
+        Map<String, String> served = cache.getAll(List.of("a", "b"), ids -> {
+            throw new RuntimeException("down");
+        });
+
+        assertEquals(Map.of("a", "v1"), served);
+        assertEquals(1, cache.staleServes());
+
+        Map<String, String> reloaded = cache.getAll(List.of("a"), ids -> Map.of("a", "v2"));
+        assertEquals("v2", reloaded.get("a"));
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsedWhenFull() {
+        NearCache<String, String> cache = new NearCache<>(2, 60_000L, 60_000L, Runnable::run);
+        cache.getAll(List.of("a", "b"), ids -> Map.of("a", "v-a", "b", "v-b"));
+        // Reading "a" makes "b" the least recently used
+        cache.getAll(List.of("a"), ids -> Map.of());
+
+        cache.getAll(List.of("c"), ids -> Map.of("c", "v-c"));
+
+        List<Set<String>> reloads = new ArrayList<>();
+        Map<String, String> served = cache.getAll(List.of("a", "b"), ids -> {
+            reloads.add(ids);
+            return Map.of("b", "v2-b");
+        });
+        assertEquals(Map.of("a", "v-a", "b", "v2-b"), served);
+        assertEquals(List.of(Set.of("b")), reloads);
+        assertEquals(2, cache.size());
+    }
+}
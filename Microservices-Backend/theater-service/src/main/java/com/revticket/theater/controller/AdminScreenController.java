@@ -6,6 +6,7 @@ import com.revticket.theater.entity.SeatCategory;
 import com.revticket.theater.entity.SeatData;
 import com.revticket.theater.entity.Theater;
 import com.revticket.theater.repository.*;
+import com.revticket.theater.service.ReferenceChangePublisher;
 import com.revticket.theater.service.ScreenService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -36,6 +37,9 @@ public class AdminScreenController {
     @Autowired
     private TheaterRepository theaterRepository;
 
+    @Autowired
+    private ReferenceChangePublisher referenceChangePublisher;
+
     @GetMapping
     public ResponseEntity<List<ScreenResponse>> getScreens(
             @RequestParam(name = "theatreId", required = false) String theatreId,
@@ -73,6 +77,7 @@ public class AdminScreenController {
         config.setRows(screen.getRows() != null ? screen.getRows() : 10);
         config.setSeatsPerRow(screen.getSeatsPerRow() != null ? screen.getSeatsPerRow() : 15);
         config.setTotalSeats(screen.getTotalSeats());
+        config.setLayoutVersion(screen.currentLayoutVersion());
         config.setCategories(categories != null ? categories.stream()
                 .map(c -> new CategoryDTO(c.getId(), c.getName(), c.getPrice(), c.getColor()))
                 .collect(Collectors.toList()) : new java.util.ArrayList<>());
@@ -130,6 +135,7 @@ public class AdminScreenController {
             }
 
             request.setId(saved.getId());
+            request.setLayoutVersion(saved.currentLayoutVersion());
             return ResponseEntity.ok(request);
         } catch (Exception e) {
             throw new RuntimeException("Failed to create screen: " + e.getMessage(), e);
@@ -149,6 +155,7 @@ public class AdminScreenController {
             screen.setTotalSeats(request.getTotalSeats());
             screen.setRows(request.getRows());
             screen.setSeatsPerRow(request.getSeatsPerRow());
+            screen.setLayoutVersion(screen.currentLayoutVersion() + 1);
             Screen updated = screenRepository.save(screen);
 
             seatCategoryRepository.deleteByScreenId(id);
@@ -180,7 +187,9 @@ public class AdminScreenController {
                 }
             }
 
+            referenceChangePublisher.changed("SCREEN", updated.getId());
             request.setId(updated.getId());
+            request.setLayoutVersion(updated.getLayoutVersion());
             return ResponseEntity.ok(request);
         } catch (Exception e) {
             throw new RuntimeException("Failed to update screen: " + e.getMessage(), e);
@@ -193,6 +202,7 @@ public class AdminScreenController {
         seatCategoryRepository.deleteByScreenId(id);
         seatDataRepository.deleteByScreenId(id);
         screenRepository.deleteById(id);
+        referenceChangePublisher.changed("SCREEN", id);
         return ResponseEntity.noContent().build();
     }
 }
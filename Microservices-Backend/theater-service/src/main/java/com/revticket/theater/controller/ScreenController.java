@@ -7,10 +7,12 @@ import com.revticket.theater.entity.SeatData;
 import com.revticket.theater.repository.ScreenRepository;
 import com.revticket.theater.repository.SeatCategoryRepository;
 import com.revticket.theater.repository.SeatDataRepository;
+import com.revticket.theater.service.ScreenService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
@@ -26,6 +28,9 @@ public class ScreenController {
     @Autowired
     private SeatDataRepository seatDataRepository;
 
+    @Autowired
+    private ScreenService screenService;
+
     @GetMapping("/{id}")
     public ResponseEntity<ScreenResponse> getScreenById(@PathVariable String id) {
         Screen screen = screenRepository.findById(id)
@@ -42,6 +47,18 @@ public class ScreenController {
         return ResponseEntity.ok(resp);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<ScreenResponse>> getScreensByIds(@RequestBody List<String> ids) {
+        return ResponseEntity.ok(screenService.getScreensByIds(ids));
+    }
+
+    @GetMapping("/{id}/layout-version")
+    public ResponseEntity<Map<String, Object>> getLayoutVersion(@PathVariable String id) {
+        Screen screen = screenRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Screen not found"));
+        return ResponseEntity.ok(Map.of("id", screen.getId(), "layoutVersion", screen.currentLayoutVersion()));
+    }
+
     @GetMapping("/{id}/config")
     public ResponseEntity<ScreenConfigDTO> getScreenConfig(@PathVariable String id) {
         Screen screen = screenRepository.findById(id)
@@ -57,6 +74,7 @@ public class ScreenController {
         config.setRows(screen.getRows() != null ? screen.getRows() : 10);
         config.setSeatsPerRow(screen.getSeatsPerRow() != null ? screen.getSeatsPerRow() : 15);
         config.setTotalSeats(screen.getTotalSeats());
+        config.setLayoutVersion(screen.currentLayoutVersion());
         config.setCategories(categories != null ? categories.stream()
                 .map(c -> new CategoryDTO(c.getId(), c.getName(), c.getPrice(), c.getColor()))
                 .collect(Collectors.toList()) : new java.util.ArrayList<>());
@@ -35,6 +35,11 @@ public class TheaterController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<TheaterResponse>> getTheatersByIds(@RequestBody List<String> ids) {
+        return ResponseEntity.ok(theaterService.getTheatersByIds(ids));
+    }
+
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<TheaterResponse> createTheater(@Valid @RequestBody TheaterRequest request) {
@@ -16,6 +16,7 @@ public class ScreenConfigDTO {
     private Integer rows;
     private Integer seatsPerRow;
     private Integer totalSeats;
+    private Long layoutVersion;
     private List<CategoryDTO> categories;
     private List<SeatDataDTO> seatMap;
 }
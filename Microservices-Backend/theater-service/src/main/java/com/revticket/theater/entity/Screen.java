@@ -33,4 +33,12 @@ public class Screen {
 
     @Column(name = "is_active")
     private Boolean isActive = true;
+
+    // Bumped whenever categories or the seat map are replaced
+    @Column(name = "layout_version")
+    private Long layoutVersion = 1L;
+
+    public long currentLayoutVersion() {
+        return layoutVersion != null ? layoutVersion : 1L;
+    }
 }
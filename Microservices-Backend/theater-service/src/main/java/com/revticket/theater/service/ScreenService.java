@@ -9,7 +9,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,6 +36,25 @@ public class ScreenService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Screens for up to {@link TheaterService#MAX_BATCH_SIZE} ids in one
+     * query. Unknown ids are left out of the result.
+     */
+    @Transactional(readOnly = true)
+    public List<ScreenResponse> getScreensByIds(Collection<String> ids) {
+        Set<String> distinct = new LinkedHashSet<>(ids);
+        distinct.remove(null);
+        if (distinct.size() > TheaterService.MAX_BATCH_SIZE) {
+            throw new RuntimeException("At most " + TheaterService.MAX_BATCH_SIZE + " ids per batch");
+        }
+        if (distinct.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return screenRepository.findAllById(distinct).stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+    }
+
     @Transactional
     public ScreenResponse createScreen(String theaterId, String name, Integer totalSeats) {
         Theater theater = theaterRepository.findById(theaterId)
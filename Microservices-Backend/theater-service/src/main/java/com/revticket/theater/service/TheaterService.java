@@ -10,20 +10,29 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class TheaterService {
 
+    public static final int MAX_BATCH_SIZE = 500;
+
     @Autowired
     private TheaterRepository theaterRepository;
 
     @Autowired
     private ScreenRepository screenRepository;
 
+    @Autowired
+    private ReferenceChangePublisher referenceChangePublisher;
+
     @Transactional(readOnly = true)
     public List<TheaterResponse> getAllTheaters(boolean activeOnly) {
         List<Theater> theaters = activeOnly
@@ -49,6 +58,25 @@ public class TheaterService {
         return theaterRepository.findById(Objects.requireNonNullElse(id, "")).map(this::mapToResponse);
     }
 
+    /**
+     * Theaters for up to {@link #MAX_BATCH_SIZE} ids in one query. Unknown
+     * ids are left out of the result.
+     */
+    @Transactional(readOnly = true)
+    public List<TheaterResponse> getTheatersByIds(Collection<String> ids) {
+        Set<String> distinct = new LinkedHashSet<>(ids);
+        distinct.remove(null);
+        if (distinct.size() > MAX_BATCH_SIZE) {
+            throw new RuntimeException("At most " + MAX_BATCH_SIZE + " ids per batch");
+        }
+        if (distinct.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return theaterRepository.findAllById(distinct).stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+    }
+
     @Transactional
     public TheaterResponse createTheater(TheaterRequest request) {
         Theater theater = new Theater();
@@ -61,7 +89,9 @@ public class TheaterService {
         Theater theater = theaterRepository.findById(Objects.requireNonNullElse(id, ""))
                 .orElseThrow(() -> new RuntimeException("Theater not found"));
         applyRequest(theater, request);
-        return mapToResponse(theaterRepository.save(theater));
+        Theater saved = theaterRepository.save(theater);
+        referenceChangePublisher.changed("THEATER", saved.getId());
+        return mapToResponse(saved);
     }
 
     @Transactional
@@ -69,7 +99,9 @@ public class TheaterService {
         Theater theater = theaterRepository.findById(Objects.requireNonNullElse(id, ""))
                 .orElseThrow(() -> new RuntimeException("Theater not found"));
         theater.setIsActive(isActive);
-        return mapToResponse(theaterRepository.save(theater));
+        Theater saved = theaterRepository.save(theater);
+        referenceChangePublisher.changed("THEATER", saved.getId());
+        return mapToResponse(saved);
     }
 
     @Transactional
@@ -77,6 +109,7 @@ public class TheaterService {
         Theater theater = theaterRepository.findById(Objects.requireNonNullElse(id, ""))
                 .orElseThrow(() -> new RuntimeException("Theater not found"));
         theaterRepository.delete(theater);
+        referenceChangePublisher.changed("THEATER", theater.getId());
     }
 
     private void applyRequest(Theater theater, TheaterRequest request) {
@@ -0,0 +1,32 @@
+package com.revticket.theater.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class ReferenceChangePublisherCopyTest {
+
+    private static final Path THEATER_COPY =
+            Path.of("src/main/java/com/revticket/theater/service/ReferenceChangePublisher.java");
+    private static final Path MOVIE_COPY =
+            Path.of("../movie-service/src/main/java/com/revticket/movie/service/ReferenceChangePublisher.java");
+
+    @Test
+    void testMatchesMovieServiceCopy() throws IOException {
+        // Only the full checkout has both modules
+        assumeTrue(Files.exists(MOVIE_COPY));
+
+        assertEquals(normalized(MOVIE_COPY), normalized(THEATER_COPY),
+                "ReferenceChangePublisher differs from movie-service's copy; change both together");
+    }
+
+    // Each copy names its own service's packages
+    private static String normalized(Path source) throws IOException {
+        return Files.readString(source).replaceAll("com\\.revticket\\.(movie|theater)\\.", "com.revticket.");
+    }
+}
@@ -11,12 +11,14 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -26,6 +28,9 @@ class TheaterServiceTest {
     @Mock
     private TheaterRepository theaterRepository;
 
+    @Mock
+    private ReferenceChangePublisher referenceChangePublisher;
+
     @InjectMocks
     private TheaterService theaterService;
 
@@ -78,4 +83,15 @@ class TheaterServiceTest {
         assertEquals("Grand Cinema", result.getName());
         verify(theaterRepository).save(any(Theater.class));
     }
+
+    @Test
+    void testGetTheatersByIds_RejectsOversizedBatch() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i <= TheaterService.MAX_BATCH_SIZE; i++) {
+            ids.add("t" + i);
+        }
+
+        assertThrows(RuntimeException.class, () -> theaterService.getTheatersByIds(ids));
+        verify(theaterRepository, never()).findAllById(any());
+    }
 }